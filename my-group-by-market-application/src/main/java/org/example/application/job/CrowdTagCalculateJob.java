@@ -2,12 +2,11 @@ package org.example.application.job;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.application.service.tag.CrowdTagCalculationService;
 import org.example.domain.model.tag.repository.CrowdTagRepository;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-
 /**
  * 人群标签计算定时任务
  *
@@ -22,50 +21,28 @@ import java.util.List;
 public class CrowdTagCalculateJob {
 
     private final CrowdTagRepository crowdTagRepository;
+    private final CrowdTagCalculationService crowdTagCalculationService;
 
     /**
-     * 定时计算人群标签
+     * 定时重算全部人群标签
+     * 标签之间互不依赖，在计算服务的 ForkJoinPool 上并行执行
+     * 同时作为增量维护的全量对账：修正统计窗口滑出、哈希冲突误删、丢失的明细变更
      */
-    @Scheduled(cron = "0 0 2 * * ?")  // 每天凌晨2点执行
+    @Scheduled(cron = "${crowd-tag.reconcile-cron:0 0 2 * * ?}")  // 默认每天凌晨2点执行
     public void calculateCrowdTag() {
         log.info("【人群标签任务】开始计算人群标签");
+        long start = System.currentTimeMillis();
 
         try {
-            // 1. 执行标签计算逻辑
-            String tagId = "TAG001";
-            List<String> userIds = queryUsersMatchingTag(tagId);
-
-            if (userIds.isEmpty()) {
-                log.warn("【人群标签任务】未查询到符合条件的用户, tagId: {}", tagId);
-                return;
-        }
-
-            // 2. 全量替换标签用户（清除旧数据，写入新数据）
-            crowdTagRepository.replaceTagUsers(tagId, userIds);
-
-            log.info("【人群标签任务】人群标签计算完成, tagId: {}, count: {}",
-                    tagId, userIds.size());
+            int calculated = crowdTagCalculationService.calculateAll();
+            log.info("【人群标签任务】人群标签计算完成, count: {}, cost: {}ms",
+                    calculated, System.currentTimeMillis() - start);
 
         } catch (Exception e) {
             log.error("【人群标签任务】人群标签计算失败", e);
         }
     }
 
-    /**
-     * 查询符合标签条件的用户
-     *
-     * 实际业务逻辑：
-     * - 从用户表查询活跃用户
-     * - 从订单表查询消费金额 > 1000 的用户
-     * - 从会员表查询 VIP 用户
-     * 等等...
-     */
-    private List<String> queryUsersMatchingTag(String tagId) {
-        // TODO: 实现真实的标签计算逻辑
-        // 这里仅作示例
-        return List.of("user001", "user002", "user003", "user004", "user005");
-    }
-
     /**
      * 统计标签用户数量（示例）
      */
@@ -1,19 +1,17 @@
 package org.example.application.job;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.domain.model.notification.NotificationTask;
 import org.example.domain.model.notification.repository.NotificationTaskRepository;
 import org.example.domain.model.notification.service.NotificationService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import jakarta.annotation.PreDestroy;
-
+import java.lang.management.ManagementFactory;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 通知任务调度器
@@ -21,93 +19,105 @@ import java.util.concurrent.TimeUnit;
  * <p>
  * 职责：
  * <ul>
- * <li>定时扫描待处理的通知任务</li>
- * <li>异步执行通知（使用线程池）</li>
- * <li>处理失败重试逻辑</li>
+ * <li>以租约方式认领待处理的通知任务（多节点并行，互不重复）</li>
+ * <li>异步执行通知（非阻塞IO，调度线程不等待下游响应）</li>
+ * <li>处理失败重试逻辑（失败任务按 next_retry_time 重新入队）</li>
  * </ul>
  *
  * <p>
  * 调度策略：
  * <ul>
- * <li>每30秒执行一次</li>
- * <li>每次最多处理100个任务</li>
- * <li>使用固定线程池（5个线程）执行通知</li>
+ * <li>自适应轮询：本轮认领满批次说明仍有积压，立即继续认领；认领不满则等待下一个轮询周期</li>
+ * <li>本节点在途任务数受上限控制，避免下游变慢时无限制认领</li>
+ * <li>租约过期（节点宕机）的任务会被其他节点重新认领</li>
+ * <li>并发度由HTTP分发器按目标主机控制</li>
  * </ul>
  *
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class NotificationTaskScheduler {
 
     private final NotificationTaskRepository notificationTaskRepository;
     private final NotificationService notificationService;
 
-    /**
-     * 线程池：用于异步执行通知任务
-     * 固定5个线程，避免大量通知阻塞主流程
-     */
-    private final ExecutorService executorService = Executors.newFixedThreadPool(5,
-            r -> {
-                Thread thread = new Thread(r);
-                thread.setName("notification-task-" + System.currentTimeMillis());
-                thread.setDaemon(true);
-                return thread;
-            });
+    /** 本节点标识（租约持有者） */
+    private final String nodeId;
+
+    /** 本节点在途（已认领未完成）任务数 */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @Value("${notification.scheduler.batch-size:100}")
+    private int batchSize;
+
+    @Value("${notification.scheduler.max-in-flight:1000}")
+    private int maxInFlight;
+
+    @Value("${notification.scheduler.lease-seconds:120}")
+    private int leaseSeconds;
+
+    public NotificationTaskScheduler(NotificationTaskRepository notificationTaskRepository,
+            NotificationService notificationService) {
+        this.notificationTaskRepository = notificationTaskRepository;
+        this.notificationService = notificationService;
+        this.nodeId = ManagementFactory.getRuntimeMXBean().getName() + "-"
+                + UUID.randomUUID().toString().substring(0, 8);
+    }
 
     /**
-     * 定时扫描并执行待处理的通知任务
+     * 认领并执行可处理的通知任务
      *
      * <p>
-     * 执行周期：每30秒一次
-     * <p>
-     * 批量大小：每次最多100个任务
+     * 空闲时按轮询周期执行；有积压时在一次调度内连续认领，直到积压清空或本节点在途任务达到上限
      */
-    @Scheduled(fixedRate = 30000, initialDelay = 10000)
+    @Scheduled(fixedDelayString = "${notification.scheduler.poll-interval-ms:5000}", initialDelay = 10000)
     public void schedulePendingTasks() {
         try {
-            // 1. 查询待处理任务（最多100个）
-            List<NotificationTask> pendingTasks = notificationTaskRepository.findPendingTasks(100);
+            int dispatched = 0;
+            while (true) {
+                int capacity = Math.min(batchSize, maxInFlight - inFlight.get());
+                if (capacity <= 0) {
+                    log.info("【通知调度器】在途任务已达上限, inFlight={}", inFlight.get());
+                    break;
+                }
 
-            if (pendingTasks.isEmpty()) {
-                return;
-            }
+                // 1. 认领一批任务（SKIP LOCKED，多节点互不阻塞）
+                List<NotificationTask> claimed = notificationTaskRepository.claimPendingTasks(
+                        nodeId, capacity, leaseSeconds);
+                if (claimed.isEmpty()) {
+                    break;
+                }
 
-            log.info("【通知调度器】扫描到待处理任务, count={}", pendingTasks.size());
-
-            // 2. 异步执行通知任务
-            for (NotificationTask task : pendingTasks) {
-                executorService.submit(() -> {
-                    try {
-                        notificationService.execute(task);
-                    } catch (Exception e) {
-                        log.error("【通知调度器】任务执行异常, taskId={}", task.getTaskId(), e);
-                    }
-                });
+                // 2. 异步执行通知任务（不等待下游响应）
+                for (NotificationTask task : claimed) {
+                    dispatch(task);
+                }
+                dispatched += claimed.size();
+
+                // 3. 认领不满说明积压已清空，等待下一个轮询周期
+                if (claimed.size() < capacity) {
+                    break;
+                }
             }
 
-            log.info("【通知调度器】任务已提交到线程池, count={}", pendingTasks.size());
+            if (dispatched > 0) {
+                log.info("【通知调度器】任务已分发, nodeId={}, count={}, inFlight={}",
+                        nodeId, dispatched, inFlight.get());
+            }
 
         } catch (Exception e) {
             log.error("【通知调度器】调度失败", e);
         }
     }
 
-    /**
-     * 应用关闭时，优雅关闭线程池
-     */
-    @PreDestroy
-    public void shutdown() {
-        log.info("【通知调度器】开始关闭线程池");
-        executorService.shutdown();
+    private void dispatch(NotificationTask task) {
+        inFlight.incrementAndGet();
         try {
-            if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
-                executorService.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            executorService.shutdownNow();
-            Thread.currentThread().interrupt();
+            notificationService.executeAsync(task)
+                    .whenComplete((ignored, ex) -> inFlight.decrementAndGet());
+        } catch (Exception e) {
+            inFlight.decrementAndGet();
+            log.error("【通知调度器】任务执行异常, taskId={}", task.getTaskId(), e);
         }
-        log.info("【通知调度器】线程池已关闭");
     }
 }
@@ -0,0 +1,82 @@
+package org.example.application.job;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.domain.model.order.repository.OrderRepository;
+import org.example.domain.service.team.IOpenTeamIndex;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 可加入拼团索引后台重建任务
+ *
+ * <p>职责：
+ * <ul>
+ *   <li>查询发现索引标记过期或索引不存在时登记重建请求，立即返回，查询线程不加载数据库</li>
+ *   <li>后台单线程逐个活动处理：抢到重建锁后加载进行中拼团并重建（跨节点单飞）</li>
+ *   <li>同一活动排队中的请求只保留一个，重建期间查询继续读旧索引</li>
+ * </ul>
+ *
+ */
+@Slf4j
+@Component
+public class OpenTeamIndexRebuildJob {
+
+    private final IOpenTeamIndex openTeamIndex;
+    private final OrderRepository orderRepository;
+    private final ExecutorService rebuildExecutor;
+
+    /** 已登记、尚未处理完的活动 */
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+
+    public OpenTeamIndexRebuildJob(IOpenTeamIndex openTeamIndex, OrderRepository orderRepository) {
+        this.openTeamIndex = openTeamIndex;
+        this.orderRepository = orderRepository;
+        this.rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "open-team-index-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * 登记活动索引重建（非阻塞，重复登记合并）
+     *
+     * @param activityId 活动ID
+     */
+    public void requestRebuild(String activityId) {
+        if (!queued.add(activityId)) {
+            return;
+        }
+        try {
+            rebuildExecutor.execute(() -> rebuild(activityId));
+        } catch (RejectedExecutionException e) {
+            queued.remove(activityId);
+            log.warn("【拼团索引】重建任务已停止，忽略重建请求, activityId: {}", activityId);
+        }
+    }
+
+    private void rebuild(String activityId) {
+        try {
+            // 排队期间其他节点可能已重建完成
+            if (openTeamIndex.isBuilt(activityId) || !openTeamIndex.tryLockRebuild(activityId)) {
+                return;
+            }
+            openTeamIndex.rebuild(activityId, orderRepository.findPendingOrdersByActivity(activityId));
+        } catch (Exception e) {
+            log.error("【拼团索引】后台重建失败, activityId: {}", activityId, e);
+        } finally {
+            queued.remove(activityId);
+        }
+    }
+}
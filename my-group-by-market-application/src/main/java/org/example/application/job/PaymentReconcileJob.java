@@ -0,0 +1,182 @@
+package org.example.application.job;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.domain.gateway.PaymentGateway;
+import org.example.domain.model.trade.repository.TradeOrderRepository;
+import org.example.domain.model.trade.valueobject.TradeOrderStatusView;
+import org.example.domain.service.payment.IPaymentCallbackQueue;
+import org.example.domain.service.payment.IPaymentStatusProjection;
+import org.example.domain.service.payment.PaymentCallbackMessage;
+import org.example.domain.service.payment.PaymentStatusSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 支付对账轮询任务
+ *
+ * <p>职责：
+ * <ul>
+ *   <li>扫描创建已久仍为 CREATE、投影中没有终态的交易订单（回调丢失或延迟）</li>
+ *   <li>每个订单最多向支付宝查询一次（Redis 标记跨节点去重），按批并发查询</li>
+ *   <li>查询到终态时写入支付状态投影，并投递到支付回调队列，与异步通知走同一条结算链路（按 out_trade_no + trade_status 去重）</li>
+ * </ul>
+ *
+ * <p>调度策略：
+ * <ul>
+ *   <li>默认每30秒一次，只处理创建时间在 [now - lookback, now - stale) 区间内的订单</li>
+ *   <li>超出回看窗口的订单由超时退单流程处理</li>
+ *   <li>每轮最多取 batchSize 条，按 (create_time, trade_order_id) 键集跨轮续读；取不满一批或游标滑出窗口时从窗口起点重新开始，
+ *       积压超过一批时较新的订单也能轮到</li>
+ * </ul>
+ *
+ */
+@Slf4j
+@Component
+public class PaymentReconcileJob {
+
+    private final TradeOrderRepository tradeOrderRepository;
+    private final IPaymentStatusProjection paymentStatusProjection;
+    private final IPaymentCallbackQueue paymentCallbackQueue;
+    private final PaymentGateway paymentGateway;
+    private final ExecutorService queryExecutor;
+
+    @Value("${payment.reconcile.stale-seconds:60}")
+    private long staleSeconds;
+
+    @Value("${payment.reconcile.lookback-minutes:30}")
+    private long lookbackMinutes;
+
+    @Value("${payment.reconcile.batch-size:200}")
+    private int batchSize;
+
+    /** 键集游标：上一轮最后一行（null 表示从窗口起点开始），仅调度线程访问 */
+    private LocalDateTime cursorTime;
+    private String cursorId;
+
+    public PaymentReconcileJob(TradeOrderRepository tradeOrderRepository,
+            IPaymentStatusProjection paymentStatusProjection,
+            IPaymentCallbackQueue paymentCallbackQueue,
+            PaymentGateway paymentGateway,
+            @Value("${payment.reconcile.concurrency:8}") int concurrency) {
+        this.tradeOrderRepository = tradeOrderRepository;
+        this.paymentStatusProjection = paymentStatusProjection;
+        this.paymentCallbackQueue = paymentCallbackQueue;
+        this.paymentGateway = paymentGateway;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.queryExecutor = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread thread = new Thread(r, "payment-reconcile-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        queryExecutor.shutdownNow();
+    }
+
+    /**
+     * 扫描并对账迟迟未收到回调的订单
+     */
+    @Scheduled(fixedDelayString = "${payment.reconcile.interval-ms:30000}", initialDelay = 30000)
+    public void reconcile() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime windowStart = now.minusMinutes(lookbackMinutes);
+            if (cursorTime != null && cursorTime.isBefore(windowStart)) {
+                resetCursor();
+            }
+            List<TradeOrderStatusView> stale = tradeOrderRepository.findCreatedBetween(
+                    windowStart, now.minusSeconds(staleSeconds), cursorTime, cursorId, batchSize);
+            if (stale.size() < batchSize) {
+                resetCursor();
+            } else {
+                TradeOrderStatusView last = stale.get(stale.size() - 1);
+                cursorTime = last.createTime();
+                cursorId = last.tradeOrderId();
+            }
+            if (stale.isEmpty()) {
+                return;
+            }
+
+            // 1. 过滤：投影已是终态（回调已到）或已被查询过的订单
+            List<TradeOrderStatusView> candidates = new ArrayList<>();
+            for (TradeOrderStatusView view : stale) {
+                boolean settled = paymentStatusProjection.find(view.outTradeNo())
+                        .map(PaymentStatusSnapshot::isFinal)
+                        .orElse(false);
+                if (!settled && paymentStatusProjection.markReconciled(view.outTradeNo())) {
+                    candidates.add(view);
+                }
+            }
+            if (candidates.isEmpty()) {
+                return;
+            }
+
+            // 2. 并发查询支付宝（线程池大小即并发上限）
+            AtomicInteger recovered = new AtomicInteger();
+            CompletableFuture.allOf(candidates.stream()
+                    .map(view -> CompletableFuture.runAsync(() -> {
+                        if (reconcileOne(view)) {
+                            recovered.incrementAndGet();
+                        }
+                    }, queryExecutor))
+                    .toArray(CompletableFuture[]::new)).join();
+
+            log.info("【支付对账】完成, scanned: {}, queried: {}, recovered: {}",
+                    stale.size(), candidates.size(), recovered.get());
+        } catch (Exception e) {
+            log.error("【支付对账】任务执行失败", e);
+        }
+    }
+
+    private void resetCursor() {
+        cursorTime = null;
+        cursorId = null;
+    }
+
+    /**
+     * 查询单个订单并回灌投影/回调队列
+     *
+     * @return true=查询到终态
+     */
+    private boolean reconcileOne(TradeOrderStatusView view) {
+        String outTradeNo = view.outTradeNo();
+        try {
+            PaymentGateway.PaymentQueryResult result = paymentGateway.queryPayment(outTradeNo, null);
+            if (!result.success() || result.tradeStatus() == null) {
+                // 交易不存在（用户未打开收银台）等情况，等待回调或超时退单
+                return false;
+            }
+
+            PaymentStatusSnapshot snapshot = new PaymentStatusSnapshot(outTradeNo, result.tradeStatus(),
+                    result.tradeNo(), result.totalAmount(), PaymentStatusSnapshot.SOURCE_RECONCILE,
+                    System.currentTimeMillis());
+            paymentStatusProjection.update(snapshot);
+            if (!snapshot.isFinal()) {
+                return false;
+            }
+
+            PaymentCallbackMessage message = new PaymentCallbackMessage(outTradeNo, result.tradeStatus(),
+                    result.totalAmount(), view.orderId(), System.currentTimeMillis());
+            if (message.isPaid() || message.isClosed()) {
+                paymentCallbackQueue.enqueue(message);
+            }
+            log.info("【支付对账】补偿回调, outTradeNo: {}, tradeStatus: {}", outTradeNo, result.tradeStatus());
+            return true;
+        } catch (Exception e) {
+            log.error("【支付对账】查询失败, outTradeNo: {}", outTradeNo, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.application.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.domain.model.trade.repository.TradeOrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 交易订单归档任务
+ *
+ * <p>职责：
+ * <ul>
+ *   <li>把终态（SETTLED/TIMEOUT/REFUND）且创建超过保留天数的交易订单分批搬到归档表</li>
+ *   <li>热表只保留进行中和近期订单，锁单写入、超时/结算更新面对的索引和缓冲池工作集保持稳定</li>
+ * </ul>
+ *
+ * <p>调度策略：
+ * <ul>
+ *   <li>默认每10分钟一次，每批一个短事务，批间停顿，避免长事务和主从延迟</li>
+ *   <li>单次最多执行 max-batches 批，积压由后续调度继续消化</li>
+ * </ul>
+ *
+ * <p>注意事项：
+ * <ul>
+ *   <li>多节点同时执行是安全的：复制时再次校验终态并忽略重复，删除只针对归档表中已存在的行</li>
+ *   <li>用户订单列表、管理后台列表/导出/详情合并查询归档表；out_trade_no 幂等校验只覆盖保留期内的订单</li>
+ * </ul>
+ *
+ */
+@Slf4j
+@Component
+public class TradeOrderArchiveJob {
+
+    private final TradeOrderRepository tradeOrderRepository;
+
+    @Value("${trade.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${trade.archive.retention-days:90}")
+    private long retentionDays;
+
+    @Value("${trade.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${trade.archive.max-batches:200}")
+    private int maxBatches;
+
+    @Value("${trade.archive.batch-pause-ms:100}")
+    private long batchPauseMs;
+
+    public TradeOrderArchiveJob(TradeOrderRepository tradeOrderRepository) {
+        this.tradeOrderRepository = tradeOrderRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${trade.archive.interval-ms:600000}", initialDelay = 60000)
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime createdBefore = LocalDateTime.now().minusDays(retentionDays);
+        long total = 0;
+        int batches = 0;
+        try {
+            while (batches < maxBatches) {
+                int archived = tradeOrderRepository.archiveFinalOrders(createdBefore, batchSize);
+                batches++;
+                total += archived;
+                if (archived < batchSize) {
+                    break;
+                }
+                Thread.sleep(batchPauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("【交易订单归档】归档失败, createdBefore: {}, archived: {}", createdBefore, total, e);
+            return;
+        }
+        if (total > 0) {
+            log.info("【交易订单归档】本轮完成, createdBefore: {}, batches: {}, archived: {}",
+                    createdBefore, batches, total);
+        }
+    }
+}
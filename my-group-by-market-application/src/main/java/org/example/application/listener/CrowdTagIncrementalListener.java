@@ -0,0 +1,58 @@
+package org.example.application.listener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.application.service.tag.CrowdTagIncrementalService;
+import org.example.domain.model.trade.event.TradeOrderPaidEvent;
+import org.example.domain.model.trade.event.TradeOrderRefundedEvent;
+import org.example.domain.service.event.IDomainEventHandler;
+import org.example.domain.shared.DomainEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 人群标签增量维护监听器
+ *
+ * <p>
+ * 交易支付/退单事务提交后由领域事件管道批量交付，批内同一用户只刷新一次；失败不影响交易主流程
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CrowdTagIncrementalListener implements IDomainEventHandler {
+
+    private final CrowdTagIncrementalService crowdTagIncrementalService;
+
+    @Override
+    public String name() {
+        return "crowd-tag-incremental";
+    }
+
+    @Override
+    public boolean supports(DomainEvent event) {
+        return event instanceof TradeOrderPaidEvent || event instanceof TradeOrderRefundedEvent;
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        Set<String> userIds = new LinkedHashSet<>();
+        for (DomainEvent event : events) {
+            if (event instanceof TradeOrderPaidEvent paid) {
+                userIds.add(paid.getUserId());
+            } else if (event instanceof TradeOrderRefundedEvent refunded) {
+                userIds.add(refunded.getUserId());
+            }
+        }
+
+        for (String userId : userIds) {
+            try {
+                crowdTagIncrementalService.onTradeChanged(userId);
+            } catch (Exception e) {
+                log.error("【人群标签增量】刷新失败, userId: {}", userId, e);
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.application.result.OrderMemberResult;
 import org.example.application.result.OrderProgressResult;
+import org.example.common.datasource.ReadOnly;
 import org.example.common.exception.BizException;
 import org.example.domain.model.activity.Activity;
 import org.example.domain.model.activity.repository.ActivityRepository;
@@ -41,6 +42,7 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 @Service
+@ReadOnly
 @RequiredArgsConstructor
 public class OrderProgressService {
 
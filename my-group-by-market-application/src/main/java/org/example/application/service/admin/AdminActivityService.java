@@ -2,6 +2,7 @@ package org.example.application.service.admin;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.common.datasource.ReadOnly;
 import org.example.common.exception.BizException;
 import org.example.common.model.PageResult;
 import org.example.domain.model.activity.Activity;
@@ -40,6 +41,7 @@ public class AdminActivityService {
     /**
      * 活动列表
      */
+    @ReadOnly
     public PageResult<Activity> listActivities(int page, int size) {
         log.info("【AdminActivity】查询活动列表, page: {}, size: {}", page, size);
         return activityRepository.findByPage(page, size);
@@ -48,6 +50,7 @@ public class AdminActivityService {
     /**
      * 获取活动详情
      */
+    @ReadOnly
     public Activity getActivityDetail(String activityId) {
         log.info("【AdminActivity】查询活动详情, activityId: {}", activityId);
         return activityRepository.findById(activityId)
@@ -161,6 +164,7 @@ public class AdminActivityService {
     /**
      * 获取折扣详情
      */
+    @ReadOnly
     public Discount getDiscount(String discountId) {
         log.info("【AdminActivity】查询折扣详情, discountId: {}", discountId);
         Discount discount = activityRepository.queryDiscountById(discountId);
@@ -264,6 +268,7 @@ public class AdminActivityService {
     /**
      * 查询活动商品关联
      */
+    @ReadOnly
     public ActivityGoods getActivityGoods(String activityId, String spuId,
             String source, String channel) {
         return activityRepository.queryActivityGoods(activityId, spuId, source, channel);
@@ -272,6 +277,7 @@ public class AdminActivityService {
     /**
      * 查询活动关联的所有商品列表
      */
+    @ReadOnly
     public List<ActivityGoods> listActivityGoods(String activityId) {
         log.info("【AdminActivity】查询活动关联商品列表, activityId: {}", activityId);
         return activityRepository.listActivityGoods(activityId);
@@ -311,6 +317,7 @@ public class AdminActivityService {
     /**
      * 获取所有折扣列表（用于下拉选择）
      */
+    @ReadOnly
     public List<Discount> listAllDiscounts() {
         log.info("【AdminActivity】查询所有折扣列表");
         return discountRepository.findAll();
@@ -319,6 +326,7 @@ public class AdminActivityService {
     /**
      * 分页查询折扣列表
      */
+    @ReadOnly
     public PageResult<Discount> listDiscounts(int page, int size) {
         log.info("【AdminActivity】分页查询折扣列表, page: {}, size: {}", page, size);
         return discountRepository.findAll(page, size);
@@ -328,6 +336,7 @@ public class AdminActivityService {
      * 获取所有 SPU 列表（用于下拉选择）
      * 注：管理后台应显示所有 SPU，包括下架的，以便为即将上架的商品创建活动
      */
+    @ReadOnly
     public List<Spu> listAllOnSaleSpu() {
         log.info("【AdminActivity】查询所有SPU列表（包含下架）");
         PageResult<Spu> pageResult = spuRepository.findAll(1, 1000); // 获取前1000个
@@ -337,6 +346,7 @@ public class AdminActivityService {
     /**
      * 分页查询 SPU 列表
      */
+    @ReadOnly
     public PageResult<Spu> listSpuPage(int page, int size) {
         log.info("【AdminActivity】分页查询SPU列表, page: {}, size: {}", page, size);
         return spuRepository.findAll(page, size);
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.example.application.assembler.OrderResultAssembler;
 import org.example.application.service.admin.result.OrderResult;
 import org.example.application.service.admin.result.TradeOrderResult;
+import org.example.common.datasource.ReadOnly;
 import org.example.common.exception.BizException;
 import org.example.domain.model.order.Order;
 import org.example.domain.model.order.repository.OrderRepository;
@@ -17,6 +18,7 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * 订单管理服务
@@ -24,6 +26,7 @@ import java.util.Optional;
  */
 @Slf4j
 @Service
+@ReadOnly
 @RequiredArgsConstructor
 public class AdminOrderService {
 
@@ -54,7 +57,7 @@ public class AdminOrderService {
      */
     public TradeOrderResult getTradeOrderDetail(String tradeOrderId) {
         log.info("【AdminOrder】查询交易订单详情, tradeOrderId: {}", tradeOrderId);
-        TradeOrder tradeOrder = tradeOrderRepository.findByTradeOrderId(tradeOrderId)
+        TradeOrder tradeOrder = tradeOrderRepository.findByTradeOrderIdIncludingArchive(tradeOrderId)
                 .orElseThrow(() -> new BizException("交易订单不存在"));
         return orderResultAssembler.toResult(tradeOrder);
     }
@@ -64,7 +67,7 @@ public class AdminOrderService {
      */
     public List<TradeOrderResult> listTradeOrdersByOrderId(String orderId) {
         log.info("【AdminOrder】查询拼团订单的交易明细, orderId: {}", orderId);
-        List<TradeOrder> tradeOrders = tradeOrderRepository.findByOrderId(orderId);
+        List<TradeOrder> tradeOrders = tradeOrderRepository.findByOrderIdIncludingArchive(orderId);
         return orderResultAssembler.toTradeOrderResultList(tradeOrders);
     }
 
@@ -89,4 +92,21 @@ public class AdminOrderService {
         List<TradeOrderResult> results = orderResultAssembler.toTradeOrderResultList(pageResult.getList());
         return new PageResult<>(results, pageResult.getTotal(), page, size);
     }
+
+    /**
+     * 流式导出交易订单
+     *
+     * <p>
+     * 逐行回调，不在内存中累积结果；total 与分页查询不同，为精确行数
+     *
+     * @param consumer 逐行回调（如写入 HTTP 响应）
+     * @return 导出行数
+     */
+    public long exportTradeOrders(String keyword, String status, LocalDateTime startDate, LocalDateTime endDate,
+            Consumer<TradeOrderResult> consumer) {
+        log.info("【AdminOrder】导出交易订单, keyword: {}, status: {}, startDate: {}, endDate: {}",
+                keyword, status, startDate, endDate);
+        return tradeOrderRepository.forEachForExport(keyword, status, startDate, endDate,
+                tradeOrder -> consumer.accept(orderResultAssembler.toResult(tradeOrder)));
+    }
 }
@@ -7,6 +7,7 @@ import org.example.application.service.admin.result.DashboardOverviewResult;
 import org.example.application.service.admin.result.GoodsStatisticsResult;
 import org.example.application.service.admin.result.SkuStatisticsInfo;
 import org.example.application.service.admin.result.UserStatisticsResult;
+import org.example.common.datasource.ReadOnly;
 import org.example.domain.model.goods.Sku;
 import org.example.domain.model.goods.Spu;
 import org.example.domain.model.goods.repository.SkuRepository;
@@ -27,6 +28,7 @@ import java.util.Map;
  */
 @Slf4j
 @Service
+@ReadOnly
 @RequiredArgsConstructor
 public class AdminStatisticsService {
 
@@ -2,7 +2,9 @@ package org.example.application.service.admin;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.common.datasource.ReadOnly;
 import org.example.common.exception.BizException;
+import org.example.application.service.tag.CrowdTagCalculationService;
 import org.example.common.model.PageResult;
 import org.example.domain.model.tag.CrowdTag;
 import org.example.domain.model.tag.repository.CrowdTagRepository;
@@ -24,10 +26,12 @@ public class AdminTagService {
 
     private final CrowdTagRepository crowdTagRepository;
     private final CrowdTagValidationService validationService;
+    private final CrowdTagCalculationService crowdTagCalculationService;
 
     /**
      * 分页查询标签列表
      */
+    @ReadOnly
     public PageResult<CrowdTag> listTags(int page, int size, String keyword, String status) {
         log.info("【AdminTagService】listTags called with page={}, size={}, keyword={}, status={}", page, size, keyword,
                 status);
@@ -44,6 +48,7 @@ public class AdminTagService {
     /**
      * 获取标签详情
      */
+    @ReadOnly
     public CrowdTag getTag(String tagId) {
         return crowdTagRepository.findById(tagId)
                 .orElseThrow(() -> new BizException(String.format("标签不存在: %s", tagId)));
@@ -102,16 +107,11 @@ public class AdminTagService {
 
     /**
      * 触发标签计算
+     * 异步执行，标签立即进入 CALCULATING 状态，计算结束后变为 COMPLETED/FAILED
      */
     public void calculateTag(String tagId) {
         CrowdTag tag = getTag(tagId);
-
-        // 这里只是简单模拟触发计算，实际应该发送消息到MQ或调用计算服务
-        // 为了演示，直接更新状态为计算中
-        tag.setStatus(TagStatus.CALCULATING);
-        crowdTagRepository.save(tag);
-
-        // TODO: 发送异步计算任务
+        crowdTagCalculationService.submit(tag);
         log.info("【AdminTagService】提交标签计算任务, tagId: {}", tagId);
     }
 }
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.example.application.assembler.UserResultAssembler;
 import org.example.application.service.admin.cmd.CreateAdminCmd;
 import org.example.application.service.admin.result.UserDetailResult;
+import org.example.common.datasource.ReadOnly;
 import org.example.common.exception.BizException;
 import org.example.domain.model.user.User;
 import org.example.domain.model.user.repository.UserRepository;
@@ -76,6 +77,7 @@ public class AdminUserService {
     /**
      * 获取用户列表
      */
+    @ReadOnly
     public org.example.common.model.PageResult<UserDetailResult> listUsers(int page, int size) {
         log.info("【AdminUser】查询用户列表, page: {}, size: {}", page, size);
         org.example.common.model.PageResult<User> pageResult = userRepository.findByPage(page, size);
@@ -87,6 +89,7 @@ public class AdminUserService {
     /**
      * 获取用户详情
      */
+    @ReadOnly
     public UserDetailResult getUserDetail(String userId) {
         log.info("【AdminUser】查询用户详情, userId: {}", userId);
         User user = userRepository.findByUserId(userId)
@@ -93,7 +93,7 @@ public class AuthService {
         }
 
         // 3. 创建用户
-        String userId = "U-" + idGenerator.nextId();
+        String userId = idGenerator.nextId("U-");
         String encodedPassword = passwordEncoderService.encode(cmd.getPassword());
 
         User user = User.createUser(userId, cmd.getUsername(), encodedPassword, cmd.getNickname());
@@ -1,9 +1,12 @@
 package org.example.application.service.customer;
 
 import lombok.extern.slf4j.Slf4j;
+import org.example.application.job.OpenTeamIndexRebuildJob;
 import org.example.application.service.customer.query.PriceTrialQuery;
 import org.example.application.service.customer.result.*;
+import org.example.common.datasource.ReadOnly;
 import org.example.common.exception.BizException;
+import org.example.common.model.PageResult;
 import org.example.domain.model.activity.Activity;
 import org.example.domain.model.activity.Discount;
 import org.example.domain.model.activity.repository.ActivityRepository;
@@ -13,7 +16,10 @@ import org.example.domain.model.goods.repository.SkuRepository;
 import org.example.domain.model.goods.repository.SpuRepository;
 import org.example.domain.model.order.Order;
 import org.example.domain.model.order.repository.OrderRepository;
+import org.example.domain.model.order.valueobject.OrderStatus;
 import org.example.domain.service.discount.DiscountCalculator;
+import org.example.domain.service.team.IOpenTeamIndex;
+import org.example.domain.service.team.OpenTeamPage;
 import org.example.domain.service.validation.CrowdTagValidationResult;
 import org.example.domain.service.validation.CrowdTagValidationService;
 import org.example.domain.service.validation.FlowControlService;
@@ -26,7 +32,10 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * C端商品服务
@@ -40,6 +49,7 @@ import java.util.Optional;
  */
 @Slf4j
 @Service
+@ReadOnly
 public class CustomerGoodsService {
 
     private final SkuRepository skuRepository;
@@ -52,6 +62,16 @@ public class CustomerGoodsService {
     private final FlowControlService flowControlService;
     private final CrowdTagValidationService crowdTagValidationService;
 
+    // 可加入拼团索引及其后台重建
+    private final IOpenTeamIndex openTeamIndex;
+    private final OpenTeamIndexRebuildJob openTeamIndexRebuildJob;
+
+    /** 拼团队伍列表默认返回的队伍数 */
+    private static final int DEFAULT_TEAM_PAGE_SIZE = 20;
+
+    /** 单页最多返回的队伍数 */
+    private static final int MAX_TEAM_PAGE_SIZE = 100;
+
     public CustomerGoodsService(
             SkuRepository skuRepository,
             SpuRepository spuRepository,
@@ -59,7 +79,9 @@ public class CustomerGoodsService {
             OrderRepository orderRepository,
             @Qualifier("discountCalculatorMap") Map<String, DiscountCalculator> discountCalculatorMap,
             FlowControlService flowControlService,
-            CrowdTagValidationService crowdTagValidationService) {
+            CrowdTagValidationService crowdTagValidationService,
+            IOpenTeamIndex openTeamIndex,
+            OpenTeamIndexRebuildJob openTeamIndexRebuildJob) {
         this.skuRepository = skuRepository;
         this.spuRepository = spuRepository;
         this.activityRepository = activityRepository;
@@ -67,6 +89,8 @@ public class CustomerGoodsService {
         this.discountCalculatorMap = discountCalculatorMap;
         this.flowControlService = flowControlService;
         this.crowdTagValidationService = crowdTagValidationService;
+        this.openTeamIndex = openTeamIndex;
+        this.openTeamIndexRebuildJob = openTeamIndexRebuildJob;
     }
 
     /**
@@ -297,10 +321,29 @@ public class CustomerGoodsService {
      * 例如：购买 iPhone 15 Pro 256GB 黑色 和 512GB 白色 的用户可以一起成团。
      *
      * @param spuId 商品SPU ID
-     * @return 拼团队伍列表（SPU维度）
+     * @return 最适合加入的前 {@value #DEFAULT_TEAM_PAGE_SIZE} 个拼团队伍（SPU维度）
      */
     public List<TeamListResult> listGoodsTeams(String spuId) {
-        log.info("【CustomerGoodsService】查询拼团队伍，spuId: {}", spuId);
+        return pageBestTeams(spuId, 1, DEFAULT_TEAM_PAGE_SIZE).getList();
+    }
+
+    /**
+     * 分页查询最适合加入的拼团队伍
+     *
+     * <p>
+     * 从可加入拼团索引（按锁单比例降序、截止时间升序）读取一页 orderId，再用一次 IN 查询加载本页拼团，
+     * 不扫描 order 表；索引标记过期时登记后台重建（{@link OpenTeamIndexRebuildJob}），本次继续读旧索引，
+     * 首次建立期间（旧索引不存在）降级为按活动分页查询数据库
+     *
+     * @param spuId 商品SPU ID
+     * @param page  页码（从1开始）
+     * @param size  每页数量
+     * @return 拼团队伍分页结果
+     */
+    public PageResult<TeamListResult> pageBestTeams(String spuId, int page, int size) {
+        int pageNo = Math.max(1, page);
+        int pageSize = Math.min(Math.max(1, size), MAX_TEAM_PAGE_SIZE);
+        log.info("【CustomerGoodsService】查询拼团队伍，spuId: {}, page: {}, size: {}", spuId, pageNo, pageSize);
 
         // 1. 确认 SPU 存在
         Spu spu = spuRepository.findBySpuId(spuId)
@@ -310,19 +353,52 @@ public class CustomerGoodsService {
         Optional<Activity> activityOpt = activityRepository.findActiveBySpuId(spuId);
         if (activityOpt.isEmpty()) {
             log.info("【CustomerGoodsService】SPU 无活动，返回空列表，spuId: {}", spuId);
-            return new ArrayList<>();
+            return PageResult.of(new ArrayList<>(), 0, pageNo, pageSize);
         }
 
-        Activity activity = activityOpt.get();
+        String activityId = activityOpt.get().getActivityId();
+
+        // 3. 从索引读取一页拼团（索引过期或不存在时登记后台重建；过期的旧索引照常读取，不存在时查数据库）
+        int offset = (pageNo - 1) * pageSize;
+        OpenTeamPage teamPage;
+        try {
+            if (!openTeamIndex.isBuilt(activityId)) {
+                openTeamIndexRebuildJob.requestRebuild(activityId);
+                if (!openTeamIndex.exists(activityId)) {
+                    return toTeamPage(spu, orderRepository.findJoinablePendingByActivity(activityId, offset, pageSize),
+                            orderRepository.countJoinablePendingByActivity(activityId), pageNo, pageSize);
+                }
+            }
+            teamPage = openTeamIndex.page(activityId, offset, pageSize);
+        } catch (Exception e) {
+            log.error("【CustomerGoodsService】拼团索引不可用，返回空列表, activityId: {}", activityId, e);
+            return PageResult.of(new ArrayList<>(), 0, pageNo, pageSize);
+        }
+
+        // 4. 一次 IN 查询加载本页拼团，按索引顺序排列
+        Map<String, Order> orderMap = orderRepository.findByIds(teamPage.orderIds()).stream()
+                .collect(Collectors.toMap(Order::getOrderId, Function.identity()));
+        List<Order> orders = teamPage.orderIds().stream()
+                .map(orderMap::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return toTeamPage(spu, orders, teamPage.total(), pageNo, pageSize);
+    }
 
-        // 3. 查询进行中的拼团订单
-        List<Order> orders = orderRepository.findPendingOrdersByActivity(activity.getActivityId());
+    /**
+     * 将拼团转换为结果（添加 spuId 和 spuName），跳过已不在进行中的拼团
+     */
+    private PageResult<TeamListResult> toTeamPage(Spu spu, List<Order> orders, long total, int pageNo,
+            int pageSize) {
 
-        // 4. 转换为结果（添加 spuId 和 spuName）
-        List<TeamListResult> results = new ArrayList<>();
+        List<TeamListResult> results = new ArrayList<>(orders.size());
         LocalDateTime now = LocalDateTime.now();
 
         for (Order order : orders) {
+            if (order.getStatus() != OrderStatus.PENDING) {
+                continue;
+            }
+
             TeamListResult teamResult = new TeamListResult();
             teamResult.setOrderId(order.getOrderId());
             teamResult.setSpuId(spu.getSpuId()); // 新增
@@ -345,9 +421,9 @@ public class CustomerGoodsService {
             results.add(teamResult);
         }
 
-        log.info("【CustomerGoodsService】查询拼团队伍完成，spuId: {}, 共{}个拼团",
-                spuId, results.size());
-        return results;
+        log.info("【CustomerGoodsService】查询拼团队伍完成，spuId: {}, 本页{}个拼团, 共{}个",
+                spu.getSpuId(), results.size(), total);
+        return PageResult.of(results, total, pageNo, pageSize);
     }
 
     /**
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.application.service.customer.result.UserOrderResult;
 import org.example.application.service.customer.result.UserProfileResult;
+import org.example.common.datasource.ReadOnly;
 import org.example.common.exception.BizException;
 import org.example.domain.model.activity.Activity;
 import org.example.domain.model.activity.repository.ActivityRepository;
@@ -28,6 +29,7 @@ import java.util.List;
  */
 @Slf4j
 @Service
+@ReadOnly
 @RequiredArgsConstructor
 public class UserCenterService {
 
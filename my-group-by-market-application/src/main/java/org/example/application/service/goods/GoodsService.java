@@ -6,6 +6,7 @@ import org.example.application.assembler.GoodsResultAssembler;
 import org.example.application.service.goods.cmd.*;
 import org.example.application.service.goods.result.SkuResult;
 import org.example.application.service.goods.result.SpuResult;
+import org.example.common.datasource.ReadOnly;
 import org.example.common.exception.BizException;
 import org.example.common.model.PageResult;
 import org.example.domain.model.goods.Sku;
@@ -42,7 +43,7 @@ public class GoodsService {
     public SpuResult createSpu(CreateSpuCmd cmd) {
         log.info("【GoodsService】创建SPU, spuName: {}", cmd.getSpuName());
 
-        String spuId = "SPU-" + idGenerator.nextId();
+        String spuId = idGenerator.nextId("SPU-");
         Spu spu = Spu.create(spuId, cmd.getSpuName(), cmd.getCategoryId(), cmd.getBrand());
         spu.setDescription(cmd.getDescription());
         spu.setMainImage(cmd.getMainImage());
@@ -67,7 +68,7 @@ public class GoodsService {
                     .orElseThrow(() -> new BizException("SPU不存在"));
         }
 
-        String skuId = "SKU-" + idGenerator.nextId();
+        String skuId = idGenerator.nextId("SKU-");
         Sku sku = Sku.create(skuId, cmd.getSpuId(), cmd.getGoodsName(),
                 cmd.getOriginalPrice(), cmd.getStock());
         sku.setSpecInfo(cmd.getSpecInfo());
@@ -174,6 +175,7 @@ public class GoodsService {
     /**
      * 查询 SPU
      */
+    @ReadOnly
     public SpuResult getSpuDetail(String spuId) {
         Spu spu = spuRepository.findBySpuId(spuId)
                 .orElseThrow(() -> new BizException("SPU不存在"));
@@ -186,6 +188,7 @@ public class GoodsService {
     /**
      * 查询 SKU
      */
+    @ReadOnly
     public SkuResult getSkuDetail(String skuId) {
         Sku sku = skuRepository.findBySkuId(skuId)
                 .orElseThrow(() -> new BizException("SKU不存在"));
@@ -195,6 +198,7 @@ public class GoodsService {
     /**
      * 查询所有在售 SPU
      */
+    @ReadOnly
     public List<SpuResult> listOnSaleSpus() {
         List<Spu> spus = spuRepository.findAllOnSale();
         return goodsResultAssembler.toSpuResultList(spus);
@@ -203,6 +207,7 @@ public class GoodsService {
     /**
      * 查询所有在售 SKU
      */
+    @ReadOnly
     public List<SkuResult> listOnSaleSkus() {
         List<Sku> skus = skuRepository.findAllOnSale();
         return goodsResultAssembler.toSkuResultList(skus);
@@ -211,6 +216,7 @@ public class GoodsService {
     /**
      * 分页查询 SPU
      */
+    @ReadOnly
     public PageResult<SpuResult> listSpus(int page, int size) {
         PageResult<Spu> pageResult = spuRepository.findAll(page, size);
 
@@ -245,6 +251,7 @@ public class GoodsService {
     /**
      * 分页查询 SKU
      */
+    @ReadOnly
     public List<SkuResult> listSkus(int page, int size) {
         List<Sku> skus = skuRepository.findAll(page, size);
         return goodsResultAssembler.toSkuResultList(skus);
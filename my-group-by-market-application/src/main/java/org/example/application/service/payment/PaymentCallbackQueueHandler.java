@@ -0,0 +1,40 @@
+package org.example.application.service.payment;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.domain.service.payment.IPaymentCallbackHandler;
+import org.example.domain.service.payment.PaymentCallbackMessage;
+import org.springframework.stereotype.Component;
+
+/**
+ * 支付回调队列处理器
+ *
+ * <p>
+ * 职责：
+ * <ul>
+ * <li>由支付回调队列的分区消费者逐条调用</li>
+ * <li>按交易状态分派到 PaymentCallbackApplicationService（事务边界在应用服务内）</li>
+ * <li>应用服务本身幂等（已支付/已关闭静默返回），重投安全</li>
+ * </ul>
+ *
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentCallbackQueueHandler implements IPaymentCallbackHandler {
+
+    private final PaymentCallbackApplicationService paymentCallbackApplicationService;
+
+    @Override
+    public void handle(PaymentCallbackMessage message) {
+        if (message.isPaid()) {
+            paymentCallbackApplicationService.handlePaymentSuccess(message.outTradeNo(), message.totalAmount());
+        } else if (message.isClosed()) {
+            log.info("【支付回调队列】交易关闭，触发退单流程, outTradeNo={}", message.outTradeNo());
+            paymentCallbackApplicationService.handlePaymentFailure(message.outTradeNo());
+        } else {
+            log.warn("【支付回调队列】忽略未知交易状态, outTradeNo={}, tradeStatus={}",
+                    message.outTradeNo(), message.tradeStatus());
+        }
+    }
+}
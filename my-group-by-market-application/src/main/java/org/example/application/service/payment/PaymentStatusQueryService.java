@@ -0,0 +1,134 @@
+package org.example.application.service.payment;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.application.service.payment.result.PaymentQueryResultObj;
+import org.example.common.exception.BizException;
+import org.example.domain.model.trade.repository.TradeOrderRepository;
+import org.example.domain.model.trade.valueobject.TradeOrderStatusView;
+import org.example.domain.model.trade.valueobject.TradeStatus;
+import org.example.domain.service.payment.IPaymentStatusProjection;
+import org.example.domain.service.payment.PaymentCallbackMessage;
+import org.example.domain.service.payment.PaymentStatusSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 支付状态查询服务
+ *
+ * <p>
+ * 职责：
+ * <ul>
+ * <li>从本地支付状态投影读取支付状态，不调用支付宝</li>
+ * <li>投影缺失时由交易订单状态推导（PAID/SETTLED=成功，TIMEOUT/REFUND=关闭，CREATE=等待支付）</li>
+ * <li>长轮询：状态未到终态时挂起等待，投影变更（回调/对账写入）后立即返回</li>
+ * <li>唤醒后的重新读取在专用线程池执行，不占用公共 ForkJoinPool（其中的 Redis/数据库阻塞会拖慢并行流等其他用户）</li>
+ * </ul>
+ *
+ */
+@Slf4j
+@Service
+public class PaymentStatusQueryService {
+
+    private final IPaymentStatusProjection paymentStatusProjection;
+    private final TradeOrderRepository tradeOrderRepository;
+    private final ExecutorService pollExecutor;
+
+    public PaymentStatusQueryService(IPaymentStatusProjection paymentStatusProjection,
+            TradeOrderRepository tradeOrderRepository,
+            @Value("${payment.long-poll.threads:8}") int threads) {
+        this.paymentStatusProjection = paymentStatusProjection;
+        this.tradeOrderRepository = tradeOrderRepository;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.pollExecutor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "payment-long-poll-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pollExecutor.shutdownNow();
+    }
+
+    /**
+     * 查询支付状态
+     *
+     * @param outTradeNo 外部交易单号
+     * @return 支付查询结果
+     */
+    public PaymentQueryResultObj query(String outTradeNo) {
+        PaymentStatusSnapshot snapshot = paymentStatusProjection.find(outTradeNo)
+                .filter(PaymentStatusSnapshot::isFinal)
+                .orElseGet(() -> fromTradeOrder(outTradeNo));
+        return toResult(snapshot);
+    }
+
+    /**
+     * 长轮询查询支付状态
+     *
+     * <p>
+     * 当前已是终态或 waitMs ≤ 0 时立即返回；否则等待投影变更或超时后返回最新状态
+     *
+     * @param outTradeNo 外部交易单号
+     * @param waitMs     最长等待时间（毫秒）
+     * @return 支付查询结果
+     */
+    public CompletableFuture<PaymentQueryResultObj> awaitFinal(String outTradeNo, long waitMs) {
+        // 先注册再读取，避免错过两者之间的变更
+        CompletableFuture<Void> change = waitMs > 0
+                ? paymentStatusProjection.awaitChange(outTradeNo)
+                : CompletableFuture.completedFuture(null);
+        PaymentQueryResultObj current;
+        try {
+            current = query(outTradeNo);
+        } catch (RuntimeException e) {
+            change.cancel(false);
+            throw e;
+        }
+        if (waitMs <= 0 || isFinal(current)) {
+            change.cancel(false);
+            return CompletableFuture.completedFuture(current);
+        }
+        // 唤醒来自订阅线程，重新读取放到长轮询线程池，避免在订阅回调中同步访问 Redis
+        return change.completeOnTimeout(null, waitMs, TimeUnit.MILLISECONDS)
+                .thenApplyAsync(ignored -> query(outTradeNo), pollExecutor);
+    }
+
+    private PaymentStatusSnapshot fromTradeOrder(String outTradeNo) {
+        List<TradeOrderStatusView> views = tradeOrderRepository.findByOutTradeNos(List.of(outTradeNo));
+        if (views.isEmpty()) {
+            throw new BizException("交易订单不存在");
+        }
+        TradeStatus status = views.get(0).status();
+        String tradeStatus = switch (status) {
+            case PAID, SETTLED -> PaymentCallbackMessage.TRADE_SUCCESS;
+            case TIMEOUT, REFUND -> PaymentCallbackMessage.TRADE_CLOSED;
+            default -> PaymentStatusSnapshot.WAIT_BUYER_PAY;
+        };
+        return new PaymentStatusSnapshot(outTradeNo, tradeStatus, null, null,
+                PaymentStatusSnapshot.SOURCE_LOCAL, System.currentTimeMillis());
+    }
+
+    private static boolean isFinal(PaymentQueryResultObj result) {
+        return result.getTradeStatus() != null && !PaymentStatusSnapshot.WAIT_BUYER_PAY.equals(result.getTradeStatus());
+    }
+
+    private static PaymentQueryResultObj toResult(PaymentStatusSnapshot snapshot) {
+        return PaymentQueryResultObj.builder()
+                .success(true)
+                .outTradeNo(snapshot.outTradeNo())
+                .tradeNo(snapshot.tradeNo())
+                .tradeStatus(snapshot.tradeStatus())
+                .totalAmount(snapshot.totalAmount())
+                .build();
+    }
+}
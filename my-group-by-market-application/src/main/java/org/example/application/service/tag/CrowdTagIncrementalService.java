@@ -0,0 +1,94 @@
+package org.example.application.service.tag;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.domain.model.tag.CrowdTag;
+import org.example.domain.model.tag.repository.CrowdTagRepository;
+import org.example.domain.model.tag.valueobject.TagRule;
+import org.example.domain.model.tag.valueobject.TagStatus;
+import org.example.domain.service.tag.ICrowdTagComputeEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 人群标签增量维护服务
+ *
+ * <p>
+ * 职责：
+ * <ul>
+ * <li>在交易支付/退单后只重算该用户，标签新鲜度从天级降到秒级</li>
+ * <li>只处理标记为单调（monotonic）且已完成或正在重算的标签</li>
+ * <li>缓存已编译的增量规则，按固定间隔从仓储重新加载</li>
+ * </ul>
+ *
+ * <p>
+ * 增量维护不处理时间因素（交易滑出统计窗口等），由 CrowdTagCalculateJob 定期全量对账修正
+ *
+ */
+@Slf4j
+@Service
+public class CrowdTagIncrementalService {
+
+    private final CrowdTagRepository crowdTagRepository;
+    private final ICrowdTagComputeEngine computeEngine;
+
+    @Value("${crowd-tag.incremental.rule-refresh-ms:60000}")
+    private long ruleRefreshMillis;
+
+    /** 增量规则快照：标签ID → 编译后的规则 */
+    private volatile Map<String, TagRule> incrementalRules = Map.of();
+    private volatile long loadedAtMillis;
+
+    public CrowdTagIncrementalService(CrowdTagRepository crowdTagRepository,
+            ICrowdTagComputeEngine computeEngine) {
+        this.crowdTagRepository = crowdTagRepository;
+        this.computeEngine = computeEngine;
+    }
+
+    /**
+     * 用户交易状态变化后刷新其标签归属
+     *
+     * @param userId 用户ID
+     */
+    public void onTradeChanged(String userId) {
+        Map<String, TagRule> rules = currentRules();
+        if (rules.isEmpty()) {
+            return;
+        }
+        computeEngine.refreshUser(userId, rules);
+    }
+
+    private Map<String, TagRule> currentRules() {
+        long now = System.currentTimeMillis();
+        if (now - loadedAtMillis < ruleRefreshMillis) {
+            return incrementalRules;
+        }
+
+        synchronized (this) {
+            if (now - loadedAtMillis < ruleRefreshMillis) {
+                return incrementalRules;
+            }
+            Map<String, TagRule> rules = new HashMap<>();
+            for (CrowdTag tag : crowdTagRepository.findAll()) {
+                // 计算中的标签同样维护：翻转记入重建日志，发布新位图时重放
+                if (tag.getStatus() != TagStatus.COMPLETED && tag.getStatus() != TagStatus.CALCULATING) {
+                    continue;
+                }
+                try {
+                    TagRule rule = TagRule.parse(tag.getTagRule());
+                    if (rule.isMonotonic()) {
+                        rules.put(tag.getTagId(), rule);
+                    }
+                } catch (Exception e) {
+                    log.warn("【人群标签增量】规则无效，跳过, tagId: {}, reason: {}", tag.getTagId(), e.getMessage());
+                }
+            }
+            incrementalRules = Map.copyOf(rules);
+            loadedAtMillis = now;
+            log.debug("【人群标签增量】加载增量规则, count: {}", rules.size());
+            return incrementalRules;
+        }
+    }
+}
@@ -8,8 +8,6 @@ import org.example.application.service.trade.result.TradeOrderResult;
 import org.example.common.exception.BizException;
 import org.example.common.pattern.chain.model2.ChainExecutor;
 import org.example.common.util.LogDesensitizer;
-import org.example.domain.model.account.Account;
-import org.example.domain.model.account.repository.AccountRepository;
 import org.example.domain.model.activity.Activity;
 import org.example.domain.model.activity.Discount;
 import org.example.domain.model.activity.repository.ActivityRepository;
@@ -30,18 +28,27 @@ import org.example.domain.service.LockOrderService;
 import org.example.domain.service.RefundService;
 import org.example.domain.service.ResourceReleaseService;
 import org.example.domain.service.discount.DiscountCalculator;
+import org.example.domain.service.idempotency.IIdempotencyLedger;
+import org.example.domain.service.idempotency.IdempotencyRecord;
+import org.example.domain.service.team.IOpenTeamIndex;
 import org.example.domain.service.timeout.ITimeoutMessageProducer;
 import org.example.domain.service.validation.CrowdTagValidationService;
 import org.example.domain.service.validation.FlowControlService;
 import org.example.domain.shared.IdGenerator;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 交易订单应用服务
@@ -64,7 +71,6 @@ public class TradeOrderService {
     private final SpuRepository spuRepository;
     private final OrderRepository orderRepository;
     private final TradeOrderRepository tradeOrderRepository;
-    private final AccountRepository accountRepository;
     private final IdGenerator idGenerator;
     private final Map<String, DiscountCalculator> discountCalculatorMap;
 
@@ -82,42 +88,54 @@ public class TradeOrderService {
     // 超时消息生产者
     private final ITimeoutMessageProducer timeoutProducer;
 
+    // 幂等台账
+    private final IIdempotencyLedger idempotencyLedger;
+
+    // 可加入拼团索引（自动撮合）
+    private final IOpenTeamIndex openTeamIndex;
+
+    // 锁单事务（幂等检查在事务外完成，等待时不占用数据库连接）
+    private final TransactionTemplate transactionTemplate;
+
+    /** 幂等台账占位重试次数（原请求失败释放后重新占位） */
+    private static final int MAX_IDEMPOTENCY_ATTEMPTS = 3;
+
+    /** 相同 outTradeNo 处理中时的最长等待时间 */
+    @Value("${idempotency.wait-millis:3000}")
+    private long idempotencyWaitMillis;
+
     public TradeOrderService(ActivityRepository activityRepository,
             SkuRepository skuRepository,
             SpuRepository spuRepository,
             OrderRepository orderRepository,
             TradeOrderRepository tradeOrderRepository,
-            AccountRepository accountRepository,
             IdGenerator idGenerator,
             @Qualifier("discountCalculatorMap") Map<String, DiscountCalculator> discountCalculatorMap,
             LockOrderService lockOrderService,
             RefundService refundService,
             ResourceReleaseService resourceReleaseService,
-            org.example.domain.service.validation.FlowControlService flowControlService,
-            org.example.domain.service.validation.CrowdTagValidationService crowdTagValidationService,
+            TradeFilterFactory tradeFilterFactory,
             TradeOrderResultAssembler tradeOrderResultAssembler,
-            ITimeoutMessageProducer timeoutProducer) {
+            ITimeoutMessageProducer timeoutProducer,
+            IIdempotencyLedger idempotencyLedger,
+            IOpenTeamIndex openTeamIndex,
+            TransactionTemplate transactionTemplate) {
         this.activityRepository = activityRepository;
         this.skuRepository = skuRepository;
         this.spuRepository = spuRepository;
         this.orderRepository = orderRepository;
         this.tradeOrderRepository = tradeOrderRepository;
-        this.accountRepository = accountRepository;
         this.idGenerator = idGenerator;
         this.discountCalculatorMap = discountCalculatorMap;
         this.lockOrderService = lockOrderService;
         this.refundService = refundService;
         this.resourceReleaseService = resourceReleaseService;
-        // 流控和人群标签校验服务
-        this.tradeFilterFactory = new TradeFilterFactory(
-                activityRepository,
-                accountRepository,
-                tradeOrderRepository,
-                skuRepository,
-                flowControlService,
-                crowdTagValidationService);
+        this.tradeFilterFactory = tradeFilterFactory;
         this.tradeOrderResultAssembler = tradeOrderResultAssembler;
         this.timeoutProducer = timeoutProducer;
+        this.idempotencyLedger = idempotencyLedger;
+        this.openTeamIndex = openTeamIndex;
+        this.transactionTemplate = transactionTemplate;
     }
 
     /**
@@ -125,22 +143,19 @@ public class TradeOrderService {
      *
      * <p>
      * 业务流程：
-     * <p>
-     * 业务流程：
      * <ol>
-     * <li>幂等性检查</li>
-     * <li>执行交易规则过滤链</li>
+     * <li>幂等性检查（Redis幂等台账，事务外执行）</li>
+     * <li>执行交易规则过滤链（含参团次数原子扣减，仅限制次数的活动）</li>
      * <li>计算并校验价格</li>
      * <li>创建或加载Order</li>
-     * <li>扣减用户参团次数</li>
      * <li>调用锁单领域服务</li>
      * </ol>
      *
      * <p>
      * 事务说明：
      * <ul>
-     * <li>整个方法在一个事务中执行</li>
-     * <li>如果任何步骤失败,所有数据库操作会自动回滚</li>
+     * <li>幂等检查（含等待相同单号的处理中请求）在事务开启前完成，等待期间不占用数据库连接</li>
+     * <li>其余步骤在一个事务中执行，如果任何步骤失败,所有数据库操作会自动回滚</li>
      * <li>Account 参团次数扣减会回滚</li>
      * <li>Order 创建会回滚</li>
      * <li>TradeOrder 不会被创建</li>
@@ -150,23 +165,56 @@ public class TradeOrderService {
      * @return 交易订单结果
      * @throws BizException 业务异常(如参团次数已达上限、拼团已满等)
      */
-    @Transactional(rollbackFor = Exception.class)
     public TradeOrderResult lockOrder(LockOrderCmd cmd) {
         log.info("【TradeOrderService】开始锁单, userId: {}, activityId: {}, orderId: {}, outTradeNo: {}",
                 cmd.getUserId(), cmd.getActivityId(), cmd.getOrderId(), cmd.getOutTradeNo());
 
-        //  在外部创建context，避免异常时丢失
-        TradeFilterContext filterContext = new TradeFilterContext();
+        // 0. 幂等性检查：Redis幂等台账占位，重复请求直接返回已有订单
+        AtomicReference<String> idempotencyToken = new AtomicReference<>();
+        Optional<TradeOrder> existingTradeOrder = checkIdempotency(cmd.getOutTradeNo(), idempotencyToken);
+        if (existingTradeOrder.isPresent()) {
+            log.warn("【TradeOrderService】交易单号已存在，返回已有订单, outTradeNo: {}, tradeOrderId: {}",
+                    cmd.getOutTradeNo(), existingTradeOrder.get().getTradeOrderId());
+            return tradeOrderResultAssembler.toResult(existingTradeOrder.get());
+        }
 
+        String token = idempotencyToken.get();
         try {
-            // 0. 幂等性检查：检查外部交易单号是否已存在
-            Optional<TradeOrder> existingTradeOrder = tradeOrderRepository.findByOutTradeNo(cmd.getOutTradeNo());
-            if (existingTradeOrder.isPresent()) {
-                log.warn("【TradeOrderService】交易单号已存在，返回已有订单, outTradeNo: {}, tradeOrderId: {}",
-                        cmd.getOutTradeNo(), existingTradeOrder.get().getTradeOrderId());
-                return tradeOrderResultAssembler.toResult(existingTradeOrder.get());
+            return transactionTemplate.execute(status -> lockOrderInTransaction(cmd, token));
+        } catch (DuplicateKeyException e) {
+            // 台账记录过期或丢失后的重复请求：由 uk_out_trade_no 兜底，事务已回滚，返回已有订单并补写台账
+            TradeOrder existing = tradeOrderRepository.findByOutTradeNo(cmd.getOutTradeNo())
+                    .orElseThrow(() -> new BizException("锁单失败: %s", e.getMessage()));
+            idempotencyLedger.complete(cmd.getOutTradeNo(), existing.getTradeOrderId());
+            log.warn("【TradeOrderService】交易单号已存在（幂等台账未命中），返回已有订单, outTradeNo: {}, tradeOrderId: {}",
+                    cmd.getOutTradeNo(), existing.getTradeOrderId());
+            return tradeOrderResultAssembler.toResult(existing);
+        } catch (RuntimeException e) {
+            // 事务未能开启时占位没有绑定到事务，直接释放（按令牌删除，已由事务回滚释放时无副作用）
+            if (token != null) {
+                idempotencyLedger.release(cmd.getOutTradeNo(), token);
             }
+            throw e;
+        }
+    }
 
+    /**
+     * 锁单事务部分（过滤链、价格校验、创建订单）
+     *
+     * @param cmd              锁单命令
+     * @param idempotencyToken 幂等台账占位令牌（台账不可用时为null）
+     * @return 交易订单结果
+     */
+    private TradeOrderResult lockOrderInTransaction(LockOrderCmd cmd, String idempotencyToken) {
+        //  在外部创建context，避免异常时丢失
+        TradeFilterContext filterContext = new TradeFilterContext();
+        // 幂等台账的处理结果，事务提交后写入
+        AtomicReference<String> idempotencyResult = new AtomicReference<>();
+        if (idempotencyToken != null) {
+            bindIdempotencyToTransaction(cmd.getOutTradeNo(), idempotencyToken, idempotencyResult);
+        }
+
+        try {
             // 1. 执行交易规则过滤链（传入context，异常时仍可访问）
             executeTradeFilter(cmd, filterContext);
             Activity activity = filterContext.getActivity();
@@ -177,24 +225,15 @@ public class TradeOrderService {
             // 3. 计算并校验价格
             PriceValidationResult priceResult = calculateAndValidatePrice(cmd, activity, sku);
 
-            // 4. 创建或加载Order
-            String orderId = createOrderIfNeeded(cmd, activity, priceResult.originalPrice, priceResult.deductionPrice,
-                    sku);
+            // 4. 创建或加载Order（自动撮合时使用过滤链选中的拼团）
+            String orderId = createOrderIfNeeded(cmd, filterContext, activity, priceResult.originalPrice,
+                    priceResult.deductionPrice, sku);
 
             // 5. 构建通知配置
             NotifyConfig notifyConfig = buildNotifyConfig(cmd);
 
-            // 6. 加载Account（已在过滤链中创建），并扣减参团次数
-            Account account = accountRepository.findByUserAndActivity(cmd.getUserId(), cmd.getActivityId())
-                    .orElseThrow(() -> new IllegalStateException("Account应该已在过滤链中创建"));
-            account.deductCount(activity);
-            accountRepository.save(account);
-
-            log.info("【TradeOrderService】参团次数扣减成功, userId: {}, activityId: {}, remainingCount: {}",
-                    cmd.getUserId(), cmd.getActivityId(), account.getRemainingCount(activity));
-
-            // 7. 调用锁单领域服务
-            String tradeOrderId = "TRD" + idGenerator.nextId();
+            // 6. 调用锁单领域服务
+            String tradeOrderId = idGenerator.nextId("TRD");
             Spu spu = spuRepository.findBySpuId(sku.getSpuId())
                     .orElseThrow(() -> new BizException("商品SPU不存在"));
             String fullGoodsName = spu.getSpuName() + " " + sku.getGoodsName();
@@ -218,9 +257,12 @@ public class TradeOrderService {
             log.info("【TradeOrderService】锁单成功, tradeOrderId: {}, orderId: {}, userId: {}, payPrice: {}",
                     tradeOrderId, orderId, cmd.getUserId(), LogDesensitizer.maskPrice(priceResult.payPrice, log));
 
-            // 8. 发送超时消息（30分钟后自动退单）
+            // 7. 发送超时消息（30分钟后自动退单）
             sendTimeoutMessage(tradeOrder);
 
+            // 8. 记录幂等结果（事务提交后写入台账）
+            idempotencyResult.set(tradeOrderId);
+
             return tradeOrderResultAssembler.toResult(tradeOrder);
 
         } catch (BizException e) {
@@ -231,6 +273,11 @@ public class TradeOrderService {
                     cmd.getUserId(), cmd.getActivityId(), cmd.getOutTradeNo(), e.getMessage());
             throw e;
 
+        } catch (DuplicateKeyException e) {
+            // outTradeNo 已存在：回滚预占资源，原样抛出由事务外返回已有订单
+            rollbackResources(filterContext, cmd);
+            throw e;
+
         } catch (Exception e) {
             // 系统异常：回滚预占资源（Redis名额 + 库存）
             rollbackResources(filterContext, cmd);
@@ -288,7 +335,7 @@ public class TradeOrderService {
      * @return 交易订单结果
      */
     public TradeOrderResult queryTradeOrder(String tradeOrderId) {
-        Optional<TradeOrder> tradeOrderOpt = tradeOrderRepository.findByTradeOrderId(tradeOrderId);
+        Optional<TradeOrder> tradeOrderOpt = tradeOrderRepository.findByTradeOrderIdIncludingArchive(tradeOrderId);
         if (tradeOrderOpt.isEmpty()) {
             throw new BizException("交易订单不存在");
         }
@@ -297,6 +344,89 @@ public class TradeOrderService {
 
     // ==================== 私有辅助方法 ====================
 
+    /**
+     * 幂等性检查（Redis幂等台账）
+     *
+     * <p>
+     * 处理流程：
+     * <ol>
+     * <li>SET NX idem:{outTradeNo} 占位成功：由当前请求处理，返回占位令牌，锁单事务提交后写入结果，回滚则释放占位</li>
+     * <li>已完成：按台账中的 tradeOrderId 主键加载并返回已有订单</li>
+     * <li>处理中：轮询等待原请求结束，避免并发重复请求同时进入过滤链</li>
+     * <li>台账不可用：降级到数据库按 outTradeNo 查询</li>
+     * </ol>
+     *
+     * <p>
+     * 台账记录过期或 Redis 丢数据时重复请求会占位成功，插入交易订单时由 uk_out_trade_no 兜底，
+     * 事务回滚后返回已有订单（见 {@link #lockOrder}）
+     *
+     * <p>
+     * 在事务外调用：处理中时的等待不占用数据库连接
+     *
+     * @param outTradeNo       外部交易单号
+     * @param idempotencyToken 占位成功时写入占位令牌
+     * @return 已有订单（重复请求）；empty 表示由当前请求处理
+     */
+    private Optional<TradeOrder> checkIdempotency(String outTradeNo, AtomicReference<String> idempotencyToken) {
+        for (int attempt = 0; attempt < MAX_IDEMPOTENCY_ATTEMPTS; attempt++) {
+            IdempotencyRecord record = idempotencyLedger.begin(outTradeNo);
+
+            if (record.state() == IdempotencyRecord.State.PROCESSING) {
+                record = idempotencyLedger.await(outTradeNo, idempotencyWaitMillis);
+            }
+
+            switch (record.state()) {
+                case ACQUIRED:
+                    idempotencyToken.set(record.token());
+                    return Optional.empty();
+                case COMPLETED:
+                    Optional<TradeOrder> existing = tradeOrderRepository.findByTradeOrderId(record.resultId());
+                    if (existing.isPresent()) {
+                        return existing;
+                    }
+                    // 台账指向的订单不存在（数据已清理），作废后重新占位
+                    log.warn("【TradeOrderService】幂等台账记录已失效, outTradeNo: {}, tradeOrderId: {}",
+                            outTradeNo, record.resultId());
+                    idempotencyLedger.invalidate(outTradeNo);
+                    break;
+                case ABSENT:
+                    // 原请求失败已释放占位，重新尝试占位
+                    break;
+                case PROCESSING:
+                    throw new BizException("订单处理中，请稍后重试");
+                case UNAVAILABLE:
+                default:
+                    return tradeOrderRepository.findByOutTradeNo(outTradeNo);
+            }
+        }
+        throw new BizException("订单处理中，请稍后重试");
+    }
+
+    /**
+     * 将幂等台账的结果写入绑定到当前事务
+     *
+     * <p>
+     * 提交后才写入 tradeOrderId，保证重复请求读到结果时订单已可见；回滚则释放占位，允许客户端重试
+     */
+    private void bindIdempotencyToTransaction(String outTradeNo, String token,
+            AtomicReference<String> idempotencyResult) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 非事务环境：无法感知提交结果，保持占位由TTL兜底
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                String tradeOrderId = idempotencyResult.get();
+                if (status == STATUS_COMMITTED && tradeOrderId != null) {
+                    idempotencyLedger.complete(outTradeNo, tradeOrderId);
+                } else {
+                    idempotencyLedger.release(outTradeNo, token);
+                }
+            }
+        });
+    }
+
     /**
      * 执行交易规则过滤链
      *
@@ -311,14 +441,16 @@ public class TradeOrderService {
      * @param context 过滤链上下文（外部创建，用于保存回滚信息）
      */
     private void executeTradeFilter(LockOrderCmd cmd, TradeFilterContext context) {
+        // 复用启动时组装的冻结过滤链
         ChainExecutor<TradeFilterRequest, TradeFilterContext, TradeFilterResponse> filterChain = tradeFilterFactory
-                .createFilterChain();
+                .getFilterChain();
 
         TradeFilterRequest request = TradeFilterRequest.builder()
                 .userId(cmd.getUserId())
                 .activityId(cmd.getActivityId())
                 .skuId(cmd.getSkuId())
                 .orderId(cmd.getOrderId())
+                .autoMatch(cmd.isAutoMatch())
                 .build();
 
         try {
@@ -493,14 +625,19 @@ public class TradeOrderService {
     /**
      * 创建或加载Order
      *
+     * <p>
+     * 自动撮合选中的拼团在索引中可能已过期（索引按截止时间惰性剔除），此时释放已占用的名额、
+     * 将其移出索引并改为开新团，不让用户重试
+     *
      * @param cmd            锁单命令
+     * @param filterContext  过滤链上下文（含自动撮合结果）
      * @param activity       活动信息
      * @param originalPrice  原价
      * @param deductionPrice 优惠金额
      * @param sku            商品信息
      * @return orderId
      */
-    private String createOrderIfNeeded(LockOrderCmd cmd, Activity activity,
+    private String createOrderIfNeeded(LockOrderCmd cmd, TradeFilterContext filterContext, Activity activity,
             BigDecimal originalPrice, BigDecimal deductionPrice, Sku sku) {
         String orderId = cmd.getOrderId();
 
@@ -512,14 +649,26 @@ public class TradeOrderService {
             return orderId;
         }
 
-        // 检查 outTradeNo 是否已存在（防止并发创建重复Order）
-        Optional<TradeOrder> existingTradeOrder = tradeOrderRepository.findByOutTradeNo(cmd.getOutTradeNo());
-        if (existingTradeOrder.isPresent()) {
-            log.warn("【TradeOrderService】outTradeNo已存在，使用已有Order, outTradeNo: {}, orderId: {}",
-                    cmd.getOutTradeNo(), existingTradeOrder.get().getOrderId());
-            return existingTradeOrder.get().getOrderId();
+        // 自动撮合选中了拼团
+        String matchedOrderId = filterContext.getMatchedOrderId();
+        if (matchedOrderId != null) {
+            Optional<Order> matchedOrder = orderRepository.findById(matchedOrderId);
+            try {
+                matchedOrder.orElseThrow(() -> new BizException("拼团订单不存在")).validateLock();
+                return matchedOrderId;
+            } catch (BizException e) {
+                log.info("【TradeOrderService】自动撮合的拼团不可加入，改为开新团, orderId: {}, reason: {}",
+                        matchedOrderId, e.getMessage());
+                tradeOrderRepository.recoveryTeamSlot(filterContext.getRecoveryTeamSlotKey(),
+                        activity.getValidTime());
+                filterContext.setRecoveryTeamSlotKey(null);
+                filterContext.setMatchedOrderId(null);
+                openTeamIndex.remove(matchedOrderId);
+            }
         }
 
+        // outTradeNo 的重复请求已由幂等台账拦截（台账失效时由唯一键兜底），此处无需再查库
+
         // 创建新的拼团订单（用户是团长）
         orderId = orderRepository.nextId();
         String teamId = String.valueOf(idGenerator.nextId());
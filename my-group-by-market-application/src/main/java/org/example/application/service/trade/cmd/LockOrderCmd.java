@@ -22,6 +22,9 @@ public class LockOrderCmd {
     @Schema(description = "订单ID（加入已有拼团时传入，创建新拼团时为空）")
     private String orderId;
 
+    @Schema(description = "自动撮合：不传orderId时由服务端挑选可加入的拼团，没有则开新团")
+    private boolean autoMatch;
+
     @Schema(description = "活动ID", requiredMode = Schema.RequiredMode.REQUIRED)
     private String activityId;
 
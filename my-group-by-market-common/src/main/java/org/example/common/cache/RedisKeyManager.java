@@ -120,6 +120,302 @@ public class RedisKeyManager {
         return LOCK_PREFIX + ":" + businessType + ":" + businessId;
     }
 
+    // ==================== 幂等台账相关 ====================
+
+    /**
+     * 幂等台账Key前缀
+     */
+    private static final String IDEMPOTENCY_PREFIX = "idem";
+
+    /**
+     * 生成幂等台账Key
+     *
+     * <p>
+     * 格式：idem:{outTradeNo}
+     *
+     * @param bizKey 业务幂等键（如外部交易单号）
+     * @return 幂等台账Key
+     */
+    public static String idempotencyKey(String bizKey) {
+        return IDEMPOTENCY_PREFIX + ":" + bizKey;
+    }
+
+    // ==================== 拼团订单缓存相关 ====================
+
+    /**
+     * 拼团订单缓存Key前缀
+     */
+    private static final String ORDER_CACHE_PREFIX = "order_cache";
+
+    /**
+     * 生成拼团订单缓存Key（Hash）
+     *
+     * <p>
+     * 格式：order_cache:{orderId}（花括号为 Redis Cluster 哈希标签，保证同一订单的缓存/租约/在途计数落在同一槽位）
+     *
+     * @param orderId 拼团订单ID
+     * @return 拼团订单缓存Key
+     */
+    public static String orderCacheKey(String orderId) {
+        return ORDER_CACHE_PREFIX + ":{" + orderId + "}";
+    }
+
+    /**
+     * 生成拼团订单缓存回填租约Key
+     *
+     * <p>
+     * 格式：order_cache:{orderId}:lease
+     *
+     * @param orderId 拼团订单ID
+     * @return 回填租约Key
+     */
+    public static String orderCacheLeaseKey(String orderId) {
+        return orderCacheKey(orderId) + ":lease";
+    }
+
+    /**
+     * 生成拼团订单在途写事务计数Key
+     *
+     * <p>
+     * 格式：order_cache:{orderId}:inflight
+     *
+     * @param orderId 拼团订单ID
+     * @return 在途写事务计数Key
+     */
+    public static String orderCacheInflightKey(String orderId) {
+        return orderCacheKey(orderId) + ":inflight";
+    }
+
+    // ==================== 可加入拼团索引相关 ====================
+
+    /**
+     * 可加入拼团索引Key前缀
+     */
+    private static final String OPEN_TEAM_PREFIX = "open_team";
+
+    /**
+     * 生成活动可加入拼团有序集合Key
+     *
+     * <p>
+     * 格式：open_team:{activityId}
+     *
+     * @param activityId 活动ID
+     * @return 有序集合Key
+     */
+    public static String openTeamKey(String activityId) {
+        return OPEN_TEAM_PREFIX + ":" + activityId;
+    }
+
+    /**
+     * 生成活动索引已建立标记Key
+     *
+     * <p>
+     * 格式：open_team:{activityId}:built
+     *
+     * @param activityId 活动ID
+     * @return 已建立标记Key
+     */
+    public static String openTeamBuiltKey(String activityId) {
+        return openTeamKey(activityId) + ":built";
+    }
+
+    /**
+     * 生成活动索引重建锁Key（同一时刻只有一个请求从数据库重建）
+     *
+     * <p>
+     * 格式：open_team:{activityId}:rebuilding
+     *
+     * @param activityId 活动ID
+     * @return 重建锁Key
+     */
+    public static String openTeamRebuildLockKey(String activityId) {
+        return openTeamKey(activityId) + ":rebuilding";
+    }
+
+    /**
+     * 生成重建期间被增量修改的拼团集合Key（发布重建结果时以正式索引中的最新值为准）
+     *
+     * <p>
+     * 格式：open_team:{activityId}:touched
+     *
+     * @param activityId 活动ID
+     * @return 集合Key
+     */
+    public static String openTeamTouchedKey(String activityId) {
+        return openTeamKey(activityId) + ":touched";
+    }
+
+    /**
+     * 生成拼团索引元数据Key（String：活动ID/目标人数/截止时间，截止后自动过期）
+     *
+     * <p>
+     * 格式：open_team_meta:{orderId}
+     *
+     * @param orderId 拼团订单ID
+     * @return 元数据Key
+     */
+    public static String openTeamMetaKey(String orderId) {
+        return OPEN_TEAM_PREFIX + "_meta:" + orderId;
+    }
+
+    // ==================== 支付回调队列相关 ====================
+
+    /**
+     * 支付回调队列Key前缀
+     */
+    private static final String PAYMENT_CALLBACK_PREFIX = "pay_cb";
+
+    /**
+     * 生成支付回调分区Stream Key
+     *
+     * <p>
+     * 格式：pay_cb:stream:{partition}
+     *
+     * @param partition 分区号（orderId 哈希取模）
+     * @return 分区Stream Key
+     */
+    public static String paymentCallbackStreamKey(int partition) {
+        return PAYMENT_CALLBACK_PREFIX + ":stream:" + partition;
+    }
+
+    /**
+     * 生成支付回调分区重试集合Key
+     *
+     * <p>
+     * 格式：pay_cb:retry:{partition}
+     *
+     * @param partition 分区号
+     * @return 重试集合Key
+     */
+    public static String paymentCallbackRetryKey(int partition) {
+        return PAYMENT_CALLBACK_PREFIX + ":retry:" + partition;
+    }
+
+    /**
+     * 生成支付回调死信Stream Key
+     *
+     * <p>
+     * 格式：pay_cb:dead
+     *
+     * @return 死信Stream Key
+     */
+    public static String paymentCallbackDeadLetterKey() {
+        return PAYMENT_CALLBACK_PREFIX + ":dead";
+    }
+
+    /**
+     * 生成支付回调去重Key
+     *
+     * <p>
+     * 格式：pay_cb:dedup:{outTradeNo}:{tradeStatus}
+     *
+     * @param outTradeNo  外部交易单号
+     * @param tradeStatus 交易状态
+     * @return 去重Key
+     */
+    public static String paymentCallbackDedupKey(String outTradeNo, String tradeStatus) {
+        return PAYMENT_CALLBACK_PREFIX + ":dedup:" + outTradeNo + ":" + tradeStatus;
+    }
+
+    // ==================== 支付状态投影相关 ====================
+
+    /**
+     * 支付状态投影Key前缀
+     */
+    private static final String PAYMENT_STATUS_PREFIX = "pay_status";
+
+    /**
+     * 生成支付状态投影Key（Hash）
+     *
+     * <p>
+     * 格式：pay_status:{outTradeNo}
+     *
+     * @param outTradeNo 外部交易单号
+     * @return 支付状态投影Key
+     */
+    public static String paymentStatusKey(String outTradeNo) {
+        return PAYMENT_STATUS_PREFIX + ":" + outTradeNo;
+    }
+
+    /**
+     * 生成支付状态对账查询标记Key
+     *
+     * <p>
+     * 格式：pay_status:{outTradeNo}:reconciled
+     *
+     * @param outTradeNo 外部交易单号
+     * @return 对账查询标记Key
+     */
+    public static String paymentStatusReconciledKey(String outTradeNo) {
+        return paymentStatusKey(outTradeNo) + ":reconciled";
+    }
+
+    /**
+     * 生成支付状态变更广播频道
+     *
+     * <p>
+     * 格式：pay_status_changed
+     *
+     * @return 广播频道名
+     */
+    public static String paymentStatusTopic() {
+        return PAYMENT_STATUS_PREFIX + "_changed";
+    }
+
+    // ==================== 读写分离相关 ====================
+
+    /**
+     * 生成用户近期写入标记Key
+     *
+     * <p>
+     * 格式：recent_write:{userId}
+     * <p>
+     * 标记存在期间，该用户的只读查询走主库（读己之写）
+     *
+     * @param userId 用户ID
+     * @return 近期写入标记Key
+     */
+    public static String recentWriteKey(String userId) {
+        return "recent_write:" + userId;
+    }
+
+    // ==================== ID 号段分配相关 ====================
+
+    /**
+     * ID worker 前缀
+     */
+    private static final String ID_WORKER_PREFIX = "id_worker";
+
+    /**
+     * 生成 ID worker 租约Key
+     *
+     * <p>
+     * 格式：id_worker:{workerId}
+     * <p>
+     * 值为持有者实例ID，带过期时间，持有者定期续约
+     *
+     * @param workerId worker ID
+     * @return worker 租约Key
+     */
+    public static String idWorkerLeaseKey(int workerId) {
+        return ID_WORKER_PREFIX + ":" + workerId;
+    }
+
+    /**
+     * 生成 ID worker 号段高水位Key
+     *
+     * <p>
+     * 格式：id_worker:{workerId}:max_segment
+     * <p>
+     * 记录该 worker 已分配的最大号段，不过期，worker 换主后也不会重复分配
+     *
+     * @param workerId worker ID
+     * @return 号段高水位Key
+     */
+    public static String idWorkerMaxSegmentKey(int workerId) {
+        return idWorkerLeaseKey(workerId) + ":max_segment";
+    }
+
     // ==================== 工具方法 ====================
 
     /**
@@ -0,0 +1,34 @@
+package org.example.common.datasource;
+
+import java.lang.annotation.*;
+
+/**
+ * 只读查询注解（读写分离）
+ *
+ * <p>
+ * 标注在应用服务的类或方法上，方法内的查询优先路由到健康的从库；未开启读写分离时不生效
+ *
+ * <p>
+ * 以下情况仍走主库：
+ * <ul>
+ * <li>调用时已处于事务中（写流程中的读取必须看到本事务的数据）</li>
+ * <li>当前用户刚刚写入过（读己之写窗口内）</li>
+ * <li>没有延迟在阈值内的从库</li>
+ * </ul>
+ *
+ * <p>
+ * 使用方式：
+ *
+ * <pre>
+ * {@code @ReadOnly}
+ * public PageResult<UserOrderResult> getUserOrders(String userId, int page, int size) {
+ *     // 只包含查询，不得写库
+ * }
+ * </pre>
+ *
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadOnly {
+}
@@ -2,9 +2,7 @@ package org.example.common.pattern.chain.model2;
 
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 /**
  * 责任链执行器（Model2 - 多例链）
@@ -34,8 +32,18 @@ import java.util.List;
  *
  * // 执行
  * Response result = chain1.execute(request, context);
+ *
+ * // 启动时组装并冻结，之后作为单例复用（并发安全、执行路径零分配）
+ * ChainExecutor<Request, Context, Response> frozen = chain1.freeze();
  * }</pre>
  *
+ * <p>冻结说明：
+ * <ul>
+ *   <li>处理器以数组保存，执行时按下标遍历，不创建迭代器</li>
+ *   <li>{@link #freeze()} 之后不可再增删处理器，可安全地在多线程间共享</li>
+ *   <li>中断日志只在 DEBUG 级别输出，拒绝属于正常业务结果，不应在高并发下刷 INFO 日志</li>
+ * </ul>
+ *
  * @param <REQUEST> 请求参数类型
  * @param <CONTEXT> 动态上下文类型
  * @param <RESPONSE> 响应结果类型（必须实现 {@link IChainResponse} 接口）
@@ -47,8 +55,11 @@ public class ChainExecutor<REQUEST, CONTEXT, RESPONSE extends IChainResponse> {
     /** 责任链名称（用于日志和调试） */
     private final String chainName;
 
-    /** 处理器列表 */
-    private final List<IChainHandler<REQUEST, CONTEXT, RESPONSE>> handlers;
+    /** 处理器数组（写时复制，执行路径只读） */
+    private volatile IChainHandler<REQUEST, CONTEXT, RESPONSE>[] handlers;
+
+    /** 是否已冻结 */
+    private volatile boolean frozen;
 
     /**
      * 构造函数
@@ -59,7 +70,29 @@ public class ChainExecutor<REQUEST, CONTEXT, RESPONSE extends IChainResponse> {
     @SafeVarargs
     public ChainExecutor(String chainName, IChainHandler<REQUEST, CONTEXT, RESPONSE>... handlers) {
         this.chainName = chainName;
-        this.handlers = new ArrayList<>(Arrays.asList(handlers));
+        this.handlers = Arrays.copyOf(handlers, handlers.length);
+    }
+
+    /**
+     * 冻结责任链
+     *
+     * <p>返回持有当前处理器快照的不可变执行器，原执行器不受影响
+     *
+     * @return 冻结后的执行器
+     */
+    public ChainExecutor<REQUEST, CONTEXT, RESPONSE> freeze() {
+        ChainExecutor<REQUEST, CONTEXT, RESPONSE> snapshot = new ChainExecutor<>(chainName, handlers);
+        snapshot.frozen = true;
+        return snapshot;
+    }
+
+    /**
+     * 是否已冻结
+     *
+     * @return true=不可变
+     */
+    public boolean isFrozen() {
+        return frozen;
     }
 
     /**
@@ -70,7 +103,11 @@ public class ChainExecutor<REQUEST, CONTEXT, RESPONSE extends IChainResponse> {
      */
     public ChainExecutor<REQUEST, CONTEXT, RESPONSE> addHandler(
             IChainHandler<REQUEST, CONTEXT, RESPONSE> handler) {
-        this.handlers.add(handler);
+        checkNotFrozen();
+        IChainHandler<REQUEST, CONTEXT, RESPONSE>[] current = handlers;
+        IChainHandler<REQUEST, CONTEXT, RESPONSE>[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = handler;
+        this.handlers = next;
         return this;
     }
 
@@ -82,7 +119,12 @@ public class ChainExecutor<REQUEST, CONTEXT, RESPONSE extends IChainResponse> {
      */
     public ChainExecutor<REQUEST, CONTEXT, RESPONSE> addFirst(
             IChainHandler<REQUEST, CONTEXT, RESPONSE> handler) {
-        this.handlers.addFirst(handler);
+        checkNotFrozen();
+        IChainHandler<REQUEST, CONTEXT, RESPONSE>[] current = handlers;
+        IChainHandler<REQUEST, CONTEXT, RESPONSE>[] next = Arrays.copyOf(current, current.length + 1);
+        System.arraycopy(current, 0, next, 1, current.length);
+        next[0] = handler;
+        this.handlers = next;
         return this;
     }
 
@@ -92,6 +134,7 @@ public class ChainExecutor<REQUEST, CONTEXT, RESPONSE extends IChainResponse> {
      * <p>执行逻辑：
      * <ol>
      *   <li>按顺序遍历所有处理器</li>
+     *   <li>跳过 supports() 返回 false 的处理器</li>
      *   <li>调用每个处理器的 handle() 方法</li>
      *   <li>如果返回的 response.shouldContinue() == false，则中断链路并返回结果</li>
      *   <li>如果返回的 response.shouldContinue() == true，则继续下一个处理器</li>
@@ -104,18 +147,26 @@ public class ChainExecutor<REQUEST, CONTEXT, RESPONSE extends IChainResponse> {
      * @throws Exception 业务异常
      */
     public RESPONSE execute(REQUEST request, CONTEXT context) throws Exception {
-        if (handlers.isEmpty()) {
+        IChainHandler<REQUEST, CONTEXT, RESPONSE>[] chain = handlers;
+        if (chain.length == 0) {
             return null;
         }
 
         RESPONSE lastResponse = null;
-        for (IChainHandler<REQUEST, CONTEXT, RESPONSE> handler : handlers) {
+        for (int i = 0; i < chain.length; i++) {
+            IChainHandler<REQUEST, CONTEXT, RESPONSE> handler = chain[i];
+            // 不适用于本次请求的处理器直接跳过
+            if (!handler.supports(request, context)) {
+                continue;
+            }
             RESPONSE response = handler.handle(request, context);
 
             // 如果不应该继续，则中断链路
             if (!response.shouldContinue()) {
-                log.info("【{}】责任链中断, handler: {}, reason: {}",
-                        chainName, handler.getClass().getSimpleName(), response.getReason());
+                if (log.isDebugEnabled()) {
+                    log.debug("【{}】责任链中断, handler: {}, reason: {}",
+                            chainName, handler.getClass().getSimpleName(), response.getReason());
+                }
                 return response;
             }
 
@@ -124,7 +175,9 @@ public class ChainExecutor<REQUEST, CONTEXT, RESPONSE extends IChainResponse> {
         }
 
         // 所有处理器都放行，返回最后一个响应
-        log.debug("【{}】责任链执行完成，所有处理器放行", chainName);
+        if (log.isDebugEnabled()) {
+            log.debug("【{}】责任链执行完成，所有处理器放行", chainName);
+        }
         return lastResponse;
     }
 
@@ -143,20 +196,26 @@ public class ChainExecutor<REQUEST, CONTEXT, RESPONSE extends IChainResponse> {
      * @return 处理器数量
      */
     public int size() {
-        return handlers.size();
+        return handlers.length;
     }
 
     /**
      * 打印责任链信息（用于调试）
      */
     public void printChainInfo() {
-        System.out.println("========================================");
-        System.out.println("责任链: " + chainName);
-        System.out.println("处理器数量: " + handlers.size());
-        System.out.println("处理器列表:");
-        for (int i = 0; i < handlers.size(); i++) {
-            System.out.println("  [" + (i + 1) + "] " + handlers.get(i).getClass().getSimpleName());
+        IChainHandler<REQUEST, CONTEXT, RESPONSE>[] chain = handlers;
+        StringBuilder info = new StringBuilder();
+        for (int i = 0; i < chain.length; i++) {
+            info.append(System.lineSeparator()).append("  [").append(i + 1).append("] ")
+                    .append(chain[i].getClass().getSimpleName());
+        }
+        log.info("【{}】责任链信息{}, 处理器数量: {}, 处理器列表:{}",
+                chainName, frozen ? "（已冻结）" : "", chain.length, info);
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("责任链已冻结，不可修改: " + chainName);
         }
-        System.out.println("========================================");
     }
 }
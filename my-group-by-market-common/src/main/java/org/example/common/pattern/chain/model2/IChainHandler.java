@@ -64,4 +64,18 @@ public interface IChainHandler<REQUEST, CONTEXT, RESPONSE extends IChainResponse
      * @throws Exception 业务异常
      */
     RESPONSE handle(REQUEST request, CONTEXT context) throws Exception;
+
+    /**
+     * 当前处理器是否适用于本次请求
+     *
+     * <p>返回 false 时 ChainExecutor 直接跳过该处理器（不调用 handle，不产生响应对象），
+     * 用于按请求的静态特征（如活动配置）裁剪不需要执行的校验
+     *
+     * @param request 请求参数
+     * @param context 动态上下文（前置处理器已写入的数据可用于判断）
+     * @return true=执行, false=跳过
+     */
+    default boolean supports(REQUEST request, CONTEXT context) {
+        return true;
+    }
 }
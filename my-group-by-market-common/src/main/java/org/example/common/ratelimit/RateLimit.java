@@ -13,6 +13,12 @@ import java.lang.annotation.*;
  * public void refund(String userId, String tradeOrderId) {
  *     // 业务逻辑
  * }
+ *
+ * {@code @RateLimit(key = "'lock-order'", algorithm = RateLimitAlgorithm.TOKEN_BUCKET,
+ *         maxRequests = 5000, windowSeconds = 1, prefetch = 50)}
+ * public TradeOrderResult lockOrder(LockOrderCmd cmd) {
+ *     // 热点全局限流：每个节点一次从Redis预取50个令牌，本地扣减
+ * }
  * </pre>
  *
  */
@@ -44,6 +50,21 @@ public @interface RateLimit {
      */
     long windowSeconds() default 60;
 
+    /**
+     * 限流算法
+     */
+    RateLimitAlgorithm algorithm() default RateLimitAlgorithm.FIXED_WINDOW;
+
+    /**
+     * 本地预取令牌数
+     *
+     * <p>
+     * 大于1时，节点一次从Redis租用N个令牌在本地扣减，热点key无需每次请求都访问Redis；
+     * 代价是节点间配额可能短暂不均、未用完的令牌随租约过期作废。
+     * 仅对 FIXED_WINDOW / TOKEN_BUCKET 生效，适用于低基数的热点key（如全局限流）
+     */
+    int prefetch() default 0;
+
     /**
      * 限流后的错误消息
      */
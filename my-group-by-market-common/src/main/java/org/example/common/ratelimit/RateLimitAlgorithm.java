@@ -0,0 +1,20 @@
+package org.example.common.ratelimit;
+
+/**
+ * 限流算法
+ *
+ * <ul>
+ * <li>FIXED_WINDOW - 固定窗口计数：实现最简单，窗口边界处可能出现 2 倍突发</li>
+ * <li>SLIDING_LOG - 滑动日志：记录窗口内每次请求时间，任意连续窗口内都不超过阈值，适合低频敏感操作（如退款）</li>
+ * <li>TOKEN_BUCKET - 令牌桶：按 maxRequests/windowSeconds 的速率补充令牌，允许不超过桶容量的突发，适合高频接口</li>
+ * </ul>
+ *
+ */
+public enum RateLimitAlgorithm {
+
+    FIXED_WINDOW,
+
+    SLIDING_LOG,
+
+    TOKEN_BUCKET
+}
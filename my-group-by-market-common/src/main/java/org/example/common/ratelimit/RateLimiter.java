@@ -35,6 +35,18 @@ public interface RateLimiter {
      */
     boolean tryAcquire(String key, int maxRequests, long windowSeconds);
 
+    /**
+     * 尝试获取令牌（指定算法）
+     *
+     * @param key           限流键
+     * @param algorithm     限流算法
+     * @param maxRequests   时间窗口内最大请求数（令牌桶为桶容量）
+     * @param windowSeconds 时间窗口（秒）
+     * @param prefetch      本地预取令牌数（小于等于1表示不预取）
+     * @return true-获取成功，false-被限流
+     */
+    boolean tryAcquire(String key, RateLimitAlgorithm algorithm, int maxRequests, long windowSeconds, int prefetch);
+
     /**
      * 重置限流计数
      *
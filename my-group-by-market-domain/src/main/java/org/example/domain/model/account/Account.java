@@ -86,7 +86,7 @@ public class Account {
         this.updateTime = LocalDateTime.now();
 
         // 发出事件
-        this.addDomainEvent(new ParticipationCountDeductedEvent(accountId, userId, activityId));
+        this.addDomainEvent(new ParticipationCountDeductedEvent(userId, activityId));
 
         log.info("【Account聚合】参团次数扣减成功, accountId: {}, used: {}, limit: {}",
                 accountId, participationCount, limit);
@@ -32,4 +32,9 @@ public class ParticipationCountCompensatedEvent implements DomainEvent {
     public String eventType() {
         return "ParticipationCountCompensated";
     }
-}
\ No newline at end of file
+
+    @Override
+    public String aggregateId() {
+        return accountId;
+    }
+}
@@ -8,18 +8,20 @@ import java.time.LocalDateTime;
 
 /**
  * 参团次数扣减事件
+ *
+ * <p>
+ * 账户由 (userId, activityId) 唯一确定，事件以此为聚合标识；
+ * 原子扣减路径不回查账户ID，因此事件不携带 accountId
  */
 @Data
 @AllArgsConstructor
 public class ParticipationCountDeductedEvent implements DomainEvent {
 
-    private String accountId;
     private String userId;
     private String activityId;
     private LocalDateTime occurredOn;
 
-    public ParticipationCountDeductedEvent(String accountId, String userId, String activityId) {
-        this.accountId = accountId;
+    public ParticipationCountDeductedEvent(String userId, String activityId) {
         this.userId = userId;
         this.activityId = activityId;
         this.occurredOn = LocalDateTime.now();
@@ -34,4 +36,9 @@ public class ParticipationCountDeductedEvent implements DomainEvent {
     public String eventType() {
         return "ParticipationCountDeducted";
     }
-}
\ No newline at end of file
+
+    @Override
+    public String aggregateId() {
+        return userId + ":" + activityId;
+    }
+}
@@ -26,6 +26,31 @@ public interface AccountRepository {
      */
     Optional<Account> findByUserAndActivity(String userId, String activityId);
 
+    /**
+     * 原子扣减参团次数（未达上限时已参与次数 +1）
+     *
+     * <p>
+     * 一条 INSERT ... ON DUPLICATE KEY UPDATE 完成"创建/校验 + 扣减"，并发请求由行锁串行化，
+     * 不会出现乐观锁冲突或间隙锁死锁；账户不存在时创建并记为已参与 1 次。
+     * 已有账户扣减只需这一次往返，仅当影响行数无法区分"新建"与"已达上限"时回查一次。
+     * 扣减成功时发布 ParticipationCountDeductedEvent（事务提交后投递）
+     *
+     * @param userId     用户ID
+     * @param activityId 活动ID
+     * @param limit      参团次数上限（大于0）
+     * @return true=扣减成功, false=已达上限
+     */
+    boolean tryDeductCount(String userId, String activityId, int limit);
+
+    /**
+     * 原子补偿参团次数（已参与次数大于0时 -1）
+     *
+     * @param userId     用户ID
+     * @param activityId 活动ID
+     * @return true=补偿成功, false=账户不存在或次数已为0
+     */
+    boolean compensateCount(String userId, String activityId);
+
     /**
      * 批量创建账户
      *
@@ -1,8 +1,13 @@
 package org.example.domain.model.activity;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.example.common.exception.BizException;
+import org.example.domain.model.activity.valueobject.ActivityAdmissionProfile;
 import org.example.domain.model.activity.valueobject.ActivityStatus;
 import org.example.domain.model.activity.valueobject.GroupType;
 import org.example.domain.model.activity.valueobject.TagScope;
@@ -69,6 +74,13 @@ public class Activity {
     /** 更新时间 */
     private LocalDateTime updateTime;
 
+    /** 准入画像（首次使用时编译，随聚合一起缓存；update 及标签/次数限制的 setter 使其失效） */
+    @Getter(lombok.AccessLevel.NONE)
+    @Setter(lombok.AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient volatile ActivityAdmissionProfile admissionProfile;
+
     /**
      * 创建活动（工厂方法）
      */
@@ -153,6 +165,7 @@ public class Activity {
         this.startTime = startTime;
         this.endTime = endTime;
         this.updateTime = LocalDateTime.now();
+        this.admissionProfile = null;
 
         log.info("【Activity聚合】活动更新成功, activityId: {}", activityId);
     }
@@ -237,4 +250,45 @@ public class Activity {
 
         log.debug("【Activity聚合】活动可用性校验通过, activityId: {}", this.activityId);
     }
-}
\ No newline at end of file
+
+    /**
+     * 设置人群标签（准入画像随之失效）
+     */
+    public void setTagId(String tagId) {
+        this.tagId = tagId;
+        this.admissionProfile = null;
+    }
+
+    /**
+     * 设置人群标签作用域（准入画像随之失效）
+     */
+    public void setTagScope(TagScope tagScope) {
+        this.tagScope = tagScope;
+        this.admissionProfile = null;
+    }
+
+    /**
+     * 设置参团次数限制（准入画像随之失效）
+     */
+    public void setParticipationLimit(Integer participationLimit) {
+        this.participationLimit = participationLimit;
+        this.admissionProfile = null;
+    }
+
+    /**
+     * 获取准入画像
+     *
+     * <p>
+     * 描述锁单时哪些准入校验对本活动生效，同一聚合实例只编译一次
+     *
+     * @return 准入画像
+     */
+    public ActivityAdmissionProfile admissionProfile() {
+        ActivityAdmissionProfile profile = this.admissionProfile;
+        if (profile == null) {
+            profile = ActivityAdmissionProfile.compile(this);
+            this.admissionProfile = profile;
+        }
+        return profile;
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.domain.model.activity.valueobject;
+
+import org.example.domain.model.activity.Activity;
+
+/**
+ * 活动准入画像
+ *
+ * <p>
+ * 由活动配置编译而来，描述锁单时哪些准入校验真正生效，过滤链据此跳过不适用的处理器
+ *
+ * @param crowdTagRequired     是否需要人群标签校验（配置了标签且作用域不是 OPEN）
+ * @param participationLimited 是否限制参团次数（participationLimit > 0）
+ */
+public record ActivityAdmissionProfile(
+        boolean crowdTagRequired,
+        boolean participationLimited) {
+
+    /**
+     * 从活动配置编译准入画像
+     *
+     * @param activity 活动聚合
+     * @return 准入画像
+     */
+    public static ActivityAdmissionProfile compile(Activity activity) {
+        String tagId = activity.getTagId();
+        boolean crowdTagRequired = tagId != null && !tagId.isBlank() && activity.getTagScope() != TagScope.OPEN;
+
+        Integer limit = activity.getParticipationLimit();
+        boolean participationLimited = limit != null && limit > 0;
+
+        return new ActivityAdmissionProfile(crowdTagRequired, participationLimited);
+    }
+}
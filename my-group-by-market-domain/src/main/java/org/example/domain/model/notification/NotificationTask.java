@@ -24,6 +24,16 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class NotificationTask {
 
+    /**
+     * 重试退避基数（秒）：第N次失败后等待 BASE * 2^(N-1) 秒
+     */
+    private static final long RETRY_BACKOFF_BASE_SECONDS = 30;
+
+    /**
+     * 重试退避上限（秒）
+     */
+    private static final long RETRY_BACKOFF_MAX_SECONDS = 30 * 60;
+
     /**
      * 任务ID（主键）
      */
@@ -59,6 +69,21 @@ public class NotificationTask {
      */
     private LocalDateTime lastExecuteTime;
 
+    /**
+     * 下一次允许重试的时间（为空表示立即可执行）
+     */
+    private LocalDateTime nextRetryTime;
+
+    /**
+     * 当前持有租约的调度节点（为空表示未被认领）
+     */
+    private String leaseOwner;
+
+    /**
+     * 租约过期时间，过期后其他节点可重新认领
+     */
+    private LocalDateTime leaseExpireTime;
+
     /**
      * 失败原因
      */
@@ -114,27 +139,79 @@ public class NotificationTask {
     public void markAsSuccess() {
         this.status = NotificationStatus.SUCCESS;
         this.updateTime = LocalDateTime.now();
+        releaseLease();
     }
 
     /**
      * 标记为失败并增加重试次数
      *
+     * <p>
+     * 未达到最大重试次数时按指数退避计算 nextRetryTime，调度器在此之前不会再次拉取该任务
+     *
      * @param failureReason 失败原因
      */
     public void markAsFailed(String failureReason) {
         this.retryCount++;
         this.failureReason = failureReason;
         this.updateTime = LocalDateTime.now();
+        releaseLease();
 
         // 超过最大重试次数，标记为最终失败
         if (this.retryCount >= this.maxRetryCount) {
             this.status = NotificationStatus.FAILED;
+            this.nextRetryTime = null;
         } else {
-            // 重置为PENDING，等待下次重试
+            // 重置为PENDING，等待退避时间后重试
             this.status = NotificationStatus.PENDING;
+            this.nextRetryTime = this.updateTime.plusSeconds(calculateBackoffSeconds(this.retryCount));
         }
     }
 
+    /**
+     * 延后执行（不计入重试次数）
+     *
+     * <p>
+     * 用于下游暂时不可用（如熔断打开）的场景：任务本身没有失败，只是推迟到指定时间后再执行
+     *
+     * @param delaySeconds 延后秒数
+     * @param reason       延后原因
+     */
+    public void postpone(long delaySeconds, String reason) {
+        this.status = NotificationStatus.PENDING;
+        this.failureReason = reason;
+        this.updateTime = LocalDateTime.now();
+        this.nextRetryTime = this.updateTime.plusSeconds(delaySeconds);
+        releaseLease();
+    }
+
+    /**
+     * 是否已通过租约认领（认领时已置为PROCESSING，无需再调用 markAsProcessing）
+     *
+     * @return true表示已被认领
+     */
+    public boolean isClaimed() {
+        return this.status == NotificationStatus.PROCESSING && this.leaseOwner != null;
+    }
+
+    /**
+     * 释放租约（任务结束本轮执行时调用）
+     */
+    private void releaseLease() {
+        this.leaseOwner = null;
+        this.leaseExpireTime = null;
+    }
+
+    /**
+     * 计算第N次失败后的退避时间（秒）
+     *
+     * @param failedTimes 已失败次数（从1开始）
+     * @return 退避秒数
+     */
+    static long calculateBackoffSeconds(int failedTimes) {
+        int shift = Math.min(Math.max(failedTimes - 1, 0), 16);
+        return Math.min(RETRY_BACKOFF_BASE_SECONDS << shift, RETRY_BACKOFF_MAX_SECONDS);
+    }
+
     /**
      * 是否需要重试
      *
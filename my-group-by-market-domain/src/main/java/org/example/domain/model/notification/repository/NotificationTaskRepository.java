@@ -32,6 +32,18 @@ public interface NotificationTaskRepository {
      */
     void update(NotificationTask task);
 
+    /**
+     * 在仍持有租约时写回本轮执行结果
+     *
+     * <p>
+     * 租约已过期或已被其他节点重新认领时不更新，避免过期节点覆盖新持有者的结果
+     *
+     * @param task       通知任务（已标记成功/失败/延后）
+     * @param leaseOwner 认领时的租约持有者
+     * @return false表示租约已丢失，本次结果被丢弃
+     */
+    boolean updateIfLeaseHeld(NotificationTask task, String leaseOwner);
+
     /**
      * 根据任务ID查询
      *
@@ -64,4 +76,19 @@ public interface NotificationTaskRepository {
      * @return 待处理任务列表
      */
     List<NotificationTask> findPendingTasks(int offset, int limit);
+
+    /**
+     * 认领一批可执行的任务
+     *
+     * <p>
+     * 可执行 = PENDING 且已到重试时间，或 PROCESSING 但租约已过期（原节点宕机）。
+     * 认领后任务状态为 PROCESSING，并写入租约持有者和过期时间；
+     * 多个节点并发认领时互不阻塞、不会拿到同一任务
+     *
+     * @param owner        认领节点标识
+     * @param limit        最多认领数量
+     * @param leaseSeconds 租约时长（秒）
+     * @return 认领成功的任务列表
+     */
+    List<NotificationTask> claimPendingTasks(String owner, int limit, int leaseSeconds);
 }
@@ -2,6 +2,8 @@ package org.example.domain.model.notification.service;
 
 import org.example.domain.model.notification.NotificationTask;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 通知服务接口
  *
@@ -27,4 +29,15 @@ public interface NotificationService {
      * @param task 通知任务
      */
     void execute(NotificationTask task);
+
+    /**
+     * 异步执行通知任务
+     *
+     * <p>
+     * 调用方不阻塞等待下游响应，任务状态在返回的 Future 完成前已持久化
+     *
+     * @param task 通知任务
+     * @return 执行完成的 Future（不会以异常完成）
+     */
+    CompletableFuture<Void> executeAsync(NotificationTask task);
 }
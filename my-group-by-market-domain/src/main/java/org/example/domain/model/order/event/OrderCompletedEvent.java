@@ -34,4 +34,9 @@ public class OrderCompletedEvent implements DomainEvent {
     public String eventType() {
         return "OrderCompleted";
     }
-}
\ No newline at end of file
+
+    @Override
+    public String aggregateId() {
+        return orderId;
+    }
+}
@@ -35,4 +35,9 @@ public class OrderCreatedEvent implements DomainEvent {
     public String eventType() {
         return "OrderCreated";
     }
-}
\ No newline at end of file
+
+    @Override
+    public String aggregateId() {
+        return orderId;
+    }
+}
@@ -33,4 +33,9 @@ public class OrderFailedEvent implements DomainEvent {
     public String eventType() {
         return "OrderFailed";
     }
-}
\ No newline at end of file
+
+    @Override
+    public String aggregateId() {
+        return orderId;
+    }
+}
@@ -37,4 +37,9 @@ public class UserJoinedOrderEvent implements DomainEvent {
     public String eventType() {
         return "UserJoinedOrder";
     }
-}
\ No newline at end of file
+
+    @Override
+    public String aggregateId() {
+        return orderId;
+    }
+}
@@ -3,6 +3,7 @@ package org.example.domain.model.order.repository;
 import org.example.domain.model.order.Order;
 import org.example.domain.model.order.valueobject.OrderStatus;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,6 +28,14 @@ public interface OrderRepository {
      */
     Optional<Order> findById(String orderId);
 
+    /**
+     * 根据ID批量查找订单（一次 IN 查询，不走订单缓存）
+     *
+     * @param orderIds 订单ID
+     * @return 订单列表（不保证与入参顺序一致，不存在的订单不返回）
+     */
+    List<Order> findByIds(Collection<String> orderIds);
+
     /**
      * 原子化增加锁单量（解决高并发超卖问题）
      *
@@ -88,6 +97,27 @@ public interface OrderRepository {
      */
     List<Order> findPendingOrdersByActivity(String activityId);
 
+    /**
+     * 按推荐顺序（锁单比例降序、截止时间升序）分页查询可加入的拼团
+     *
+     * <p>
+     * 拼团索引重建期间的降级查询，只返回未截止且未满员的拼团
+     *
+     * @param activityId 活动ID
+     * @param offset     偏移量
+     * @param limit      数量
+     * @return 订单列表
+     */
+    List<Order> findJoinablePendingByActivity(String activityId, int offset, int limit);
+
+    /**
+     * 统计可加入的拼团数量（未截止且未满员）
+     *
+     * @param activityId 活动ID
+     * @return 拼团数量
+     */
+    long countJoinablePendingByActivity(String activityId);
+
     /**
      * 查找超时未成团的拼单
      *
@@ -59,11 +59,11 @@ public class CrowdTag {
 
     /**
      * 开始计算
-     * 状态转换：DRAFT → CALCULATING
+     * 状态转换：DRAFT/COMPLETED/FAILED → CALCULATING（已完成和失败的标签支持重算）
      */
     public void startCalculating() {
-        if (this.status != TagStatus.DRAFT) {
-            throw new BizException("只有草稿状态的标签才能开始计算");
+        if (this.status == TagStatus.CALCULATING) {
+            throw new BizException("标签正在计算中");
         }
 
         this.status = TagStatus.CALCULATING;
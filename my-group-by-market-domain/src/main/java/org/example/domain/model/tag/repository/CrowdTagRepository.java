@@ -42,13 +42,12 @@ public interface CrowdTagRepository {
     String nextId();
 
     /**
-     * 全量替换标签用户
-     * 用于人群标签计算完成后，清除旧数据并写入新的用户列表
+     * 查询全部标签
+     * 用于定时任务批量重算标签人群
      *
-     * @param tagId   标签ID
-     * @param userIds 用户ID列表
+     * @return 标签列表
      */
-    void replaceTagUsers(String tagId, List<String> userIds);
+    List<CrowdTag> findAll();
 
     /**
      * 获取标签下的所有用户
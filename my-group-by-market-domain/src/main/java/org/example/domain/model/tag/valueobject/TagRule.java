@@ -0,0 +1,317 @@
+package org.example.domain.model.tag.valueobject;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import org.example.common.exception.BizException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 标签规则（值对象）
+ *
+ * <p>
+ * 将 CrowdTag.tagRule（JSON）编译为谓词计划，计算时逐个用户求值
+ *
+ * <p>
+ * 规则格式：字段 → 比较值 或 {操作符: 比较值}，多个字段之间为 AND 关系
+ *
+ * <pre>
+ * {
+ *   "windowDays": 90,
+ *   "orderCount": {"$gte": 3},
+ *   "gmv": {"$gte": 500},
+ *   "registerTime": {"$lt": "2025-01-01"},
+ *   "role": {"$in": ["USER"]}
+ * }
+ * </pre>
+ *
+ * <p>
+ * 支持的字段：
+ * <ul>
+ * <li>orderCount - 统计窗口内已支付/已结算的交易笔数（$eq/$ne/$gt/$gte/$lt/$lte）</li>
+ * <li>gmv - 统计窗口内已支付/已结算的实付金额合计（$eq/$ne/$gt/$gte/$lt/$lte）</li>
+ * <li>registerTime - 注册日期，yyyy-MM-dd（$eq/$ne/$gt/$gte/$lt/$lte）</li>
+ * <li>role - 用户角色（$eq/$ne/$in/$nin）</li>
+ * <li>windowDays - 交易统计窗口天数，不配置表示全部历史</li>
+ * <li>monotonic - 标记为单调规则，true 时在交易支付/退单时增量维护人群</li>
+ * </ul>
+ *
+ * <p>
+ * 谓词按求值成本排序：用户属性在前，交易统计在后；规则不含交易字段时计算无需关联交易表
+ *
+ */
+public final class TagRule {
+
+    private static final String FIELD_WINDOW_DAYS = "windowDays";
+    private static final String FIELD_MONOTONIC = "monotonic";
+    private static final String FIELD_ORDER_COUNT = "orderCount";
+    private static final String FIELD_GMV = "gmv";
+    private static final String FIELD_REGISTER_TIME = "registerTime";
+    private static final String FIELD_ROLE = "role";
+
+    /** 编译后的谓词（已按求值成本排序） */
+    private final Condition[] conditions;
+
+    /** 交易统计窗口天数，null表示全部历史 */
+    private final Integer windowDays;
+
+    /** 是否需要交易统计 */
+    private final boolean requiresTradeStats;
+
+    /** 是否为单调规则（支持增量维护） */
+    private final boolean monotonic;
+
+    private TagRule(List<Condition> conditions, Integer windowDays, boolean monotonic) {
+        conditions.sort(Comparator.comparingInt(condition -> condition.field().cost));
+        this.conditions = conditions.toArray(new Condition[0]);
+        this.windowDays = windowDays;
+        this.monotonic = monotonic;
+        this.requiresTradeStats = conditions.stream().anyMatch(condition -> condition.field().tradeStats);
+    }
+
+    /**
+     * 解析并编译标签规则
+     *
+     * @param json 标签规则JSON
+     * @return 编译后的规则
+     * @throws BizException 规则格式无效、字段或操作符不支持
+     */
+    public static TagRule parse(String json) {
+        if (json == null || json.isBlank()) {
+            throw new BizException("标签规则不能为空");
+        }
+
+        JSONObject root;
+        try {
+            root = JSON.parseObject(json);
+        } catch (Exception e) {
+            throw new BizException("标签规则不是合法的JSON: " + e.getMessage());
+        }
+        if (root == null || root.isEmpty()) {
+            throw new BizException("标签规则不能为空");
+        }
+
+        Integer windowDays = null;
+        boolean monotonic = false;
+        List<Condition> conditions = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : root.entrySet()) {
+            String name = entry.getKey();
+            if (FIELD_WINDOW_DAYS.equals(name)) {
+                windowDays = parseWindowDays(entry.getValue());
+                continue;
+            }
+            if (FIELD_MONOTONIC.equals(name)) {
+                if (!(entry.getValue() instanceof Boolean flag)) {
+                    throw new BizException("monotonic 必须为布尔值");
+                }
+                monotonic = flag;
+                continue;
+            }
+            Field field = Field.of(name);
+            Object spec = entry.getValue();
+            if (spec instanceof JSONObject operators) {
+                for (Map.Entry<String, Object> op : operators.entrySet()) {
+                    conditions.add(compile(field, Operator.of(op.getKey()), op.getValue()));
+                }
+            } else {
+                conditions.add(compile(field, Operator.EQ, spec));
+            }
+        }
+
+        if (conditions.isEmpty()) {
+            throw new BizException("标签规则至少需要一个条件");
+        }
+        return new TagRule(conditions, windowDays, monotonic);
+    }
+
+    /**
+     * 规则是否依赖交易统计（订单数/GMV）
+     */
+    public boolean requiresTradeStats() {
+        return requiresTradeStats;
+    }
+
+    /**
+     * 是否为单调规则
+     *
+     * <p>
+     * 单调规则的命中结果只随用户自身交易变化（支付使其更接近命中，退单使其远离），
+     * 可在交易状态变化时只重算该用户；窗口滑出等时间因素由定期全量对账修正
+     */
+    public boolean isMonotonic() {
+        return monotonic;
+    }
+
+    /**
+     * 交易统计窗口起点
+     *
+     * @param now 当前时间
+     * @return 窗口起点，null表示不限
+     */
+    public LocalDateTime tradeWindowStart(LocalDateTime now) {
+        return windowDays == null ? null : now.toLocalDate().minusDays(windowDays).atStartOfDay();
+    }
+
+    /**
+     * 判断用户是否命中规则
+     *
+     * @param role         用户角色
+     * @param registerTime 注册时间
+     * @param orderCount   窗口内交易笔数
+     * @param gmv          窗口内实付金额合计（无交易时为null）
+     * @return true=命中
+     */
+    public boolean matches(String role, LocalDateTime registerTime, long orderCount, BigDecimal gmv) {
+        for (Condition condition : conditions) {
+            boolean matched = switch (condition.field()) {
+                case ROLE -> condition.test(role);
+                case REGISTER_TIME -> registerTime != null && condition.test(registerTime.toLocalDate());
+                case ORDER_COUNT -> condition.test(orderCount);
+                case GMV -> condition.test(gmv != null ? gmv : BigDecimal.ZERO);
+            };
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Integer parseWindowDays(Object value) {
+        if (!(value instanceof Number number) || number.intValue() <= 0) {
+            throw new BizException("windowDays 必须为正整数");
+        }
+        return number.intValue();
+    }
+
+    private static Condition compile(Field field, Operator operator, Object value) {
+        if (!field.operators.contains(operator)) {
+            throw new BizException(String.format("字段 %s 不支持操作符 %s", field.name, operator.symbol));
+        }
+        try {
+            Object operand = switch (operator) {
+                case IN, NIN -> {
+                    if (!(value instanceof JSONArray array) || array.isEmpty()) {
+                        throw new BizException(String.format("%s 的 %s 需要非空数组", field.name, operator.symbol));
+                    }
+                    Set<Object> values = new HashSet<>();
+                    for (Object item : array) {
+                        values.add(field.convert(item));
+                    }
+                    yield values;
+                }
+                default -> field.convert(value);
+            };
+            return new Condition(field, operator, operand);
+        } catch (BizException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BizException(String.format("字段 %s 的取值无效: %s", field.name, value));
+        }
+    }
+
+    /**
+     * 规则字段
+     */
+    private enum Field {
+        ROLE(FIELD_ROLE, 0, false, Set.of(Operator.EQ, Operator.NE, Operator.IN, Operator.NIN)),
+        REGISTER_TIME(FIELD_REGISTER_TIME, 1, false, Operator.COMPARISONS),
+        ORDER_COUNT(FIELD_ORDER_COUNT, 2, true, Operator.COMPARISONS),
+        GMV(FIELD_GMV, 3, true, Operator.COMPARISONS);
+
+        private final String name;
+        /** 求值成本，越小越先求值 */
+        private final int cost;
+        private final boolean tradeStats;
+        private final Set<Operator> operators;
+
+        Field(String name, int cost, boolean tradeStats, Set<Operator> operators) {
+            this.name = name;
+            this.cost = cost;
+            this.tradeStats = tradeStats;
+            this.operators = operators;
+        }
+
+        static Field of(String name) {
+            for (Field field : values()) {
+                if (field.name.equals(name)) {
+                    return field;
+                }
+            }
+            throw new BizException("不支持的规则字段: " + name);
+        }
+
+        Object convert(Object value) {
+            if (value == null) {
+                throw new BizException("规则字段 " + name + " 的取值不能为空");
+            }
+            return switch (this) {
+                case ROLE -> value.toString();
+                case REGISTER_TIME -> LocalDate.parse(value.toString());
+                case ORDER_COUNT -> Long.parseLong(value.toString());
+                case GMV -> new BigDecimal(value.toString());
+            };
+        }
+    }
+
+    /**
+     * 比较操作符
+     */
+    private enum Operator {
+        EQ("$eq"), NE("$ne"), GT("$gt"), GTE("$gte"), LT("$lt"), LTE("$lte"), IN("$in"), NIN("$nin");
+
+        private static final Set<Operator> COMPARISONS = Set.of(EQ, NE, GT, GTE, LT, LTE);
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        static Operator of(String symbol) {
+            for (Operator operator : values()) {
+                if (operator.symbol.equals(symbol)) {
+                    return operator;
+                }
+            }
+            throw new BizException("不支持的规则操作符: " + symbol);
+        }
+    }
+
+    /**
+     * 单个谓词：字段 操作符 比较值
+     */
+    private record Condition(Field field, Operator operator, Object operand) {
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        boolean test(Object actual) {
+            if (actual == null) {
+                return operator == Operator.NE || operator == Operator.NIN;
+            }
+            return switch (operator) {
+                case IN -> ((Set<Object>) operand).contains(actual);
+                case NIN -> !((Set<Object>) operand).contains(actual);
+                default -> {
+                    int cmp = ((Comparable) actual).compareTo(operand);
+                    yield switch (operator) {
+                        case EQ -> cmp == 0;
+                        case NE -> cmp != 0;
+                        case GT -> cmp > 0;
+                        case GTE -> cmp >= 0;
+                        case LT -> cmp < 0;
+                        case LTE -> cmp <= 0;
+                        default -> false;
+                    };
+                }
+            };
+        }
+    }
+}
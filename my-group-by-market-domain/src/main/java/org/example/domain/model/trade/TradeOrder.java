@@ -5,6 +5,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.example.common.exception.BizException;
 import org.example.common.util.LogDesensitizer;
 import org.example.domain.model.order.Order;
+import org.example.domain.model.trade.event.TradeOrderPaidEvent;
+import org.example.domain.model.trade.event.TradeOrderRefundedEvent;
 import org.example.domain.model.trade.valueobject.NotifyConfig;
 import org.example.domain.model.trade.valueobject.TradeStatus;
 import org.example.domain.shared.DomainEvent;
@@ -199,6 +201,7 @@ public class TradeOrder {
         this.status = TradeStatus.PAID;
         this.payTime = payTime;
         this.updateTime = LocalDateTime.now();
+        this.addDomainEvent(new TradeOrderPaidEvent(tradeOrderId, userId));
 
         log.info("【TradeOrder聚合】交易订单已支付, tradeOrderId: {}, payTime: {}",
                 tradeOrderId, payTime);
@@ -255,6 +258,7 @@ public class TradeOrder {
         this.refundReason = reason;
         this.refundTime = LocalDateTime.now();
         this.updateTime = LocalDateTime.now();
+        this.addDomainEvent(new TradeOrderRefundedEvent(tradeOrderId, userId));
 
         log.warn("【TradeOrder聚合】交易订单已退单, tradeOrderId: {}, reason: {}", tradeOrderId, reason);
     }
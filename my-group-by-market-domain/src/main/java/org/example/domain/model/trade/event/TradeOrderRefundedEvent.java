@@ -0,0 +1,40 @@
+package org.example.domain.model.trade.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.example.domain.shared.DomainEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * 交易订单已退单事件
+ */
+@Data
+@AllArgsConstructor
+public class TradeOrderRefundedEvent implements DomainEvent {
+
+    private String tradeOrderId;
+    private String userId;
+    private LocalDateTime occurredOn;
+
+    public TradeOrderRefundedEvent(String tradeOrderId, String userId) {
+        this.tradeOrderId = tradeOrderId;
+        this.userId = userId;
+        this.occurredOn = LocalDateTime.now();
+    }
+
+    @Override
+    public LocalDateTime occurredOn() {
+        return occurredOn;
+    }
+
+    @Override
+    public String eventType() {
+        return "TradeOrderRefunded";
+    }
+
+    @Override
+    public String aggregateId() {
+        return tradeOrderId;
+    }
+}
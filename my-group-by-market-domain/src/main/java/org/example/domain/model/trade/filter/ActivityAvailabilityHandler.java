@@ -49,7 +49,7 @@ public class ActivityAvailabilityHandler
         // 如果活动不可用，聚合根会抛出带详细信息的 BizException
         activity.assertAvailable();
 
-        log.info("【活动可用性校验】校验通过, activityId: {}", activityId);
+        log.debug("【活动可用性校验】校验通过, activityId: {}", activityId);
         return TradeFilterResponse.allow();
     }
 }
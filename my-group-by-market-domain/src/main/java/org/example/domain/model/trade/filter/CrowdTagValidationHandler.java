@@ -15,6 +15,7 @@ import org.example.domain.service.validation.CrowdTagValidationService;
  * <ul>
  * <li>检查用户是否在活动的目标人群范围内</li>
  * <li>不可参与时返回拒绝响应，阻止锁单</li>
+ * <li>活动未配置人群标签（或为开放模式）时不执行，见 {@link org.example.domain.model.activity.valueobject.ActivityAdmissionProfile}</li>
  * </ul>
  * 
  * <p>
@@ -37,9 +38,16 @@ public class CrowdTagValidationHandler
         this.crowdTagValidationService = crowdTagValidationService;
     }
 
+    @Override
+    public boolean supports(TradeFilterRequest request, TradeFilterContext context) {
+        Activity activity = context.getActivity();
+        // 活动未加载时交给 handle 报错
+        return activity == null || activity.admissionProfile().crowdTagRequired();
+    }
+
     @Override
     public TradeFilterResponse handle(TradeFilterRequest request, TradeFilterContext context) throws Exception {
-        log.info("【人群标签校验过滤器】开始执行，userId: {}, activityId: {}",
+        log.debug("【人群标签校验过滤器】开始执行，userId: {}, activityId: {}",
                 request.getUserId(), request.getActivityId());
 
         // 从上下文获取 Activity（由前面的 ActivityAvailabilityHandler 加载）
@@ -58,7 +66,7 @@ public class CrowdTagValidationHandler
             return TradeFilterResponse.reject(validationResult.getReason());
         }
 
-        log.info("【人群标签校验过滤器】校验通过，userId: {}, activityId: {}",
+        log.debug("【人群标签校验过滤器】校验通过，userId: {}, activityId: {}",
                 request.getUserId(), request.getActivityId());
 
         // 返回允许继续执行
@@ -32,12 +32,12 @@ public class FlowControlHandler implements IChainHandler<TradeFilterRequest, Tra
 
     @Override
     public TradeFilterResponse handle(TradeFilterRequest request, TradeFilterContext context) throws Exception {
-        log.info("【流控校验过滤器】开始执行，userId: {}", request.getUserId());
+        log.debug("【流控校验过滤器】开始执行，userId: {}", request.getUserId());
 
         // 调用流控服务校验（会抛出 BizException）
         flowControlService.validateFlowControl(request.getUserId());
 
-        log.info("【流控校验过滤器】校验通过，userId: {}", request.getUserId());
+        log.debug("【流控校验过滤器】校验通过，userId: {}", request.getUserId());
 
         // 返回允许继续执行
         return TradeFilterResponse.allow();
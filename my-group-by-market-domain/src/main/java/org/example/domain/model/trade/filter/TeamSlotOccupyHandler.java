@@ -5,7 +5,12 @@ import org.apache.commons.lang3.StringUtils;
 import org.example.common.cache.RedisKeyManager;
 import org.example.common.exception.BizException;
 import org.example.common.pattern.chain.model2.IChainHandler;
+import org.example.domain.model.trade.TradeOrder;
 import org.example.domain.model.trade.repository.TradeOrderRepository;
+import org.example.domain.model.trade.valueobject.TradeStatus;
+
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 组队名额占用规则处理器
@@ -22,6 +27,7 @@ import org.example.domain.model.trade.repository.TradeOrderRepository;
  * 业务逻辑：
  * <ol>
  * <li>如果orderId为空(首次开团),不做名额限制,直接放行</li>
+ * <li>如果orderId为空且为自动撮合,由脚本在活动可加入拼团中挑选并占用名额（跳过用户已开或已参与的拼团）,没有可加入的拼团则按首次开团放行</li>
  * <li>如果orderId不为空(加入已有团),通过Redis名额扣减抢占名额</li>
  * <li>使用Redis DECR原子操作扣减可用名额</li>
  * <li>如果扣减后 &lt; 0，回滚并返回失败</li>
@@ -96,9 +102,12 @@ public class TeamSlotOccupyHandler
         log.info("【交易规则过滤-组队名额校验】userId: {}, activityId: {}, orderId: {}",
                 request.getUserId(), request.getActivityId(), request.getOrderId());
 
-        // 1. orderId为空,则为首次开团,不做拼团组队目标量名额限制
+        // 1. orderId为空,则为首次开团（或自动撮合）,不做拼团组队目标量名额限制
         String orderId = request.getOrderId();
         if (StringUtils.isBlank(orderId)) {
+            if (request.isAutoMatch()) {
+                return autoMatch(request, context);
+            }
             log.info("【交易规则过滤-组队名额校验】首次开团,不做名额限制, userId: {}", request.getUserId());
             return TradeFilterResponse.allow();
         }
@@ -136,6 +145,43 @@ public class TeamSlotOccupyHandler
         return TradeFilterResponse.allow();
     }
 
+    /**
+     * 自动撮合：原子挑选一个有空余名额的拼团并占用，没有则开新团
+     */
+    private TradeFilterResponse autoMatch(TradeFilterRequest request, TradeFilterContext context) {
+        if (context.getActivity() == null) {
+            throw new BizException("活动信息未加载");
+        }
+
+        // 用户已开或已参与（未超时、未退单）的拼团不再撮合，避免同一用户重复占用同一团的名额
+        Set<String> joinedOrderIds = tradeOrderRepository
+                .findByUserIdAndActivityId(request.getUserId(), request.getActivityId()).stream()
+                .filter(tradeOrder -> tradeOrder.getStatus() != TradeStatus.TIMEOUT
+                        && tradeOrder.getStatus() != TradeStatus.REFUND)
+                .map(TradeOrder::getOrderId)
+                .filter(StringUtils::isNotBlank)
+                .collect(Collectors.toSet());
+
+        String matchedOrderId = tradeOrderRepository.occupyBestTeamSlot(
+                request.getActivityId(),
+                context.getActivity().getTarget(),
+                context.getActivity().getValidTime(),
+                joinedOrderIds);
+
+        if (matchedOrderId == null) {
+            log.info("【交易规则过滤-组队名额校验】自动撮合无可加入拼团,开新团, userId: {}, activityId: {}",
+                    request.getUserId(), request.getActivityId());
+            return TradeFilterResponse.allow();
+        }
+
+        context.setMatchedOrderId(matchedOrderId);
+        context.setRecoveryTeamSlotKey(generateTeamSlotKey(matchedOrderId));
+
+        log.info("【交易规则过滤-组队名额校验】自动撮合成功, userId: {}, orderId: {}",
+                request.getUserId(), matchedOrderId);
+        return TradeFilterResponse.allow();
+    }
+
     /**
      * 生成组队名额key
      *
@@ -30,4 +30,7 @@ public class TradeFilterContext {
 
     /** 库存恢复商品ID（用于失败回滚时释放库存） */
     private String recoverySkuId;
+
+    /** 自动撮合选中的拼团订单ID（为空表示开新团） */
+    private String matchedOrderId;
 }
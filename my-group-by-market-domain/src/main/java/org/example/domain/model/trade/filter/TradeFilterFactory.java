@@ -1,10 +1,19 @@
 package org.example.domain.model.trade.filter;
 
+import lombok.extern.slf4j.Slf4j;
 import org.example.common.pattern.chain.model2.ChainExecutor;
+import org.example.common.pattern.chain.model2.IChainHandler;
 import org.example.domain.model.account.repository.AccountRepository;
 import org.example.domain.model.activity.repository.ActivityRepository;
 import org.example.domain.model.goods.repository.SkuRepository;
 import org.example.domain.model.trade.repository.TradeOrderRepository;
+import org.example.domain.repository.IConfigRepository;
+import org.example.domain.service.validation.CrowdTagValidationService;
+import org.example.domain.service.validation.FlowControlService;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 /**
  * 交易规则过滤链工厂
@@ -12,12 +21,13 @@ import org.example.domain.model.trade.repository.TradeOrderRepository;
  * <p>
  * 职责：
  * <ul>
- * <li>创建和组装交易规则过滤链</li>
- * <li>定义handler的执行顺序</li>
+ * <li>启动时创建全部handler（无状态，单例复用）</li>
+ * <li>按动态配置组装并冻结过滤链，锁单时直接复用，不再每次请求重新组装</li>
+ * <li>配置变更时重建过滤链并原子替换，正在执行的请求不受影响</li>
  * </ul>
  *
  * <p>
- * 执行顺序：
+ * 默认执行顺序：
  * <ol>
  * <li>FlowControlHandler - 流控校验（降级开关、切量灰度）</li>
  * <li>ActivityAvailabilityHandler - 活动可用性校验（加载Activity到上下文）</li>
@@ -27,47 +37,141 @@ import org.example.domain.model.trade.repository.TradeOrderRepository;
  * <li>InventoryOccupyHandler - 商品库存预占校验（防止库存超卖）</li>
  * </ol>
  *
+ * <p>
+ * 动态配置（key 中的 name 见 {@link FilterStage}）：
+ * <ul>
+ * <li>trade.filter.{name}.enabled - 是否启用，默认 true</li>
+ * <li>trade.filter.{name}.order - 执行顺序，越小越靠前，默认按上面的顺序 10、20 ... 60</li>
+ * </ul>
+ *
+ * <p>
+ * 必需环节（活动可用性加载上下文，组队名额与库存预占保证不超卖）忽略上述配置，始终按默认顺序执行；
+ * 只有流控、人群标签、参与次数等建议性校验可以关闭或调整顺序，且必须排在名额占用之前
+ * （占用之后的拒绝会留下已占用的名额与库存）；人群标签、参与次数依赖上下文中的 Activity，
+ * 还必须排在活动可用性校验之后，越界的配置回退为默认顺序
+ *
  */
+@Slf4j
 public class TradeFilterFactory {
 
-    private final ActivityRepository activityRepository;
-    private final AccountRepository accountRepository;
-    private final TradeOrderRepository tradeOrderRepository;
-    private final SkuRepository skuRepository;
-    private final org.example.domain.service.validation.FlowControlService flowControlService;
-    private final org.example.domain.service.validation.CrowdTagValidationService crowdTagValidationService;
+    /** 过滤链动态配置前缀 */
+    public static final String CONFIG_PREFIX = "trade.filter.";
+
+    private static final String CHAIN_NAME = "交易规则过滤链";
+
+    private final IConfigRepository configRepository;
+    private final List<FilterStage> stages;
+
+    /** 依赖 Activity 的建议性校验的顺序下限（不含）：活动可用性校验的默认顺序 */
+    private static final int ACTIVITY_LOADED_ORDER = 20;
+
+    /** 建议性校验的顺序上限（不含）：名额占用环节的默认顺序 */
+    private static final int FIRST_OCCUPY_ORDER = 50;
+
+    /** 当前生效的冻结过滤链 */
+    private volatile ChainExecutor<TradeFilterRequest, TradeFilterContext, TradeFilterResponse> filterChain;
+
+    /** 当前生效的环节名（按执行顺序） */
+    private volatile List<String> activeStages = List.of();
 
     public TradeFilterFactory(ActivityRepository activityRepository,
             AccountRepository accountRepository,
             TradeOrderRepository tradeOrderRepository,
             SkuRepository skuRepository,
-            org.example.domain.service.validation.FlowControlService flowControlService,
-            org.example.domain.service.validation.CrowdTagValidationService crowdTagValidationService) {
-        this.activityRepository = activityRepository;
-        this.accountRepository = accountRepository;
-        this.tradeOrderRepository = tradeOrderRepository;
-        this.skuRepository = skuRepository;
-        this.flowControlService = flowControlService;
-        this.crowdTagValidationService = crowdTagValidationService;
+            FlowControlService flowControlService,
+            CrowdTagValidationService crowdTagValidationService,
+            IConfigRepository configRepository) {
+        this.configRepository = configRepository;
+        this.stages = List.of(
+                new FilterStage("flow-control", 10, false, false, new FlowControlHandler(flowControlService)),
+                new FilterStage("activity-availability", ACTIVITY_LOADED_ORDER, true, false,
+                        new ActivityAvailabilityHandler(activityRepository)),
+                new FilterStage("crowd-tag", 30, false, true, new CrowdTagValidationHandler(crowdTagValidationService)),
+                new FilterStage("participation-limit", 40, false, true,
+                        new UserParticipationLimitHandler(accountRepository)),
+                new FilterStage("team-slot", FIRST_OCCUPY_ORDER, true, false,
+                        new TeamSlotOccupyHandler(tradeOrderRepository)),
+                new FilterStage("inventory", 60, true, false, new InventoryOccupyHandler(skuRepository)));
+        rebuild();
+    }
+
+    /**
+     * 获取当前生效的过滤链
+     *
+     * @return 冻结的过滤链执行器（线程安全，可并发执行）
+     */
+    public ChainExecutor<TradeFilterRequest, TradeFilterContext, TradeFilterResponse> getFilterChain() {
+        return filterChain;
+    }
+
+    /**
+     * 获取当前生效的环节名
+     *
+     * @return 按执行顺序排列的环节名（见 {@link FilterStage}）
+     */
+    public List<String> getActiveStages() {
+        return activeStages;
+    }
+
+    /**
+     * 按最新配置重建过滤链
+     *
+     * <p>
+     * 由配置变更监听触发，构建完成后原子替换
+     */
+    public synchronized void rebuild() {
+        List<ConfiguredStage> enabled = new ArrayList<>(stages.size());
+        for (FilterStage stage : stages) {
+            if (stage.required()) {
+                enabled.add(new ConfiguredStage(stage, stage.defaultOrder()));
+                continue;
+            }
+            if (!configRepository.findByKey(CONFIG_PREFIX + stage.name() + ".enabled", Boolean.class, true)) {
+                continue;
+            }
+            int order = configRepository.findByKey(CONFIG_PREFIX + stage.name() + ".order", Integer.class,
+                    stage.defaultOrder());
+            if (order >= FIRST_OCCUPY_ORDER) {
+                log.warn("【交易规则过滤链】{} 顺序 {} 排在名额占用之后，使用默认顺序 {}", stage.name(), order,
+                        stage.defaultOrder());
+                order = stage.defaultOrder();
+            } else if (stage.needsActivity() && order <= ACTIVITY_LOADED_ORDER) {
+                log.warn("【交易规则过滤链】{} 依赖活动信息，顺序 {} 排在活动可用性校验之前，使用默认顺序 {}", stage.name(),
+                        order, stage.defaultOrder());
+                order = stage.defaultOrder();
+            }
+            enabled.add(new ConfiguredStage(stage, order));
+        }
+        // 稳定排序：顺序值相同时保持默认顺序
+        enabled.sort(Comparator.comparingInt(ConfiguredStage::order));
+
+        @SuppressWarnings("unchecked")
+        IChainHandler<TradeFilterRequest, TradeFilterContext, TradeFilterResponse>[] handlers = new IChainHandler[enabled
+                .size()];
+        List<String> names = new ArrayList<>(enabled.size());
+        for (int i = 0; i < enabled.size(); i++) {
+            handlers[i] = enabled.get(i).stage().handler();
+            names.add(enabled.get(i).stage().name());
+        }
+
+        this.filterChain = new ChainExecutor<>(CHAIN_NAME, handlers).freeze();
+        this.activeStages = List.copyOf(names);
+        log.info("【交易规则过滤链】过滤链已构建, stages: {}", names);
     }
 
     /**
-     * 创建交易规则过滤链
+     * 过滤环节定义
      *
-     * @return 过滤链执行器
+     * @param name          配置名
+     * @param defaultOrder  默认顺序
+     * @param required      是否必需（忽略开关与顺序配置）
+     * @param needsActivity 是否依赖活动可用性校验加载的 Activity（只能排在其后）
+     * @param handler       处理器单例
      */
-    public ChainExecutor<TradeFilterRequest, TradeFilterContext, TradeFilterResponse> createFilterChain() {
-        ChainExecutor<TradeFilterRequest, TradeFilterContext, TradeFilterResponse> executor = new ChainExecutor<>(
-                "交易规则过滤链");
-
-        // 按顺序添加handler
-        executor.addHandler(new FlowControlHandler(flowControlService)) // 1. 流控检查（最早拦截）
-                .addHandler(new ActivityAvailabilityHandler(activityRepository)) // 2. 活动可用性
-                .addHandler(new CrowdTagValidationHandler(crowdTagValidationService)) // 3. 人群标签校验
-                .addHandler(new UserParticipationLimitHandler(accountRepository)) // 4. 用户参与限制
-                .addHandler(new TeamSlotOccupyHandler(tradeOrderRepository)) // 5. 组队名额占用
-                .addHandler(new InventoryOccupyHandler(skuRepository)); // 6. 库存预占
-
-        return executor;
+    private record FilterStage(String name, int defaultOrder, boolean required, boolean needsActivity,
+            IChainHandler<TradeFilterRequest, TradeFilterContext, TradeFilterResponse> handler) {
+    }
+
+    private record ConfiguredStage(FilterStage stage, int order) {
     }
 }
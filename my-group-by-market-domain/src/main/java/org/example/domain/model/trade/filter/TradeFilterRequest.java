@@ -28,4 +28,7 @@ public class TradeFilterRequest {
 
     /** 拼团订单ID（如果是加入已有队伍） */
     private String orderId;
+
+    /** 自动撮合（orderId 为空时由服务端挑选可加入的拼团，没有则开新团） */
+    private boolean autoMatch;
 }
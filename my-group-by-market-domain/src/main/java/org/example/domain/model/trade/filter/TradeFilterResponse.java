@@ -24,6 +24,9 @@ import org.example.common.pattern.chain.model2.IChainResponse;
 @AllArgsConstructor
 public class TradeFilterResponse implements IChainResponse {
 
+    /** 共享的放行响应（只读，放行路径不再每次创建对象） */
+    private static final TradeFilterResponse ALLOW = new TradeFilterResponse(true, null);
+
     /** 是否允许交易（true=允许继续, false=拒绝中断） */
     private boolean allowed;
 
@@ -51,14 +54,14 @@ public class TradeFilterResponse implements IChainResponse {
     }
 
     /**
-     * 创建允许响应（继续下一个处理器）
+     * 获取允许响应（继续下一个处理器）
+     *
+     * <p>返回共享实例，调用方不得修改
      *
      * @return 允许响应
      */
     public static TradeFilterResponse allow() {
-        return TradeFilterResponse.builder()
-                .allowed(true)
-                .build();
+        return ALLOW;
     }
 
     /**
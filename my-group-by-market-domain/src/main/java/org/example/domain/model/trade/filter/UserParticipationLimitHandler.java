@@ -1,6 +1,8 @@
 package org.example.domain.model.trade.filter;
 
 import lombok.extern.slf4j.Slf4j;
+import org.example.common.exception.BizException;
+import org.example.common.exception.ErrorCode;
 import org.example.common.pattern.chain.model2.IChainHandler;
 import org.example.domain.model.account.Account;
 import org.example.domain.model.account.repository.AccountRepository;
@@ -12,15 +14,16 @@ import org.example.domain.model.activity.Activity;
  * <p>
  * 职责：
  * <ul>
- * <li>校验用户在该活动下的参与次数是否超过限制</li>
- * <li>如果活动未设置参与限制（participationLimit=null或0），则跳过校验</li>
+ * <li>校验并扣减用户在该活动下的参与次数（一条条件更新完成）</li>
+ * <li>如果活动未设置参与限制（participationLimit=null或0），则不执行（不加载也不创建 Account）</li>
  * </ul>
  *
  * <p>
  * 设计说明：
  * <ul>
- * <li>使用 AccountRepository 加载 Account 聚合根</li>
- * <li>委托给 Account.assertHasAvailableCount() 进行校验（充血模型）</li>
+ * <li>使用 AccountRepository.tryDeductCount() 原子扣减：未达上限才 +1，首次参与时创建账户</li>
+ * <li>同一用户并发锁单由行锁串行化，不再出现乐观锁冲突导致的误失败</li>
+ * <li>扣减在锁单事务内执行，后续步骤失败时随事务回滚</li>
  * <li>数据来源统一：使用 Account.participationCount，而不是
  * TradeOrderRepository.count()</li>
  * </ul>
@@ -36,6 +39,13 @@ public class UserParticipationLimitHandler
         this.accountRepository = accountRepository;
     }
 
+    @Override
+    public boolean supports(TradeFilterRequest request, TradeFilterContext context) {
+        Activity activity = context.getActivity();
+        // 活动未加载时交给 handle 报错
+        return activity == null || activity.admissionProfile().participationLimited();
+    }
+
     @Override
     public TradeFilterResponse handle(TradeFilterRequest request, TradeFilterContext context) throws Exception {
         String userId = request.getUserId();
@@ -47,23 +57,18 @@ public class UserParticipationLimitHandler
             throw new IllegalStateException("活动信息未加载，请确保ActivityAvailabilityHandler在此handler之前执行");
         }
 
-        // 2. 加载或创建 Account 聚合根（首次参与活动时自动创建）
-        Account account = accountRepository.findByUserAndActivity(userId, activityId)
-                .orElseGet(() -> {
-                    String accountId = accountRepository.nextId();
-                    Account newAccount = Account.create(accountId, userId, activityId, null);
-                    accountRepository.save(newAccount);
-                    log.info("【用户参与限制校验】首次参与活动，创建新账户, accountId: {}, userId: {}, activityId: {}",
-                            accountId, userId, activityId);
-                    return newAccount;
-                });
-
-        // 3. 委托给聚合根进行校验（充血模型）
-        // 如果参与次数已达上限，聚合根会抛出带详细信息的 BizException
-        account.assertHasAvailableCount(activity);
+        // 2. 原子校验并扣减参团次数
+        int limit = activity.getParticipationLimit();
+        if (!accountRepository.tryDeductCount(userId, activityId, limit)) {
+            // 只在拒绝路径查询已参与次数用于提示
+            int used = accountRepository.findByUserAndActivity(userId, activityId)
+                    .map(Account::getParticipationCount)
+                    .orElse(limit);
+            throw new BizException(ErrorCode.ACCOUNT_PARTICIPATION_LIMIT_REACHED, used, limit);
+        }
 
-        log.info("【用户参与限制校验】校验通过, userId: {}, activityId: {}, used: {}, limit: {}",
-                userId, activityId, account.getParticipationCount(), activity.getParticipationLimit());
+        log.debug("【用户参与限制校验】参团次数扣减成功, userId: {}, activityId: {}, limit: {}",
+                userId, activityId, limit);
         return TradeFilterResponse.allow();
     }
 }
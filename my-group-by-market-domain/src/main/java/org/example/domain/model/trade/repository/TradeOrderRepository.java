@@ -2,11 +2,16 @@ package org.example.domain.model.trade.repository;
 
 import org.example.common.model.PageResult;
 import org.example.domain.model.trade.TradeOrder;
+import org.example.domain.model.trade.valueobject.TradeOrderReleaseFlags;
+import org.example.domain.model.trade.valueobject.TradeOrderStatusView;
+import org.example.domain.model.trade.valueobject.TradeStatus;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * 交易订单仓储接口
@@ -50,14 +55,41 @@ public interface TradeOrderRepository {
      */
     void update(TradeOrder tradeOrder);
 
+    /**
+     * 条件更新交易订单（状态比较并交换）
+     *
+     * <p>
+     * 仅当数据库中的状态仍为 expectedStatus 时才写入，用于跨节点的支付/退单互斥：
+     * 先到者生效，后到者返回 false
+     *
+     * @param tradeOrder     交易订单（已变更为目标状态）
+     * @param expectedStatus 加载时的原状态
+     * @return true=更新成功，false=状态已被其他操作修改
+     */
+    boolean updateIfStatus(TradeOrder tradeOrder, TradeStatus expectedStatus);
+
     /**
      * 根据交易订单ID查询
      *
+     * <p>
+     * 只查热表：退款/结算等写路径只处理未归档订单；订单详情使用 {@link #findByTradeOrderIdIncludingArchive}
+     *
      * @param tradeOrderId 交易订单ID
      * @return 交易订单（如果不存在则返回empty）
      */
     Optional<TradeOrder> findByTradeOrderId(String tradeOrderId);
 
+    /**
+     * 根据交易订单ID查询（含已归档订单）
+     *
+     * <p>
+     * 热表未命中时回查归档表，仅用于订单详情等只读查询（归档订单均为终态，不可再变更）
+     *
+     * @param tradeOrderId 交易订单ID
+     * @return 交易订单（如果不存在则返回empty）
+     */
+    Optional<TradeOrder> findByTradeOrderIdIncludingArchive(String tradeOrderId);
+
     /**
      * 根据外部交易单号查询（幂等性校验）
      *
@@ -81,6 +113,55 @@ public interface TradeOrderRepository {
      */
     List<TradeOrder> findByUserIdAndActivityId(String userId, String activityId);
 
+    /**
+     * 批量查询交易订单状态（轻量投影）
+     *
+     * <p>
+     * 用途：只需判断状态的场景（超时消费、批量对账），不加载完整聚合
+     *
+     * @param tradeOrderIds 交易订单ID集合
+     * @return 状态投影列表（不存在的ID不返回，顺序不保证）
+     */
+    List<TradeOrderStatusView> findStatusByIds(Collection<String> tradeOrderIds);
+
+    /**
+     * 按外部交易单号批量查询交易订单状态（轻量投影）
+     *
+     * <p>
+     * 用途：支付回调/对账按外部单号批量去重
+     *
+     * @param outTradeNos 外部交易单号集合
+     * @return 状态投影列表（不存在的单号不返回，顺序不保证）
+     */
+    List<TradeOrderStatusView> findByOutTradeNos(Collection<String> outTradeNos);
+
+    /**
+     * 查询创建时间在区间内、仍未支付的交易订单（轻量投影）
+     *
+     * <p>
+     * 用途：支付对账轮询，找出迟迟未收到回调的订单；按 (createTime, tradeOrderId) 键集跨轮续读
+     *
+     * @param createdAfter  创建时间下界（含）
+     * @param createdBefore 创建时间上界（不含）
+     * @param afterTime     键集：上一批最后一行的创建时间（null 表示从区间起点开始）
+     * @param afterId       键集：上一批最后一行的交易订单ID
+     * @param limit         最大返回条数
+     * @return 状态投影列表（按创建时间、交易订单ID升序）
+     */
+    List<TradeOrderStatusView> findCreatedBetween(LocalDateTime createdAfter, LocalDateTime createdBefore,
+            LocalDateTime afterTime, String afterId, int limit);
+
+    /**
+     * 查询资源释放标记（轻量投影）
+     *
+     * <p>
+     * 用途：资源释放前的幂等性检查
+     *
+     * @param tradeOrderId 交易订单ID
+     * @return 释放标记（如果不存在则返回empty）
+     */
+    Optional<TradeOrderReleaseFlags> findReleaseFlags(String tradeOrderId);
+
     /**
      * 根据队伍ID查询交易订单列表
      *
@@ -97,12 +178,22 @@ public interface TradeOrderRepository {
      *
      * <p>
      * 用途：查询某个拼团订单关联的所有交易记录
+     * <p>
+     * 只查热表：结算/退款只处理未归档的非终态订单；历史明细使用 {@link #findByOrderIdIncludingArchive}
      *
      * @param orderId 拼团订单ID
      * @return 交易订单列表
      */
     List<TradeOrder> findByOrderId(String orderId);
 
+    /**
+     * 根据订单ID查询交易订单列表（含已归档订单）
+     *
+     * @param orderId 拼团订单ID
+     * @return 交易订单列表（按创建时间升序）
+     */
+    List<TradeOrder> findByOrderIdIncludingArchive(String orderId);
+
     /**
      * 统计用户在某个活动下的参与次数
      *
@@ -119,7 +210,7 @@ public interface TradeOrderRepository {
      * 根据用户ID查询交易订单列表
      *
      * <p>
-     * 用途：查询用户的所有交易订单（用户中心订单列表）
+     * 用途：查询用户的所有交易订单（用户中心订单列表，含已归档订单）
      *
      * @param userId 用户ID
      * @param page   页码（从1开始）
@@ -132,7 +223,7 @@ public interface TradeOrderRepository {
      * 统计用户的交易订单总数
      *
      * <p>
-     * 用途：分页查询时获取总数
+     * 用途：分页查询时获取总数（含已归档订单）
      *
      * @param userId 用户ID
      * @return 订单总数
@@ -204,6 +295,22 @@ public interface TradeOrderRepository {
      */
     void recoveryTeamSlot(String teamSlotKey, Integer validTime);
 
+    /**
+     * 自动撮合：为活动挑选一个有空余名额的拼团并原子占用一个名额
+     *
+     * <p>
+     * 候选来自可加入拼团索引中排名靠前的若干个拼团，从随机位置开始依次尝试 DECR 名额，
+     * 同一时刻涌入的用户分散到不同拼团，避免都挤向同一个即将满员的团；用户已开或已参与的拼团不作为候选
+     *
+     * @param activityId      活动ID
+     * @param target          目标人数（名额未初始化时使用）
+     * @param validTime       有效时间（分钟）
+     * @param excludeOrderIds 需要跳过的拼团订单ID
+     * @return 占用成功的拼团订单ID，没有可加入的拼团时返回null
+     */
+    String occupyBestTeamSlot(String activityId, Integer target, Integer validTime,
+            Collection<String> excludeOrderIds);
+
     /**
      * 统计指定时间范围内的订单总金额
      *
@@ -233,6 +340,10 @@ public interface TradeOrderRepository {
     /**
      * 分页查询交易订单
      *
+     * <p>
+     * total 为估算值：不超过计数上限时精确，超过时等于上限（表示“至少”这么多条），
+     * 完整数据请使用 {@link #forEachForExport}；结果包含已归档订单
+     *
      * @param page      页码
      * @param size      每页大小
      * @param keyword   关键词（订单号/用户ID）
@@ -243,4 +354,33 @@ public interface TradeOrderRepository {
      */
     PageResult<TradeOrder> findByPage(int page, int size, String keyword, String status,
             LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * 流式遍历符合条件的交易订单（导出）
+     *
+     * <p>
+     * 按 (创建时间, 交易订单ID) 升序逐行回调（含已归档订单），内存占用与结果集大小无关
+     *
+     * @param keyword   关键词（订单号/用户ID）
+     * @param status    状态
+     * @param startDate 开始时间
+     * @param endDate   结束时间
+     * @param consumer  逐行回调
+     * @return 遍历的行数
+     */
+    long forEachForExport(String keyword, String status, LocalDateTime startDate, LocalDateTime endDate,
+            Consumer<TradeOrder> consumer);
+
+    /**
+     * 归档一批终态交易订单
+     *
+     * <p>
+     * 把创建时间早于 createdBefore 的 SETTLED/TIMEOUT/REFUND 订单从热表搬到归档表（单个事务内复制并删除），
+     * 热表只保留进行中和近期订单
+     *
+     * @param createdBefore 创建时间上界（不含）
+     * @param batchSize     本批最大条数
+     * @return 本批归档的条数（小于 batchSize 表示已无可归档订单）
+     */
+    int archiveFinalOrders(LocalDateTime createdBefore, int batchSize);
 }
@@ -0,0 +1,21 @@
+package org.example.domain.model.trade.valueobject;
+
+/**
+ * 交易订单资源释放标记投影
+ *
+ * <p>
+ * 资源释放的幂等性检查只关心四个释放标记，无需加载完整的 TradeOrder 聚合
+ *
+ * @param tradeOrderId               交易订单ID
+ * @param participationCountReleased 参团次数是否已释放
+ * @param lockCountReleased          Order.lockCount 是否已释放
+ * @param slotReleased               名额槽位是否已释放
+ * @param inventoryReleased          冻结库存是否已释放
+ */
+public record TradeOrderReleaseFlags(
+        String tradeOrderId,
+        boolean participationCountReleased,
+        boolean lockCountReleased,
+        boolean slotReleased,
+        boolean inventoryReleased) {
+}
@@ -0,0 +1,26 @@
+package org.example.domain.model.trade.valueobject;
+
+import java.time.LocalDateTime;
+
+/**
+ * 交易订单状态投影
+ *
+ * <p>
+ * 只包含状态判断所需的字段，用于批量状态检查（超时消费、对账、回调去重），
+ * 避免加载和映射完整的 TradeOrder 聚合
+ *
+ * @param tradeOrderId 交易订单ID
+ * @param outTradeNo   外部交易单号
+ * @param orderId      拼团订单ID
+ * @param userId       用户ID
+ * @param status       交易状态
+ * @param createTime   创建时间
+ */
+public record TradeOrderStatusView(
+        String tradeOrderId,
+        String outTradeNo,
+        String orderId,
+        String userId,
+        TradeStatus status,
+        LocalDateTime createTime) {
+}
@@ -57,7 +57,7 @@ public class LockOrderService {
      * @param originalPrice  原始价格
      * @param deductionPrice 减免金额
      * @param payPrice       实付金额
-     * @param outTradeNo     外部交易单号（幂等性保证）
+     * @param outTradeNo     外部交易单号（幂等性由调用方保证，唯一键兜底）
      * @param source         来源
      * @param channel        渠道
      * @param notifyConfig   通知配置
@@ -80,12 +80,7 @@ public class LockOrderService {
             String channel,
             NotifyConfig notifyConfig) {
 
-        // 1. 幂等性校验：检查外部交易单号是否已存在
-        Optional<TradeOrder> existingTradeOrder = tradeOrderRepository.findByOutTradeNo(outTradeNo);
-        if (existingTradeOrder.isPresent()) {
-            log.warn("【锁单服务】交易单号已存在，返回已有订单, outTradeNo: {}", outTradeNo);
-            return existingTradeOrder.get();
-        }
+        // 1. 幂等性由调用方的幂等台账保证（outTradeNo 唯一键兜底），此处不再重复查库
 
         // 2. 加载Order聚合
         Optional<Order> orderOpt = orderRepository.findById(orderId);
@@ -6,15 +6,16 @@ import org.example.common.exception.BizException;
 import org.example.domain.model.trade.TradeOrder;
 import org.example.domain.model.trade.message.RefundMessage;
 import org.example.domain.model.trade.repository.TradeOrderRepository;
+import org.example.domain.model.trade.valueobject.TradeOrderStatusView;
 import org.example.domain.model.trade.valueobject.TradeStatus;
 import org.example.domain.service.lock.IDistributedLockService;
+import org.example.domain.service.lock.IOrderMailbox;
 import org.example.domain.service.refund.IRefundFallbackService;
 import org.example.domain.service.refund.RefundStrategy;
 import org.example.domain.service.refund.RefundStrategyFactory;
 import org.example.domain.service.refund.TeamRefundStrategy;
 
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -52,6 +53,7 @@ public class RefundService {
     private final RefundStrategyFactory refundStrategyFactory;
     private final TeamRefundStrategy teamRefundStrategy;
     private final IDistributedLockService lockService;
+    private final IOrderMailbox orderMailbox;
     // 降级策略：注入IRefundFallbackService接口（可选）
     private final IRefundFallbackService fallbackService;
 
@@ -59,11 +61,13 @@ public class RefundService {
             RefundStrategyFactory refundStrategyFactory,
             TeamRefundStrategy teamRefundStrategy,
             IDistributedLockService lockService,
+            IOrderMailbox orderMailbox,
             IRefundFallbackService fallbackService) {
         this.tradeOrderRepository = tradeOrderRepository;
         this.refundStrategyFactory = refundStrategyFactory;
         this.teamRefundStrategy = teamRefundStrategy;
         this.lockService = lockService;
+        this.orderMailbox = orderMailbox;
         this.fallbackService = fallbackService;
     }
 
@@ -76,7 +80,9 @@ public class RefundService {
      * <p>
      * 安全措施：
      * <ul>
+     * <li>订单邮箱：同一拼团的支付与退单在节点内串行（基于orderId）</li>
      * <li>分布式锁：防止并发退款（基于tradeOrderId）</li>
+     * <li>条件更新：策略先以加载时的状态为条件写回新状态，命中后才释放资源；并发支付先行写入时不释放，避免超卖</li>
      * <li>幂等性：通过订单状态判断，已退款订单直接返回</li>
      * </ul>
      *
@@ -93,51 +99,14 @@ public class RefundService {
     // - 方案B：日志文件 + 定期归档到数据库（推荐）
     // - 方案C：发送到ELK进行集中管理
     public void refundTradeOrder(String tradeOrderId, String reason) {
-        // 1. 分布式锁：防止并发退款
-        String lockKey = RedisKeyManager.lockKey("refund", tradeOrderId);
-
         try {
-            // 尝试获取锁（30秒超时）
-            boolean lockAcquired = lockService.tryLock(lockKey, 0, 30, TimeUnit.SECONDS);
-            if (!lockAcquired) {
-                log.warn("【退单服务】退款操作进行中，请稍后重试, tradeOrderId={}", tradeOrderId);
-                throw new BizException("退款操作进行中，请稍后重试");
-            }
-
-            try {
-                // 2. 加载 TradeOrder
-                Optional<TradeOrder> tradeOrderOpt = tradeOrderRepository.findByTradeOrderId(tradeOrderId);
-                if (tradeOrderOpt.isEmpty()) {
-                    throw new BizException("交易订单不存在");
-                }
-                TradeOrder tradeOrder = tradeOrderOpt.get();
-
-                // 3. 幂等性检查：已结算、已超时或已退款则静默返回
-                // 注意：PAID状态允许退款（拼团失败场景）
-                if (tradeOrder.getStatus() == TradeStatus.SETTLED ||
-                        tradeOrder.getStatus() == TradeStatus.TIMEOUT ||
-                        tradeOrder.getStatus() == TradeStatus.REFUND) {
-                    log.info("【退单服务】订单已处理，幂等返回, tradeOrderId={}, status={}",
-                            tradeOrderId, tradeOrder.getStatus());
-                    return;
-                }
-
-                // 4. 根据订单状态选择退单策略
-                RefundStrategy strategy = refundStrategyFactory.getStrategy(tradeOrder);
+            // 1. 定位所属拼团，进入该拼团的邮箱（与同一拼团的支付回调串行执行）
+            String orderId = tradeOrderRepository.findStatusByIds(List.of(tradeOrderId)).stream()
+                    .findFirst()
+                    .map(TradeOrderStatusView::orderId)
+                    .orElseThrow(() -> new BizException("交易订单不存在"));
 
-                // 5. 执行退单策略
-                strategy.execute(tradeOrder);
-
-                // 6. 更新到数据库
-                tradeOrderRepository.update(tradeOrder);
-
-                log.info("【退单服务】退单成功, tradeOrderId={}, status={}, reason={}",
-                        tradeOrderId, tradeOrder.getStatus(), reason);
-
-            } finally {
-                // 释放锁
-                lockService.unlock(lockKey);
-            }
+            orderMailbox.run(orderId, () -> refundWithLock(tradeOrderId, reason));
 
         } catch (BizException e) {
             throw e;
@@ -163,6 +132,61 @@ public class RefundService {
         }
     }
 
+    /**
+     * 在拼团邮箱内执行退单
+     *
+     * <p>
+     * 退单入口分散在各节点（HTTP、超时消息、退款重试消息），仍保留按 tradeOrderId 的分布式锁防止跨节点重复退款；
+     * 支付回调不取该锁（订单邮箱只在节点内串行），与支付的互斥依靠双方各自的状态条件更新：
+     * 退单策略先 CAS 状态再释放资源，支付先行提交时退单 CAS 未命中、不释放；退单先行提交时支付 CAS 未命中、整体回滚
+     */
+    private void refundWithLock(String tradeOrderId, String reason) {
+        // 2. 分布式锁：防止并发退款
+        String lockKey = RedisKeyManager.lockKey("refund", tradeOrderId);
+
+        // 尝试获取锁（30秒超时）
+        boolean lockAcquired = lockService.tryLock(lockKey, 0, 30, TimeUnit.SECONDS);
+        if (!lockAcquired) {
+            log.warn("【退单服务】退款操作进行中，请稍后重试, tradeOrderId={}", tradeOrderId);
+            throw new BizException("退款操作进行中，请稍后重试");
+        }
+
+        try {
+            // 3. 加载 TradeOrder
+            TradeOrder tradeOrder = tradeOrderRepository.findByTradeOrderId(tradeOrderId)
+                    .orElseThrow(() -> new BizException("交易订单不存在"));
+
+            // 4. 幂等性检查：已结算、已超时或已退款则静默返回
+            // 注意：PAID状态允许退款（拼团失败场景）
+            if (tradeOrder.getStatus() == TradeStatus.SETTLED ||
+                    tradeOrder.getStatus() == TradeStatus.TIMEOUT ||
+                    tradeOrder.getStatus() == TradeStatus.REFUND) {
+                log.info("【退单服务】订单已处理，幂等返回, tradeOrderId={}, status={}",
+                        tradeOrderId, tradeOrder.getStatus());
+                return;
+            }
+
+            // 5. 根据订单状态选择退单策略
+            RefundStrategy strategy = refundStrategyFactory.getStrategy(tradeOrder);
+
+            // 6. 执行退单策略（先条件更新状态，命中后释放资源；其他节点已先行修改状态时抛出异常）
+            try {
+                strategy.execute(tradeOrder);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+
+            log.info("【退单服务】退单成功, tradeOrderId={}, status={}, reason={}",
+                    tradeOrderId, tradeOrder.getStatus(), reason);
+
+        } finally {
+            // 释放锁
+            lockService.unlock(lockKey);
+        }
+    }
+
     /**
      * 批量退单（拼团失败场景）
      *
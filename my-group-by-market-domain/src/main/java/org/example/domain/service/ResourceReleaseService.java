@@ -5,13 +5,13 @@ import org.example.common.cache.RedisKeyManager;
 import org.example.common.exception.BizException;
 import org.example.domain.model.activity.Activity;
 import org.example.domain.model.activity.repository.ActivityRepository;
-import org.example.domain.model.account.Account;
 import org.example.domain.model.account.repository.AccountRepository;
 import org.example.domain.model.goods.repository.SkuRepository;
 import org.example.domain.model.order.Order;
 import org.example.domain.model.order.repository.OrderRepository;
 import org.example.domain.model.trade.TradeOrder;
 import org.example.domain.model.trade.repository.TradeOrderRepository;
+import org.example.domain.model.trade.valueobject.TradeOrderReleaseFlags;
 import org.example.domain.service.lock.IDistributedLockService;
 
 import java.util.Optional;
@@ -167,8 +167,8 @@ public class ResourceReleaseService {
         try {
             // 1. 幂等性检查：如果已释放过，直接返回
             if (tradeOrderId != null && !tradeOrderId.isEmpty()) {
-                TradeOrder tradeOrder = tradeOrderRepository.findByTradeOrderId(tradeOrderId).orElse(null);
-                if (tradeOrder != null && tradeOrder.isLockCountReleased()) {
+                TradeOrderReleaseFlags flags = tradeOrderRepository.findReleaseFlags(tradeOrderId).orElse(null);
+                if (flags != null && flags.lockCountReleased()) {
                     log.warn("【{}】lockCount已释放过，跳过 tradeOrderId={}, orderId={}",
                             scene, tradeOrderId, orderId);
                     return true;
@@ -233,8 +233,8 @@ public class ResourceReleaseService {
         try {
             // 1. 幂等性检查：如果已释放过，直接返回
             if (tradeOrderId != null && !tradeOrderId.isEmpty()) {
-                TradeOrder tradeOrder = tradeOrderRepository.findByTradeOrderId(tradeOrderId).orElse(null);
-                if (tradeOrder != null && tradeOrder.isSlotReleased()) {
+                TradeOrderReleaseFlags flags = tradeOrderRepository.findReleaseFlags(tradeOrderId).orElse(null);
+                if (flags != null && flags.slotReleased()) {
                     log.warn("【{}】槽位已释放过，跳过 tradeOrderId={}", scene, tradeOrderId);
                     return;
                 }
@@ -309,8 +309,8 @@ public class ResourceReleaseService {
         try {
             // 1. 幂等性检查：如果已释放过，直接返回
             if (tradeOrderId != null && !tradeOrderId.isEmpty()) {
-                TradeOrder tradeOrder = tradeOrderRepository.findByTradeOrderId(tradeOrderId).orElse(null);
-                if (tradeOrder != null && tradeOrder.isInventoryReleased()) {
+                TradeOrderReleaseFlags flags = tradeOrderRepository.findReleaseFlags(tradeOrderId).orElse(null);
+                if (flags != null && flags.inventoryReleased()) {
                     log.warn("【{}】库存已释放过，跳过 tradeOrderId={}, skuId={}",
                             scene, tradeOrderId, skuId);
                     return;
@@ -366,7 +366,7 @@ public class ResourceReleaseService {
      * 释放参团次数
      *
      * <p>
-     * 与 Account.deductCount() 保持对称，调用 compensateCount() 恢复
+     * 与锁单时的 AccountRepository.tryDeductCount() 保持对称，调用 compensateCount() 原子恢复
      *
      * @param userId       用户ID
      * @param activityId   活动ID
@@ -382,28 +382,22 @@ public class ResourceReleaseService {
         try {
             // 1. 幂等性检查：如果已释放过，直接返回
             if (tradeOrderId != null && !tradeOrderId.isEmpty()) {
-                TradeOrder tradeOrder = tradeOrderRepository.findByTradeOrderId(tradeOrderId).orElse(null);
-                if (tradeOrder != null && tradeOrder.isParticipationCountReleased()) {
+                TradeOrderReleaseFlags flags = tradeOrderRepository.findReleaseFlags(tradeOrderId).orElse(null);
+                if (flags != null && flags.participationCountReleased()) {
                     log.warn("【{}】参团次数已释放过，跳过 tradeOrderId={}, userId={}",
                             scene, tradeOrderId, userId);
                     return;
                 }
             }
 
-            // 2. 加载 Account 聚合
-            Account account = accountRepository.findByUserAndActivity(userId, activityId).orElse(null);
-            if (account == null) {
-                log.warn("【{}】Account不存在，跳过参团次数释放, userId={}, activityId={}", scene, userId, activityId);
+            // 2. 原子补偿参团次数（不限参团次数的活动锁单时不创建 Account）
+            if (!accountRepository.compensateCount(userId, activityId)) {
+                log.debug("【{}】Account不存在或次数已为0，跳过参团次数释放, userId={}, activityId={}",
+                        scene, userId, activityId);
                 return;
             }
 
-            // 3. 调用聚合根方法补偿
-            account.compensateCount();
-
-            // 4. 持久化
-            accountRepository.save(account);
-
-            // 5. 标记为已释放（关键！）
+            // 3. 标记为已释放（关键！）
             if (tradeOrderId != null && !tradeOrderId.isEmpty()) {
                 TradeOrder tradeOrder = tradeOrderRepository.findByTradeOrderId(tradeOrderId).orElse(null);
                 if (tradeOrder != null) {
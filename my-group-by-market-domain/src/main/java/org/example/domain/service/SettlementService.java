@@ -1,7 +1,6 @@
 package org.example.domain.service;
 
 import lombok.extern.slf4j.Slf4j;
-import org.example.common.cache.RedisKeyManager;
 import org.example.common.exception.BizException;
 import org.example.domain.model.notification.NotificationTask;
 import org.example.domain.model.notification.repository.NotificationTaskRepository;
@@ -10,7 +9,9 @@ import org.example.domain.model.order.repository.OrderRepository;
 import org.example.domain.model.order.valueobject.OrderStatus;
 import org.example.domain.model.trade.TradeOrder;
 import org.example.domain.model.trade.repository.TradeOrderRepository;
-import org.example.domain.service.lock.IDistributedLockService;
+import org.example.domain.model.trade.valueobject.TradeOrderStatusView;
+import org.example.domain.model.trade.valueobject.TradeStatus;
+import org.example.domain.service.lock.IOrderMailbox;
 import org.example.domain.shared.IdGenerator;
 
 import java.math.BigDecimal;
@@ -18,7 +19,6 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
 
 /**
  * 结算领域服务
@@ -47,20 +47,20 @@ public class SettlementService {
     private final NotificationTaskRepository notificationTaskRepository;
     private final IdGenerator idGenerator;
     private final ResourceReleaseService resourceReleaseService;
-    private final IDistributedLockService lockService;
+    private final IOrderMailbox orderMailbox;
 
     public SettlementService(OrderRepository orderRepository,
             TradeOrderRepository tradeOrderRepository,
             NotificationTaskRepository notificationTaskRepository,
             IdGenerator idGenerator,
             ResourceReleaseService resourceReleaseService,
-            IDistributedLockService lockService) {
+            IOrderMailbox orderMailbox) {
         this.orderRepository = orderRepository;
         this.tradeOrderRepository = tradeOrderRepository;
         this.notificationTaskRepository = notificationTaskRepository;
         this.idGenerator = idGenerator;
         this.resourceReleaseService = resourceReleaseService;
-        this.lockService = lockService;
+        this.orderMailbox = orderMailbox;
     }
 
     /**
@@ -145,36 +145,47 @@ public class SettlementService {
         // 3. 只处理 CREATE 状态的订单（未支付）
         // 已支付订单的 TRADE_CLOSED 需要走退款流程，这里只处理未支付情况
         if (tradeOrder.isCreated()) {
-            log.info("【结算服务】未支付订单交易关闭，标记为超时并释放资源, outTradeNo: {}", outTradeNo);
-            tradeOrder.markAsTimeout();
-            tradeOrderRepository.update(tradeOrder);
-
-            // 4. 释放全部预占资源（委托给 ResourceReleaseService）
-            resourceReleaseService.releaseAllResources(
-                    tradeOrder.getOrderId(),
-                    tradeOrder.getActivityId(),
-                    tradeOrder.getSkuId(),
-                    tradeOrder.getUserId(),
-                    tradeOrder.getTradeOrderId(),
-                    "交易关闭回调");
+            orderMailbox.run(tradeOrder.getOrderId(), () -> closeUnpaid(tradeOrder, outTradeNo));
         } else {
             log.warn("【结算服务】非 CREATE 状态的订单收到 TRADE_CLOSED，需人工检查, outTradeNo: {}, status: {}",
                     outTradeNo, tradeOrder.getStatus());
         }
     }
 
+    /**
+     * 在拼团邮箱内关闭未支付订单
+     */
+    private void closeUnpaid(TradeOrder tradeOrder, String outTradeNo) {
+        log.info("【结算服务】未支付订单交易关闭，标记为超时并释放资源, outTradeNo: {}", outTradeNo);
+        tradeOrder.markAsTimeout();
+        // 条件更新：其他节点已先行支付/退单时不再释放资源
+        if (!tradeOrderRepository.updateIfStatus(tradeOrder, TradeStatus.CREATE)) {
+            log.warn("【结算服务】交易订单状态已变更，跳过交易关闭处理, outTradeNo: {}", outTradeNo);
+            return;
+        }
+
+        // 4. 释放全部预占资源（委托给 ResourceReleaseService）
+        resourceReleaseService.releaseAllResources(
+                tradeOrder.getOrderId(),
+                tradeOrder.getActivityId(),
+                tradeOrder.getSkuId(),
+                tradeOrder.getUserId(),
+                tradeOrder.getTradeOrderId(),
+                "交易关闭回调");
+    }
+
     /**
      * 处理支付成功
      *
      * <p>
      * 业务流程：
      * <ol>
-     * <li>获取分布式锁（与退款使用相同锁，确保互斥）</li>
+     * <li>查询所属拼团订单，进入该 orderId 的邮箱（同一拼团的支付/退单串行执行）</li>
      * <li>加载TradeOrder，校验状态</li>
      * <li>加载Order，用于时间校验</li>
      * <li>执行增强的结算校验（状态+渠道+时间）</li>
-     * <li>标记TradeOrder为PAID</li>
      * <li>原子增加Order的completeCount（SQL层）</li>
+     * <li>条件更新TradeOrder为PAID（仅当仍为CREATE）</li>
      * <li>重新加载Order以同步最新状态（关键！）</li>
      * <li>如果成团，触发拼团成功流程</li>
      * </ol>
@@ -182,95 +193,87 @@ public class SettlementService {
      * <p>
      * 并发控制设计（遵循CONCURRENCY.md）：
      * <ul>
-     * <li>使用分布式锁防止与超时处理并发（Race #9修复）</li>
+     * <li>同一拼团的回调由回调队列路由到同一节点，节点内由订单邮箱串行，不再使用分布式锁，也不再因锁竞争失败</li>
+     * <li>与其他节点上的超时/退单互斥依靠 TradeOrder 状态条件更新：后到者更新未命中，整个事务回滚（Race #9修复）</li>
      * <li>使用 SQL 原子更新避免乐观锁误杀</li>
      * <li>SQL 更新后立即 Reload 聚合根同步状态</li>
-     * <li>基于最新状态触发领域事件</li>
      * <li>口诀："SQL 写完必 Reload，事件发布看内存"</li>
      * </ul>
      *
      * @param tradeOrderId 交易订单ID
      */
     public void handlePaymentSuccess(String tradeOrderId) {
-        // 1. 分布式锁：防止与超时处理并发（Race #9修复）
-        // 使用与RefundService相同的锁key，确保支付回调和超时处理互斥
-        String lockKey = RedisKeyManager.lockKey("refund", tradeOrderId);
-
         try {
-            // 尝试获取锁（30秒超时）
-            boolean lockAcquired = lockService.tryLock(lockKey, 0, 30, TimeUnit.SECONDS);
-            if (!lockAcquired) {
-                log.warn("【结算服务】订单处理中，请稍后重试, tradeOrderId={}", tradeOrderId);
-                throw new BizException("订单处理中，请稍后重试");
-            }
+            // 1. 定位所属拼团（状态投影），进入该拼团的邮箱
+            String orderId = tradeOrderRepository.findStatusByIds(List.of(tradeOrderId)).stream()
+                    .findFirst()
+                    .map(TradeOrderStatusView::orderId)
+                    .orElseThrow(() -> new BizException("交易订单不存在"));
 
-            try {
-                // 2. 加载TradeOrder
-                Optional<TradeOrder> tradeOrderOpt = tradeOrderRepository.findByTradeOrderId(tradeOrderId);
-                if (tradeOrderOpt.isEmpty()) {
-                    throw new BizException("交易订单不存在");
-                }
-                TradeOrder tradeOrder = tradeOrderOpt.get();
+            orderMailbox.run(orderId, () -> applyPayment(tradeOrderId, orderId));
 
-                // 3. 幂等性检查：已支付、已结算或已超时则静默返回
-                if (tradeOrder.isPaid() || tradeOrder.isSettled() || tradeOrder.isTimeout()) {
-                    log.info("【结算服务】订单已处理，跳过重复处理, tradeOrderId: {}, status: {}",
-                            tradeOrderId, tradeOrder.getStatus());
-                    return;
-                }
-
-                // 4. 加载Order（用于时间校验）
-                String orderId = tradeOrder.getOrderId();
-                Optional<Order> orderOpt = orderRepository.findById(orderId);
-                if (orderOpt.isEmpty()) {
-                    throw new BizException("拼团订单不存在");
-                }
-                Order order = orderOpt.get();
+        } catch (BizException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("【结算服务】支付处理失败, tradeOrderId={}", tradeOrderId, e);
+            throw new BizException("支付处理失败: " + e.getMessage());
+        }
+    }
 
-                // 5. 获取渠道黑名单（TODO: 可以从配置中心或数据库加载）
-                // 目前暂不启用渠道黑名单，传空集合
-                Set<String> blacklistedChannels = Set.of();
+    /**
+     * 在拼团邮箱内应用一笔支付
+     */
+    private void applyPayment(String tradeOrderId, String orderId) {
+        // 2. 加载TradeOrder
+        TradeOrder tradeOrder = tradeOrderRepository.findByTradeOrderId(tradeOrderId)
+                .orElseThrow(() -> new BizException("交易订单不存在"));
+
+        // 3. 幂等性检查：已支付、已结算或已超时则静默返回
+        if (tradeOrder.isPaid() || tradeOrder.isSettled() || tradeOrder.isTimeout()) {
+            log.info("【结算服务】订单已处理，跳过重复处理, tradeOrderId: {}, status: {}",
+                    tradeOrderId, tradeOrder.getStatus());
+            return;
+        }
+        TradeStatus loadedStatus = tradeOrder.getStatus();
 
-                // 6. 校验是否可以支付（增强版：状态+渠道+时间）
-                tradeOrder.validatePayment(order, blacklistedChannels);
+        // 4. 加载Order（用于时间校验）
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new BizException("拼团订单不存在"));
 
-                // 7. 先原子增加Order的completeCount（SQL原子操作，防止超卖）
-                // 【重要】此顺序确保竞争失败的线程在此步骤就失败，不会污染TradeOrder状态
-                int newCompleteCount = orderRepository.tryIncrementCompleteCount(orderId);
-                if (newCompleteCount == -1) {
-                    throw new BizException("拼团订单状态异常或已超时");
-                }
+        // 5. 获取渠道黑名单（TODO: 可以从配置中心或数据库加载）
+        // 目前暂不启用渠道黑名单，传空集合
+        Set<String> blacklistedChannels = Set.of();
 
-                // 8. 再标记为已支付（此时已确认有名额，可以安全地标记）
-                tradeOrder.markAsPaid(LocalDateTime.now());
-                tradeOrderRepository.update(tradeOrder);
+        // 6. 校验是否可以支付（增强版：状态+渠道+时间）
+        tradeOrder.validatePayment(order, blacklistedChannels);
 
-                log.info("【结算服务】支付成功，拼团进度更新, tradeOrderId: {}, orderId: {}, completeCount: {}",
-                        tradeOrderId, orderId, newCompleteCount);
+        // 7. 先原子增加Order的completeCount（SQL原子操作，防止超卖）
+        // 【重要】此顺序确保竞争失败的线程在此步骤就失败，不会污染TradeOrder状态
+        int newCompleteCount = orderRepository.tryIncrementCompleteCount(orderId);
+        if (newCompleteCount == -1) {
+            throw new BizException("拼团订单状态异常或已超时");
+        }
 
-                // 9. 重新加载Order以同步最新状态（关键！遵循CONCURRENCY.md）
-                order = orderRepository.findById(orderId)
-                        .orElseThrow(() -> new BizException("拼团订单不存在"));
+        // 8. 再标记为已支付（条件更新：其他节点已将其超时/退单时未命中，抛出异常回滚计数）
+        tradeOrder.markAsPaid(LocalDateTime.now());
+        if (!tradeOrderRepository.updateIfStatus(tradeOrder, loadedStatus)) {
+            throw new BizException("交易订单状态已变更");
+        }
 
-                log.debug("【结算服务】重新加载Order, orderId: {}, status: {}, completeCount: {}/{}",
-                        orderId, order.getStatus(), order.getCompleteCount(), order.getTargetCount());
+        log.info("【结算服务】支付成功，拼团进度更新, tradeOrderId: {}, orderId: {}, completeCount: {}",
+                tradeOrderId, orderId, newCompleteCount);
 
-                // 10. 结算流程完全依赖事件驱动（SettlementEventListener）
-                // 移除同步调用，避免与异步事件监听器重复执行
-                if (order.getStatus() == OrderStatus.SUCCESS) {
-                    log.info("【结算服务】拼团成功，将由SettlementEventListener异步处理结算, orderId: {}", orderId);
-                }
+        // 9. 重新加载Order以同步最新状态（关键！遵循CONCURRENCY.md）
+        order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new BizException("拼团订单不存在"));
 
-            } finally {
-                // 释放锁
-                lockService.unlock(lockKey);
-            }
+        log.debug("【结算服务】重新加载Order, orderId: {}, status: {}, completeCount: {}/{}",
+                orderId, order.getStatus(), order.getCompleteCount(), order.getTargetCount());
 
-        } catch (BizException e) {
-            throw e;
-        } catch (Exception e) {
-            log.error("【结算服务】支付处理失败, tradeOrderId={}", tradeOrderId, e);
-            throw new BizException("支付处理失败: " + e.getMessage());
+        // 10. 结算流程完全依赖事件驱动（SettlementEventListener）
+        // 移除同步调用，避免与异步事件监听器重复执行
+        if (order.getStatus() == OrderStatus.SUCCESS) {
+            log.info("【结算服务】拼团成功，将由SettlementEventListener异步处理结算, orderId: {}", orderId);
         }
     }
 
@@ -320,7 +323,7 @@ public class SettlementService {
      * @param tradeOrder 交易订单
      */
     private void createNotificationTask(TradeOrder tradeOrder) {
-        String taskId = "NOTIFY-" + idGenerator.nextId();
+        String taskId = idGenerator.nextId("NOTIFY-");
         NotificationTask task = NotificationTask.create(
                 taskId,
                 tradeOrder.getTradeOrderId(),
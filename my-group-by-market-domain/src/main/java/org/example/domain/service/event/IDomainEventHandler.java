@@ -0,0 +1,49 @@
+package org.example.domain.service.event;
+
+import org.example.domain.shared.DomainEvent;
+
+import java.util.List;
+
+/**
+ * 领域事件处理器接口
+ *
+ * <p>
+ * 定义在Domain层，由各层按需实现并注册为Bean，分发管道自动发现
+ *
+ * <p>
+ * 设计说明：
+ * <ul>
+ * <li>每个处理器拥有独立的消费线程和消费进度，慢处理器不影响其他处理器</li>
+ * <li>事件按批次交付，处理器可在批内合并（如同一用户多次变更只刷新一次）</li>
+ * <li>同一处理器内事件按发布顺序交付</li>
+ * <li>处理器抛出的异常只记录日志，不会重投；需要可靠投递的场景应桥接到MQ</li>
+ * </ul>
+ *
+ */
+public interface IDomainEventHandler {
+
+    /**
+     * 处理器名称（用于线程名和日志）
+     *
+     * @return 处理器名称
+     */
+    String name();
+
+    /**
+     * 是否关心该事件
+     *
+     * @param event 领域事件
+     * @return true=交付给本处理器
+     */
+    boolean supports(DomainEvent event);
+
+    /**
+     * 批量处理事件
+     *
+     * <p>
+     * 批次列表由分发管道复用，处理器不得在方法返回后继续持有
+     *
+     * @param events 本批次事件（按发布顺序，非空）
+     */
+    void onEvents(List<DomainEvent> events);
+}
@@ -0,0 +1,30 @@
+package org.example.domain.service.event;
+
+import org.example.domain.shared.DomainEvent;
+
+import java.util.List;
+
+/**
+ * 领域事件发布接口
+ *
+ * <p>
+ * 定义在Domain层，实现在Infrastructure层
+ *
+ * <p>
+ * 职责：
+ * <ul>
+ * <li>仓储保存聚合后，将聚合上累积的领域事件交给分发管道</li>
+ * <li>处于事务中时延迟到事务提交后再投递，事务回滚的事件不会被处理</li>
+ * <li>投递是进程内异步的，不阻塞保存聚合的业务线程</li>
+ * </ul>
+ *
+ */
+public interface IDomainEventPublisher {
+
+    /**
+     * 发布领域事件（事务提交后投递）
+     *
+     * @param events 聚合上取出的领域事件（可为空）
+     */
+    void publish(List<DomainEvent> events);
+}
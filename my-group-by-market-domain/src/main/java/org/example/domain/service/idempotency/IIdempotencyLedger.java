@@ -0,0 +1,59 @@
+package org.example.domain.service.idempotency;
+
+/**
+ * 幂等台账接口
+ *
+ * <p>
+ * 定义在Domain层，实现在Infrastructure层（Redis）
+ *
+ * <p>
+ * 状态流转：
+ * <ul>
+ * <li>begin：SET NX 占位（PROCESSING），短TTL防止进程崩溃后永久占用</li>
+ * <li>complete：写入处理结果（COMPLETED + resultId），长TTL</li>
+ * <li>release：处理失败时删除占位，允许客户端重试</li>
+ * </ul>
+ *
+ */
+public interface IIdempotencyLedger {
+
+    /**
+     * 尝试占位
+     *
+     * @param bizKey 业务幂等键（如 outTradeNo）
+     * @return ACQUIRED=占位成功；PROCESSING/COMPLETED=已有请求；UNAVAILABLE=台账不可用
+     */
+    IdempotencyRecord begin(String bizKey);
+
+    /**
+     * 等待处理中的请求结束
+     *
+     * @param bizKey        业务幂等键
+     * @param timeoutMillis 最长等待时间（毫秒）
+     * @return COMPLETED=已完成；ABSENT=原请求已释放；PROCESSING=等待超时；UNAVAILABLE=台账不可用
+     */
+    IdempotencyRecord await(String bizKey, long timeoutMillis);
+
+    /**
+     * 记录处理结果
+     *
+     * @param bizKey   业务幂等键
+     * @param resultId 处理结果ID
+     */
+    void complete(String bizKey, String resultId);
+
+    /**
+     * 释放占位（仅当占位仍属于该令牌时删除）
+     *
+     * @param bizKey 业务幂等键
+     * @param token  begin 返回的占位令牌
+     */
+    void release(String bizKey, String token);
+
+    /**
+     * 作废台账记录（结果已失效，如记录指向的数据不存在）
+     *
+     * @param bizKey 业务幂等键
+     */
+    void invalidate(String bizKey);
+}
@@ -0,0 +1,47 @@
+package org.example.domain.service.idempotency;
+
+/**
+ * 幂等台账记录
+ *
+ * @param state    台账状态
+ * @param token    本次占位令牌（仅 ACQUIRED 时有值，用于释放时校验归属）
+ * @param resultId 处理结果ID（仅 COMPLETED 时有值，如 tradeOrderId）
+ */
+public record IdempotencyRecord(State state, String token, String resultId) {
+
+    /**
+     * 台账状态
+     */
+    public enum State {
+        /** 当前请求占位成功，由当前请求负责处理 */
+        ACQUIRED,
+        /** 相同业务键的请求正在处理中 */
+        PROCESSING,
+        /** 已处理完成，resultId 为处理结果 */
+        COMPLETED,
+        /** 台账中不存在该业务键（原请求失败释放或已过期） */
+        ABSENT,
+        /** 台账不可用（Redis异常），调用方应降级到数据库校验 */
+        UNAVAILABLE
+    }
+
+    public static IdempotencyRecord acquired(String token) {
+        return new IdempotencyRecord(State.ACQUIRED, token, null);
+    }
+
+    public static IdempotencyRecord processing() {
+        return new IdempotencyRecord(State.PROCESSING, null, null);
+    }
+
+    public static IdempotencyRecord completed(String resultId) {
+        return new IdempotencyRecord(State.COMPLETED, null, resultId);
+    }
+
+    public static IdempotencyRecord absent() {
+        return new IdempotencyRecord(State.ABSENT, null, null);
+    }
+
+    public static IdempotencyRecord unavailable() {
+        return new IdempotencyRecord(State.UNAVAILABLE, null, null);
+    }
+}
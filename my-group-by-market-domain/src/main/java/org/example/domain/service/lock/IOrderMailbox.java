@@ -0,0 +1,47 @@
+package org.example.domain.service.lock;
+
+import java.util.function.Supplier;
+
+/**
+ * 拼团订单邮箱（进程内按 orderId 串行执行）
+ *
+ * <p>
+ * 定义在Domain层，实现在Infrastructure层
+ *
+ * <p>
+ * 设计说明：
+ * <ul>
+ * <li>同一 orderId 的任务按提交顺序逐个执行，不同 orderId 互不影响</li>
+ * <li>跨节点的路由由支付回调队列按 orderId 分区完成，同一拼团的回调只会落到一个节点，无需分布式锁</li>
+ * <li>任务在调用线程上执行（事务与线程绑定）；存在活动事务时，串行权持有到事务结束，
+ * 下一个任务一定能读到上一个任务已提交的结果</li>
+ * <li>可重入：任务内再次进入同一 orderId 直接执行</li>
+ * </ul>
+ *
+ */
+public interface IOrderMailbox {
+
+    /**
+     * 在 orderId 的邮箱中执行任务
+     *
+     * @param orderId 拼团订单ID
+     * @param task    任务
+     * @param <T>     返回值类型
+     * @return 任务返回值
+     * @throws RuntimeException 任务异常原样抛出；排队超时抛出 BizException
+     */
+    <T> T call(String orderId, Supplier<T> task);
+
+    /**
+     * 在 orderId 的邮箱中执行无返回值任务
+     *
+     * @param orderId 拼团订单ID
+     * @param task    任务
+     */
+    default void run(String orderId, Runnable task) {
+        call(orderId, () -> {
+            task.run();
+            return null;
+        });
+    }
+}
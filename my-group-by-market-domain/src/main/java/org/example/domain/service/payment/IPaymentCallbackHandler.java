@@ -0,0 +1,22 @@
+package org.example.domain.service.payment;
+
+/**
+ * 支付回调处理器接口
+ *
+ * <p>
+ * 定义在Domain层，由Application层实现（事务边界在应用服务），队列消费者逐条调用
+ *
+ */
+public interface IPaymentCallbackHandler {
+
+    /**
+     * 处理一条回调消息
+     *
+     * <p>
+     * 需保证幂等：消费者在处理成功但确认失败时会重投
+     *
+     * @param message 回调消息
+     * @throws RuntimeException 处理失败，消费者按退避策略重试，超过次数转入死信
+     */
+    void handle(PaymentCallbackMessage message);
+}
@@ -0,0 +1,28 @@
+package org.example.domain.service.payment;
+
+/**
+ * 支付回调队列接口
+ *
+ * <p>
+ * 定义在Domain层，由Infrastructure层实现（Redis Stream）
+ *
+ * <p>
+ * 设计说明：
+ * <ul>
+ * <li>回调验签后只入队即返回 success，业务处理由分区消费者异步完成</li>
+ * <li>按 outTradeNo + tradeStatus 去重，支付宝重复通知不会重复入队</li>
+ * <li>按 orderId 分区，同一拼团的回调串行、按入队顺序处理</li>
+ * </ul>
+ *
+ */
+public interface IPaymentCallbackQueue {
+
+    /**
+     * 持久化入队
+     *
+     * @param message 已验签的回调消息
+     * @return true=新入队，false=重复通知（已入队过）
+     * @throws RuntimeException 入队失败（调用方应返回 fail，让支付宝重试）
+     */
+    boolean enqueue(PaymentCallbackMessage message);
+}
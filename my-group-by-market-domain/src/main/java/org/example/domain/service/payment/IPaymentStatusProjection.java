@@ -0,0 +1,57 @@
+package org.example.domain.service.payment;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 支付状态投影接口
+ *
+ * <p>
+ * 定义在Domain层，由Infrastructure层实现（Redis Hash + 发布订阅）
+ *
+ * <p>
+ * 设计说明：
+ * <ul>
+ * <li>由支付回调和对账轮询写入，支付查询接口只读投影，不再逐次调用支付宝</li>
+ * <li>终态不会被非终态覆盖（轮询结果晚于回调到达时不回退）</li>
+ * <li>任意节点写入后广播变更，等待中的长轮询立即返回</li>
+ * </ul>
+ *
+ */
+public interface IPaymentStatusProjection {
+
+    /**
+     * 写入投影
+     *
+     * @param snapshot 状态快照
+     * @return true=已写入，false=已是终态、忽略本次非终态写入
+     */
+    boolean update(PaymentStatusSnapshot snapshot);
+
+    /**
+     * 读取投影
+     *
+     * @param outTradeNo 外部交易单号
+     * @return 状态快照，未写入过时为空
+     */
+    Optional<PaymentStatusSnapshot> find(String outTradeNo);
+
+    /**
+     * 占用对账查询资格（每个订单只向支付宝查询一次）
+     *
+     * @param outTradeNo 外部交易单号
+     * @return true=本次获得查询资格
+     */
+    boolean markReconciled(String outTradeNo);
+
+    /**
+     * 等待投影下一次变更
+     *
+     * <p>
+     * 调用方应在注册后再读取当前状态，避免错过注册前的变更；不再需要时取消返回的 Future 以释放等待
+     *
+     * @param outTradeNo 外部交易单号
+     * @return 变更时完成的 Future
+     */
+    CompletableFuture<Void> awaitChange(String outTradeNo);
+}
@@ -0,0 +1,34 @@
+package org.example.domain.service.payment;
+
+import java.math.BigDecimal;
+
+/**
+ * 已验签的支付回调消息
+ *
+ * @param outTradeNo  外部交易单号
+ * @param tradeStatus 支付宝交易状态（TRADE_SUCCESS / TRADE_FINISHED / TRADE_CLOSED）
+ * @param totalAmount 回调金额（可能为空）
+ * @param orderId     所属拼团订单ID（分区键，同一拼团的回调按到达顺序处理）
+ * @param receivedAt  接收时间（毫秒时间戳）
+ */
+public record PaymentCallbackMessage(String outTradeNo, String tradeStatus, BigDecimal totalAmount,
+        String orderId, long receivedAt) {
+
+    public static final String TRADE_SUCCESS = "TRADE_SUCCESS";
+    public static final String TRADE_FINISHED = "TRADE_FINISHED";
+    public static final String TRADE_CLOSED = "TRADE_CLOSED";
+
+    /**
+     * 是否支付成功通知
+     */
+    public boolean isPaid() {
+        return TRADE_SUCCESS.equals(tradeStatus) || TRADE_FINISHED.equals(tradeStatus);
+    }
+
+    /**
+     * 是否交易关闭通知
+     */
+    public boolean isClosed() {
+        return TRADE_CLOSED.equals(tradeStatus);
+    }
+}
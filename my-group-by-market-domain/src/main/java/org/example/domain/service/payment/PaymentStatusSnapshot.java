@@ -0,0 +1,30 @@
+package org.example.domain.service.payment;
+
+import java.math.BigDecimal;
+
+/**
+ * 支付状态投影快照
+ *
+ * @param outTradeNo  外部交易单号
+ * @param tradeStatus 支付宝交易状态（WAIT_BUYER_PAY / TRADE_SUCCESS / TRADE_FINISHED / TRADE_CLOSED）
+ * @param tradeNo     支付宝交易号（可能为空）
+ * @param totalAmount 订单金额（可能为空）
+ * @param source      来源：callback=异步通知，reconcile=对账轮询，local=由本地交易订单状态推导
+ * @param updatedAt   更新时间（毫秒时间戳）
+ */
+public record PaymentStatusSnapshot(String outTradeNo, String tradeStatus, String tradeNo,
+        BigDecimal totalAmount, String source, long updatedAt) {
+
+    public static final String WAIT_BUYER_PAY = "WAIT_BUYER_PAY";
+
+    public static final String SOURCE_CALLBACK = "callback";
+    public static final String SOURCE_RECONCILE = "reconcile";
+    public static final String SOURCE_LOCAL = "local";
+
+    /**
+     * 是否终态（支付成功/交易关闭），终态不会再被非终态覆盖
+     */
+    public boolean isFinal() {
+        return tradeStatus != null && !WAIT_BUYER_PAY.equals(tradeStatus);
+    }
+}
@@ -7,6 +7,7 @@ import org.example.domain.gateway.IPaymentRefundGateway;
 import org.example.domain.model.order.Order;
 import org.example.domain.model.order.repository.OrderRepository;
 import org.example.domain.model.trade.TradeOrder;
+import org.example.domain.model.trade.repository.TradeOrderRepository;
 import org.example.domain.model.trade.valueobject.TradeStatus;
 import org.example.domain.service.ResourceReleaseService;
 
@@ -19,7 +20,7 @@ import org.example.domain.service.ResourceReleaseService;
  * <p>
  * 处理逻辑：
  * <ol>
- * <li>标记 TradeOrder 为 REFUND 状态</li>
+ * <li>标记 TradeOrder 为 REFUND 状态，并以 PAID 为条件写回（与并发结算/退单互斥），未命中则不释放资源</li>
  * <li>根据成团状态决定是否释放名额</li>
  * <li>释放库存</li>
  * <li>调用支付网关退款接口</li>
@@ -30,14 +31,17 @@ import org.example.domain.service.ResourceReleaseService;
 public class PaidRefundStrategy implements RefundStrategy {
 
     private final OrderRepository orderRepository;
+    private final TradeOrderRepository tradeOrderRepository;
     private final IPaymentRefundGateway paymentRefundGateway;
     private final ResourceReleaseService resourceReleaseService;
 
     public PaidRefundStrategy(
             OrderRepository orderRepository,
+            TradeOrderRepository tradeOrderRepository,
             IPaymentRefundGateway paymentRefundGateway,
             ResourceReleaseService resourceReleaseService) {
         this.orderRepository = orderRepository;
+        this.tradeOrderRepository = tradeOrderRepository;
         this.paymentRefundGateway = paymentRefundGateway;
         this.resourceReleaseService = resourceReleaseService;
     }
@@ -47,8 +51,13 @@ public class PaidRefundStrategy implements RefundStrategy {
         log.info("【已支付退单策略】开始执行, tradeOrderId={}, payPrice={}",
                 tradeOrder.getTradeOrderId(), LogDesensitizer.maskPrice(tradeOrder.getPayPrice(), log));
 
-        // 1. 标记为退单
+        // 1. 标记为退单，条件更新 PAID → REFUND（已被并发结算或退单时未命中，不再释放资源）
         tradeOrder.markAsRefund("已支付拼团失败退款");
+        if (!tradeOrderRepository.updateIfStatus(tradeOrder, TradeStatus.PAID)) {
+            log.warn("【已支付退单策略】交易订单状态已被并发修改，不释放资源, tradeOrderId={}",
+                    tradeOrder.getTradeOrderId());
+            throw new BizException("交易订单状态已变更");
+        }
 
         String orderId = tradeOrder.getOrderId();
 
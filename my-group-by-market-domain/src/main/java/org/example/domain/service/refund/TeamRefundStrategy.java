@@ -81,7 +81,7 @@ public class TeamRefundStrategy implements RefundStrategy {
                     continue;
                 }
 
-                // 根据状态委托给不同的策略
+                // 根据状态委托给不同的策略（策略内先条件更新状态，命中后才释放资源）
                 if (order.getStatus() == TradeStatus.CREATE) {
                     // 未支付 → 使用 UnpaidRefundStrategy
                     unpaidRefundStrategy.execute(order);
@@ -89,9 +89,6 @@ public class TeamRefundStrategy implements RefundStrategy {
                     // 已支付 → 使用 PaidRefundStrategy
                     paidRefundStrategy.execute(order);
                 }
-
-                // 更新到数据库
-                tradeOrderRepository.update(order);
                 refundCount++;
 
                 log.info("【拼团退单策略】交易订单退款成功, tradeOrderId={}, status={}",
@@ -1,7 +1,9 @@
 package org.example.domain.service.refund;
 
 import lombok.extern.slf4j.Slf4j;
+import org.example.common.exception.BizException;
 import org.example.domain.model.trade.TradeOrder;
+import org.example.domain.model.trade.repository.TradeOrderRepository;
 import org.example.domain.model.trade.valueobject.TradeStatus;
 import org.example.domain.service.ResourceReleaseService;
 
@@ -14,8 +16,8 @@ import org.example.domain.service.ResourceReleaseService;
  * <p>
  * 处理逻辑：
  * <ol>
- * <li>标记 TradeOrder 为 TIMEOUT 状态</li>
- * <li>委托 ResourceReleaseService 释放全部资源</li>
+ * <li>标记 TradeOrder 为 TIMEOUT 状态，并以 CREATE 为条件写回（与其他节点的支付回调互斥）</li>
+ * <li>条件更新命中后才委托 ResourceReleaseService 释放全部资源；支付已先行写入时抛出异常，不释放</li>
  * <li>无需调用支付网关退款（用户未支付）</li>
  * </ol>
  *
@@ -23,9 +25,12 @@ import org.example.domain.service.ResourceReleaseService;
 @Slf4j
 public class UnpaidRefundStrategy implements RefundStrategy {
 
+    private final TradeOrderRepository tradeOrderRepository;
     private final ResourceReleaseService resourceReleaseService;
 
-    public UnpaidRefundStrategy(ResourceReleaseService resourceReleaseService) {
+    public UnpaidRefundStrategy(TradeOrderRepository tradeOrderRepository,
+            ResourceReleaseService resourceReleaseService) {
+        this.tradeOrderRepository = tradeOrderRepository;
         this.resourceReleaseService = resourceReleaseService;
     }
 
@@ -34,8 +39,13 @@ public class UnpaidRefundStrategy implements RefundStrategy {
         log.info("【未支付退单策略】开始执行, tradeOrderId={}, status={}",
                 tradeOrder.getTradeOrderId(), tradeOrder.getStatus());
 
-        // 1. 标记为超时
+        // 1. 标记为超时，条件更新 CREATE → TIMEOUT（其他节点已先行支付时未命中，名额与库存归支付方）
         tradeOrder.markAsTimeout();
+        if (!tradeOrderRepository.updateIfStatus(tradeOrder, TradeStatus.CREATE)) {
+            log.warn("【未支付退单策略】交易订单状态已被并发修改，不释放资源, tradeOrderId={}",
+                    tradeOrder.getTradeOrderId());
+            throw new BizException("交易订单状态已变更");
+        }
 
         // 2. 释放全部预占资源（委托给 ResourceReleaseService）
         resourceReleaseService.releaseAllResources(
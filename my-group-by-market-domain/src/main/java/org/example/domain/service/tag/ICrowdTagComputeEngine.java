@@ -0,0 +1,44 @@
+package org.example.domain.service.tag;
+
+import org.example.domain.model.tag.valueobject.TagRule;
+
+import java.util.Map;
+
+/**
+ * 人群标签计算引擎接口
+ *
+ * <p>
+ * 定义在Domain层，实现在Infrastructure层
+ *
+ * <p>
+ * 职责：
+ * <ul>
+ * <li>按标签规则流式扫描用户及其交易统计，内存占用与用户总量无关</li>
+ * <li>直接构建标签位图并整体替换缓存（计算期间读到的始终是上一版完整结果）</li>
+ * <li>同步刷新人群标签明细表（数据库兜底查询）</li>
+ * <li>增量模式：只重算单个用户，翻转其在各标签位图中的位</li>
+ * </ul>
+ *
+ */
+public interface ICrowdTagComputeEngine {
+
+    /**
+     * 计算标签人群并发布结果
+     *
+     * @param tagId 标签ID
+     * @param rule  编译后的标签规则
+     * @return 命中用户数
+     */
+    long compute(String tagId, TagRule rule);
+
+    /**
+     * 增量刷新单个用户在一组标签中的归属
+     *
+     * <p>
+     * 只修改已发布的位图；明细表变更攒批异步落库
+     *
+     * @param userId 用户ID
+     * @param rules  标签ID → 编译后的标签规则
+     */
+    void refreshUser(String userId, Map<String, TagRule> rules);
+}
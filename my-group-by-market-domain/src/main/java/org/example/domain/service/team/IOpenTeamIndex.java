@@ -0,0 +1,103 @@
+package org.example.domain.service.team;
+
+import org.example.domain.model.order.Order;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 可加入拼团索引接口
+ *
+ * <p>
+ * 定义在Domain层，实现在Infrastructure层（Redis ZSET）
+ *
+ * <p>
+ * 每个活动一个有序集合，只收录 PENDING 且未满员的拼团：
+ * <ul>
+ * <li>排序：锁单比例高的在前（更快成团），比例相同时截止时间早的在前</li>
+ * <li>维护：创建/锁单/释放名额/状态变更后由仓储在事务提交后更新</li>
+ * <li>查询：按排名分页读取 Top-K，复杂度 O(log N + K)，不扫描 order 表</li>
+ * </ul>
+ *
+ */
+public interface IOpenTeamIndex {
+
+    /**
+     * 收录或更新拼团（不可加入时自动移除）
+     *
+     * @param activityId   活动ID
+     * @param orderId      拼团订单ID
+     * @param lockCount    已锁单量
+     * @param targetCount  目标人数
+     * @param deadlineTime 截止时间
+     */
+    void upsert(String activityId, String orderId, int lockCount, int targetCount, LocalDateTime deadlineTime);
+
+    /**
+     * 锁单量变化后更新排序（未收录的拼团忽略）
+     *
+     * @param orderId   拼团订单ID
+     * @param lockCount 最新锁单量
+     */
+    void onLockCountChanged(String orderId, int lockCount);
+
+    /**
+     * 完成人数变化后检查是否成团，成团则移除（未收录的拼团忽略）
+     *
+     * @param orderId       拼团订单ID
+     * @param completeCount 最新完成人数
+     */
+    void onCompleteCountChanged(String orderId, int completeCount);
+
+    /**
+     * 移除拼团（成团/失败/超时）
+     *
+     * @param orderId 拼团订单ID
+     */
+    void remove(String orderId);
+
+    /**
+     * 活动索引是否已建立
+     *
+     * @param activityId 活动ID
+     * @return true=已建立（可直接查询）
+     */
+    boolean isBuilt(String activityId);
+
+    /**
+     * 活动索引是否存在（标记过期后旧索引仍可继续使用，直到重建完成）
+     *
+     * @param activityId 活动ID
+     * @return true=存在可分页的索引
+     */
+    boolean exists(String activityId);
+
+    /**
+     * 抢占活动索引的重建权（单飞：同一时刻只有一个请求从数据库加载并重建）
+     *
+     * @param activityId 活动ID
+     * @return true=抢占成功，须随后调用 {@link #rebuild}（无论成败都会释放）
+     */
+    boolean tryLockRebuild(String activityId);
+
+    /**
+     * 用数据库中的进行中拼团重建活动索引，并释放重建权
+     *
+     * <p>
+     * 重建期间的增量更新以正式索引中的最新值为准，不会被重建结果覆盖
+     *
+     * @param activityId    活动ID
+     * @param pendingOrders 进行中的拼团
+     */
+    void rebuild(String activityId, List<Order> pendingOrders);
+
+    /**
+     * 分页查询最适合加入的拼团
+     *
+     * @param activityId 活动ID
+     * @param offset     起始排名（从0开始）
+     * @param limit      数量
+     * @return 拼团订单ID（已剔除过期拼团）及索引总数
+     */
+    OpenTeamPage page(String activityId, int offset, int limit);
+}
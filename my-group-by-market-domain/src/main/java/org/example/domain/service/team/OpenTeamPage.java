@@ -0,0 +1,12 @@
+package org.example.domain.service.team;
+
+import java.util.List;
+
+/**
+ * 可加入拼团分页结果
+ *
+ * @param orderIds 按推荐顺序排列的拼团订单ID
+ * @param total    索引中的拼团总数
+ */
+public record OpenTeamPage(List<String> orderIds, long total) {
+}
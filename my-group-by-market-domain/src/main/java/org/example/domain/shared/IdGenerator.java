@@ -8,5 +8,19 @@ public interface IdGenerator {
     /**
      * 生成下一个唯一 ID
      */
-    Long nextId();
-}
\ No newline at end of file
+    long nextId();
+
+    /**
+     * 生成带业务前缀的唯一 ID（如 TRD123...）
+     *
+     * <p>
+     * 前缀与基本类型 long 直接拼接，按最终长度一次分配，
+     * 不产生 Long 装箱和 Long.toString 的中间字符串
+     *
+     * @param prefix 业务前缀
+     * @return 前缀 + ID
+     */
+    default String nextId(String prefix) {
+        return prefix + nextId();
+    }
+}
@@ -2,11 +2,14 @@ package org.example.infrastructure.cache;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
 import org.example.infrastructure.persistence.mapper.CrowdTagDetailMapper;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.util.BitSet;
 
 /**
  * 人群标签缓存异步加载器
@@ -17,12 +20,12 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CrowdTagCacheLoader {
 
-    private final CrowdTagDetailMapper crowdTagDetailMapper;
+    private final SqlSessionFactory sqlSessionFactory;
     private final CrowdTagCacheService cacheService;
 
     /**
      * 异步加载标签缓存
-     * 从数据库查询标签用户并写入 Redis 缓存
+     * 流式读取标签明细，在本地构建 BitMap 后整体写入 Redis
      *
      * @param tagId 标签ID
      */
@@ -35,17 +38,24 @@ public class CrowdTagCacheLoader {
                 return;
             }
 
-            // 从数据库加载用户列表
-            List<String> userIds = crowdTagDetailMapper.selectUserIdsByTagId(tagId);
-            if (userIds.isEmpty()) {
+            // 流式读取用户并构建位图（游标需要独占连接，使用独立会话）
+            BitSet bitmap = new BitSet();
+            try (SqlSession session = sqlSessionFactory.openSession();
+                    Cursor<String> userIds = session.getMapper(CrowdTagDetailMapper.class)
+                            .streamUserIdsByTagId(tagId)) {
+                for (String userId : userIds) {
+                    bitmap.set(cacheService.bitIndexOf(userId));
+                }
+            }
+            if (bitmap.isEmpty()) {
                 log.debug("【CrowdTagCacheLoader】标签无用户数据，跳过加载, tagId: {}", tagId);
                 return;
             }
 
             // 写入缓存
-            cacheService.replaceTagUsers(tagId, userIds);
-            log.info("【CrowdTagCacheLoader】异步加载标签缓存完成, tagId: {}, count: {}",
-                    tagId, userIds.size());
+            cacheService.publishTagBitmap(tagId, bitmap);
+            log.info("【CrowdTagCacheLoader】异步加载标签缓存完成, tagId: {}, bits: {}",
+                    tagId, bitmap.cardinality());
 
         } catch (Exception e) {
             log.error("【CrowdTagCacheLoader】异步加载标签缓存失败, tagId: {}", tagId, e);
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RBitSet;
 import org.springframework.stereotype.Service;
 
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -39,6 +40,59 @@ public class CrowdTagCacheService {
     /** 缓存过期时间（小时） */
     private static final long CACHE_EXPIRE_HOURS = 24;
 
+    /**
+     * Key 存在时才 SETBIT；全量重建进行中时同时记入翻转日志，发布时重放到新位图
+     * KEYS[1]=BitMap key, KEYS[2]=重建标记, KEYS[3]=翻转日志, ARGV[1]=位索引, ARGV[2]=0/1
+     * 返回原值；只记入日志返回 0；两者都未写入返回 -1
+     */
+    private static final String SET_BIT_IF_EXISTS_SCRIPT = """
+            local result = -1
+            if redis.call('exists', KEYS[1]) == 1 then
+                result = redis.call('setbit', KEYS[1], ARGV[1], ARGV[2])
+            end
+            local ttl = redis.call('pttl', KEYS[2])
+            if ttl > 0 then
+                redis.call('hset', KEYS[3], ARGV[1], ARGV[2])
+                redis.call('pexpire', KEYS[3], ttl)
+                if result < 0 then
+                    result = 0
+                end
+            end
+            return result
+            """;
+
+    /**
+     * 重放翻转日志并原子发布
+     * KEYS[1]=BitMap key, KEYS[2]=构建中 Key, KEYS[3]=重建标记, KEYS[4]=翻转日志, ARGV[1]=过期秒数
+     * 返回重放的翻转数；重放后仍无构建中 Key（本轮无命中且无翻转）时删除正式 Key
+     */
+    private static final String PUBLISH_SCRIPT = """
+            local flips = redis.call('hgetall', KEYS[4])
+            for i = 1, #flips, 2 do
+                redis.call('setbit', KEYS[2], flips[i], flips[i + 1])
+            end
+            if redis.call('exists', KEYS[2]) == 1 then
+                redis.call('rename', KEYS[2], KEYS[1])
+                redis.call('expire', KEYS[1], ARGV[1])
+            else
+                redis.call('del', KEYS[1])
+            end
+            redis.call('del', KEYS[3], KEYS[4])
+            return #flips / 2
+            """;
+
+    /** 构建中的临时 Key 后缀 */
+    private static final String BUILDING_SUFFIX = ":building";
+
+    /** 重建标记 Key 后缀（存在期间增量翻转同时记入日志） */
+    private static final String REBUILDING_SUFFIX = ":rebuilding";
+
+    /** 重建期间的翻转日志 Key 后缀（Hash：位索引 → 0/1，同一位后写覆盖先写） */
+    private static final String FLIPS_SUFFIX = ":flips";
+
+    /** 重建标记最长存活时间（分钟），与标签计算锁时长一致，计算进程崩溃后自动失效 */
+    private static final long REBUILD_MARKER_MINUTES = 60;
+
     /**
      * 获取标签 BitMap 的 Redis Key
      */
@@ -73,57 +127,115 @@ public class CrowdTagCacheService {
 
     /**
      * 添加单个用户到标签 BitMap
+     * 只修改已发布的 BitMap：Key 不存在时跳过，避免生成只含单个用户的残缺位图
      *
      * @param tagId 标签ID
      * @param userId 用户ID
+     * @return true=已写入，false=BitMap 不存在或写入失败
      */
-    public void addUserToTag(String tagId, String userId) {
-        try {
-            String key = getTagBitmapKey(tagId);
-            RBitSet bitSet = redisService.getBitSet(key);
-            long index = redisService.getIndexFromUserId(userId);
+    public boolean addUserToTag(String tagId, String userId) {
+        return setUserBit(tagId, userId, true);
+    }
 
-            bitSet.set(index, true);
+    /**
+     * 从标签 BitMap 中移除单个用户
+     *
+     * <p>
+     * 注意：与该用户哈希冲突的其他用户会被一并移除，由定期全量对账修正
+     *
+     * @param tagId 标签ID
+     * @param userId 用户ID
+     * @return true=已写入，false=BitMap 不存在或写入失败
+     */
+    public boolean removeUserFromTag(String tagId, String userId) {
+        return setUserBit(tagId, userId, false);
+    }
 
-            log.debug("【标签缓存】添加用户(BitMap), tagId: {}, userId: {}, index: {}",
-                    tagId, userId, index);
+    private boolean setUserBit(String tagId, String userId, boolean value) {
+        String key = getTagBitmapKey(tagId);
+        long index = redisService.getIndexFromUserId(userId);
+        try {
+            Long result = redisService.executeScript(SET_BIT_IF_EXISTS_SCRIPT,
+                    List.of(key, key + REBUILDING_SUFFIX, key + FLIPS_SUFFIX), index, value ? 1 : 0);
+            boolean applied = result != null && result >= 0;
+
+            log.debug("【标签缓存】更新用户位(BitMap), tagId: {}, userId: {}, index: {}, value: {}, applied: {}",
+                    tagId, userId, index, value, applied);
+            return applied;
         } catch (Exception e) {
-            log.error("【标签缓存】添加用户失败, tagId: {}, userId: {}", tagId, userId, e);
+            log.error("【标签缓存】更新用户位失败, tagId: {}, userId: {}, value: {}", tagId, userId, value, e);
+            return false;
         }
     }
 
     /**
-     * 全量替换标签用户（同步到 Redis BitMap）
-     * 先删除旧数据，再写入新数据
+     * 计算用户在标签 BitMap 中的位索引
+     *
+     * @param userId 用户ID
+     * @return 位索引
+     * @throws ArithmeticException 索引超出 int 范围（索引空间配置超过 BitSet 上限）
+     */
+    public int bitIndexOf(String userId) {
+        return Math.toIntExact(redisService.getIndexFromUserId(userId));
+    }
+
+    /**
+     * 开始全量重建标签 BitMap
+     *
+     * <p>
+     * 设置重建标记后，增量翻转在修改正式 Key 的同时记入翻转日志，
+     * 发布时重放到新位图，避免 RENAME 覆盖掉扫描期间发生的翻转
      *
      * @param tagId 标签ID
-     * @param userIds 用户ID列表
      */
-    public void replaceTagUsers(String tagId, List<String> userIds) {
-        if (userIds == null || userIds.isEmpty()) {
-            log.warn("【标签缓存】用户列表为空, tagId: {}", tagId);
-            return;
-        }
+    public void beginTagRebuild(String tagId) {
+        String key = getTagBitmapKey(tagId);
+        redisService.delete(key + FLIPS_SUFFIX);
+        redisService.setString(key + REBUILDING_SUFFIX, "1", REBUILD_MARKER_MINUTES, TimeUnit.MINUTES);
+        log.debug("【标签缓存】开始重建标签BitMap, tagId: {}", tagId);
+    }
 
+    /**
+     * 放弃全量重建（计算失败），清除重建标记与翻转日志，正式 Key 保持不变
+     *
+     * @param tagId 标签ID
+     */
+    public void abortTagRebuild(String tagId) {
+        String key = getTagBitmapKey(tagId);
         try {
-            String key = getTagBitmapKey(tagId);
-
-            // 先删除旧数据（保证幂等性）
-            redisService.delete(key);
+            redisService.delete(key + REBUILDING_SUFFIX);
+            redisService.delete(key + FLIPS_SUFFIX);
+            redisService.delete(key + BUILDING_SUFFIX);
+        } catch (Exception e) {
+            log.warn("【标签缓存】清理重建状态失败，等待标记过期, tagId: {}", tagId, e);
+        }
+    }
 
-            // 获取 BitSet 并批量设置
-            RBitSet bitSet = redisService.getBitSet(key);
-            for (String userId : userIds) {
-                long index = redisService.getIndexFromUserId(userId);
-                bitSet.set(index, true);
+    /**
+     * 整体发布标签 BitMap
+     * 先写入临时 Key，再在同一脚本内重放重建期间的增量翻转并 RENAME 覆盖正式 Key，
+     * 读请求不会看到半成品，也不会丢失扫描期间的翻转
+     *
+     * @param tagId  标签ID
+     * @param bitmap 本地构建的完整位图
+     */
+    public void publishTagBitmap(String tagId, BitSet bitmap) {
+        String key = getTagBitmapKey(tagId);
+        String buildingKey = key + BUILDING_SUFFIX;
+        try {
+            if (bitmap.isEmpty()) {
+                redisService.delete(buildingKey);
+            } else {
+                redisService.getBitSet(buildingKey).set(bitmap);
             }
+            Long replayed = redisService.executeScript(PUBLISH_SCRIPT,
+                    List.of(key, buildingKey, key + REBUILDING_SUFFIX, key + FLIPS_SUFFIX),
+                    TimeUnit.HOURS.toSeconds(CACHE_EXPIRE_HOURS));
 
-            // 设置过期时间
-            redisService.expire(key, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
-
-            log.info("【标签缓存】批量添加用户成功(BitMap), tagId: {}, count: {}", tagId, userIds.size());
+            log.info("【标签缓存】发布标签BitMap成功, tagId: {}, bits: {}, replayedFlips: {}",
+                    tagId, bitmap.cardinality(), replayed);
         } catch (Exception e) {
-            log.error("【标签缓存】批量添加用户失败, tagId: {}, count: {}", tagId, userIds.size(), e);
+            log.error("【标签缓存】发布标签BitMap失败, tagId: {}", tagId, e);
             throw new RuntimeException("标签缓存写入失败", e);
         }
     }
@@ -167,21 +279,6 @@ public class CrowdTagCacheService {
         }
     }
 
-    /**
-     * 刷新标签缓存（重新加载）
-     *
-     * @param tagId 标签ID
-     * @param userIds 用户ID列表
-     */
-    public void refreshTagCache(String tagId, List<String> userIds) {
-        try {
-            replaceTagUsers(tagId, userIds);
-            log.info("【标签缓存】刷新标签缓存成功, tagId: {}, count: {}", tagId, userIds.size());
-        } catch (Exception e) {
-            log.error("【标签缓存】刷新标签缓存失败, tagId: {}", tagId, e);
-        }
-    }
-
     /**
      * 检查标签缓存是否存在
      *
@@ -8,6 +8,7 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -121,6 +122,24 @@ public interface IRedisService {
      */
     Boolean setNx(String key, Object value, long timeout, TimeUnit unit);
 
+    /**
+     * 读取字符串值（StringCodec）
+     *
+     * @param key Redis key
+     * @return 字符串值，key不存在时返回null
+     */
+    String getString(String key);
+
+    /**
+     * 写入字符串值并设置过期时间（StringCodec）
+     *
+     * @param key Redis key
+     * @param value 字符串值
+     * @param timeout 过期时间
+     * @param unit 时间单位
+     */
+    void setString(String key, String value, long timeout, TimeUnit unit);
+
     /**
      * 获取Long类型的值
      *
@@ -146,6 +165,14 @@ public interface IRedisService {
      */
     void remove(String key);
 
+    /**
+     * 读取整个 Hash（字符串编码）
+     *
+     * @param key Redis key
+     * @return 字段与值（key不存在返回空Map）
+     */
+    Map<String, String> getHash(String key);
+
     /**
      * 执行 Lua 脚本 (专门用于返回数值类型的操作，如 decr, incr 等)
      *
@@ -156,6 +183,16 @@ public interface IRedisService {
      */
     Long executeScript(String script, List<Object> keys, Object... args);
 
+    /**
+     * 执行 Lua 脚本 (返回字符串，脚本返回 nil/false 时为 null)
+     *
+     * @param script Lua 脚本内容
+     * @param keys   Redis 键列表 (对应 Lua 中的 KEYS[1], KEYS[2]...)
+     * @param args   参数列表 (对应 Lua 中的 ARGV[1], ARGV[2]...)
+     * @return 脚本执行结果 (String)
+     */
+    String executeScriptForString(String script, List<Object> keys, Object... args);
+
     /**
      * 将 userId 转换为 BitMap 索引
      * 使用 MD5 哈希算法将字符串 userId 映射为整数索引
@@ -0,0 +1,356 @@
+package org.example.infrastructure.cache;
+
+import com.alibaba.fastjson.JSON;
+import lombok.extern.slf4j.Slf4j;
+import org.example.common.cache.RedisKeyManager;
+import org.example.domain.model.order.valueobject.OrderStatus;
+import org.example.infrastructure.datasource.DataSourceRouteContext;
+import org.example.infrastructure.persistence.po.OrderPO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 拼团订单缓存服务（Write-Through）
+ *
+ * <p>
+ * 数据结构：Key order_cache:{orderId}，Hash 字段：
+ * <ul>
+ * <li>snapshot - 订单快照（JSON，仅使用不变字段）</li>
+ * <li>lockCount / completeCount / status / completedTime - 可变字段，随数据库原子更新同步修改</li>
+ * <li>targetCount - 供脚本判断成团</li>
+ * </ul>
+ *
+ * <p>
+ * 一致性：
+ * <ul>
+ * <li>写：数据库更新前在途计数 +1 并作废回填租约；事务提交后按增量修改 Hash（HINCRBY），回滚只撤销在途计数</li>
+ * <li>读未命中：先取租约再查库，回填时租约仍有效且无在途写事务才写入，避免旧值覆盖新值</li>
+ * <li>只读查询（优先读从库）或事务内未命中时不回填：从库可能落后，REPEATABLE READ 事务读到的是首次读取时的快照，
+ * 旧计数写入缓存后会被后续增量放大</li>
+ * <li>同一事务内写过的订单直接查库，保证读到本事务的修改</li>
+ * <li>Redis 异常时降级查库；写路径异常时尽力删除缓存，由下次读取重建</li>
+ * </ul>
+ *
+ */
+@Slf4j
+@Service
+public class OrderCacheService {
+
+    private static final String FIELD_SNAPSHOT = "snapshot";
+    private static final String FIELD_LOCK_COUNT = "lockCount";
+    private static final String FIELD_COMPLETE_COUNT = "completeCount";
+    private static final String FIELD_TARGET_COUNT = "targetCount";
+    private static final String FIELD_STATUS = "status";
+    private static final String FIELD_COMPLETED_TIME = "completedTime";
+
+    /** 当前事务内写过的订单ID集合（事务资源Key） */
+    private static final Object DIRTY_RESOURCE_KEY = OrderCacheService.class.getName() + ".DIRTY";
+
+    /**
+     * 回填：租约仍属于自己且没有在途写事务时才写入
+     * KEYS[1]=缓存, KEYS[2]=租约, KEYS[3]=在途计数；ARGV[1]=租约token, ARGV[2]=TTL(ms), ARGV[3..]=字段/值
+     */
+    private static final String FILL_SCRIPT = """
+            if redis.call('get', KEYS[2]) ~= ARGV[1] then
+                return 0
+            end
+            redis.call('del', KEYS[2])
+            if tonumber(redis.call('get', KEYS[3]) or '0') > 0 then
+                return 0
+            end
+            redis.call('del', KEYS[1])
+            for i = 3, #ARGV, 2 do
+                redis.call('hset', KEYS[1], ARGV[i], ARGV[i + 1])
+            end
+            redis.call('pexpire', KEYS[1], ARGV[2])
+            return 1
+            """;
+
+    /**
+     * 写开始：在途计数 +1，作废进行中的回填
+     * KEYS[1]=租约, KEYS[2]=在途计数；ARGV[1]=在途计数TTL(ms)
+     */
+    private static final String BEGIN_WRITE_SCRIPT = """
+            redis.call('del', KEYS[1])
+            local n = redis.call('incr', KEYS[2])
+            redis.call('pexpire', KEYS[2], ARGV[1])
+            return n
+            """;
+
+    /**
+     * 写结束：缓存存在时应用增量，然后在途计数 -1
+     * KEYS[1]=缓存, KEYS[2]=租约, KEYS[3]=在途计数
+     * ARGV[1]=lockCount增量, ARGV[2]=completeCount增量, ARGV[3]=新状态(空=不变), ARGV[4]=完成时间, ARGV[5]=1删除缓存
+     */
+    private static final String FINISH_WRITE_SCRIPT = """
+            if ARGV[5] == '1' then
+                redis.call('del', KEYS[1])
+            elseif redis.call('exists', KEYS[1]) == 1 then
+                if ARGV[1] ~= '0' then
+                    redis.call('hincrby', KEYS[1], 'lockCount', ARGV[1])
+                end
+                if ARGV[2] ~= '0' then
+                    local c = redis.call('hincrby', KEYS[1], 'completeCount', ARGV[2])
+                    if c >= tonumber(redis.call('hget', KEYS[1], 'targetCount')) then
+                        redis.call('hset', KEYS[1], 'status', 'SUCCESS', 'completedTime', ARGV[4])
+                    end
+                end
+                if ARGV[3] ~= '' then
+                    redis.call('hset', KEYS[1], 'status', ARGV[3])
+                end
+            end
+            redis.call('del', KEYS[2])
+            if tonumber(redis.call('get', KEYS[3]) or '0') > 0 then
+                redis.call('decr', KEYS[3])
+            end
+            return 1
+            """;
+
+    private final IRedisService redisService;
+
+    @Value("${order-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${order-cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${order-cache.lease-ms:3000}")
+    private long leaseMillis;
+
+    @Value("${order-cache.inflight-ttl-ms:30000}")
+    private long inflightTtlMillis;
+
+    public OrderCacheService(IRedisService redisService) {
+        this.redisService = redisService;
+    }
+
+    /**
+     * 是否可以从缓存读取（开启缓存，且当前事务未写过该订单）
+     */
+    public boolean isReadable(String orderId) {
+        if (!enabled) {
+            return false;
+        }
+        Set<String> dirty = dirtyOrderIds();
+        return dirty == null || !dirty.contains(orderId);
+    }
+
+    /**
+     * 本次查库结果是否可以回填缓存
+     *
+     * <p>
+     * 以下情况读到的可能是旧计数/状态，不能作为缓存基准：
+     * <ul>
+     * <li>只读查询优先路由到从库（复制延迟）</li>
+     * <li>处于事务中：REPEATABLE READ 下快照在事务第一次读取时就已固定，可能早于租约获取</li>
+     * </ul>
+     */
+    public boolean isFillable() {
+        return !DataSourceRouteContext.isReplicaPreferred()
+                && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    /**
+     * 读取缓存
+     *
+     * @param orderId 拼团订单ID
+     * @return 订单持久化对象，未命中或异常返回null
+     */
+    public OrderPO get(String orderId) {
+        try {
+            Map<String, String> hash = redisService.getHash(RedisKeyManager.orderCacheKey(orderId));
+            String snapshot = hash.get(FIELD_SNAPSHOT);
+            if (snapshot == null) {
+                return null;
+            }
+            OrderPO po = JSON.parseObject(snapshot, OrderPO.class);
+            po.setLockCount(Integer.valueOf(hash.get(FIELD_LOCK_COUNT)));
+            po.setCompleteCount(Integer.valueOf(hash.get(FIELD_COMPLETE_COUNT)));
+            po.setStatus(hash.get(FIELD_STATUS));
+            String completedTime = hash.get(FIELD_COMPLETED_TIME);
+            po.setCompletedTime(completedTime == null || completedTime.isEmpty()
+                    ? null : LocalDateTime.parse(completedTime));
+            return po;
+        } catch (Exception e) {
+            log.error("【订单缓存】读取失败，降级查库, orderId: {}", orderId, e);
+            return null;
+        }
+    }
+
+    /**
+     * 获取回填租约（查库之前调用）
+     *
+     * @param orderId 拼团订单ID
+     * @return 租约token，已有其他请求在回填或异常时返回null（本次只查库不回填）
+     */
+    public String acquireLease(String orderId) {
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = redisService.setNx(RedisKeyManager.orderCacheLeaseKey(orderId), token,
+                    leaseMillis, TimeUnit.MILLISECONDS);
+            return Boolean.TRUE.equals(acquired) ? token : null;
+        } catch (Exception e) {
+            log.warn("【订单缓存】获取回填租约失败, orderId: {}", orderId, e);
+            return null;
+        }
+    }
+
+    /**
+     * 用数据库结果回填缓存
+     *
+     * @param po    数据库中的订单
+     * @param lease 查库前获取的租约
+     */
+    public void fill(OrderPO po, String lease) {
+        String orderId = po.getOrderId();
+        List<Object> args = new ArrayList<>(14);
+        args.add(lease);
+        args.add(ttlSeconds * 1000);
+        args.add(FIELD_SNAPSHOT);
+        args.add(JSON.toJSONString(po));
+        args.add(FIELD_LOCK_COUNT);
+        args.add(po.getLockCount());
+        args.add(FIELD_COMPLETE_COUNT);
+        args.add(po.getCompleteCount());
+        args.add(FIELD_TARGET_COUNT);
+        args.add(po.getTargetCount());
+        args.add(FIELD_STATUS);
+        args.add(po.getStatus());
+        args.add(FIELD_COMPLETED_TIME);
+        args.add(po.getCompletedTime() == null ? "" : po.getCompletedTime().toString());
+        try {
+            Long filled = redisService.executeScript(FILL_SCRIPT, keys(orderId), args.toArray());
+            log.debug("【订单缓存】回填, orderId: {}, filled: {}", orderId, filled);
+        } catch (Exception e) {
+            log.warn("【订单缓存】回填失败, orderId: {}", orderId, e);
+        }
+    }
+
+    /**
+     * 数据库写入前调用：登记在途写事务，作废进行中的回填
+     *
+     * @param orderId 拼团订单ID
+     */
+    public void beforeWrite(String orderId) {
+        if (!enabled) {
+            return;
+        }
+        markDirty(orderId);
+        try {
+            redisService.executeScript(BEGIN_WRITE_SCRIPT,
+                    List.of(RedisKeyManager.orderCacheLeaseKey(orderId), RedisKeyManager.orderCacheInflightKey(orderId)),
+                    inflightTtlMillis);
+        } catch (Exception e) {
+            log.error("【订单缓存】登记写事务失败, orderId: {}", orderId, e);
+        }
+    }
+
+    /**
+     * 计数器更新后调用（事务提交后生效）
+     *
+     * @param orderId       拼团订单ID
+     * @param lockDelta     lockCount 增量，数据库未更新时传0
+     * @param completeDelta completeCount 增量，数据库未更新时传0
+     */
+    public void afterCounterWrite(String orderId, int lockDelta, int completeDelta) {
+        afterWrite(orderId, lockDelta, completeDelta, null, false);
+    }
+
+    /**
+     * 状态更新后调用（事务提交后生效）
+     *
+     * @param orderId 拼团订单ID
+     * @param status  新状态
+     */
+    public void afterStatusWrite(String orderId, OrderStatus status) {
+        afterWrite(orderId, 0, 0, status, false);
+    }
+
+    /**
+     * 整单保存后调用：删除缓存，由下次读取重建（事务提交后生效）
+     *
+     * @param orderId 拼团订单ID
+     */
+    public void afterSave(String orderId) {
+        afterWrite(orderId, 0, 0, null, true);
+    }
+
+    private void afterWrite(String orderId, int lockDelta, int completeDelta, OrderStatus status, boolean evict) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            finishWrite(orderId, lockDelta, completeDelta, status, evict);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int completionStatus) {
+                if (completionStatus == STATUS_COMMITTED) {
+                    finishWrite(orderId, lockDelta, completeDelta, status, evict);
+                } else {
+                    // 回滚：数据库未变，只撤销在途计数
+                    finishWrite(orderId, 0, 0, null, false);
+                }
+            }
+        });
+    }
+
+    private void finishWrite(String orderId, int lockDelta, int completeDelta, OrderStatus status, boolean evict) {
+        try {
+            redisService.executeScript(FINISH_WRITE_SCRIPT, keys(orderId),
+                    lockDelta, completeDelta, status == null ? "" : status.name(),
+                    LocalDateTime.now().toString(), evict ? "1" : "0");
+        } catch (Exception e) {
+            log.error("【订单缓存】同步写入失败，删除缓存, orderId: {}", orderId, e);
+            try {
+                redisService.delete(RedisKeyManager.orderCacheKey(orderId));
+            } catch (Exception ex) {
+                log.error("【订单缓存】删除缓存失败, orderId: {}", orderId, ex);
+            }
+        }
+    }
+
+    private List<Object> keys(String orderId) {
+        return List.of(RedisKeyManager.orderCacheKey(orderId),
+                RedisKeyManager.orderCacheLeaseKey(orderId),
+                RedisKeyManager.orderCacheInflightKey(orderId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> dirtyOrderIds() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        return (Set<String>) TransactionSynchronizationManager.getResource(DIRTY_RESOURCE_KEY);
+    }
+
+    private void markDirty(String orderId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Set<String> dirty = dirtyOrderIds();
+        if (dirty == null) {
+            dirty = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(DIRTY_RESOURCE_KEY, dirty);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int completionStatus) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DIRTY_RESOURCE_KEY);
+                }
+            });
+        }
+        dirty.add(orderId);
+    }
+}
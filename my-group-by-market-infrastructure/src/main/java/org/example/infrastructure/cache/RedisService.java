@@ -12,6 +12,7 @@ import org.springframework.stereotype.Service;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -95,6 +96,17 @@ public class RedisService implements IRedisService {
                 .setIfAbsent(value, Duration.of(timeout, toChronoUnit(unit)));
     }
 
+    @Override
+    public String getString(String key) {
+        return redissonClient.<String>getBucket(key, StringCodec.INSTANCE).get();
+    }
+
+    @Override
+    public void setString(String key, String value, long timeout, TimeUnit unit) {
+        redissonClient.<String>getBucket(key, StringCodec.INSTANCE)
+                .set(value, Duration.of(timeout, toChronoUnit(unit)));
+    }
+
     @Override
     public Long getAtomicLong(String key) {
         long value = redissonClient.getAtomicLong(key).get();
@@ -113,6 +125,11 @@ public class RedisService implements IRedisService {
         redissonClient.getBucket(key).delete();
     }
 
+    @Override
+    public Map<String, String> getHash(String key) {
+        return redissonClient.<String, String>getMap(key, StringCodec.INSTANCE).readAllMap();
+    }
+
     @Override
     public Long executeScript(String script, List<Object> keys, Object... args) {
         // 1. 获取脚本对象
@@ -133,6 +150,12 @@ public class RedisService implements IRedisService {
         );
     }
 
+    @Override
+    public String executeScriptForString(String script, List<Object> keys, Object... args) {
+        RScript rScript = redissonClient.getScript(StringCodec.INSTANCE);
+        return rScript.eval(RScript.Mode.READ_WRITE, script, RScript.ReturnType.VALUE, keys, args);
+    }
+
     /**
      * 将 TimeUnit 转换为 ChronoUnit
      */
@@ -6,8 +6,11 @@ import org.example.domain.model.goods.repository.SkuRepository;
 import org.example.domain.model.notification.repository.NotificationTaskRepository;
 import org.example.domain.model.order.repository.OrderRepository;
 import org.example.domain.model.tag.repository.CrowdTagRepository;
+import org.example.domain.model.trade.filter.TradeFilterFactory;
 import org.example.domain.model.trade.repository.TradeOrderRepository;
+import org.example.domain.repository.IConfigRepository;
 import org.example.domain.service.lock.IDistributedLockService;
+import org.example.domain.service.lock.IOrderMailbox;
 import org.example.domain.service.LockOrderService;
 import org.example.domain.service.RefundService;
 import org.example.domain.service.SettlementService;
@@ -81,6 +84,25 @@ public class DomainServiceConfiguration {
         return new org.example.domain.service.validation.CrowdTagValidationService(crowdTagRepository);
     }
 
+    /**
+     * 交易规则过滤链工厂
+     *
+     * <p>
+     * 启动时组装冻结的过滤链，trade.filter.* 配置变更时由 TradeFilterConfigListener 触发重建
+     */
+    @Bean
+    public TradeFilterFactory tradeFilterFactory(
+            ActivityRepository activityRepository,
+            AccountRepository accountRepository,
+            TradeOrderRepository tradeOrderRepository,
+            SkuRepository skuRepository,
+            org.example.domain.service.validation.FlowControlService flowControlService,
+            org.example.domain.service.validation.CrowdTagValidationService crowdTagValidationService,
+            IConfigRepository configRepository) {
+        return new TradeFilterFactory(activityRepository, accountRepository, tradeOrderRepository,
+                skuRepository, flowControlService, crowdTagValidationService, configRepository);
+    }
+
     /**
      * 资源释放领域服务
      *
@@ -112,9 +134,9 @@ public class DomainServiceConfiguration {
             NotificationTaskRepository notificationTaskRepository,
             IdGenerator idGenerator,
             ResourceReleaseService resourceReleaseService,
-            IDistributedLockService lockService) {
+            IOrderMailbox orderMailbox) {
         return new SettlementService(orderRepository, tradeOrderRepository,
-                notificationTaskRepository, idGenerator, resourceReleaseService, lockService);
+                notificationTaskRepository, idGenerator, resourceReleaseService, orderMailbox);
     }
 
     /**
@@ -133,10 +155,11 @@ public class DomainServiceConfiguration {
             RefundStrategyFactory refundStrategyFactory,
             TeamRefundStrategy teamRefundStrategy,
             IDistributedLockService lockService,
+            IOrderMailbox orderMailbox,
             IRefundFallbackService fallbackService) {
 
-        return new RefundService(
-                tradeOrderRepository, refundStrategyFactory, teamRefundStrategy, lockService, fallbackService);
+        return new RefundService(tradeOrderRepository, refundStrategyFactory, teamRefundStrategy,
+                lockService, orderMailbox, fallbackService);
     }
 
     // ==================== 退单策略配置 ====================
@@ -148,8 +171,9 @@ public class DomainServiceConfiguration {
      * 处理未支付订单的退单逻辑，释放锁定的拼团名额和商品库存
      */
     @Bean
-    public UnpaidRefundStrategy unpaidRefundStrategy(ResourceReleaseService resourceReleaseService) {
-        return new UnpaidRefundStrategy(resourceReleaseService);
+    public UnpaidRefundStrategy unpaidRefundStrategy(TradeOrderRepository tradeOrderRepository,
+            ResourceReleaseService resourceReleaseService) {
+        return new UnpaidRefundStrategy(tradeOrderRepository, resourceReleaseService);
     }
 
     /**
@@ -161,9 +185,11 @@ public class DomainServiceConfiguration {
     @Bean
     public PaidRefundStrategy paidRefundStrategy(
             OrderRepository orderRepository,
+            TradeOrderRepository tradeOrderRepository,
             org.example.domain.gateway.IPaymentRefundGateway paymentRefundGateway,
             ResourceReleaseService resourceReleaseService) {
-        return new PaidRefundStrategy(orderRepository, paymentRefundGateway, resourceReleaseService);
+        return new PaidRefundStrategy(orderRepository, tradeOrderRepository, paymentRefundGateway,
+                resourceReleaseService);
     }
 
     /**
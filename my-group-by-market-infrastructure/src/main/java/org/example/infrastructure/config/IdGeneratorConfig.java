@@ -0,0 +1,31 @@
+package org.example.infrastructure.config;
+
+import org.example.infrastructure.cache.IRedisService;
+import org.example.infrastructure.shared.RedisWorkerSegmentAllocator;
+import org.example.infrastructure.shared.SegmentIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * ID 生成器配置
+ *
+ * <p>
+ * 号段模式：worker ID 从 Redis 租用，号段按 worker 高水位分配，节点内无锁发号并双缓冲预取
+ *
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean(destroyMethod = "close")
+    public RedisWorkerSegmentAllocator segmentAllocator(IRedisService redisService,
+            @Value("${id.segment.worker-lease-ms:30000}") long workerLeaseMillis) {
+        return new RedisWorkerSegmentAllocator(redisService, workerLeaseMillis);
+    }
+
+    @Bean(destroyMethod = "close")
+    public SegmentIdGenerator idGenerator(RedisWorkerSegmentAllocator segmentAllocator,
+            @Value("${id.segment.prefetch-threshold:0.8}") double prefetchThreshold) {
+        return new SegmentIdGenerator(segmentAllocator, prefetchThreshold);
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.infrastructure.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.domain.shared.AuthContextService;
+import org.example.infrastructure.cache.IRedisService;
+import org.example.infrastructure.datasource.ReadOnlyRoutingAspect;
+import org.example.infrastructure.datasource.ReadWriteRoutingDataSource;
+import org.example.infrastructure.datasource.ReadWriteRoutingProperties;
+import org.example.infrastructure.datasource.RecentWriteInterceptor;
+import org.example.infrastructure.datasource.RecentWriteTracker;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 读写分离配置
+ *
+ * <p>
+ * 职责：
+ * <ul>
+ * <li>app.datasource.read-write.enabled=true 时生效，否则沿用 Spring Boot 自动配置的单数据源</li>
+ * <li>主库连接池沿用 spring.datasource / spring.datasource.hikari 配置，从库按 replicas 逐个建池（只读连接）</li>
+ * <li>对外暴露 @Primary 的延迟连接代理（包装路由数据源），MyBatis、事务管理器、Flyway 均使用它（无只读上下文时即主库）</li>
+ * <li>延迟到第一条语句执行时才取真实连接：@ReadOnly 方法内开启的读写事务此时已激活，路由到主库，
+ * 不会在事务开始时按只读标记拿到从库连接</li>
+ * <li>注册 @ReadOnly 路由切面和读己之写的 MyBatis 写入拦截器</li>
+ * </ul>
+ *
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.read-write", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReadWriteRoutingProperties.class)
+public class ReadWriteDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public LazyConnectionDataSourceProxy dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        dataSource.setDefaultAutoCommit(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+            DataSourceProperties dataSourceProperties,
+            ReadWriteRoutingProperties properties) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (ReadWriteRoutingProperties.Replica replica : properties.getReplicas()) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(dataSourceProperties.determineDriverClassName())
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword())
+                    .build();
+            dataSource.setPoolName(replica.getName());
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+            replicas.put(replica.getName(), dataSource);
+        }
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas, properties);
+    }
+
+    @Bean
+    public RecentWriteTracker recentWriteTracker(IRedisService redisService,
+            AuthContextService authContextService,
+            ReadWriteRoutingProperties properties) {
+        return new RecentWriteTracker(redisService, authContextService, properties.getStickyWindowMs());
+    }
+
+    @Bean
+    public ReadOnlyRoutingAspect readOnlyRoutingAspect(RecentWriteTracker recentWriteTracker) {
+        return new ReadOnlyRoutingAspect(recentWriteTracker);
+    }
+
+    @Bean
+    public RecentWriteInterceptor recentWriteInterceptor(RecentWriteTracker recentWriteTracker) {
+        return new RecentWriteInterceptor(recentWriteTracker);
+    }
+}
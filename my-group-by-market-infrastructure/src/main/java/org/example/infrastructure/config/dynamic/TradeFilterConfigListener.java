@@ -0,0 +1,33 @@
+package org.example.infrastructure.config.dynamic;
+
+import org.example.domain.model.trade.filter.TradeFilterFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 交易过滤链配置监听器
+ * 监听 trade.filter.* 配置变更，重建并替换冻结的过滤链
+ */
+@Component
+public class TradeFilterConfigListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TradeFilterConfigListener.class);
+
+    private final TradeFilterFactory tradeFilterFactory;
+
+    public TradeFilterConfigListener(TradeFilterFactory tradeFilterFactory) {
+        this.tradeFilterFactory = tradeFilterFactory;
+    }
+
+    @EventListener
+    public void onConfigRefresh(ConfigRefreshEvent event) {
+        if (event.getKey() == null || !event.getKey().startsWith(TradeFilterFactory.CONFIG_PREFIX)
+                || !event.hasChanged()) {
+            return;
+        }
+        log.info("交易过滤链配置变更: {} -> {}", event.getKey(), event.getNewValue());
+        tradeFilterFactory.rebuild();
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.infrastructure.datasource;
+
+/**
+ * 数据源路由上下文
+ *
+ * <p>
+ * 记录当前线程是否处于只读查询中（由 {@link ReadOnlyRoutingAspect} 设置），
+ * {@link ReadWriteRoutingDataSource} 每次取连接时读取
+ *
+ */
+public final class DataSourceRouteContext {
+
+    private static final ThreadLocal<Boolean> REPLICA_PREFERRED = new ThreadLocal<>();
+
+    private DataSourceRouteContext() {
+    }
+
+    public static void preferReplica() {
+        REPLICA_PREFERRED.set(Boolean.TRUE);
+    }
+
+    public static boolean isReplicaPreferred() {
+        return Boolean.TRUE.equals(REPLICA_PREFERRED.get());
+    }
+
+    public static void clear() {
+        REPLICA_PREFERRED.remove();
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.infrastructure.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 只读查询路由切面
+ *
+ * <p>
+ * 拦截带有 @ReadOnly 注解的类或方法，在调用期间把当前线程标记为优先读从库
+ *
+ * <p>
+ * 最高优先级，位于事务切面之外；已处于事务中或用户在读己之写窗口内时不做标记（走主库）
+ *
+ */
+@Slf4j
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReadOnlyRoutingAspect {
+
+    private final RecentWriteTracker recentWriteTracker;
+
+    public ReadOnlyRoutingAspect(RecentWriteTracker recentWriteTracker) {
+        this.recentWriteTracker = recentWriteTracker;
+    }
+
+    @Around("@within(org.example.common.datasource.ReadOnly) || @annotation(org.example.common.datasource.ReadOnly)")
+    public Object around(ProceedingJoinPoint point) throws Throwable {
+        if (DataSourceRouteContext.isReplicaPreferred()
+                || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return point.proceed();
+        }
+        if (recentWriteTracker.hasRecentWrite()) {
+            log.debug("【读写分离】读己之写窗口内，走主库, method: {}", point.getSignature().toShortString());
+            return point.proceed();
+        }
+        DataSourceRouteContext.preferReplica();
+        try {
+            return point.proceed();
+        } finally {
+            DataSourceRouteContext.clear();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.infrastructure.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 读写分离路由数据源
+ *
+ * <p>
+ * 职责：
+ * <ul>
+ * <li>默认路由到主库；只读上下文中且不在读写事务内时，路由到健康检查选出的从库</li>
+ * <li>没有健康从库时回退主库，读请求不会因为从库故障失败</li>
+ * <li>持有从库连接池和健康检查器，随容器关闭释放（主库连接池是独立的 Bean）</li>
+ * </ul>
+ * <p>
+ * 路由在每次取连接时决定：无事务的 MyBatis 查询每条语句取一次连接，事务内复用第一次取到的连接。
+ * 由 LazyConnectionDataSourceProxy 包装，事务内第一条语句执行时才取连接，此时事务同步已激活，
+ * 读写事务（即使从 @ReadOnly 方法内开启）判定为主库
+ *
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    private final Map<String, DataSource> replicas;
+    private final ReplicaHealthChecker healthChecker;
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+            ReadWriteRoutingProperties properties) {
+        this.replicas = replicas;
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+        this.healthChecker = new ReplicaHealthChecker(replicas, properties.getMaxLagSeconds(),
+                properties.getHealthCheckIntervalMs());
+        log.info("【读写分离】路由数据源已启用, replicas: {}, healthy: {}",
+                replicas.keySet(), healthChecker.healthyReplicas());
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!DataSourceRouteContext.isReplicaPreferred()) {
+            return PRIMARY;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        String replica = healthChecker.nextHealthyReplica();
+        return replica != null ? replica : PRIMARY;
+    }
+
+    public ReplicaHealthChecker getHealthChecker() {
+        return healthChecker;
+    }
+
+    @Override
+    public void close() {
+        healthChecker.close();
+        replicas.values().forEach(dataSource -> {
+            if (dataSource instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        });
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.infrastructure.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离配置属性类
+ * 对应 application.yml 中的 app.datasource.read-write 前缀（主库沿用 spring.datasource）
+ */
+@Data
+@ConfigurationProperties(prefix = "app.datasource.read-write")
+public class ReadWriteRoutingProperties {
+
+    /** 是否开启读写分离 */
+    private boolean enabled = false;
+
+    /** 从库列表 */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /** 从库最大允许复制延迟（秒），超过即摘除 */
+    private long maxLagSeconds = 3;
+
+    /** 从库健康检查间隔（毫秒） */
+    private long healthCheckIntervalMs = 2000;
+
+    /** 读己之写窗口（毫秒）：用户写入后该时间内的只读查询走主库，应大于正常复制延迟 */
+    private long stickyWindowMs = 5000;
+
+    @Data
+    public static class Replica {
+
+        /** 从库名称（连接池名，日志中使用） */
+        private String name;
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        /** 连接池大小 */
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.infrastructure.datasource;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * MyBatis 写入拦截器
+ *
+ * <p>
+ * INSERT/UPDATE/DELETE 执行成功后通知 {@link RecentWriteTracker} 记录当前用户的近期写入；
+ * 事务内的写入在提交后才记录（每个事务一次），Redis 调用不占用事务的连接和行锁时间，回滚的写入不记录
+ *
+ */
+@Intercepts(@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}))
+public class RecentWriteInterceptor implements Interceptor {
+
+    private final RecentWriteTracker recentWriteTracker;
+
+    public RecentWriteInterceptor(RecentWriteTracker recentWriteTracker) {
+        this.recentWriteTracker = recentWriteTracker;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recentWriteTracker.markWrite();
+        } else if (TransactionSynchronizationManager.getSynchronizations().stream()
+                .noneMatch(MarkWriteOnCommit.class::isInstance)) {
+            TransactionSynchronizationManager.registerSynchronization(new MarkWriteOnCommit());
+        }
+        return result;
+    }
+
+    /**
+     * 事务提交后记录近期写入
+     */
+    private final class MarkWriteOnCommit implements TransactionSynchronization {
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED) {
+                recentWriteTracker.markWrite();
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.infrastructure.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.common.cache.RedisKeyManager;
+import org.example.domain.shared.AuthContextService;
+import org.example.infrastructure.cache.IRedisService;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 读己之写跟踪
+ *
+ * <p>
+ * 职责：
+ * <ul>
+ * <li>登录用户的请求写库后，在 Redis 中设置带过期时间的近期写入标记（跨节点生效）</li>
+ * <li>同一请求内多次写库只设置一次标记</li>
+ * <li>只读查询前检查标记，窗口内的查询走主库，避免用户看不到自己刚提交的数据</li>
+ * </ul>
+ *
+ */
+@Slf4j
+public class RecentWriteTracker {
+
+    private static final String MARKED_ATTRIBUTE = RecentWriteTracker.class.getName() + ".MARKED";
+
+    private final IRedisService redisService;
+    private final AuthContextService authContextService;
+    private final long stickyWindowMs;
+
+    public RecentWriteTracker(IRedisService redisService, AuthContextService authContextService,
+            long stickyWindowMs) {
+        this.redisService = redisService;
+        this.authContextService = authContextService;
+        this.stickyWindowMs = stickyWindowMs;
+    }
+
+    /**
+     * 记录当前用户的写入（非登录请求、后台线程直接忽略）
+     */
+    public void markWrite() {
+        Optional<String> userId = authContextService.getCurrentUserIdOptional();
+        if (userId.isEmpty()) {
+            return;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && attributes.getAttribute(MARKED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return;
+        }
+        try {
+            redisService.setString(RedisKeyManager.recentWriteKey(userId.get()), "1", stickyWindowMs,
+                    TimeUnit.MILLISECONDS);
+            if (attributes != null) {
+                attributes.setAttribute(MARKED_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+            }
+        } catch (Exception e) {
+            // 标记失败只影响读己之写，不影响写入本身
+            log.warn("【读写分离】记录近期写入失败, userId: {}, error: {}", userId.get(), e.getMessage());
+        }
+    }
+
+    /**
+     * 当前用户是否在读己之写窗口内
+     */
+    public boolean hasRecentWrite() {
+        Optional<String> userId = authContextService.getCurrentUserIdOptional();
+        if (userId.isEmpty()) {
+            return false;
+        }
+        try {
+            return redisService.exists(RedisKeyManager.recentWriteKey(userId.get()));
+        } catch (Exception e) {
+            // Redis 不可用时无法判断，保守地走主库
+            log.warn("【读写分离】查询近期写入失败，走主库, userId: {}, error: {}", userId.get(), e.getMessage());
+            return true;
+        }
+    }
+}
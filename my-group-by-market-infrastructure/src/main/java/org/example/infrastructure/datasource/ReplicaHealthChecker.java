@@ -0,0 +1,126 @@
+package org.example.infrastructure.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 从库健康检查（延迟感知）
+ *
+ * <p>
+ * 职责：
+ * <ul>
+ * <li>定时对每个从库执行 SHOW REPLICA STATUS：IO/SQL 线程均在运行且 Seconds_Behind_Source 不超过阈值才视为健康</li>
+ * <li>连接失败、复制中断、延迟未知（NULL）或超阈值的从库被摘除，恢复后自动加回</li>
+ * <li>在健康从库间轮询分配读请求；没有健康从库时返回 null，由调用方回退主库</li>
+ * </ul>
+ * <p>
+ * 从库账号需要 REPLICATION CLIENT 权限
+ *
+ */
+@Slf4j
+public class ReplicaHealthChecker implements AutoCloseable {
+
+    private final Map<String, DataSource> replicas;
+    private final long maxLagSeconds;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    /** 各从库最近一次检查结果（true=健康） */
+    private final Map<String, Boolean> states = new ConcurrentHashMap<>();
+
+    /** 当前健康的从库（只在检查线程中整体替换） */
+    private volatile List<String> healthy = List.of();
+
+    public ReplicaHealthChecker(Map<String, DataSource> replicas, long maxLagSeconds, long intervalMs) {
+        this.replicas = replicas;
+        this.maxLagSeconds = maxLagSeconds;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 启动时同步检查一次，避免首个检查周期内读请求全部落到主库
+        checkNow();
+        scheduler.scheduleWithFixedDelay(this::checkNow, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 轮询选择一个健康从库
+     *
+     * @return 从库名称，没有健康从库时返回 null
+     */
+    public String nextHealthyReplica() {
+        List<String> current = healthy;
+        if (current.isEmpty()) {
+            return null;
+        }
+        return current.get(Math.floorMod(cursor.getAndIncrement(), current.size()));
+    }
+
+    /**
+     * 立即检查所有从库并刷新健康列表
+     */
+    public synchronized void checkNow() {
+        List<String> next = new ArrayList<>(replicas.size());
+        replicas.forEach((name, dataSource) -> {
+            boolean ok = isHealthy(name, dataSource);
+            Boolean previous = states.put(name, ok);
+            if (previous == null || previous != ok) {
+                if (ok) {
+                    log.info("【读写分离】从库可用, replica: {}", name);
+                } else {
+                    log.warn("【读写分离】从库摘除, replica: {}", name);
+                }
+            }
+            if (ok) {
+                next.add(name);
+            }
+        });
+        healthy = List.copyOf(next);
+    }
+
+    public List<String> healthyReplicas() {
+        return healthy;
+    }
+
+    private boolean isHealthy(String name, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!rs.next()) {
+                log.warn("【读写分离】未配置复制，不作为从库使用, replica: {}", name);
+                return false;
+            }
+            boolean running = "Yes".equalsIgnoreCase(rs.getString("Replica_IO_Running"))
+                    && "Yes".equalsIgnoreCase(rs.getString("Replica_SQL_Running"));
+            long lag = rs.getLong("Seconds_Behind_Source");
+            boolean lagKnown = !rs.wasNull();
+            if (!running || !lagKnown || lag > maxLagSeconds) {
+                log.debug("【读写分离】从库不健康, replica: {}, running: {}, lagSeconds: {}",
+                        name, running, lagKnown ? lag : "NULL");
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            log.debug("【读写分离】从库检查失败, replica: {}, error: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
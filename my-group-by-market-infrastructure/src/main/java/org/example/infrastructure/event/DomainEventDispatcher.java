@@ -0,0 +1,110 @@
+package org.example.infrastructure.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.domain.service.event.IDomainEventHandler;
+import org.example.domain.service.event.IDomainEventPublisher;
+import org.example.domain.shared.DomainEvent;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * 领域事件分发器
+ *
+ * <p>
+ * 职责：
+ * <ul>
+ * <li>实现 IDomainEventPublisher：仓储保存聚合后调用，事务提交后才把事件写入环形缓冲区</li>
+ * <li>容器启动完成后发现所有 IDomainEventHandler，为每个处理器启动独立的批量消费线程</li>
+ * <li>容器关闭时等待已发布的事件消费完毕</li>
+ * </ul>
+ *
+ * <p>
+ * 处理器在启动阶段才收集（而不是构造注入），避免 处理器 → 服务 → 仓储 → 分发器 的循环依赖
+ *
+ */
+@Slf4j
+@Component
+public class DomainEventDispatcher implements IDomainEventPublisher, SmartLifecycle {
+
+    private final ObjectProvider<IDomainEventHandler> handlerProvider;
+
+    @Value("${domain-event.ring-buffer-size:8192}")
+    private int ringBufferSize;
+
+    @Value("${domain-event.batch-size:256}")
+    private int batchSize;
+
+    @Value("${domain-event.publish-timeout-ms:10}")
+    private long publishTimeoutMs;
+
+    @Value("${domain-event.shutdown-timeout-ms:5000}")
+    private long shutdownTimeoutMs;
+
+    private volatile DomainEventRingBuffer ringBuffer;
+
+    public DomainEventDispatcher(ObjectProvider<IDomainEventHandler> handlerProvider) {
+        this.handlerProvider = handlerProvider;
+    }
+
+    @Override
+    public void publish(List<DomainEvent> events) {
+        if (events == null || events.isEmpty()) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(events);
+                }
+            });
+        } else {
+            dispatch(events);
+        }
+    }
+
+    private void dispatch(List<DomainEvent> events) {
+        DomainEventRingBuffer buffer = this.ringBuffer;
+        if (buffer == null) {
+            log.debug("【领域事件】分发器未启动，忽略事件, count: {}", events.size());
+            return;
+        }
+        for (DomainEvent event : events) {
+            buffer.publish(event);
+        }
+    }
+
+    @Override
+    public void start() {
+        List<IDomainEventHandler> handlers = handlerProvider.orderedStream().toList();
+        DomainEventRingBuffer buffer = new DomainEventRingBuffer(ringBufferSize, handlers, batchSize,
+                publishTimeoutMs);
+        buffer.start();
+        this.ringBuffer = buffer;
+        log.info("【领域事件】分发器已启动, capacity: {}, handlers: {}", buffer.capacity(),
+                handlers.stream().map(IDomainEventHandler::name).toList());
+    }
+
+    @Override
+    public void stop() {
+        DomainEventRingBuffer buffer = this.ringBuffer;
+        if (buffer == null) {
+            return;
+        }
+        this.ringBuffer = null;
+        buffer.stop(shutdownTimeoutMs);
+        log.info("【领域事件】分发器已停止, backlog: {}, dropped: {}", buffer.backlog(), buffer.droppedCount());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return ringBuffer != null;
+    }
+}
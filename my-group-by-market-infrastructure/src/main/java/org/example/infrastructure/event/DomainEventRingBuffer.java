@@ -0,0 +1,263 @@
+package org.example.infrastructure.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.domain.service.event.IDomainEventHandler;
+import org.example.domain.shared.DomainEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 领域事件环形缓冲区
+ *
+ * <p>
+ * 职责：
+ * <ul>
+ * <li>多生产者通过 CAS 认领序号写入预分配的槽位，发布时不加锁</li>
+ * <li>每个处理器一个消费线程，各自维护消费序号，批量读取连续已发布的事件</li>
+ * <li>生产者不能越过最慢的消费者：缓冲区满时短暂等待，超时丢弃并告警</li>
+ * </ul>
+ *
+ * <p>
+ * 事件只在进程内流转，进程退出时未消费的事件会丢失；需要可靠投递的处理器应桥接到MQ
+ *
+ */
+@Slf4j
+public class DomainEventRingBuffer {
+
+    /** 消费者空闲时的最长休眠时间 */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<DomainEvent> entries;
+
+    /** 每个槽位最后一次发布的序号，用于消费者判断槽位是否可读 */
+    private final AtomicLongArray published;
+
+    /** 已认领的最大序号 */
+    private final AtomicLong cursor = new AtomicLong(-1);
+
+    private final Consumer[] consumers;
+    private final long publishTimeoutNanos;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running;
+
+    /**
+     * @param capacity         容量（向上取整为2的幂）
+     * @param handlers         事件处理器
+     * @param batchSize        单批最大事件数
+     * @param publishTimeoutMs 缓冲区满时生产者最长等待时间
+     */
+    public DomainEventRingBuffer(int capacity, List<IDomainEventHandler> handlers, int batchSize,
+            long publishTimeoutMs) {
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = this.capacity - 1;
+        this.entries = new AtomicReferenceArray<>(this.capacity);
+        this.published = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            published.set(i, -1);
+        }
+        this.publishTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(publishTimeoutMs);
+        this.consumers = new Consumer[handlers.size()];
+        for (int i = 0; i < handlers.size(); i++) {
+            consumers[i] = new Consumer(handlers.get(i), batchSize);
+        }
+    }
+
+    /**
+     * 启动消费线程
+     */
+    public void start() {
+        running = true;
+        for (Consumer consumer : consumers) {
+            consumer.thread.start();
+        }
+    }
+
+    /**
+     * 停止消费线程（等待已发布的事件消费完毕）
+     *
+     * @param timeoutMs 最长等待时间
+     */
+    public void stop(long timeoutMs) {
+        running = false;
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        for (Consumer consumer : consumers) {
+            LockSupport.unpark(consumer.thread);
+            try {
+                consumer.thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 发布事件
+     *
+     * @param event 领域事件
+     * @return true=已写入, false=缓冲区满且等待超时，事件被丢弃
+     */
+    public boolean publish(DomainEvent event) {
+        if (consumers.length == 0) {
+            return true;
+        }
+
+        long sequence = claim();
+        if (sequence < 0) {
+            long total = dropped.incrementAndGet();
+            log.warn("【领域事件】缓冲区已满，丢弃事件, eventType: {}, aggregateId: {}, droppedTotal: {}",
+                    event.eventType(), event.aggregateId(), total);
+            return false;
+        }
+
+        int index = (int) (sequence & mask);
+        entries.set(index, event);
+        published.set(index, sequence);
+
+        for (Consumer consumer : consumers) {
+            if (consumer.idle) {
+                LockSupport.unpark(consumer.thread);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 累计丢弃的事件数
+     */
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * 当前最慢消费者积压的事件数
+     */
+    public long backlog() {
+        return cursor.get() - minConsumerSequence();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * 认领下一个序号；最慢消费者落后一整圈时等待，超时返回-1
+     */
+    private long claim() {
+        long deadline = 0;
+        while (true) {
+            long current = cursor.get();
+            long next = current + 1;
+            if (next - capacity > minConsumerSequence()) {
+                if (deadline == 0) {
+                    deadline = System.nanoTime() + publishTimeoutNanos;
+                } else if (System.nanoTime() - deadline > 0) {
+                    return -1;
+                }
+                Thread.onSpinWait();
+                continue;
+            }
+            if (cursor.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private long minConsumerSequence() {
+        long min = Long.MAX_VALUE;
+        for (Consumer consumer : consumers) {
+            min = Math.min(min, consumer.sequence.get());
+        }
+        return min;
+    }
+
+    /**
+     * 单个处理器的消费者：独立线程 + 独立消费序号
+     */
+    private final class Consumer implements Runnable {
+
+        private final IDomainEventHandler handler;
+        private final int batchSize;
+        private final List<DomainEvent> batch;
+        private final AtomicLong sequence = new AtomicLong(-1);
+        private final Thread thread;
+        private volatile boolean idle;
+
+        private Consumer(IDomainEventHandler handler, int batchSize) {
+            this.handler = handler;
+            this.batchSize = batchSize;
+            this.batch = new ArrayList<>(batchSize);
+            this.thread = new Thread(this, "domain-event-" + handler.name());
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                long processed = drain();
+                if (processed > 0) {
+                    continue;
+                }
+                if (!running) {
+                    // 停止前再确认一次没有剩余事件
+                    if (drain() == 0) {
+                        return;
+                    }
+                    continue;
+                }
+                idle = true;
+                // 发布方在写入后检查 idle 再唤醒，这里复查一次避免错过唤醒
+                if (!isAvailable(sequence.get() + 1)) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                idle = false;
+            }
+        }
+
+        /**
+         * 读取一批连续已发布的事件并交给处理器
+         *
+         * @return 本次推进的序号数
+         */
+        private long drain() {
+            long start = sequence.get();
+            long next = start + 1;
+            while (next - start <= batchSize && isAvailable(next)) {
+                DomainEvent event = entries.get((int) (next & mask));
+                if (handler.supports(event)) {
+                    batch.add(event);
+                }
+                next++;
+            }
+            long last = next - 1;
+            if (last == start) {
+                return 0;
+            }
+
+            if (!batch.isEmpty()) {
+                try {
+                    handler.onEvents(batch);
+                } catch (Exception e) {
+                    log.error("【领域事件】处理器执行失败, handler: {}, batchSize: {}", handler.name(), batch.size(), e);
+                } finally {
+                    batch.clear();
+                }
+            }
+            sequence.set(last);
+            return last - start;
+        }
+
+        private boolean isAvailable(long seq) {
+            return published.get((int) (seq & mask)) == seq;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.infrastructure.event;
+
+import com.alibaba.fastjson.JSON;
+import lombok.extern.slf4j.Slf4j;
+import org.example.domain.service.event.IDomainEventHandler;
+import org.example.domain.shared.DomainEvent;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 领域事件 RabbitMQ 桥接
+ *
+ * <p>
+ * 职责：
+ * <ul>
+ * <li>将进程内领域事件转发到 Topic 交换机，路由键为事件类型（如 OrderCreated）</li>
+ * <li>跨服务的缓存、计数、看板可按路由键订阅所需事件</li>
+ * <li>默认关闭：domain-event.rabbit.enabled=true 开启，domain-event.rabbit.event-types 限定转发的事件类型</li>
+ * </ul>
+ *
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "domain-event.rabbit.enabled", havingValue = "true")
+public class RabbitDomainEventBridge {
+
+    public static final String EXCHANGE_DOMAIN_EVENT = "domain.event.exchange";
+
+    /**
+     * 领域事件交换机
+     */
+    @Bean
+    public TopicExchange domainEventExchange() {
+        return new TopicExchange(EXCHANGE_DOMAIN_EVENT, true, false);
+    }
+
+    /**
+     * 桥接处理器
+     */
+    @Bean
+    public IDomainEventHandler rabbitDomainEventHandler(RabbitTemplate rabbitTemplate,
+            @Value("${domain-event.rabbit.event-types:}") Set<String> eventTypes) {
+        return new IDomainEventHandler() {
+
+            @Override
+            public String name() {
+                return "rabbit-bridge";
+            }
+
+            @Override
+            public boolean supports(DomainEvent event) {
+                return eventTypes.isEmpty() || eventTypes.contains(event.eventType());
+            }
+
+            @Override
+            public void onEvents(List<DomainEvent> events) {
+                for (DomainEvent event : events) {
+                    try {
+                        rabbitTemplate.convertAndSend(EXCHANGE_DOMAIN_EVENT, event.eventType(),
+                                JSON.toJSONString(event), message -> {
+                                    MessageProperties properties = message.getMessageProperties();
+                                    properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+                                    properties.setHeader("eventType", event.eventType());
+                                    properties.setHeader("eventVersion", event.version());
+                                    properties.setHeader("aggregateId", event.aggregateId());
+                                    return message;
+                                });
+                    } catch (Exception e) {
+                        log.error("【领域事件桥接】发送失败, eventType: {}, aggregateId: {}",
+                                event.eventType(), event.aggregateId(), e);
+                    }
+                }
+            }
+        };
+    }
+}
@@ -3,9 +3,9 @@ package org.example.infrastructure.mq;
 import com.rabbitmq.client.Channel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.example.domain.model.trade.TradeOrder;
 import org.example.domain.model.trade.message.TradeOrderTimeoutMessage;
 import org.example.domain.model.trade.repository.TradeOrderRepository;
+import org.example.domain.model.trade.valueobject.TradeOrderStatusView;
 import org.example.domain.model.trade.valueobject.TradeStatus;
 import org.example.domain.service.RefundService;
 import org.example.infrastructure.config.RabbitMQDelayConfig;
@@ -13,6 +13,7 @@ import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -67,23 +68,25 @@ public class TradeOrderTimeoutConsumer {
         try {
             log.info("【TradeOrder超时】收到超时消息, tradeOrderId={}", message.getTradeOrderId());
 
-            // 1. 查询TradeOrder当前状态
-            Optional<TradeOrder> tradeOrderOpt = tradeOrderRepository
-                    .findByTradeOrderId(message.getTradeOrderId());
+            // 1. 查询TradeOrder当前状态（状态投影，不加载完整聚合）
+            Optional<TradeOrderStatusView> statusOpt = tradeOrderRepository
+                    .findStatusByIds(List.of(message.getTradeOrderId()))
+                    .stream()
+                    .findFirst();
 
-            if (tradeOrderOpt.isEmpty()) {
+            if (statusOpt.isEmpty()) {
                 log.warn("【TradeOrder超时】交易订单不存在, tradeOrderId={}",
                         message.getTradeOrderId());
                 channel.basicAck(deliveryTag, false);
                 return;
             }
 
-            TradeOrder tradeOrder = tradeOrderOpt.get();
+            TradeStatus status = statusOpt.get().status();
 
             // 2. 检查状态
-            if (tradeOrder.getStatus() != TradeStatus.CREATE) {
+            if (status != TradeStatus.CREATE) {
                 log.info("【TradeOrder超时】订单状态已变更，无需处理, tradeOrderId={}, status={}",
-                        message.getTradeOrderId(), tradeOrder.getStatus());
+                        message.getTradeOrderId(), status);
                 channel.basicAck(deliveryTag, false);
                 return;
             }
@@ -0,0 +1,350 @@
+package org.example.infrastructure.notify;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 非阻塞HTTP回调分发器
+ *
+ * <p>
+ * 职责：
+ * <ul>
+ * <li>基于 {@link HttpClient#sendAsync} 发送回调，调用线程不等待下游响应</li>
+ * <li>按目标主机限制并发，超出部分在主机队列中排队，单个慢主机不会拖垮其他主机</li>
+ * <li>按目标主机熔断：连续失败达到阈值后打开熔断，冷却期后放行单个探测请求</li>
+ * <li>请求合并：同一任务重复分发时复用正在进行中的请求，同一主机的请求共享连接</li>
+ * <li>租约截止：排队到截止时间仍未轮到的请求不再发出（截止 = 租约过期时间 - 请求超时），
+ * 避免租约过期被其他节点重新认领后重复回调</li>
+ * </ul>
+ *
+ * <p>
+ * 熔断打开或排队已满时，返回以 {@link HostUnavailableException} 完成的 Future，
+ * 请求不会真正发出
+ *
+ */
+@Slf4j
+@Component
+public class AsyncHttpNotificationDispatcher {
+
+    private final HttpClient httpClient;
+    private final ExecutorService ioExecutor;
+
+    private final int maxConcurrencyPerHost;
+    private final int maxQueuePerHost;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final long openSeconds;
+    private final Duration requestTimeout;
+
+    /** 主机维度的并发/熔断状态 */
+    private final ConcurrentMap<String, HostChannel> channels = new ConcurrentHashMap<>();
+
+    /** 进行中的请求（按去重键），用于合并重复分发 */
+    private final ConcurrentMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    public AsyncHttpNotificationDispatcher(
+            @Value("${notification.http.max-concurrency-per-host:8}") int maxConcurrencyPerHost,
+            @Value("${notification.http.max-queue-per-host:500}") int maxQueuePerHost,
+            @Value("${notification.http.circuit-failure-threshold:5}") int failureThreshold,
+            @Value("${notification.http.circuit-open-seconds:60}") long openSeconds,
+            @Value("${notification.http.request-timeout-seconds:30}") long requestTimeoutSeconds,
+            @Value("${notification.http.io-threads:4}") int ioThreads) {
+        this.maxConcurrencyPerHost = maxConcurrencyPerHost;
+        this.maxQueuePerHost = maxQueuePerHost;
+        this.failureThreshold = failureThreshold;
+        this.openSeconds = openSeconds;
+        this.openNanos = TimeUnit.SECONDS.toNanos(openSeconds);
+        this.requestTimeout = Duration.ofSeconds(requestTimeoutSeconds);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.ioExecutor = Executors.newFixedThreadPool(ioThreads, r -> {
+            Thread thread = new Thread(r);
+            thread.setName("notify-http-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(ioExecutor)
+                .build();
+    }
+
+    /**
+     * 分发一次HTTP POST回调
+     *
+     * @param dedupKey 去重键（通常为任务ID），相同键的并发分发只发出一次请求
+     * @param uri      回调地址
+     * @param jsonBody JSON请求体
+     * @return 响应体；非200响应、网络异常或主机不可用时以异常完成
+     */
+    public CompletableFuture<String> dispatch(String dedupKey, URI uri, String jsonBody) {
+        return dispatch(dedupKey, uri, jsonBody, null);
+    }
+
+    /**
+     * 分发一次HTTP POST回调（受租约约束）
+     *
+     * <p>
+     * 请求必须在 leaseExpireAt - 请求超时 之前发出，保证请求在租约内完成；
+     * 排队到截止时间仍未发出时以 {@link HostUnavailableException} 完成，任务延后而不消耗重试次数
+     *
+     * @param dedupKey      去重键（通常为任务ID），相同键的并发分发只发出一次请求
+     * @param uri           回调地址
+     * @param jsonBody      JSON请求体
+     * @param leaseExpireAt 任务租约过期时间（为null表示不限制）
+     * @return 响应体；非200响应、网络异常、主机不可用或超过截止时间时以异常完成
+     */
+    public CompletableFuture<String> dispatch(String dedupKey, URI uri, String jsonBody, Instant leaseExpireAt) {
+        CompletableFuture<String> promise = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(dedupKey, promise);
+        if (existing != null) {
+            log.debug("【HTTP分发器】合并重复请求, key={}", dedupKey);
+            return existing;
+        }
+        promise.whenComplete((body, ex) -> inFlight.remove(dedupKey, promise));
+
+        // 请求本身非法（如地址不合法）与主机健康状况无关：在占用并发名额/探测资格之前失败
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder()
+                    .uri(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
+                    .timeout(requestTimeout)
+                    .build();
+        } catch (Exception e) {
+            promise.completeExceptionally(e);
+            return promise;
+        }
+
+        HostChannel channel = channels.computeIfAbsent(hostKey(uri), HostChannel::new);
+        channel.submit(new PendingCall(request, promise, sendDeadlineNanos(leaseExpireAt)));
+        return promise;
+    }
+
+    /**
+     * 指定主机的熔断是否处于打开状态（冷却期内）
+     *
+     * @param uri 回调地址
+     * @return true表示熔断打开
+     */
+    public boolean isCircuitOpen(URI uri) {
+        HostChannel channel = channels.get(hostKey(uri));
+        return channel != null && channel.isOpen(System.nanoTime());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("【HTTP分发器】开始关闭, inFlight={}", inFlight.size());
+        ioExecutor.shutdown();
+        try {
+            if (!ioExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                ioExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            ioExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 租约过期时间换算为 System.nanoTime 基准的最晚发出时间
+     */
+    private long sendDeadlineNanos(Instant leaseExpireAt) {
+        if (leaseExpireAt == null) {
+            return Long.MAX_VALUE;
+        }
+        Duration remaining = Duration.between(Instant.now(), leaseExpireAt).minus(requestTimeout);
+        return System.nanoTime() + remaining.toNanos();
+    }
+
+    private static String hostKey(URI uri) {
+        return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+    }
+
+    /**
+     * 待发送的回调请求
+     */
+    private record PendingCall(HttpRequest request, CompletableFuture<String> promise, long sendDeadlineNanos) {
+
+        boolean expired(long now) {
+            return now - sendDeadlineNanos > 0;
+        }
+    }
+
+    /**
+     * 单个主机的并发闸门 + 熔断器
+     *
+     * <p>
+     * 熔断状态由 openUntilNanos 表示：0=关闭；now &lt; openUntil=打开；now &gt;= openUntil=半开
+     */
+    private final class HostChannel {
+
+        private final String host;
+        private final Deque<PendingCall> queue = new ArrayDeque<>();
+        private int active;
+        private int consecutiveFailures;
+        private long openUntilNanos;
+        private boolean probing;
+
+        HostChannel(String host) {
+            this.host = host;
+        }
+
+        synchronized boolean isOpen(long now) {
+            return openUntilNanos != 0 && now < openUntilNanos;
+        }
+
+        void submit(PendingCall call) {
+            HostUnavailableException rejection = null;
+            boolean start = false;
+            synchronized (this) {
+                long now = System.nanoTime();
+                if (call.expired(now)) {
+                    rejection = leaseExpiring();
+                } else if (isOpen(now) || (openUntilNanos != 0 && probing)) {
+                    rejection = new HostUnavailableException("回调主机熔断中: " + host, remainingOpenSeconds(now));
+                } else if (active < maxConcurrencyPerHost) {
+                    if (openUntilNanos != 0) {
+                        // 半开：放行单个探测请求
+                        probing = true;
+                    }
+                    active++;
+                    start = true;
+                } else if (queue.size() >= maxQueuePerHost) {
+                    rejection = new HostUnavailableException("回调主机排队已满: " + host, 1);
+                } else {
+                    queue.addLast(call);
+                }
+            }
+
+            if (rejection != null) {
+                call.promise().completeExceptionally(rejection);
+            } else if (start) {
+                send(call);
+            }
+        }
+
+        private void send(PendingCall call) {
+            CompletableFuture<HttpResponse<String>> future;
+            try {
+                future = httpClient.sendAsync(call.request(), HttpResponse.BodyHandlers.ofString());
+            } catch (Exception e) {
+                // 未能发出（如客户端已关闭）：按主机失败记录，同时结束探测，不会让半开状态卡住
+                release(false);
+                call.promise().completeExceptionally(e);
+                return;
+            }
+
+            future.whenComplete((response, ex) -> {
+                // 4xx 属于业务方拒绝，不计入主机熔断
+                boolean hostHealthy = ex == null && response.statusCode() < 500;
+                release(hostHealthy);
+
+                if (ex != null) {
+                    call.promise().completeExceptionally(ex);
+                } else if (response.statusCode() != 200) {
+                    call.promise().completeExceptionally(new IllegalStateException(
+                            "HTTP回调失败, status=" + response.statusCode() + ", body=" + response.body()));
+                } else {
+                    call.promise().complete(response.body());
+                }
+            });
+        }
+
+        /**
+         * 释放并发名额，更新熔断状态，并拉起排队中的请求
+         *
+         * @param success 本次请求主机是否健康
+         */
+        private void release(boolean success) {
+            List<PendingCall> toStart = new ArrayList<>();
+            List<PendingCall> toReject = new ArrayList<>();
+            List<PendingCall> toExpire = new ArrayList<>();
+            long now = System.nanoTime();
+            long retryAfterSeconds = 1;
+
+            synchronized (this) {
+                active--;
+                if (success) {
+                    if (openUntilNanos != 0) {
+                        log.info("【HTTP分发器】探测成功，熔断关闭, host={}", host);
+                    }
+                    consecutiveFailures = 0;
+                    openUntilNanos = 0;
+                    probing = false;
+                } else {
+                    consecutiveFailures++;
+                    if (probing || consecutiveFailures >= failureThreshold) {
+                        openUntilNanos = now + openNanos;
+                        probing = false;
+                        log.warn("【HTTP分发器】熔断打开, host={}, consecutiveFailures={}, openSeconds={}",
+                                host, consecutiveFailures, openSeconds);
+                    }
+                }
+
+                if (isOpen(now)) {
+                    retryAfterSeconds = remainingOpenSeconds(now);
+                    toReject.addAll(queue);
+                    queue.clear();
+                } else {
+                    while (!queue.isEmpty() && active < maxConcurrencyPerHost) {
+                        if (queue.peekFirst().expired(now)) {
+                            // 排队期间租约将尽，不再发出
+                            toExpire.add(queue.pollFirst());
+                            continue;
+                        }
+                        if (openUntilNanos != 0) {
+                            if (probing) {
+                                break;
+                            }
+                            probing = true;
+                        }
+                        active++;
+                        toStart.add(queue.pollFirst());
+                    }
+                }
+            }
+
+            for (PendingCall call : toReject) {
+                call.promise().completeExceptionally(
+                        new HostUnavailableException("回调主机熔断中: " + host, retryAfterSeconds));
+            }
+            for (PendingCall call : toExpire) {
+                call.promise().completeExceptionally(leaseExpiring());
+            }
+            for (PendingCall call : toStart) {
+                send(call);
+            }
+        }
+
+        private HostUnavailableException leaseExpiring() {
+            return new HostUnavailableException("租约内无法完成回调（排队过久）: " + host, 1);
+        }
+
+        private long remainingOpenSeconds(long now) {
+            long remaining = TimeUnit.NANOSECONDS.toSeconds(Math.max(openUntilNanos - now, 0));
+            return Math.max(remaining, 1);
+        }
+    }
+}
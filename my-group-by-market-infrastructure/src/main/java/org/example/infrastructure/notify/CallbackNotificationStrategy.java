@@ -2,6 +2,8 @@ package org.example.infrastructure.notify;
 
 import org.example.domain.model.notification.NotificationTask;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 通知策略接口
  *
@@ -23,6 +25,38 @@ public interface CallbackNotificationStrategy {
      */
     void execute(NotificationTask task) throws Exception;
 
+    /**
+     * 异步执行通知
+     *
+     * <p>
+     * 默认实现在调用线程上同步执行 {@link #execute(NotificationTask)}，
+     * 支持非阻塞IO的策略（如HTTP）应覆盖此方法
+     *
+     * @param task 通知任务
+     * @return 通知结果，失败时以异常完成
+     */
+    default CompletableFuture<Void> executeAsync(NotificationTask task) {
+        try {
+            execute(task);
+            return CompletableFuture.completedFuture(null);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 是否为非阻塞策略
+     *
+     * <p>
+     * 非阻塞策略的 {@link #executeAsync(NotificationTask)} 立即返回，由执行器直接在调度线程上调用；
+     * 阻塞策略由执行器放到完成线程池上执行
+     *
+     * @return true表示 executeAsync 不阻塞调用线程
+     */
+    default boolean isNonBlocking() {
+        return false;
+    }
+
     /**
      * 判断是否支持此类型的通知
      *
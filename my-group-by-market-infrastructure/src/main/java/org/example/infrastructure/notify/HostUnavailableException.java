@@ -0,0 +1,25 @@
+package org.example.infrastructure.notify;
+
+import lombok.Getter;
+
+/**
+ * 回调目标主机暂不可用异常
+ *
+ * <p>
+ * 熔断打开或主机排队已满时抛出。与普通回调失败不同，该异常表示请求根本没有发出，
+ * 通知执行器据此延后任务而不消耗重试次数
+ *
+ */
+@Getter
+public class HostUnavailableException extends RuntimeException {
+
+    /**
+     * 建议的延后秒数
+     */
+    private final long retryAfterSeconds;
+
+    public HostUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -7,75 +7,93 @@ import org.example.domain.model.trade.valueobject.NotifyType;
 import org.springframework.stereotype.Component;
 
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * HTTP通知策略
  *
  * <p>
- * 通过HTTP POST方式回调业务方接口
+ * 通过HTTP POST方式回调业务方接口，请求经 {@link AsyncHttpNotificationDispatcher}
+ * 非阻塞发出（按主机限流、熔断）
  *
  */
 @Slf4j
 @Component
 public class HttpNotificationStrategy implements CallbackNotificationStrategy {
 
-    private final HttpClient httpClient;
+    private final AsyncHttpNotificationDispatcher dispatcher;
     private final ObjectMapper objectMapper;
 
-    public HttpNotificationStrategy() {
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
+    public HttpNotificationStrategy(AsyncHttpNotificationDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
         this.objectMapper = new ObjectMapper();
     }
 
     @Override
     public void execute(NotificationTask task) throws Exception {
+        try {
+            executeAsync(task).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof Exception ex) {
+                throw ex;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> executeAsync(NotificationTask task) {
         String notifyUrl = task.getNotifyConfig().getNotifyUrl();
         if (notifyUrl == null || notifyUrl.isEmpty()) {
-            throw new IllegalArgumentException("HTTP通知地址不能为空");
+            return CompletableFuture.failedFuture(new IllegalArgumentException("HTTP通知地址不能为空"));
         }
 
         log.info("【HTTP通知】开始执行, taskId={}, url={}", task.getTaskId(), notifyUrl);
 
-        // 构建回调数据
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("taskId", task.getTaskId());
-        requestBody.put("tradeOrderId", task.getTradeOrderId());
-        requestBody.put("timestamp", System.currentTimeMillis());
-
-        // 转换为JSON字符串
-        String jsonBody = objectMapper.writeValueAsString(requestBody);
-
-        // 构建HTTP请求
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(notifyUrl))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
-                .timeout(Duration.ofSeconds(30))
-                .build();
-
+        String jsonBody;
+        URI uri;
         try {
-            // 执行HTTP请求
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-            // 检查响应状态
-            if (response.statusCode() != 200) {
-                throw new Exception("HTTP回调失败, status=" + response.statusCode() + ", body=" + response.body());
-            }
-
-            log.info("【HTTP通知】执行成功, taskId={}, response={}", task.getTaskId(), response.body());
+            // 构建回调数据
+            Map<String, Object> requestBody = new HashMap<>();
+            requestBody.put("taskId", task.getTaskId());
+            requestBody.put("tradeOrderId", task.getTradeOrderId());
+            requestBody.put("timestamp", System.currentTimeMillis());
 
+            // 转换为JSON字符串
+            jsonBody = objectMapper.writeValueAsString(requestBody);
+            uri = URI.create(notifyUrl);
         } catch (Exception e) {
-            log.error("【HTTP通知】执行失败, taskId={}, url={}", task.getTaskId(), notifyUrl, e);
-            throw new Exception("HTTP回调失败: " + e.getMessage(), e);
+            return CompletableFuture.failedFuture(e);
         }
+
+        Instant leaseExpireAt = task.getLeaseExpireTime() == null ? null
+                : task.getLeaseExpireTime().atZone(ZoneId.systemDefault()).toInstant();
+        return dispatcher.dispatch(task.getTaskId(), uri, jsonBody, leaseExpireAt)
+                .handle((body, ex) -> {
+                    if (ex == null) {
+                        log.info("【HTTP通知】执行成功, taskId={}, response={}", task.getTaskId(), body);
+                        return null;
+                    }
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (cause instanceof HostUnavailableException hostUnavailable) {
+                        log.warn("【HTTP通知】目标主机暂不可用, taskId={}, url={}, reason={}",
+                                task.getTaskId(), notifyUrl, hostUnavailable.getMessage());
+                        throw hostUnavailable;
+                    }
+                    log.error("【HTTP通知】执行失败, taskId={}, url={}", task.getTaskId(), notifyUrl, cause);
+                    throw new CompletionException(new Exception("HTTP回调失败: " + cause.getMessage(), cause));
+                });
+    }
+
+    @Override
+    public boolean isNonBlocking() {
+        return true;
     }
 
     @Override
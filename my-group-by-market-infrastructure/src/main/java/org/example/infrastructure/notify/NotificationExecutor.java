@@ -1,13 +1,20 @@
 package org.example.infrastructure.notify;
 
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.example.domain.model.notification.NotificationTask;
 import org.example.domain.model.notification.repository.NotificationTaskRepository;
 import org.example.domain.model.notification.service.NotificationService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 通知执行器
@@ -20,29 +27,75 @@ import java.util.List;
  * <li>处理异常和重试逻辑</li>
  * </ul>
  *
+ * <p>
+ * 线程模型：非阻塞策略（HTTP）的结果在 HttpClient 线程上返回，阻塞的任务状态落库交给有界的完成线程池，
+ * 数据库变慢时不会占住 HttpClient 线程拖慢其他在途回调；阻塞策略（MQ）整体在完成线程池上执行，不占用调度线程
+ *
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class NotificationExecutor implements NotificationService {
 
     private final List<CallbackNotificationStrategy> strategies;
     private final NotificationTaskRepository notificationTaskRepository;
 
+    /** 任务状态落库与阻塞策略的执行线程池 */
+    private final ThreadPoolExecutor completionExecutor;
+
+    public NotificationExecutor(List<CallbackNotificationStrategy> strategies,
+            NotificationTaskRepository notificationTaskRepository,
+            @Value("${notification.completion.threads:4}") int completionThreads,
+            @Value("${notification.completion.queue-capacity:2000}") int completionQueueCapacity) {
+        this.strategies = strategies;
+        this.notificationTaskRepository = notificationTaskRepository;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        // 队列容量应不小于调度器的在途任务上限，正常情况下不会触发拒绝；
+        // 超出时由提交线程执行，作为最后的背压手段
+        this.completionExecutor = new ThreadPoolExecutor(completionThreads, completionThreads,
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(completionQueueCapacity), r -> {
+                    Thread thread = new Thread(r);
+                    thread.setName("notify-complete-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
     /**
-     * 执行通知任务
+     * 执行通知任务（同步等待结果）
      *
      * @param task 通知任务
      */
     @Override
     public void execute(NotificationTask task) {
+        executeAsync(task).join();
+    }
+
+    /**
+     * 异步执行通知任务
+     *
+     * <p>
+     * 标记处理中后立即把请求交给策略，调用线程不等待下游响应；
+     * 结果回来后在完成线程池上更新任务状态
+     *
+     * @param task 通知任务
+     * @return 执行完成的 Future（不会以异常完成）
+     */
+    @Override
+    public CompletableFuture<Void> executeAsync(NotificationTask task) {
         log.info("【通知执行器】开始执行通知, taskId={}, type={}",
                 task.getTaskId(), task.getNotifyConfig().getNotifyType());
 
+        // 认领时的租约持有者：写回结果时校验，租约丢失则放弃写回
+        String leaseOwner = task.isClaimed() ? task.getLeaseOwner() : null;
+
+        CompletableFuture<Void> future;
         try {
-            // 标记为处理中
-            task.markAsProcessing();
-            notificationTaskRepository.update(task);
+            // 标记为处理中（通过租约认领的任务已是PROCESSING）
+            if (!task.isClaimed()) {
+                task.markAsProcessing();
+                notificationTaskRepository.update(task);
+            }
 
             // 查找支持的策略
             CallbackNotificationStrategy strategy = findStrategy(task);
@@ -50,31 +103,110 @@ public class NotificationExecutor implements NotificationService {
                 throw new IllegalStateException("未找到支持的通知策略: " + task.getNotifyConfig().getNotifyType());
             }
 
-            // 执行通知
+            // 执行通知：阻塞策略放到完成线程池，避免占用调度线程
+            future = strategy.isNonBlocking()
+                    ? strategy.executeAsync(task)
+                    : CompletableFuture.runAsync(() -> executeBlocking(strategy, task), completionExecutor);
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        return future.handleAsync((ignored, ex) -> {
+            try {
+                onComplete(task, leaseOwner, ex);
+            } catch (Exception e) {
+                log.error("【通知执行器】更新任务状态失败, taskId={}", task.getTaskId(), e);
+            }
+            return null;
+        }, completionExecutor);
+    }
+
+    /**
+     * 写回任务状态；经租约认领的任务只在仍持有租约时写回
+     *
+     * @return false表示租约已丢失（任务已由其他节点重新认领），本次结果被丢弃
+     */
+    private boolean persist(NotificationTask task, String leaseOwner) {
+        if (leaseOwner == null) {
+            notificationTaskRepository.update(task);
+            return true;
+        }
+        if (notificationTaskRepository.updateIfLeaseHeld(task, leaseOwner)) {
+            return true;
+        }
+        log.warn("【通知执行器】租约已过期或被其他节点认领，放弃写回结果, taskId={}, status={}, leaseOwner={}",
+                task.getTaskId(), task.getStatus(), leaseOwner);
+        return false;
+    }
+
+    private static void executeBlocking(CallbackNotificationStrategy strategy, NotificationTask task) {
+        try {
             strategy.execute(task);
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
 
+    @PreDestroy
+    public void shutdown() {
+        completionExecutor.shutdown();
+        try {
+            if (!completionExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                completionExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            completionExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 根据执行结果更新任务状态
+     *
+     * @param task       通知任务
+     * @param leaseOwner 认领时的租约持有者（未经认领执行时为null）
+     * @param ex         执行异常（成功时为null）
+     */
+    private void onComplete(NotificationTask task, String leaseOwner, Throwable ex) {
+        if (ex == null) {
             // 标记为成功
             task.markAsSuccess();
-            notificationTaskRepository.update(task);
-
+            if (!persist(task, leaseOwner)) {
+                return;
+            }
             log.info("【通知执行器】通知执行成功, taskId={}", task.getTaskId());
+            return;
+        }
 
-        } catch (Exception e) {
-            // 标记为失败并增加重试次数
-            log.error("【通知执行器】通知执行失败, taskId={}, retryCount={}",
-                    task.getTaskId(), task.getRetryCount(), e);
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
 
-            task.markAsFailed(e.getMessage());
-            notificationTaskRepository.update(task);
-
-            // 如果还需要重试，记录日志
-            if (task.needRetry()) {
-                log.info("【通知执行器】任务将重试, taskId={}, retryCount={}/{}",
-                        task.getTaskId(), task.getRetryCount(), task.getMaxRetryCount());
-            } else {
-                log.warn("【通知执行器】任务最终失败, taskId={}, maxRetry={}",
-                        task.getTaskId(), task.getMaxRetryCount());
+        // 目标主机熔断/排队已满：请求未发出，延后执行且不消耗重试次数
+        if (cause instanceof HostUnavailableException hostUnavailable) {
+            task.postpone(hostUnavailable.getRetryAfterSeconds(), hostUnavailable.getMessage());
+            if (!persist(task, leaseOwner)) {
+                return;
             }
+            log.warn("【通知执行器】目标主机暂不可用，任务延后执行, taskId={}, retryAfter={}s",
+                    task.getTaskId(), hostUnavailable.getRetryAfterSeconds());
+            return;
+        }
+
+        // 标记为失败并增加重试次数
+        log.error("【通知执行器】通知执行失败, taskId={}, retryCount={}",
+                task.getTaskId(), task.getRetryCount(), cause);
+
+        task.markAsFailed(cause.getMessage());
+        if (!persist(task, leaseOwner)) {
+            return;
+        }
+
+        // 如果还需要重试，记录日志
+        if (task.needRetry()) {
+            log.info("【通知执行器】任务将重试, taskId={}, retryCount={}/{}, nextRetryTime={}",
+                    task.getTaskId(), task.getRetryCount(), task.getMaxRetryCount(), task.getNextRetryTime());
+        } else {
+            log.warn("【通知执行器】任务最终失败, taskId={}, maxRetry={}",
+                    task.getTaskId(), task.getMaxRetryCount());
         }
     }
 
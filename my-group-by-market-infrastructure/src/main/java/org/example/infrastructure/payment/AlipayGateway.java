@@ -12,6 +12,7 @@ import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.example.domain.gateway.PaymentGateway;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -24,10 +25,14 @@ import java.util.Map;
  * 沙箱环境网关: https://openapi-sandbox.dl.alipaydev.com/gateway.do
  * 仅支持余额支付，不支持银行卡、花呗等
  * </p>
+ * <p>
+ * payment-sim 环境下由 SimulatedPaymentGateway 替代
+ * </p>
  * 
  */
 @Slf4j
 @Service
+@Profile("!payment-sim")
 public class AlipayGateway implements PaymentGateway {
 
     @Value("${alipay.app-id:}")
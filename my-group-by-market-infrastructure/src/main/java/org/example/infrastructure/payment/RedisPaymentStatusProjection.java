@@ -0,0 +1,170 @@
+package org.example.infrastructure.payment;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.common.cache.RedisKeyManager;
+import org.example.domain.service.payment.IPaymentStatusProjection;
+import org.example.domain.service.payment.PaymentStatusSnapshot;
+import org.redisson.api.RScript;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 支付状态投影（Redis）实现
+ *
+ * <p>
+ * 数据结构：
+ * <ul>
+ * <li>pay_status:{outTradeNo} - Hash：tradeStatus/tradeNo/totalAmount/source/updatedAt</li>
+ * <li>pay_status:{outTradeNo}:reconciled - 对账查询标记，保证每个订单最多向支付宝查询一次</li>
+ * <li>pay_status_changed - 发布订阅频道，消息为 outTradeNo，各节点据此唤醒本地长轮询</li>
+ * </ul>
+ *
+ */
+@Slf4j
+@Component
+public class RedisPaymentStatusProjection implements IPaymentStatusProjection {
+
+    private static final String FIELD_TRADE_STATUS = "tradeStatus";
+    private static final String FIELD_TRADE_NO = "tradeNo";
+    private static final String FIELD_TOTAL_AMOUNT = "totalAmount";
+    private static final String FIELD_SOURCE = "source";
+    private static final String FIELD_UPDATED_AT = "updatedAt";
+
+    /**
+     * 写入投影（终态不被非终态覆盖）
+     * <p>
+     * KEYS[1] 投影Key
+     * <p>
+     * ARGV[1] tradeStatus，ARGV[2] tradeNo，ARGV[3] totalAmount，ARGV[4] source，ARGV[5] updatedAt，ARGV[6] 过期时间（毫秒）
+     * <p>
+     * 返回：1=已写入，0=忽略
+     */
+    private static final String UPDATE_SCRIPT = """
+            local current = redis.call('HGET', KEYS[1], 'tradeStatus')
+            if current and current ~= 'WAIT_BUYER_PAY' and ARGV[1] == 'WAIT_BUYER_PAY' then
+                return 0
+            end
+            redis.call('HSET', KEYS[1], 'tradeStatus', ARGV[1], 'tradeNo', ARGV[2],
+                'totalAmount', ARGV[3], 'source', ARGV[4], 'updatedAt', ARGV[5])
+            redis.call('PEXPIRE', KEYS[1], ARGV[6])
+            return 1
+            """;
+
+    private final RedissonClient redissonClient;
+
+    /** 本节点等待中的长轮询（按 outTradeNo） */
+    private final ConcurrentMap<String, Set<CompletableFuture<Void>>> waiters = new ConcurrentHashMap<>();
+
+    @Value("${payment.status-projection.ttl-hours:24}")
+    private long ttlHours;
+
+    private RTopic topic;
+    private int listenerId;
+
+    public RedisPaymentStatusProjection(RedissonClient redissonClient) {
+        this.redissonClient = redissonClient;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        topic = redissonClient.getTopic(RedisKeyManager.paymentStatusTopic(), StringCodec.INSTANCE);
+        listenerId = topic.addListener(String.class, (channel, outTradeNo) -> wakeUp(outTradeNo));
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        topic.removeListener(listenerId);
+        waiters.values().forEach(futures -> futures.forEach(future -> future.cancel(false)));
+    }
+
+    @Override
+    public boolean update(PaymentStatusSnapshot snapshot) {
+        Long written = redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE,
+                UPDATE_SCRIPT, RScript.ReturnType.LONG,
+                List.of(RedisKeyManager.paymentStatusKey(snapshot.outTradeNo())),
+                snapshot.tradeStatus(),
+                nullToEmpty(snapshot.tradeNo()),
+                snapshot.totalAmount() == null ? "" : snapshot.totalAmount().toPlainString(),
+                nullToEmpty(snapshot.source()),
+                String.valueOf(snapshot.updatedAt()),
+                String.valueOf(Duration.ofHours(ttlHours).toMillis()));
+        if (written == null || written == 0L) {
+            return false;
+        }
+        try {
+            topic.publish(snapshot.outTradeNo());
+        } catch (Exception e) {
+            // 广播失败只影响长轮询的及时性，等待方超时后会重新读取
+            log.warn("【支付状态投影】变更广播失败, outTradeNo: {}", snapshot.outTradeNo(), e);
+        }
+        return true;
+    }
+
+    @Override
+    public Optional<PaymentStatusSnapshot> find(String outTradeNo) {
+        Map<String, String> fields = redissonClient.<String, String>getMap(
+                RedisKeyManager.paymentStatusKey(outTradeNo), StringCodec.INSTANCE).readAllMap();
+        String tradeStatus = fields.get(FIELD_TRADE_STATUS);
+        if (tradeStatus == null) {
+            return Optional.empty();
+        }
+        String amount = fields.get(FIELD_TOTAL_AMOUNT);
+        String updatedAt = fields.get(FIELD_UPDATED_AT);
+        return Optional.of(new PaymentStatusSnapshot(
+                outTradeNo,
+                tradeStatus,
+                emptyToNull(fields.get(FIELD_TRADE_NO)),
+                amount == null || amount.isEmpty() ? null : new BigDecimal(amount),
+                emptyToNull(fields.get(FIELD_SOURCE)),
+                updatedAt == null ? 0L : Long.parseLong(updatedAt)));
+    }
+
+    @Override
+    public boolean markReconciled(String outTradeNo) {
+        return redissonClient.getBucket(RedisKeyManager.paymentStatusReconciledKey(outTradeNo), StringCodec.INSTANCE)
+                .setIfAbsent("1", Duration.ofHours(ttlHours));
+    }
+
+    @Override
+    public CompletableFuture<Void> awaitChange(String outTradeNo) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        waiters.computeIfAbsent(outTradeNo, key -> ConcurrentHashMap.newKeySet()).add(future);
+        // 完成、超时或取消后从等待表移除
+        future.whenComplete((ignored, ex) -> waiters.computeIfPresent(outTradeNo, (key, futures) -> {
+            futures.remove(future);
+            return futures.isEmpty() ? null : futures;
+        }));
+        return future;
+    }
+
+    private void wakeUp(String outTradeNo) {
+        Set<CompletableFuture<Void>> futures = waiters.get(outTradeNo);
+        if (futures != null) {
+            // 复制后再完成：完成回调会修改集合
+            List.copyOf(futures).forEach(future -> future.complete(null));
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
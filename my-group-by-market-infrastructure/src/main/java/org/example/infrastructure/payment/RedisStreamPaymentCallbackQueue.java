@@ -0,0 +1,475 @@
+package org.example.infrastructure.payment;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.common.cache.RedisKeyManager;
+import org.example.domain.service.payment.IPaymentCallbackHandler;
+import org.example.domain.service.payment.IPaymentCallbackQueue;
+import org.example.domain.service.payment.PaymentCallbackMessage;
+import org.redisson.api.RLock;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RScript;
+import org.redisson.api.RStream;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.api.stream.StreamCreateGroupArgs;
+import org.redisson.api.stream.StreamMessageId;
+import org.redisson.api.stream.StreamReadGroupArgs;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 支付回调队列（Redis Stream）实现
+ *
+ * <p>
+ * 数据结构：
+ * <ul>
+ * <li>pay_cb:dedup:{outTradeNo}:{tradeStatus} - 去重标记，与入队在同一脚本中写入</li>
+ * <li>pay_cb:stream:{partition} - 分区Stream，partition = hash(orderId) % partitions</li>
+ * <li>pay_cb:retry:{partition} - 分区重试集合（ZSET），member=编码后的消息及已处理次数，score=下次重试时间（毫秒）</li>
+ * <li>pay_cb:dead - 死信Stream，超过重试窗口仍失败的消息连同错误信息转入此处，待人工处理</li>
+ * </ul>
+ *
+ * <p>
+ * 消费模型：
+ * <ul>
+ * <li>每个分区一个消费线程，先抢占分区锁（看门狗续期），多实例部署时同一分区只有一个实例在消费</li>
+ * <li>抢到分区后先重读未确认消息（上一持有者崩溃遗留），再读取新消息，同一分区内严格按入队顺序串行处理</li>
+ * <li>处理失败的消息与确认在同一脚本中移入重试集合，不阻塞本分区后续消息；消费线程每轮取出到期的消息重试，
+ * 退避指数增长并封顶（retry-max-backoff-ms）（重试消息可能晚于同一拼团的后续回调处理，由结算的状态条件更新保证幂等）</li>
+ * <li>入队即向支付宝应答 success，支付宝不再重发，因此重试按时间窗口（retry-window-ms，默认 24 小时，与支付宝自身的重发周期相当）
+ * 而不是次数截止：数据库切换、短暂的状态条件更新冲突等瞬时故障恢复后仍能结算；超过窗口才转入死信并记录错误日志告警</li>
+ * <li>Stream 不按长度截断：消费线程定期以未确认列表中最小的ID（没有未确认消息时为组内最后投递的ID）执行 XTRIM MINID，
+ * 只删除已确认的消息，积压时不会丢失未处理的回调</li>
+ * </ul>
+ *
+ * <p>
+ * 去重脚本同时操作去重Key和分区Stream，要求单节点/主从部署的 Redis
+ *
+ */
+@Slf4j
+@Component
+public class RedisStreamPaymentCallbackQueue implements IPaymentCallbackQueue, SmartLifecycle {
+
+    private static final String GROUP = "settlement";
+    private static final String CONSUMER = "owner";
+
+    private static final String FIELD_OUT_TRADE_NO = "outTradeNo";
+    private static final String FIELD_TRADE_STATUS = "tradeStatus";
+    private static final String FIELD_TOTAL_AMOUNT = "totalAmount";
+    private static final String FIELD_ORDER_ID = "orderId";
+    private static final String FIELD_RECEIVED_AT = "receivedAt";
+
+    /**
+     * 去重 + 入队
+     * <p>
+     * KEYS[1] 去重Key，KEYS[2] 分区Stream
+     * <p>
+     * ARGV[1] 去重有效期（毫秒），ARGV[2..] 消息字段
+     * <p>
+     * 返回：1=入队成功，0=重复通知
+     */
+    private static final String ENQUEUE_SCRIPT = """
+            if not redis.call('SET', KEYS[1], '1', 'NX', 'PX', ARGV[1]) then
+                return 0
+            end
+            redis.call('XADD', KEYS[2], '*',
+                'outTradeNo', ARGV[2], 'tradeStatus', ARGV[3], 'totalAmount', ARGV[4],
+                'orderId', ARGV[5], 'receivedAt', ARGV[6])
+            return 1
+            """;
+
+    /**
+     * 移入重试集合并确认
+     * <p>
+     * KEYS[1] 分区Stream，KEYS[2] 重试集合；ARGV[1] 消费组，ARGV[2] 消息ID，ARGV[3] 下次重试时间，ARGV[4] 编码后的消息
+     */
+    private static final String RETRY_SCRIPT = """
+            redis.call('ZADD', KEYS[2], ARGV[3], ARGV[4])
+            return redis.call('XACK', KEYS[1], ARGV[1], ARGV[2])
+            """;
+
+    /**
+     * 按已确认位置截断 Stream
+     * <p>
+     * KEYS[1] 分区Stream；ARGV[1] 消费组
+     * <p>
+     * 返回：删除的消息数
+     */
+    private static final String TRIM_SCRIPT = """
+            local summary = redis.call('XPENDING', KEYS[1], ARGV[1])
+            local minId = summary[2]
+            if not minId then
+                for _, group in ipairs(redis.call('XINFO', 'GROUPS', KEYS[1])) do
+                    local name, lastId
+                    for i = 1, #group, 2 do
+                        if group[i] == 'name' then name = group[i + 1] end
+                        if group[i] == 'last-delivered-id' then lastId = group[i + 1] end
+                    end
+                    if name == ARGV[1] then minId = lastId end
+                end
+            end
+            if not minId then
+                return 0
+            end
+            return redis.call('XTRIM', KEYS[1], 'MINID', minId)
+            """;
+
+    /** 重试集合 member 的字段分隔符（消息字段均不含换行） */
+    private static final String RETRY_SEPARATOR = "\n";
+
+    private final RedissonClient redissonClient;
+    private final ObjectProvider<IPaymentCallbackHandler> handlerProvider;
+
+    @Value("${payment.callback-queue.partitions:16}")
+    private int partitions;
+
+    @Value("${payment.callback-queue.dedup-ttl-hours:72}")
+    private long dedupTtlHours;
+
+    @Value("${payment.callback-queue.batch-size:32}")
+    private int batchSize;
+
+    @Value("${payment.callback-queue.poll-timeout-ms:1000}")
+    private long pollTimeoutMs;
+
+    @Value("${payment.callback-queue.retry-backoff-ms:200}")
+    private long retryBackoffMs;
+
+    @Value("${payment.callback-queue.retry-max-backoff-ms:300000}")
+    private long retryMaxBackoffMs;
+
+    @Value("${payment.callback-queue.retry-window-ms:86400000}")
+    private long retryWindowMs;
+
+    @Value("${payment.callback-queue.trim-interval-ms:10000}")
+    private long trimIntervalMs;
+
+    @Value("${payment.callback-queue.shutdown-timeout-ms:5000}")
+    private long shutdownTimeoutMs;
+
+    private volatile List<PartitionConsumer> consumers;
+
+    public RedisStreamPaymentCallbackQueue(RedissonClient redissonClient,
+            ObjectProvider<IPaymentCallbackHandler> handlerProvider) {
+        this.redissonClient = redissonClient;
+        this.handlerProvider = handlerProvider;
+    }
+
+    @Override
+    public boolean enqueue(PaymentCallbackMessage message) {
+        RScript script = redissonClient.getScript(StringCodec.INSTANCE);
+        Long added = script.eval(RScript.Mode.READ_WRITE, ENQUEUE_SCRIPT, RScript.ReturnType.LONG,
+                List.of(RedisKeyManager.paymentCallbackDedupKey(message.outTradeNo(), message.tradeStatus()),
+                        RedisKeyManager.paymentCallbackStreamKey(partitionOf(message.orderId()))),
+                String.valueOf(Duration.ofHours(dedupTtlHours).toMillis()),
+                message.outTradeNo(),
+                message.tradeStatus(),
+                message.totalAmount() == null ? "" : message.totalAmount().toPlainString(),
+                message.orderId(),
+                String.valueOf(message.receivedAt()));
+        return added != null && added == 1L;
+    }
+
+    private int partitionOf(String orderId) {
+        return Math.floorMod(orderId.hashCode(), partitions);
+    }
+
+    @Override
+    public void start() {
+        IPaymentCallbackHandler handler = handlerProvider.getIfAvailable();
+        if (handler == null) {
+            log.warn("【支付回调队列】未找到回调处理器，消费者不启动");
+            return;
+        }
+        List<PartitionConsumer> started = new ArrayList<>(partitions);
+        for (int partition = 0; partition < partitions; partition++) {
+            PartitionConsumer consumer = new PartitionConsumer(partition, handler);
+            consumer.start();
+            started.add(consumer);
+        }
+        this.consumers = started;
+        log.info("【支付回调队列】消费者已启动, partitions: {}", partitions);
+    }
+
+    @Override
+    public void stop() {
+        List<PartitionConsumer> running = this.consumers;
+        if (running == null) {
+            return;
+        }
+        this.consumers = null;
+        running.forEach(PartitionConsumer::shutdown);
+        long deadline = System.currentTimeMillis() + shutdownTimeoutMs;
+        for (PartitionConsumer consumer : running) {
+            consumer.await(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+        log.info("【支付回调队列】消费者已停止");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return consumers != null;
+    }
+
+    /**
+     * 单分区消费者
+     */
+    private final class PartitionConsumer implements Runnable {
+
+        private final int partition;
+        private final IPaymentCallbackHandler handler;
+        private final RStream<String, String> stream;
+        private final RScoredSortedSet<String> retries;
+        private final RLock partitionLock;
+        private final Thread thread;
+
+        private volatile boolean running = true;
+        private boolean groupReady;
+        private long nextTrimAt;
+
+        PartitionConsumer(int partition, IPaymentCallbackHandler handler) {
+            this.partition = partition;
+            this.handler = handler;
+            this.stream = redissonClient.getStream(RedisKeyManager.paymentCallbackStreamKey(partition),
+                    StringCodec.INSTANCE);
+            this.retries = redissonClient.getScoredSortedSet(RedisKeyManager.paymentCallbackRetryKey(partition),
+                    StringCodec.INSTANCE);
+            this.partitionLock = redissonClient.getLock(
+                    RedisKeyManager.lockKey("pay_cb_partition", String.valueOf(partition)));
+            this.thread = new Thread(this, "pay-callback-p" + partition);
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        void shutdown() {
+            running = false;
+        }
+
+        void await(long timeoutMs) {
+            try {
+                thread.join(timeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    try {
+                        if (!partitionLock.isHeldByCurrentThread()) {
+                            if (!partitionLock.tryLock()) {
+                                sleep(pollTimeoutMs);
+                                continue;
+                            }
+                            log.info("【支付回调队列】获得分区, partition: {}", partition);
+                            ensureGroup();
+                            // 上一持有者已读未确认的消息优先处理
+                            while (running
+                                    && drain(StreamReadGroupArgs.greaterThan(StreamMessageId.ALL).count(batchSize)) > 0) {
+                                // 逐批处理直到未确认列表为空
+                            }
+                        }
+                        // 有到期的重试消息时不阻塞读取
+                        int retried = retryDue();
+                        drain(retried > 0
+                                ? StreamReadGroupArgs.neverDelivered().count(batchSize)
+                                : StreamReadGroupArgs.neverDelivered().count(batchSize)
+                                        .timeout(Duration.ofMillis(retryWait())));
+                        trimIfDue();
+                    } catch (Exception e) {
+                        log.error("【支付回调队列】分区消费异常, partition: {}", partition, e);
+                        sleep(retryBackoffMs);
+                    }
+                }
+            } finally {
+                if (partitionLock.isHeldByCurrentThread()) {
+                    partitionLock.unlock();
+                }
+            }
+        }
+
+        private void ensureGroup() {
+            if (groupReady) {
+                return;
+            }
+            try {
+                stream.createGroup(StreamCreateGroupArgs.name(GROUP).id(StreamMessageId.ALL).makeStream());
+            } catch (RedisException e) {
+                if (e.getMessage() == null || !e.getMessage().contains("BUSYGROUP")) {
+                    throw e;
+                }
+            }
+            groupReady = true;
+        }
+
+        /**
+         * 读取并处理一批消息
+         *
+         * @return 本批消息数
+         */
+        private int drain(StreamReadGroupArgs args) {
+            Map<StreamMessageId, Map<String, String>> entries = stream.readGroup(GROUP, CONSUMER, args);
+            if (entries == null || entries.isEmpty()) {
+                return 0;
+            }
+            for (Map.Entry<StreamMessageId, Map<String, String>> entry : entries.entrySet()) {
+                if (!running) {
+                    break;
+                }
+                process(entry.getKey(), entry.getValue());
+            }
+            return entries.size();
+        }
+
+        private void process(StreamMessageId id, Map<String, String> fields) {
+            PaymentCallbackMessage message = toMessage(fields);
+            try {
+                handler.handle(message);
+                stream.ack(GROUP, id);
+            } catch (Exception e) {
+                if (!running) {
+                    // 关闭中，保留为未确认，下一持有者重新处理
+                    return;
+                }
+                log.warn("【支付回调队列】处理失败，移入重试集合, partition: {}, outTradeNo: {}, error: {}",
+                        partition, message.outTradeNo(), e.getMessage());
+                redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE, RETRY_SCRIPT,
+                        RScript.ReturnType.LONG,
+                        List.of(stream.getName(), retries.getName()),
+                        GROUP, id.toString(), String.valueOf(System.currentTimeMillis() + backoff(1)),
+                        encodeRetry(1, fields));
+            }
+        }
+
+        /**
+         * 处理到期的重试消息
+         *
+         * @return 本轮处理的消息数
+         */
+        private int retryDue() {
+            Collection<String> due = retries.valueRange(Double.NEGATIVE_INFINITY, true,
+                    System.currentTimeMillis(), true, 0, batchSize);
+            for (String member : due) {
+                if (!running) {
+                    break;
+                }
+                retry(member);
+            }
+            return due.size();
+        }
+
+        private void retry(String member) {
+            String[] parts = member.split(RETRY_SEPARATOR, -1);
+            int attempts = Integer.parseInt(parts[0]);
+            Map<String, String> fields = new HashMap<>();
+            fields.put(FIELD_OUT_TRADE_NO, parts[1]);
+            fields.put(FIELD_TRADE_STATUS, parts[2]);
+            fields.put(FIELD_TOTAL_AMOUNT, parts[3]);
+            fields.put(FIELD_ORDER_ID, parts[4]);
+            fields.put(FIELD_RECEIVED_AT, parts[5]);
+            PaymentCallbackMessage message = toMessage(fields);
+            try {
+                handler.handle(message);
+                retries.remove(member);
+                log.info("【支付回调队列】重试成功, partition: {}, outTradeNo: {}, attempt: {}",
+                        partition, message.outTradeNo(), attempts + 1);
+                return;
+            } catch (Exception e) {
+                // 重试窗口从回调入队（已向支付宝应答成功）开始计算
+                long acceptedAt = message.receivedAt() > 0 ? message.receivedAt() : System.currentTimeMillis();
+                if (System.currentTimeMillis() - acceptedAt < retryWindowMs) {
+                    log.warn("【支付回调队列】重试失败, partition: {}, outTradeNo: {}, attempt: {}, error: {}",
+                            partition, message.outTradeNo(), attempts + 1, e.getMessage());
+                    // 先写入下一次重试再删除本次，崩溃时最多重复处理一次
+                    retries.add(System.currentTimeMillis() + backoff(attempts + 1), encodeRetry(attempts + 1, fields));
+                    retries.remove(member);
+                    return;
+                }
+
+                Map<String, String> dead = new HashMap<>(fields);
+                dead.put("partition", String.valueOf(partition));
+                dead.put("error", String.valueOf(e.getMessage()));
+                redissonClient.<String, String>getStream(RedisKeyManager.paymentCallbackDeadLetterKey(),
+                        StringCodec.INSTANCE).add(StreamAddArgs.entries(dead));
+                retries.remove(member);
+                log.error("【支付回调队列】超过重试窗口，转入死信, partition: {}, outTradeNo: {}, tradeStatus: {}, attempts: {}",
+                        partition, message.outTradeNo(), message.tradeStatus(), attempts + 1, e);
+            }
+        }
+
+        /**
+         * 阻塞读取的等待时间：不超过最早一条重试消息的到期时间
+         */
+        private long retryWait() {
+            Double first = retries.firstScore();
+            if (first == null) {
+                return pollTimeoutMs;
+            }
+            return Math.max(1, Math.min(pollTimeoutMs, first.longValue() - System.currentTimeMillis()));
+        }
+
+        private void trimIfDue() {
+            long now = System.currentTimeMillis();
+            if (now < nextTrimAt) {
+                return;
+            }
+            nextTrimAt = now + trimIntervalMs;
+            Long trimmed = redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE,
+                    TRIM_SCRIPT, RScript.ReturnType.LONG, List.of(stream.getName()), GROUP);
+            if (trimmed != null && trimmed > 0) {
+                log.debug("【支付回调队列】截断已确认消息, partition: {}, trimmed: {}", partition, trimmed);
+            }
+        }
+
+        private long backoff(int attempts) {
+            return Math.min(retryBackoffMs << Math.min(attempts - 1, 20), retryMaxBackoffMs);
+        }
+
+        private String encodeRetry(int attempts, Map<String, String> fields) {
+            return String.join(RETRY_SEPARATOR,
+                    String.valueOf(attempts),
+                    fields.getOrDefault(FIELD_OUT_TRADE_NO, ""),
+                    fields.getOrDefault(FIELD_TRADE_STATUS, ""),
+                    fields.getOrDefault(FIELD_TOTAL_AMOUNT, ""),
+                    fields.getOrDefault(FIELD_ORDER_ID, ""),
+                    fields.getOrDefault(FIELD_RECEIVED_AT, "0"));
+        }
+
+        private PaymentCallbackMessage toMessage(Map<String, String> fields) {
+            String amount = fields.get(FIELD_TOTAL_AMOUNT);
+            String receivedAt = fields.get(FIELD_RECEIVED_AT);
+            return new PaymentCallbackMessage(
+                    fields.get(FIELD_OUT_TRADE_NO),
+                    fields.get(FIELD_TRADE_STATUS),
+                    amount == null || amount.isEmpty() ? null : new BigDecimal(amount),
+                    fields.get(FIELD_ORDER_ID),
+                    receivedAt == null ? 0L : Long.parseLong(receivedAt));
+        }
+
+        private void sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package org.example.infrastructure.payment;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.domain.gateway.PaymentGateway;
+import org.example.domain.model.trade.repository.TradeOrderRepository;
+import org.example.domain.model.trade.valueobject.TradeOrderStatusView;
+import org.example.domain.service.payment.IPaymentCallbackQueue;
+import org.example.domain.service.payment.IPaymentStatusProjection;
+import org.example.domain.service.payment.PaymentCallbackMessage;
+import org.example.domain.service.payment.PaymentStatusSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 支付网关模拟器（内存实现，payment-sim 环境）
+ *
+ * <p>
+ * 职责：
+ * <ul>
+ * <li>替代 AlipayGateway，离线压测 支付 → 结算 链路；退款网关委托本类，同样被模拟</li>
+ * <li>同步接口按对数正态分布注入延迟（中位数/P99 可配），并按失败率返回系统错误</li>
+ * <li>创建支付页后按支付率决定用户是否付款，付款时在思考时间后异步投递回调到支付回调队列
+ * （与真实回调相同的去重、分区和结算链路）</li>
+ * <li>可配置回调丢失率（由对账任务补偿）和重复率（验证去重）</li>
+ * <li>回调按采样的网络延迟调度投递，不在投递线程上 sleep，回调吞吐不受线程数限制</li>
+ * </ul>
+ *
+ * <p>
+ * 交易只保存在内存中，超过保留时长后定期清理；仅用于压测/本地联调，spring.profiles.active 包含 payment-sim 时启用
+ *
+ */
+@Slf4j
+@Service
+@Profile("payment-sim")
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private static final String SIM_APP_ID = "sim-app";
+    private static final String SIM_SELLER_ID = "sim-seller";
+    private static final String SIM_SIGN = "SIMULATED";
+
+    /** 标准正态分布 P99 分位点 */
+    private static final double Z_99 = 2.326;
+
+    private final TradeOrderRepository tradeOrderRepository;
+    private final IPaymentCallbackQueue paymentCallbackQueue;
+    private final IPaymentStatusProjection paymentStatusProjection;
+    private final ScheduledExecutorService callbackScheduler;
+
+    /** outTradeNo → 模拟交易 */
+    private final ConcurrentMap<String, SimTrade> trades = new ConcurrentHashMap<>();
+
+    private final AtomicLong apiCalls = new AtomicLong();
+    private final AtomicLong apiFailures = new AtomicLong();
+    private final AtomicLong callbacksDelivered = new AtomicLong();
+    private final AtomicLong callbacksDropped = new AtomicLong();
+    private final AtomicLong callbacksDuplicated = new AtomicLong();
+
+    @Value("${payment.simulator.latency.median-ms:50}")
+    private double latencyMedianMs;
+
+    @Value("${payment.simulator.latency.p99-ms:400}")
+    private double latencyP99Ms;
+
+    @Value("${payment.simulator.failure-rate:0.0}")
+    private double failureRate;
+
+    @Value("${payment.simulator.pay-rate:0.9}")
+    private double payRate;
+
+    @Value("${payment.simulator.think-time.median-ms:300}")
+    private double thinkMedianMs;
+
+    @Value("${payment.simulator.think-time.p99-ms:3000}")
+    private double thinkP99Ms;
+
+    @Value("${payment.simulator.callback-drop-rate:0.0}")
+    private double callbackDropRate;
+
+    @Value("${payment.simulator.callback-duplicate-rate:0.0}")
+    private double callbackDuplicateRate;
+
+    /** 模拟交易保留时长，需覆盖支付超时 + 退款窗口 */
+    private final long tradeRetentionMs;
+
+    public SimulatedPaymentGateway(TradeOrderRepository tradeOrderRepository,
+            IPaymentCallbackQueue paymentCallbackQueue,
+            IPaymentStatusProjection paymentStatusProjection,
+            @Value("${payment.simulator.callback-threads:4}") int callbackThreads,
+            @Value("${payment.simulator.trade-retention-ms:3600000}") long tradeRetentionMs) {
+        this.tradeOrderRepository = tradeOrderRepository;
+        this.paymentCallbackQueue = paymentCallbackQueue;
+        this.paymentStatusProjection = paymentStatusProjection;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.callbackScheduler = Executors.newScheduledThreadPool(callbackThreads, r -> {
+            Thread thread = new Thread(r, "payment-sim-callback-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.tradeRetentionMs = tradeRetentionMs;
+        long evictInterval = Math.max(1000, tradeRetentionMs / 10);
+        callbackScheduler.scheduleWithFixedDelay(this::evictExpired, evictInterval, evictInterval,
+                TimeUnit.MILLISECONDS);
+        log.warn("【支付模拟器】已启用，所有支付请求不会发往支付宝");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        callbackScheduler.shutdownNow();
+    }
+
+    @Override
+    public String createPaymentPage(String outTradeNo, BigDecimal amount, String subject,
+            String returnUrl, String notifyUrl) {
+        simulateCall();
+        SimTrade trade = new SimTrade(outTradeNo, amount);
+        if (trades.putIfAbsent(outTradeNo, trade) == null
+                && ThreadLocalRandom.current().nextDouble() < payRate) {
+            long delay = (long) sampleLogNormal(thinkMedianMs, thinkP99Ms);
+            callbackScheduler.schedule(() -> pay(trade), delay, TimeUnit.MILLISECONDS);
+        }
+        return "<form id=\"sim-pay\" action=\"" + returnUrl + "\"><input name=\"out_trade_no\" value=\""
+                + outTradeNo + "\"/></form>";
+    }
+
+    @Override
+    public PaymentQueryResult queryPayment(String outTradeNo, String tradeNo) {
+        simulateCall();
+        SimTrade trade = trades.get(outTradeNo);
+        if (trade == null) {
+            return new PaymentQueryResult(false, null, outTradeNo, null, null, null, "交易不存在");
+        }
+        return new PaymentQueryResult(true, trade.tradeNo, outTradeNo, trade.status,
+                trade.amount, trade.paid() ? trade.amount : null, null);
+    }
+
+    @Override
+    public RefundResult refund(String outTradeNo, String tradeNo, BigDecimal refundAmount,
+            String refundReason, String outRequestNo) {
+        simulateCall();
+        SimTrade trade = trades.get(outTradeNo);
+        if (trade == null || !trade.paid()) {
+            return new RefundResult(false, null, outTradeNo, null, false, "交易不存在或未支付");
+        }
+        BigDecimal refunded = trade.refund(outRequestNo, refundAmount);
+        if (refunded == null) {
+            return new RefundResult(false, trade.tradeNo, outTradeNo, trade.refunded, false, "退款金额超过可退金额");
+        }
+        return new RefundResult(true, trade.tradeNo, outTradeNo, refunded, true, null);
+    }
+
+    @Override
+    public RefundQueryResult queryRefund(String outTradeNo, String outRequestNo) {
+        simulateCall();
+        SimTrade trade = trades.get(outTradeNo);
+        if (trade == null || trade.refunded.signum() == 0) {
+            return new RefundQueryResult(false, null, outTradeNo, outRequestNo, null, null, "退款不存在");
+        }
+        return new RefundQueryResult(true, trade.tradeNo, outTradeNo, outRequestNo, trade.refunded,
+                "REFUND_SUCCESS", null);
+    }
+
+    @Override
+    public boolean closeOrder(String outTradeNo, String tradeNo) {
+        simulateCall();
+        SimTrade trade = trades.get(outTradeNo);
+        return trade != null && trade.close();
+    }
+
+    @Override
+    public boolean verifyCallback(Map<String, String> params) {
+        return SIM_SIGN.equals(params.get("sign"));
+    }
+
+    @Override
+    public String getAppId() {
+        return SIM_APP_ID;
+    }
+
+    @Override
+    public String getSellerId() {
+        return SIM_SELLER_ID;
+    }
+
+    /**
+     * 模拟器统计（压测报告用）
+     */
+    public SimulatorStats stats() {
+        return new SimulatorStats(apiCalls.get(), apiFailures.get(), callbacksDelivered.get(),
+                callbacksDropped.get(), callbacksDuplicated.get());
+    }
+
+    /**
+     * 用户完成付款：更新模拟交易，按采样的网络延迟调度回调投递
+     */
+    private void pay(SimTrade trade) {
+        if (!trade.pay()) {
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < callbackDropRate) {
+            callbacksDropped.incrementAndGet();
+            return;
+        }
+        scheduleDelivery(trade);
+        if (random.nextDouble() < callbackDuplicateRate) {
+            callbacksDuplicated.incrementAndGet();
+            scheduleDelivery(trade);
+        }
+    }
+
+    private void scheduleDelivery(SimTrade trade) {
+        long delay = (long) sampleLogNormal(latencyMedianMs, latencyP99Ms);
+        callbackScheduler.schedule(() -> {
+            try {
+                deliver(trade);
+            } catch (Exception e) {
+                log.error("【支付模拟器】回调投递失败, outTradeNo: {}", trade.outTradeNo, e);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 清理超过保留时长的模拟交易
+     */
+    private void evictExpired() {
+        long expireBefore = System.currentTimeMillis() - tradeRetentionMs;
+        int before = trades.size();
+        trades.values().removeIf(trade -> trade.createdAt < expireBefore);
+        int evicted = before - trades.size();
+        if (evicted > 0) {
+            log.debug("【支付模拟器】清理过期模拟交易: {}", evicted);
+        }
+    }
+
+    private void deliver(SimTrade trade) {
+        List<TradeOrderStatusView> views = tradeOrderRepository.findByOutTradeNos(List.of(trade.outTradeNo));
+        if (views.isEmpty()) {
+            log.warn("【支付模拟器】交易订单不存在，丢弃回调, outTradeNo: {}", trade.outTradeNo);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        paymentCallbackQueue.enqueue(new PaymentCallbackMessage(trade.outTradeNo,
+                PaymentCallbackMessage.TRADE_SUCCESS, trade.amount, views.get(0).orderId(), now));
+        paymentStatusProjection.update(new PaymentStatusSnapshot(trade.outTradeNo,
+                PaymentCallbackMessage.TRADE_SUCCESS, trade.tradeNo, trade.amount,
+                PaymentStatusSnapshot.SOURCE_CALLBACK, now));
+        callbacksDelivered.incrementAndGet();
+    }
+
+    /**
+     * 同步接口：注入延迟和失败
+     */
+    private void simulateCall() {
+        apiCalls.incrementAndGet();
+        sleep((long) sampleLogNormal(latencyMedianMs, latencyP99Ms));
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            apiFailures.incrementAndGet();
+            throw new IllegalStateException("模拟支付网关系统错误");
+        }
+    }
+
+    /**
+     * 对数正态分布采样：中位数为 median，P99 为 p99
+     */
+    private static double sampleLogNormal(double median, double p99) {
+        if (median <= 0) {
+            return 0;
+        }
+        double sigma = p99 > median ? Math.log(p99 / median) / Z_99 : 0;
+        return Math.exp(Math.log(median) + sigma * ThreadLocalRandom.current().nextGaussian());
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 模拟器统计
+     *
+     * @param apiCalls            同步接口调用次数
+     * @param apiFailures         注入的失败次数
+     * @param callbacksDelivered  投递的回调数（含重复）
+     * @param callbacksDropped    丢弃的回调数
+     * @param callbacksDuplicated 重复投递的回调数
+     */
+    public record SimulatorStats(long apiCalls, long apiFailures, long callbacksDelivered,
+            long callbacksDropped, long callbacksDuplicated) {
+    }
+
+    /**
+     * 内存中的模拟交易
+     */
+    private static final class SimTrade {
+        private final String outTradeNo;
+        private final BigDecimal amount;
+        private final String tradeNo;
+        private final long createdAt = System.currentTimeMillis();
+        /** outRequestNo → 退款金额，同一退款请求号重复提交按幂等处理 */
+        private final Map<String, BigDecimal> refunds = new HashMap<>();
+        private volatile String status = PaymentStatusSnapshot.WAIT_BUYER_PAY;
+        private volatile BigDecimal refunded = BigDecimal.ZERO;
+
+        SimTrade(String outTradeNo, BigDecimal amount) {
+            this.outTradeNo = outTradeNo;
+            this.amount = amount;
+            this.tradeNo = "SIM" + Integer.toHexString(Objects.hash(outTradeNo, System.nanoTime()));
+        }
+
+        synchronized boolean pay() {
+            if (!PaymentStatusSnapshot.WAIT_BUYER_PAY.equals(status)) {
+                return false;
+            }
+            status = PaymentCallbackMessage.TRADE_SUCCESS;
+            return true;
+        }
+
+        synchronized boolean close() {
+            if (!PaymentStatusSnapshot.WAIT_BUYER_PAY.equals(status)) {
+                return false;
+            }
+            status = PaymentCallbackMessage.TRADE_CLOSED;
+            return true;
+        }
+
+        /**
+         * 退款：同一退款请求号幂等，累计退款不得超过支付金额
+         *
+         * @return 累计退款金额，超额时返回 null
+         */
+        synchronized BigDecimal refund(String outRequestNo, BigDecimal refundAmount) {
+            if (refunds.containsKey(outRequestNo)) {
+                return refunded;
+            }
+            BigDecimal total = refunded.add(refundAmount);
+            if (refundAmount.signum() <= 0 || total.compareTo(amount) > 0) {
+                return null;
+            }
+            refunds.put(outRequestNo, refundAmount);
+            refunded = total;
+            return total;
+        }
+
+        boolean paid() {
+            return PaymentCallbackMessage.TRADE_SUCCESS.equals(status);
+        }
+    }
+}
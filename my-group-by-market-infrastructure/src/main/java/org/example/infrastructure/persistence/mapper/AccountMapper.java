@@ -17,4 +17,24 @@ public interface AccountMapper extends BaseMapper<AccountPO> {
      */
     AccountPO selectByUserAndActivity(@Param("userId") String userId,
                                       @Param("activityId") String activityId);
-}
\ No newline at end of file
+
+    /**
+     * 首次参与时以已参与1次插入账户，已存在时未达上限才 +1
+     *
+     * <p>
+     * 影响行数：插入=1，更新=2，未变更=0（连接使用 found rows 语义时未变更也返回1，需结合账户ID判断）
+     *
+     * @param po    待插入的账户（accountId 为新生成的ID）
+     * @param limit 参与次数上限
+     * @return 影响行数
+     */
+    int upsertIncrementIfBelowLimit(@Param("po") AccountPO po, @Param("limit") int limit);
+
+    /**
+     * 参与次数大于0时 -1
+     *
+     * @return 影响行数（0=账户不存在或次数已为0）
+     */
+    int decrementIfPositive(@Param("userId") String userId,
+                            @Param("activityId") String activityId);
+}
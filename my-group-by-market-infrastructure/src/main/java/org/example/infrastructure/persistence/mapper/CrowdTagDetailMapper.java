@@ -4,8 +4,11 @@ package org.example.infrastructure.persistence.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import org.example.infrastructure.persistence.po.CrowdTagCandidatePO;
 import org.example.infrastructure.persistence.po.CrowdTagDetailPO;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -65,4 +68,70 @@ public interface CrowdTagDetailMapper extends BaseMapper<CrowdTagDetailPO> {
      */
     List<String> batchCheckUsersInTag(@Param("userIds") List<String> userIds,
                                        @Param("tagId") String tagId);
-}
\ No newline at end of file
+
+    /**
+     * 批量写入标签明细（存在则刷新版本时间）
+     *
+     * @param detailList 明细列表
+     * @param version    本次计算的版本时间，写入 update_time
+     * @return 影响行数
+     */
+    int batchUpsert(@Param("list") List<CrowdTagDetailPO> detailList,
+                    @Param("version") LocalDateTime version);
+
+    /**
+     * 删除早于指定版本的标签明细（上一轮计算命中、本轮未命中的用户）
+     *
+     * @param tagId   标签ID
+     * @param version 本次计算的版本时间
+     * @return 删除行数
+     */
+    int deleteStaleByTagId(@Param("tagId") String tagId,
+                           @Param("version") LocalDateTime version);
+
+    /**
+     * 流式查询标签下的用户ID
+     *
+     * <p>
+     * 必须在独立的 SqlSession 中消费，游标关闭前连接不可执行其他语句
+     *
+     * @param tagId 标签ID
+     * @return 用户ID游标
+     */
+    Cursor<String> streamUserIdsByTagId(@Param("tagId") String tagId);
+
+    /**
+     * 流式查询标签候选用户
+     *
+     * <p>
+     * 必须在独立的 SqlSession 中消费，游标关闭前连接不可执行其他语句
+     *
+     * @param withTradeStats 是否关联交易统计
+     * @param since          交易统计窗口起点，null表示全部历史
+     * @return 候选用户游标
+     */
+    Cursor<CrowdTagCandidatePO> streamTagCandidates(@Param("withTradeStats") boolean withTradeStats,
+                                                    @Param("since") LocalDateTime since);
+
+    /**
+     * 批量删除标签内的指定用户
+     *
+     * @param tagId   标签ID
+     * @param userIds 用户ID列表
+     * @return 删除行数
+     */
+    int deleteByTagIdAndUserIds(@Param("tagId") String tagId,
+                                @Param("userIds") List<String> userIds);
+
+    /**
+     * 查询单个用户的标签候选数据（增量维护）
+     *
+     * @param userId         用户ID
+     * @param withTradeStats 是否关联交易统计
+     * @param since          交易统计窗口起点，null表示全部历史
+     * @return 候选数据，用户不存在时返回null
+     */
+    CrowdTagCandidatePO selectTagCandidate(@Param("userId") String userId,
+                                           @Param("withTradeStats") boolean withTradeStats,
+                                           @Param("since") LocalDateTime since);
+}
@@ -38,4 +38,41 @@ public interface NotificationTaskMapper extends BaseMapper<NotificationTaskPO> {
      * @return 待处理任务列表
      */
     List<NotificationTaskPO> selectPendingTasksWithPage(@Param("offset") int offset, @Param("limit") int limit);
+
+    /**
+     * 锁定一批已到重试时间的待处理任务ID（FOR UPDATE SKIP LOCKED，需在事务中调用）
+     *
+     * @param limit 限制数量
+     * @return 任务ID列表
+     */
+    List<String> selectPendingTaskIdsForUpdate(@Param("limit") int limit);
+
+    /**
+     * 锁定一批租约已过期的处理中任务ID（FOR UPDATE SKIP LOCKED，需在事务中调用）
+     *
+     * @param limit 限制数量
+     * @return 任务ID列表
+     */
+    List<String> selectExpiredLeaseTaskIdsForUpdate(@Param("limit") int limit);
+
+    /**
+     * 认领任务：置为PROCESSING并写入租约
+     *
+     * @param taskIds      任务ID列表
+     * @param owner        认领节点标识
+     * @param leaseSeconds 租约时长（秒）
+     * @return 影响行数
+     */
+    int claimTasks(@Param("taskIds") List<String> taskIds,
+                   @Param("owner") String owner,
+                   @Param("leaseSeconds") int leaseSeconds);
+
+    /**
+     * 写回执行结果：仅当租约仍由 owner 持有且未过期
+     *
+     * @param po         任务持久化对象（状态、重试、租约字段）
+     * @param leaseOwner 认领时的租约持有者
+     * @return 影响行数，0表示租约已丢失
+     */
+    int updateIfLeaseHeld(@Param("po") NotificationTaskPO po, @Param("leaseOwner") String leaseOwner);
 }
@@ -3,6 +3,7 @@ package org.example.infrastructure.persistence.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.example.infrastructure.persistence.po.OrderCounterPO;
 import org.example.infrastructure.persistence.po.OrderPO;
 
 import java.util.List;
@@ -24,6 +25,17 @@ public interface OrderMapper extends BaseMapper<OrderPO> {
      */
     int incrementLockCount(@Param("orderId") String orderId);
 
+    /**
+     * 原子化增加锁单量，并在同一次往返中返回新值
+     *
+     * SQL 逻辑：与 incrementLockCount 相同，lock_count 通过 LAST_INSERT_ID(expr) 赋值，
+     * 新值作为生成键回填到 counter.value
+     *
+     * @param counter 计数器参数（orderId 输入，value 输出）
+     * @return 影响行数（1=成功，0=失败）
+     */
+    int incrementLockCountReturning(OrderCounterPO counter);
+
     /**
      * 原子化减少锁单量（释放锁定）
      *
@@ -35,6 +47,17 @@ public interface OrderMapper extends BaseMapper<OrderPO> {
      */
     int decrementLockCount(@Param("orderId") String orderId);
 
+    /**
+     * 原子化减少锁单量，并在同一次往返中返回新值
+     *
+     * SQL 逻辑：与 decrementLockCount 相同，lock_count 通过 LAST_INSERT_ID(expr) 赋值。
+     * 新值为0时驱动不返回生成键，counter.value 保持 null
+     *
+     * @param counter 计数器参数（orderId 输入，value 输出）
+     * @return 影响行数（1=成功，0=失败）
+     */
+    int decrementLockCountReturning(OrderCounterPO counter);
+
     /**
      * 原子化增加完成人数（解决高并发误杀问题）
      *
@@ -47,6 +70,17 @@ public interface OrderMapper extends BaseMapper<OrderPO> {
      */
     int incrementCompleteCount(@Param("orderId") String orderId);
 
+    /**
+     * 原子化增加完成人数，并在同一次往返中返回新值
+     *
+     * SQL 逻辑：与 incrementCompleteCount 相同，complete_count 通过 LAST_INSERT_ID(expr) 赋值，
+     * 新值作为生成键回填到 counter.value
+     *
+     * @param counter 计数器参数（orderId 输入，value 输出）
+     * @return 影响行数（1=成功，0=失败）
+     */
+    int incrementCompleteCountReturning(OrderCounterPO counter);
+
     /**
      * 查询超时未成团的订单
      * 查询条件：status = 'PENDING' AND deadline_time < NOW()
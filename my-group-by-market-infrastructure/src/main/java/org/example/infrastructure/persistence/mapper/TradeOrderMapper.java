@@ -3,8 +3,12 @@ package org.example.infrastructure.persistence.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 import org.example.infrastructure.persistence.po.TradeOrderPO;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -106,4 +110,152 @@ public interface TradeOrderMapper extends BaseMapper<TradeOrderPO> {
          * @return 订单总数
          */
         long countByUserId(@Param("userId") String userId);
+
+        /**
+         * 统计支付时间区间内已支付订单的实付总额
+         *
+         * @param status 交易状态编码
+         * @param start  支付时间下界（含）
+         * @param end    支付时间上界（含）
+         * @return 实付总额（无数据时为 0）
+         */
+        BigDecimal sumPayPriceByPayTime(@Param("status") String status,
+                        @Param("start") LocalDateTime start,
+                        @Param("end") LocalDateTime end);
+
+        /**
+         * 批量查询状态投影列
+         *
+         * <p>
+         * 只返回 trade_order_id/out_trade_no/order_id/user_id/status
+         *
+         * @param tradeOrderIds 交易订单ID集合
+         * @return 仅填充投影列的交易订单PO
+         */
+        List<TradeOrderPO> selectStatusByIds(@Param("tradeOrderIds") Collection<String> tradeOrderIds);
+
+        /**
+         * 按外部交易单号批量查询状态投影列
+         *
+         * @param outTradeNos 外部交易单号集合
+         * @return 仅填充投影列的交易订单PO
+         */
+        List<TradeOrderPO> selectStatusByOutTradeNos(@Param("outTradeNos") Collection<String> outTradeNos);
+
+        /**
+         * 按创建时间区间查询指定状态的投影列（按 create_time, trade_order_id 升序键集续读）
+         *
+         * @param status        交易状态编码
+         * @param createdAfter  创建时间下界（含）
+         * @param createdBefore 创建时间上界（不含）
+         * @param afterTime     键集：上一批最后一行的创建时间（null 表示从区间起点开始）
+         * @param afterId       键集：上一批最后一行的交易订单ID
+         * @param limit         最大返回条数
+         * @return 仅填充投影列的交易订单PO
+         */
+        List<TradeOrderPO> selectCreatedBetween(@Param("status") String status,
+                        @Param("createdAfter") LocalDateTime createdAfter,
+                        @Param("createdBefore") LocalDateTime createdBefore,
+                        @Param("afterTime") LocalDateTime afterTime,
+                        @Param("afterId") String afterId,
+                        @Param("limit") int limit);
+
+        /**
+         * 查询资源释放标记列
+         *
+         * @param tradeOrderId 交易订单ID
+         * @return 仅填充释放标记的交易订单PO
+         */
+        TradeOrderPO selectReleaseFlags(@Param("tradeOrderId") String tradeOrderId);
+
+        /**
+         * 流式导出一段交易订单（按 create_time, trade_order_id 升序）
+         *
+         * <p>
+         * 游标需在独立 SqlSession 中打开并在读完后关闭
+         *
+         * @param keyword   关键词（订单号/用户ID）
+         * @param status    状态
+         * @param startDate 创建时间下界（含）
+         * @param endDate   创建时间上界（含）
+         * @param afterTime 键集：上一段最后一行的创建时间（null 表示从头开始）
+         * @param afterId   键集：上一段最后一行的交易订单ID
+         * @param limit     本段最大行数
+         * @return 交易订单PO游标
+         */
+        Cursor<TradeOrderPO> streamForExport(@Param("keyword") String keyword,
+                        @Param("status") String status,
+                        @Param("startDate") LocalDateTime startDate,
+                        @Param("endDate") LocalDateTime endDate,
+                        @Param("afterTime") LocalDateTime afterTime,
+                        @Param("afterId") String afterId,
+                        @Param("limit") int limit);
+
+        /**
+         * 管理后台分页总数估算（最多数到 cap）
+         *
+         * @param cap 计数上限
+         * @return min(实际条数, cap)
+         */
+        long countForAdmin(@Param("keyword") String keyword,
+                        @Param("status") String status,
+                        @Param("startDate") LocalDateTime startDate,
+                        @Param("endDate") LocalDateTime endDate,
+                        @Param("cap") int cap);
+
+        /**
+         * 管理后台分页查询（不计数）
+         */
+        List<TradeOrderPO> selectForAdmin(@Param("keyword") String keyword,
+                        @Param("status") String status,
+                        @Param("startDate") LocalDateTime startDate,
+                        @Param("endDate") LocalDateTime endDate,
+                        @Param("offset") long offset,
+                        @Param("limit") int limit);
+
+        /**
+         * 按交易订单ID查询归档表
+         *
+         * @param tradeOrderId 交易订单ID
+         * @return 归档的交易订单PO，不存在时为 null
+         */
+        TradeOrderPO selectArchivedById(@Param("tradeOrderId") String tradeOrderId);
+
+        /**
+         * 根据拼团订单ID查询交易订单列表（热表 + 归档表）
+         *
+         * @param orderId 拼团订单ID
+         * @return 交易订单列表（按创建时间升序）
+         */
+        List<TradeOrderPO> selectByOrderIdWithArchive(@Param("orderId") String orderId);
+
+        /**
+         * 查询一批可归档的交易订单ID
+         *
+         * @param statuses      终态状态编码
+         * @param createdBefore 创建时间上界（不含）
+         * @param limit         最大返回条数
+         * @return 交易订单ID列表
+         */
+        List<String> selectArchivableIds(@Param("statuses") Collection<String> statuses,
+                        @Param("createdBefore") LocalDateTime createdBefore,
+                        @Param("limit") int limit);
+
+        /**
+         * 复制交易订单到归档表（仅复制仍为终态的行）
+         *
+         * @param tradeOrderIds 交易订单ID集合
+         * @param statuses      终态状态编码
+         * @return 写入归档表的行数
+         */
+        int copyToArchive(@Param("tradeOrderIds") Collection<String> tradeOrderIds,
+                        @Param("statuses") Collection<String> statuses);
+
+        /**
+         * 从热表删除已存在于归档表的交易订单
+         *
+         * @param tradeOrderIds 交易订单ID集合
+         * @return 删除的行数
+         */
+        int deleteArchived(@Param("tradeOrderIds") Collection<String> tradeOrderIds);
 }
@@ -0,0 +1,28 @@
+package org.example.infrastructure.persistence.po;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 人群标签候选用户（计算投影，非表映射）
+ *
+ * <p>
+ * 用户属性 + 统计窗口内的交易汇总，用于标签规则求值
+ */
+@Data
+public class CrowdTagCandidatePO {
+
+    private String userId;
+    private String role;
+
+    /** 注册时间（user.create_time） */
+    private LocalDateTime createTime;
+
+    /** 窗口内已支付/已结算交易笔数 */
+    private Long orderCount;
+
+    /** 窗口内已支付/已结算实付金额合计 */
+    private BigDecimal gmv;
+}
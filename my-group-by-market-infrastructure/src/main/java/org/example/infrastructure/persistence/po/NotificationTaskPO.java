@@ -1,6 +1,8 @@
 package org.example.infrastructure.persistence.po;
 
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
 import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
 import lombok.AllArgsConstructor;
@@ -67,6 +69,24 @@ public class NotificationTaskPO {
      */
     private LocalDateTime lastExecuteTime;
 
+    /**
+     * 下一次允许重试的时间（允许更新为NULL）
+     */
+    @TableField(updateStrategy = FieldStrategy.ALWAYS)
+    private LocalDateTime nextRetryTime;
+
+    /**
+     * 当前持有租约的调度节点（允许更新为NULL，用于释放租约）
+     */
+    @TableField(updateStrategy = FieldStrategy.ALWAYS)
+    private String leaseOwner;
+
+    /**
+     * 租约过期时间（允许更新为NULL）
+     */
+    @TableField(updateStrategy = FieldStrategy.ALWAYS)
+    private LocalDateTime leaseExpireTime;
+
     /**
      * 失败原因
      */
@@ -0,0 +1,23 @@
+package org.example.infrastructure.persistence.po;
+
+import lombok.Data;
+
+/**
+ * 订单计数器更新参数（非表映射）
+ *
+ * <p>
+ * 条件更新时用 LAST_INSERT_ID(expr) 记录新值，驱动在 UPDATE 的 OK 包中一并返回，
+ * 由 MyBatis 作为生成键回填到 value，无需再查询一次
+ */
+@Data
+public class OrderCounterPO {
+
+    private String orderId;
+
+    /** 更新后的计数值（更新成功时回填） */
+    private Long value;
+
+    public OrderCounterPO(String orderId) {
+        this.orderId = orderId;
+    }
+}
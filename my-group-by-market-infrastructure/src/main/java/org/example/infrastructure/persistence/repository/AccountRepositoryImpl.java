@@ -3,7 +3,9 @@ package org.example.infrastructure.persistence.repository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.domain.model.account.Account;
+import org.example.domain.model.account.event.ParticipationCountDeductedEvent;
 import org.example.domain.model.account.repository.AccountRepository;
+import org.example.domain.service.event.IDomainEventPublisher;
 import org.example.domain.shared.IdGenerator;
 import org.example.infrastructure.persistence.converter.AccountConverter;
 import org.example.infrastructure.persistence.mapper.AccountMapper;
@@ -24,6 +26,7 @@ public class AccountRepositoryImpl implements AccountRepository {
 
     private final AccountMapper accountMapper;
     private final IdGenerator idGenerator;
+    private final IDomainEventPublisher domainEventPublisher;
 
     @Override
     public void save(Account account) {
@@ -57,6 +60,7 @@ public class AccountRepositoryImpl implements AccountRepository {
                                 account.getAccountId(), po.getVersion()));
             }
         }
+        domainEventPublisher.publish(account.getDomainEvents());
     }
 
     @Override
@@ -70,6 +74,39 @@ public class AccountRepositoryImpl implements AccountRepository {
         return Optional.of(account);
     }
 
+    @Override
+    public boolean tryDeductCount(String userId, String activityId, int limit) {
+        // 单条 INSERT ... ON DUPLICATE KEY UPDATE：首次参与插入，已有账户未达上限才 +1
+        AccountPO po = AccountPO.builder()
+                .accountId(nextId())
+                .userId(userId)
+                .activityId(activityId)
+                .participationCount(1)
+                .build();
+        int rows = accountMapper.upsertIncrementIfBelowLimit(po, limit);
+        if (rows == 0) {
+            return false;
+        }
+
+        // 影响2行：已有账户未达上限 +1，无需回查
+        // 影响1行：插入，或 found rows 语义下已达上限未变更，只有这种情况回查账户ID区分
+        if (rows == 1) {
+            AccountPO current = accountMapper.selectByUserAndActivity(userId, activityId);
+            if (current == null || !po.getAccountId().equals(current.getAccountId())) {
+                return false;
+            }
+            log.info("【AccountRepository】首次参与活动，创建账户, accountId: {}, userId: {}, activityId: {}",
+                    po.getAccountId(), userId, activityId);
+        }
+        domainEventPublisher.publish(List.of(new ParticipationCountDeductedEvent(userId, activityId)));
+        return true;
+    }
+
+    @Override
+    public boolean compensateCount(String userId, String activityId) {
+        return accountMapper.decrementIfPositive(userId, activityId) > 0;
+    }
+
     @Override
     public void batchCreate(List<Account> accounts) {
         for (Account account : accounts) {
@@ -80,6 +117,6 @@ public class AccountRepositoryImpl implements AccountRepository {
 
     @Override
     public String nextId() {
-        return "ACC" + idGenerator.nextId();
+        return idGenerator.nextId("ACC");
     }
 }
\ No newline at end of file
@@ -213,6 +213,9 @@ public class ActivityRepositoryImpl implements ActivityRepository {
     public boolean isInCutRange(String userId) {
         // 从动态配置读取切量配置（100表示100%全量，10表示10%切量）
         int cutPercentage = environment.getProperty("activity.cut.range", Integer.class, 100);
+        if (cutPercentage >= 100) {
+            return true;
+        }
 
         int hash = Math.abs(userId.hashCode() % 100);
         boolean isInRange = hash < cutPercentage;
@@ -223,12 +226,12 @@ public class ActivityRepositoryImpl implements ActivityRepository {
 
     @Override
     public String nextId() {
-        return "ACT" + idGenerator.nextId();
+        return idGenerator.nextId("ACT");
     }
 
     @Override
     public String nextDiscountId() {
-        return "DSC" + idGenerator.nextId();
+        return idGenerator.nextId("DSC");
     }
 
     @Override
@@ -14,7 +14,6 @@ import org.example.infrastructure.cache.CrowdTagCacheService;
 import org.example.infrastructure.persistence.converter.CrowdTagConverter;
 import org.example.infrastructure.persistence.mapper.CrowdTagDetailMapper;
 import org.example.infrastructure.persistence.mapper.CrowdTagMapper;
-import org.example.infrastructure.persistence.po.CrowdTagDetailPO;
 import org.example.infrastructure.persistence.po.CrowdTagPO;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
@@ -100,71 +99,14 @@ public class CrowdTagRepositoryImpl implements CrowdTagRepository {
 
     @Override
     public String nextId() {
-        return "TAG" + idGenerator.nextId();
+        return idGenerator.nextId("TAG");
     }
 
-    /**
-     * 全量替换标签用户（同时写入数据库和缓存）
-     * 先删除旧数据，再插入新数据，保证幂等性
-     *
-     * @param tagId   标签ID
-     * @param userIds 用户ID列表
-     */
     @Override
-    @Transactional(rollbackFor = Exception.class)
-    public void replaceTagUsers(String tagId, List<String> userIds) {
-        if (userIds == null || userIds.isEmpty()) {
-            log.warn("【CrowdTagRepository】用户列表为空, tagId: {}", tagId);
-            return;
-        }
-
-        log.info("【CrowdTagRepository】开始批量添加用户到标签, tagId: {}, count: {}",
-                tagId, userIds.size());
-
-        // 1. 删除旧数据（保证幂等性）
-        crowdTagDetailMapper.deleteByTagId(tagId);
-        log.debug("【CrowdTagRepository】已删除旧数据, tagId: {}", tagId);
-
-        // 2. 批量插入新数据
-        List<CrowdTagDetailPO> detailList = userIds.stream()
-                .map(userId -> CrowdTagDetailPO.builder()
-                        .tagId(tagId)
-                        .userId(userId)
-                        .build())
+    public List<CrowdTag> findAll() {
+        return crowdTagMapper.selectList(new LambdaQueryWrapper<>()).stream()
+                .map(CrowdTagConverter.INSTANCE::toDomain)
                 .collect(Collectors.toList());
-
-        // 分批插入（每批1000条）
-        int batchSize = 1000;
-        for (int i = 0; i < detailList.size(); i += batchSize) {
-            int end = Math.min(i + batchSize, detailList.size());
-            List<CrowdTagDetailPO> subList = detailList.subList(i, end);
-            crowdTagDetailMapper.batchInsert(subList);
-            log.debug("【CrowdTagRepository】批量插入进度, tagId: {}, progress: {}/{}",
-                    tagId, end, detailList.size());
-        }
-
-        // 3. 更新标签统计数
-        CrowdTagPO tagPO = new CrowdTagPO();
-        tagPO.setStatistics((long) userIds.size());
-
-        LambdaQueryWrapper<CrowdTagPO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(CrowdTagPO::getTagId, tagId);
-        crowdTagMapper.update(tagPO, wrapper);
-        log.debug("【CrowdTagRepository】已更新标签统计, tagId: {}, count: {}",
-                tagId, userIds.size());
-
-        // 4. 同步到 Redis 缓存
-        try {
-            cacheService.replaceTagUsers(tagId, userIds);
-            log.info("【CrowdTagRepository】标签数据已同步到缓存, tagId: {}, count: {}",
-                    tagId, userIds.size());
-        } catch (Exception e) {
-            // Redis 写入失败不影响数据库事务
-            log.error("【CrowdTagRepository】同步缓存失败（不影响数据库事务）, tagId: {}", tagId, e);
-        }
-
-        log.info("【CrowdTagRepository】批量添加用户到标签完成, tagId: {}, count: {}",
-                tagId, userIds.size());
     }
 
     /**
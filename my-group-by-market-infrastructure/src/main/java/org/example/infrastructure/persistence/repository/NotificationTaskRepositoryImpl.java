@@ -8,7 +8,10 @@ import org.example.infrastructure.persistence.converter.NotificationTaskConverte
 import org.example.infrastructure.persistence.mapper.NotificationTaskMapper;
 import org.example.infrastructure.persistence.po.NotificationTaskPO;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -40,6 +43,14 @@ public class NotificationTaskRepositoryImpl implements NotificationTaskRepositor
         log.debug("更新通知任务: taskId={}, status={}", task.getTaskId(), task.getStatus());
     }
 
+    @Override
+    public boolean updateIfLeaseHeld(NotificationTask task, String leaseOwner) {
+        NotificationTaskPO po = notificationTaskConverter.toPO(task);
+        boolean updated = notificationTaskMapper.updateIfLeaseHeld(po, leaseOwner) > 0;
+        log.debug("更新通知任务(租约校验): taskId={}, status={}, updated={}", task.getTaskId(), task.getStatus(), updated);
+        return updated;
+    }
+
     @Override
     public Optional<NotificationTask> findByTaskId(String taskId) {
         NotificationTaskPO po = notificationTaskMapper.selectById(taskId);
@@ -69,4 +80,27 @@ public class NotificationTaskRepositoryImpl implements NotificationTaskRepositor
                 .map(notificationTaskConverter::toDomain)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<NotificationTask> claimPendingTasks(String owner, int limit, int leaseSeconds) {
+        // 1. 锁定其他节点尚未锁定的可认领行（SKIP LOCKED 不等待）：先取待处理任务，不足再补租约过期的任务，
+        //    两条查询各自按索引顺序读够即停，只锁定返回的行
+        List<String> taskIds = new ArrayList<>(notificationTaskMapper.selectPendingTaskIdsForUpdate(limit));
+        if (taskIds.size() < limit) {
+            taskIds.addAll(notificationTaskMapper.selectExpiredLeaseTaskIdsForUpdate(limit - taskIds.size()));
+        }
+        if (taskIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // 2. 在同一事务内写入租约，提交后其他节点不再视其为可认领
+        notificationTaskMapper.claimTasks(taskIds, owner, leaseSeconds);
+
+        List<NotificationTaskPO> pos = notificationTaskMapper.selectByIds(taskIds);
+        log.debug("认领通知任务: owner={}, count={}", owner, pos.size());
+        return pos.stream()
+                .map(notificationTaskConverter::toDomain)
+                .collect(Collectors.toList());
+    }
 }
@@ -6,20 +6,33 @@ import lombok.extern.slf4j.Slf4j;
 import org.example.domain.model.order.Order;
 import org.example.domain.model.order.repository.OrderRepository;
 import org.example.domain.model.order.valueobject.OrderStatus;
+import org.example.domain.service.event.IDomainEventPublisher;
+import org.example.domain.service.team.IOpenTeamIndex;
 import org.example.domain.shared.IdGenerator;
+import org.example.infrastructure.cache.OrderCacheService;
 import org.example.infrastructure.persistence.converter.OrderConverter;
 import org.example.infrastructure.persistence.mapper.OrderMapper;
+import org.example.infrastructure.persistence.po.OrderCounterPO;
 import org.example.infrastructure.persistence.po.OrderPO;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
  * Order 仓储实现
+ *
+ * <p>
+ * findById 优先读取 {@link OrderCacheService}（Redis Hash），计数器/状态的原子更新在事务提交后同步写入缓存；
+ * 同时维护可加入拼团索引 {@link IOpenTeamIndex}
+ *
+ * <p>
+ * 每次 beforeWrite 都在 finally 中配对 afterXxxWrite，SQL 抛异常时也登记写结束（回滚后撤销在途计数）
  */
 @Slf4j
 @Repository
@@ -28,6 +41,9 @@ public class OrderRepositoryImpl implements OrderRepository {
 
     private final OrderMapper orderMapper;
     private final IdGenerator idGenerator;
+    private final IDomainEventPublisher domainEventPublisher;
+    private final OrderCacheService orderCacheService;
+    private final IOpenTeamIndex openTeamIndex;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -37,28 +53,68 @@ public class OrderRepositoryImpl implements OrderRepository {
 
         // MyBatis-Plus 会根据主键是否存在自动判断 INSERT/UPDATE
         // 对于有乐观锁的聚合，insertOrUpdate 会自动处理版本号
-        boolean success = orderMapper.insertOrUpdate(orderPO);
+        orderCacheService.beforeWrite(order.getOrderId());
+        boolean success = false;
+        try {
+            success = orderMapper.insertOrUpdate(orderPO);
+        } finally {
+            // SQL 抛异常时同样登记写结束，回滚后撤销在途计数，不会阻塞回填到在途计数过期
+            orderCacheService.afterSave(order.getOrderId());
+        }
         if (!success) {
             throw new RuntimeException("订单保存失败（可能是版本冲突）: orderId=" + order.getOrderId());
         }
+        if (order.getStatus() == OrderStatus.PENDING) {
+            openTeamIndex.upsert(order.getActivityId(), order.getOrderId(), order.getLockCount(),
+                    order.getTargetCount(), order.getDeadlineTime());
+        } else {
+            openTeamIndex.remove(order.getOrderId());
+        }
         log.info("【OrderRepository】保存订单成功, orderId: {}", order.getOrderId());
+        domainEventPublisher.publish(order.getDomainEvents());
     }
 
     @Override
     public Optional<Order> findById(String orderId) {
-        // 查询主单
-        LambdaQueryWrapper<OrderPO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(OrderPO::getOrderId, orderId);
+        if (!orderCacheService.isReadable(orderId)) {
+            return Optional.ofNullable(selectById(orderId)).map(OrderConverter.INSTANCE::toDomain);
+        }
 
-        OrderPO orderPO = orderMapper.selectOne(wrapper);
+        // 优先读缓存，未命中时持租约查库并回填（查库结果可能来自从库或事务旧快照时只查不回填）
+        OrderPO orderPO = orderCacheService.get(orderId);
         if (orderPO == null) {
-            return Optional.empty();
+            String lease = orderCacheService.isFillable() ? orderCacheService.acquireLease(orderId) : null;
+            orderPO = selectById(orderId);
+            if (orderPO == null) {
+                return Optional.empty();
+            }
+            if (lease != null) {
+                orderCacheService.fill(orderPO, lease);
+            }
         }
 
         Order order = OrderConverter.INSTANCE.toDomain(orderPO);
         return Optional.of(order);
     }
 
+    @Override
+    public List<Order> findByIds(Collection<String> orderIds) {
+        if (orderIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        LambdaQueryWrapper<OrderPO> wrapper = new LambdaQueryWrapper<>();
+        wrapper.in(OrderPO::getOrderId, orderIds);
+        return orderMapper.selectList(wrapper).stream()
+                .map(OrderConverter.INSTANCE::toDomain)
+                .collect(Collectors.toList());
+    }
+
+    private OrderPO selectById(String orderId) {
+        LambdaQueryWrapper<OrderPO> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(OrderPO::getOrderId, orderId);
+        return orderMapper.selectOne(wrapper);
+    }
+
     @Override
     public List<Order> findPendingOrdersByActivity(String activityId) {
         LambdaQueryWrapper<OrderPO> wrapper = new LambdaQueryWrapper<>();
@@ -71,6 +127,33 @@ public class OrderRepositoryImpl implements OrderRepository {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<Order> findJoinablePendingByActivity(String activityId, int offset, int limit) {
+        List<OrderPO> poList = orderMapper.selectList(joinablePendingWrapper(activityId)
+                .last("ORDER BY lock_count / target_count DESC, deadline_time ASC LIMIT "
+                        + Math.max(0, offset) + ", " + Math.max(0, limit)));
+        return poList.stream()
+                .map(OrderConverter.INSTANCE::toDomain)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long countJoinablePendingByActivity(String activityId) {
+        return orderMapper.selectCount(joinablePendingWrapper(activityId));
+    }
+
+    /**
+     * 可加入拼团条件：进行中、未截止、未满员（idx_activity_id 定位活动）
+     */
+    private LambdaQueryWrapper<OrderPO> joinablePendingWrapper(String activityId) {
+        LambdaQueryWrapper<OrderPO> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(OrderPO::getActivityId, activityId)
+                .eq(OrderPO::getStatus, OrderStatus.PENDING.name())
+                .gt(OrderPO::getDeadlineTime, LocalDateTime.now())
+                .apply("lock_count < target_count");
+        return wrapper;
+    }
+
     @Override
     public List<Order> findTimeoutOrders() {
         List<OrderPO> poList = orderMapper.selectTimeoutOrders();
@@ -95,68 +178,95 @@ public class OrderRepositoryImpl implements OrderRepository {
         OrderPO po = new OrderPO();
         po.setStatus(status.name());
 
-        orderMapper.update(po, wrapper);
+        orderCacheService.beforeWrite(orderId);
+        int rows = 0;
+        try {
+            rows = orderMapper.update(po, wrapper);
+        } finally {
+            if (rows > 0) {
+                orderCacheService.afterStatusWrite(orderId, status);
+            } else {
+                orderCacheService.afterCounterWrite(orderId, 0, 0);
+            }
+        }
+        if (rows > 0 && status != OrderStatus.PENDING) {
+            openTeamIndex.remove(orderId);
+        }
         log.info("【OrderRepository】更新订单状态, orderId: {}, status: {}", orderId, status);
     }
 
     @Override
     public int incrementLockCount(String orderId) {
-        // 原子化更新：通过条件更新保证并发安全
-        int rows = orderMapper.incrementLockCount(orderId);
+        // 原子化更新：条件更新保证并发安全，新值随 UPDATE 一并返回
+        OrderCounterPO counter = new OrderCounterPO(orderId);
+        orderCacheService.beforeWrite(orderId);
+        int rows = 0;
+        try {
+            rows = orderMapper.incrementLockCountReturning(counter);
+        } finally {
+            orderCacheService.afterCounterWrite(orderId, rows > 0 ? 1 : 0, 0);
+        }
 
         if (rows == 0) {
             log.warn("【OrderRepository】锁单量增加失败（拼团已满/已结束/已过期）, orderId: {}", orderId);
             return -1;
         }
 
-        // 查询最新的 lockCount（确保内存与数据库一致）
-        LambdaQueryWrapper<OrderPO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(OrderPO::getOrderId, orderId);
-        OrderPO orderPO = orderMapper.selectOne(wrapper);
-
-        log.info("【OrderRepository】锁单量增加成功, orderId: {}, lockCount: {}/{}",
-                orderId, orderPO.getLockCount(), orderPO.getTargetCount());
-
-        return orderPO.getLockCount();
+        int lockCount = counter.getValue().intValue();
+        openTeamIndex.onLockCountChanged(orderId, lockCount);
+        log.info("【OrderRepository】锁单量增加成功, orderId: {}, lockCount: {}", orderId, lockCount);
+        return lockCount;
     }
 
     @Override
     public boolean decrementLockCount(String orderId) {
         // 原子化更新：通过条件更新保证并发安全
-        int rows = orderMapper.decrementLockCount(orderId);
+        OrderCounterPO counter = new OrderCounterPO(orderId);
+        orderCacheService.beforeWrite(orderId);
+        int rows = 0;
+        try {
+            rows = orderMapper.decrementLockCountReturning(counter);
+        } finally {
+            orderCacheService.afterCounterWrite(orderId, rows > 0 ? -1 : 0, 0);
+        }
 
         if (rows == 0) {
             log.warn("【OrderRepository】锁单量减少失败（lockCount已为0）, orderId: {}", orderId);
             return false;
         }
 
-        log.info("【OrderRepository】锁单量减少成功, orderId: {}", orderId);
+        // 新值为0时驱动不返回生成键
+        int lockCount = counter.getValue() == null ? 0 : counter.getValue().intValue();
+        openTeamIndex.onLockCountChanged(orderId, lockCount);
+        log.info("【OrderRepository】锁单量减少成功, orderId: {}, lockCount: {}", orderId, lockCount);
         return true;
     }
 
     @Override
     public int tryIncrementCompleteCount(String orderId) {
-        // 原子化更新：通过条件更新保证并发安全
-        int rows = orderMapper.incrementCompleteCount(orderId);
+        // 原子化更新：条件更新保证并发安全，新值随 UPDATE 一并返回
+        OrderCounterPO counter = new OrderCounterPO(orderId);
+        orderCacheService.beforeWrite(orderId);
+        int rows = 0;
+        try {
+            rows = orderMapper.incrementCompleteCountReturning(counter);
+        } finally {
+            orderCacheService.afterCounterWrite(orderId, 0, rows > 0 ? 1 : 0);
+        }
 
         if (rows == 0) {
             log.warn("【OrderRepository】原子更新失败（拼团已满/已结束/已过期）, orderId: {}", orderId);
             return -1;
         }
 
-        // 更新成功，查询最新的完成人数
-        LambdaQueryWrapper<OrderPO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(OrderPO::getOrderId, orderId);
-        OrderPO orderPO = orderMapper.selectOne(wrapper);
-
-        log.info("【OrderRepository】原子更新成功, orderId: {}, completeCount: {}/{}, status: {}",
-                orderId, orderPO.getCompleteCount(), orderPO.getTargetCount(), orderPO.getStatus());
-
-        return orderPO.getCompleteCount();
+        int completeCount = counter.getValue().intValue();
+        openTeamIndex.onCompleteCountChanged(orderId, completeCount);
+        log.info("【OrderRepository】原子更新成功, orderId: {}, completeCount: {}", orderId, completeCount);
+        return completeCount;
     }
 
     @Override
     public String nextId() {
-        return "ORD" + idGenerator.nextId();
+        return idGenerator.nextId("ORD");
     }
 }
\ No newline at end of file
@@ -1,26 +1,41 @@
 package org.example.infrastructure.persistence.repository;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.metadata.IPage;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
 import org.example.common.cache.RedisKeyManager;
 import org.example.common.model.PageResult;
 import org.example.domain.model.trade.TradeOrder;
 import org.example.domain.model.trade.repository.TradeOrderRepository;
+import org.example.domain.model.trade.valueobject.TradeOrderReleaseFlags;
+import org.example.domain.model.trade.valueobject.TradeOrderStatusView;
+import org.example.domain.model.trade.valueobject.TradeStatus;
+import org.example.domain.service.event.IDomainEventPublisher;
 import org.example.infrastructure.cache.IRedisService;
 import org.example.infrastructure.persistence.converter.TradeOrderConverter;
 import org.example.infrastructure.persistence.mapper.TradeOrderMapper;
 import org.example.infrastructure.persistence.po.TradeOrderPO;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -42,13 +57,72 @@ public class TradeOrderRepositoryImpl implements TradeOrderRepository {
     private final TradeOrderMapper tradeOrderMapper;
     private final TradeOrderConverter tradeOrderConverter;
     private final IRedisService redisService;
+    private final IDomainEventPublisher domainEventPublisher;
+    private final SqlSessionFactory sqlSessionFactory;
+
+    /** 可归档的终态状态编码 */
+    private static final List<String> FINAL_STATUS_CODES = Arrays.stream(TradeStatus.values())
+            .filter(TradeStatus::isFinal)
+            .map(TradeStatus::getCode)
+            .collect(Collectors.toList());
+
+    /** 自动撮合时从索引头部取出的候选拼团数 */
+    @Value("${trade.auto-match.candidates:8}")
+    private int autoMatchCandidates;
+
+    /** 管理后台分页总数估算上限 */
+    @Value("${trade.admin.count-cap:10000}")
+    private int adminCountCap;
+
+    /** 导出时每段游标读取的行数（每段一个独立会话，按键集续读） */
+    @Value("${trade.admin.export-chunk-size:5000}")
+    private int exportChunkSize;
+
+    /**
+     * 自动撮合脚本：从候选拼团中随机起点依次尝试占用名额，跳过用户已开或已参与的拼团
+     * KEYS[1]=活动可加入拼团ZSET；ARGV[1]=候选数, ARGV[2]=随机起点, ARGV[3]=目标人数, ARGV[4]=名额过期秒数, ARGV[5]=名额Key前缀,
+     * ARGV[6..]=需要跳过的拼团订单ID
+     */
+    private static final String OCCUPY_BEST_TEAM_SCRIPT = """
+            local excluded = {}
+            for j = 6, #ARGV do
+                excluded[ARGV[j]] = true
+            end
+            local members = redis.call('zrevrange', KEYS[1], 0, tonumber(ARGV[1]) + #ARGV - 6)
+            local candidates = {}
+            for _, orderId in ipairs(members) do
+                if not excluded[orderId] and #candidates < tonumber(ARGV[1]) then
+                    candidates[#candidates + 1] = orderId
+                end
+            end
+            local n = #candidates
+            for i = 0, n - 1 do
+                local orderId = candidates[((tonumber(ARGV[2]) + i) % n) + 1]
+                local availableKey = ARGV[5] .. orderId .. ':available'
+                if redis.call('exists', availableKey) == 0 then
+                    redis.call('setex', availableKey, ARGV[4], ARGV[3])
+                end
+                if tonumber(redis.call('get', availableKey)) > 0 then
+                    redis.call('decr', availableKey)
+                    local lockedKey = ARGV[5] .. orderId .. ':locked'
+                    redis.call('incr', lockedKey)
+                    redis.call('expire', lockedKey, ARGV[4])
+                    return orderId
+                end
+            end
+            return false
+            """;
 
     public TradeOrderRepositoryImpl(TradeOrderMapper tradeOrderMapper,
             TradeOrderConverter tradeOrderConverter,
-            IRedisService redisService) {
+            IRedisService redisService,
+            IDomainEventPublisher domainEventPublisher,
+            SqlSessionFactory sqlSessionFactory) {
         this.tradeOrderMapper = tradeOrderMapper;
         this.tradeOrderConverter = tradeOrderConverter;
         this.redisService = redisService;
+        this.domainEventPublisher = domainEventPublisher;
+        this.sqlSessionFactory = sqlSessionFactory;
     }
 
     @Override
@@ -61,6 +135,7 @@ public class TradeOrderRepositoryImpl implements TradeOrderRepository {
         } else {
             log.debug("【TradeOrderRepository】保存交易订单成功, tradeOrderId: {}", tradeOrder.getTradeOrderId());
         }
+        domainEventPublisher.publish(tradeOrder.getDomainEvents());
     }
 
     @Override
@@ -68,6 +143,22 @@ public class TradeOrderRepositoryImpl implements TradeOrderRepository {
         TradeOrderPO po = tradeOrderConverter.toPO(tradeOrder);
         tradeOrderMapper.updateById(po);
         log.debug("【TradeOrderRepository】更新交易订单, tradeOrderId: {}", tradeOrder.getTradeOrderId());
+        domainEventPublisher.publish(tradeOrder.getDomainEvents());
+    }
+
+    @Override
+    public boolean updateIfStatus(TradeOrder tradeOrder, TradeStatus expectedStatus) {
+        TradeOrderPO po = tradeOrderConverter.toPO(tradeOrder);
+        LambdaUpdateWrapper<TradeOrderPO> wrapper = new LambdaUpdateWrapper<>();
+        wrapper.eq(TradeOrderPO::getTradeOrderId, tradeOrder.getTradeOrderId())
+                .eq(TradeOrderPO::getStatus, expectedStatus.getCode());
+        if (tradeOrderMapper.update(po, wrapper) == 0) {
+            log.warn("【TradeOrderRepository】条件更新未命中, tradeOrderId: {}, expected: {}, target: {}",
+                    tradeOrder.getTradeOrderId(), expectedStatus, tradeOrder.getStatus());
+            return false;
+        }
+        domainEventPublisher.publish(tradeOrder.getDomainEvents());
+        return true;
     }
 
     @Override
@@ -80,6 +171,16 @@ public class TradeOrderRepositoryImpl implements TradeOrderRepository {
         return Optional.of(domain);
     }
 
+    @Override
+    public Optional<TradeOrder> findByTradeOrderIdIncludingArchive(String tradeOrderId) {
+        TradeOrderPO po = tradeOrderMapper.selectById(tradeOrderId);
+        if (po == null) {
+            // 热表未命中再回查归档表（主键查询）
+            po = tradeOrderMapper.selectArchivedById(tradeOrderId);
+        }
+        return Optional.ofNullable(po).map(tradeOrderConverter::toDomain);
+    }
+
     @Override
     public Optional<TradeOrder> findByOutTradeNo(String outTradeNo) {
         TradeOrderPO po = tradeOrderMapper.selectByOutTradeNo(outTradeNo);
@@ -98,6 +199,63 @@ public class TradeOrderRepositoryImpl implements TradeOrderRepository {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<TradeOrderStatusView> findStatusByIds(Collection<String> tradeOrderIds) {
+        if (tradeOrderIds == null || tradeOrderIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return tradeOrderMapper.selectStatusByIds(tradeOrderIds).stream()
+                .map(this::toStatusView)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<TradeOrderStatusView> findByOutTradeNos(Collection<String> outTradeNos) {
+        if (outTradeNos == null || outTradeNos.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return tradeOrderMapper.selectStatusByOutTradeNos(outTradeNos).stream()
+                .map(this::toStatusView)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<TradeOrderStatusView> findCreatedBetween(LocalDateTime createdAfter, LocalDateTime createdBefore,
+            LocalDateTime afterTime, String afterId, int limit) {
+        return tradeOrderMapper.selectCreatedBetween(TradeStatus.CREATE.getCode(), createdAfter, createdBefore,
+                        afterTime, afterId, limit)
+                .stream()
+                .map(this::toStatusView)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<TradeOrderReleaseFlags> findReleaseFlags(String tradeOrderId) {
+        TradeOrderPO po = tradeOrderMapper.selectReleaseFlags(tradeOrderId);
+        if (po == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new TradeOrderReleaseFlags(
+                po.getTradeOrderId(),
+                Boolean.TRUE.equals(po.getParticipationCountReleased()),
+                Boolean.TRUE.equals(po.getLockCountReleased()),
+                Boolean.TRUE.equals(po.getSlotReleased()),
+                Boolean.TRUE.equals(po.getInventoryReleased())));
+    }
+
+    /**
+     * 投影PO转状态视图（只读取投影列，跳过MapStruct全量映射）
+     */
+    private TradeOrderStatusView toStatusView(TradeOrderPO po) {
+        return new TradeOrderStatusView(
+                po.getTradeOrderId(),
+                po.getOutTradeNo(),
+                po.getOrderId(),
+                po.getUserId(),
+                po.getStatus() != null ? TradeStatus.fromCode(po.getStatus()) : null,
+                po.getCreateTime());
+    }
+
     @Override
     public List<TradeOrder> findByTeamId(String teamId) {
         List<TradeOrderPO> poList = tradeOrderMapper.selectByTeamId(teamId);
@@ -114,6 +272,13 @@ public class TradeOrderRepositoryImpl implements TradeOrderRepository {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<TradeOrder> findByOrderIdIncludingArchive(String orderId) {
+        return tradeOrderMapper.selectByOrderIdWithArchive(orderId).stream()
+                .map(tradeOrderConverter::toDomain)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public int countByUserIdAndActivityId(String userId, String activityId) {
         return tradeOrderMapper.countByUserIdAndActivityId(userId, activityId);
@@ -209,6 +374,26 @@ public class TradeOrderRepositoryImpl implements TradeOrderRepository {
         // "return redis.call('decr', KEYS[1])";
     }
 
+    @Override
+    public String occupyBestTeamSlot(String activityId, Integer target, Integer validTime,
+            Collection<String> excludeOrderIds) {
+        long expireSeconds = TimeUnit.MINUTES.toSeconds(validTime + 60L);
+        List<Object> args = new ArrayList<>(5 + excludeOrderIds.size());
+        args.add(autoMatchCandidates);
+        args.add(ThreadLocalRandom.current().nextInt(autoMatchCandidates));
+        args.add(target);
+        args.add(expireSeconds);
+        args.add(RedisKeyManager.teamSlotKey(""));
+        args.addAll(excludeOrderIds);
+        String orderId = redisService.executeScriptForString(
+                OCCUPY_BEST_TEAM_SCRIPT,
+                Collections.singletonList(RedisKeyManager.openTeamKey(activityId)),
+                args.toArray());
+
+        log.debug("【TradeOrderRepository】自动撮合占用名额, activityId: {}, orderId: {}", activityId, orderId);
+        return orderId;
+    }
+
     @Override
     public void recoveryTeamSlot(String teamSlotKey, Integer validTime) {
         if (StringUtils.isBlank(teamSlotKey)) {
@@ -232,16 +417,8 @@ public class TradeOrderRepositoryImpl implements TradeOrderRepository {
     @Override
     public BigDecimal sumPayPriceByPayTimeBetween(LocalDateTime start,
             LocalDateTime end) {
-        LambdaQueryWrapper<TradeOrderPO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.select(TradeOrderPO::getPayPrice);
-        wrapper.ge(TradeOrderPO::getPayTime, start);
-        wrapper.le(TradeOrderPO::getPayTime, end);
-        wrapper.eq(TradeOrderPO::getStatus, "PAID"); // 仅统计已支付
-
-        List<TradeOrderPO> list = tradeOrderMapper.selectList(wrapper);
-        return list.stream()
-                .map(TradeOrderPO::getPayPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // 仅统计已支付；数据库内聚合，走覆盖索引 idx_status_pay_time_price
+        return tradeOrderMapper.sumPayPriceByPayTime(TradeStatus.PAID.getCode(), start, end);
     }
 
     @Override
@@ -267,38 +444,59 @@ public class TradeOrderRepositoryImpl implements TradeOrderRepository {
     @Override
     public PageResult<TradeOrder> findByPage(int page, int size, String keyword, String status,
             LocalDateTime startDate, LocalDateTime endDate) {
-        Page<TradeOrderPO> pageParam = new Page<>(
-                page, size);
-        LambdaQueryWrapper<TradeOrderPO> wrapper = new LambdaQueryWrapper<>();
+        // 总数只数到上限，代替每页一次全量 COUNT(*)
+        long total = tradeOrderMapper.countForAdmin(keyword, status, startDate, endDate, adminCountCap);
+        List<TradeOrder> list = tradeOrderMapper.selectForAdmin(keyword, status, startDate, endDate,
+                        (long) Math.max(page - 1, 0) * size, size).stream()
+                .map(tradeOrderConverter::toDomain)
+                .collect(Collectors.toList());
 
-        // Keyword search (Order ID or User ID)
-        if (StringUtils.isNotBlank(keyword)) {
-            wrapper.and(w -> w.eq(TradeOrderPO::getTradeOrderId, keyword)
-                    .or().eq(TradeOrderPO::getUserId, keyword));
-        }
+        return new PageResult<>(list, total, page, size);
+    }
 
-        // Status filter
-        if (StringUtils.isNotBlank(status)) {
-            wrapper.eq(TradeOrderPO::getStatus, status);
-        }
+    @Override
+    public long forEachForExport(String keyword, String status, LocalDateTime startDate, LocalDateTime endDate,
+            Consumer<TradeOrder> consumer) {
+        LocalDateTime afterTime = null;
+        String afterId = null;
+        long total = 0;
+        int chunkRows;
+        do {
+            chunkRows = 0;
+            // 每段独立会话：游标独占连接，段结束即归还，慢客户端不会长时间占用连接
+            try (SqlSession session = sqlSessionFactory.openSession();
+                    Cursor<TradeOrderPO> cursor = session.getMapper(TradeOrderMapper.class)
+                            .streamForExport(keyword, status, startDate, endDate, afterTime, afterId,
+                                    exportChunkSize)) {
+                for (TradeOrderPO po : cursor) {
+                    consumer.accept(tradeOrderConverter.toDomain(po));
+                    afterTime = po.getCreateTime();
+                    afterId = po.getTradeOrderId();
+                    chunkRows++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("关闭交易订单导出游标失败", e);
+            }
+            total += chunkRows;
+        } while (chunkRows == exportChunkSize);
+
+        log.info("【TradeOrderRepository】交易订单导出完成, rows: {}", total);
+        return total;
+    }
 
-        // Date range filter
-        if (startDate != null) {
-            wrapper.ge(TradeOrderPO::getCreateTime, startDate);
-        }
-        if (endDate != null) {
-            wrapper.le(TradeOrderPO::getCreateTime, endDate);
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int archiveFinalOrders(LocalDateTime createdBefore, int batchSize) {
+        List<String> tradeOrderIds = tradeOrderMapper.selectArchivableIds(FINAL_STATUS_CODES, createdBefore,
+                batchSize);
+        if (tradeOrderIds.isEmpty()) {
+            return 0;
         }
-
-        wrapper.orderByDesc(TradeOrderPO::getCreateTime);
-
-        IPage<TradeOrderPO> resultPage = tradeOrderMapper.selectPage(pageParam,
-                wrapper);
-
-        List<TradeOrder> list = resultPage.getRecords().stream()
-                .map(tradeOrderConverter::toDomain)
-                .collect(Collectors.toList());
-
-        return new PageResult<>(list, resultPage.getTotal(), page, size);
+        // 复制时再次校验终态；删除只针对归档表中已存在的行，两步之间的任何偏差都不会丢数据
+        int copied = tradeOrderMapper.copyToArchive(tradeOrderIds, FINAL_STATUS_CODES);
+        int deleted = tradeOrderMapper.deleteArchived(tradeOrderIds);
+        log.debug("【TradeOrderRepository】归档交易订单, selected: {}, copied: {}, deleted: {}",
+                tradeOrderIds.size(), copied, deleted);
+        return deleted;
     }
 }
@@ -9,17 +9,25 @@ import org.aspectj.lang.reflect.MethodSignature;
 import org.example.common.exception.BizException;
 import org.example.common.ratelimit.RateLimit;
 import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * 限流AOP拦截器
  *
  * <p>
  * 拦截带有@RateLimit注解的方法，执行限流检查
  *
+ * <p>
+ * 限流键的SpEL表达式按方法编译一次后缓存，调用时只做求值
+ *
  */
 @Slf4j
 @Aspect
@@ -30,19 +38,24 @@ public class RateLimitAspect {
     private final RedisRateLimiter rateLimiter;
     private final ExpressionParser parser = new SpelExpressionParser();
 
+    /** 已编译的限流键表达式（按方法缓存） */
+    private final Map<Method, Expression> expressionCache = new ConcurrentHashMap<>();
+
     @Around("@annotation(rateLimit)")
     public Object around(ProceedingJoinPoint point, RateLimit rateLimit) throws Throwable {
         // 1. 解析限流键
         String key = parseKey(rateLimit.key(), point);
 
-        log.debug("【限流拦截器】检查限流, key={}, maxRequests={}, windowSeconds={}",
-                key, rateLimit.maxRequests(), rateLimit.windowSeconds());
+        log.debug("【限流拦截器】检查限流, key={}, algorithm={}, maxRequests={}, windowSeconds={}",
+                key, rateLimit.algorithm(), rateLimit.maxRequests(), rateLimit.windowSeconds());
 
         // 2. 尝试获取令牌
         boolean acquired = rateLimiter.tryAcquire(
                 key,
+                rateLimit.algorithm(),
                 rateLimit.maxRequests(),
-                rateLimit.windowSeconds());
+                rateLimit.windowSeconds(),
+                rateLimit.prefetch());
 
         if (!acquired) {
             log.warn("【限流拦截器】请求被限流, key={}", key);
@@ -59,6 +72,9 @@ public class RateLimitAspect {
     private String parseKey(String keyExpression, ProceedingJoinPoint point) {
         try {
             MethodSignature signature = (MethodSignature) point.getSignature();
+            Expression expression = expressionCache.computeIfAbsent(
+                    signature.getMethod(), m -> parser.parseExpression(keyExpression));
+
             String[] paramNames = signature.getParameterNames();
             Object[] args = point.getArgs();
 
@@ -67,7 +83,7 @@ public class RateLimitAspect {
                 context.setVariable(paramNames[i], args[i]);
             }
 
-            return parser.parseExpression(keyExpression).getValue(context, String.class);
+            return expression.getValue(context, String.class);
 
         } catch (Exception e) {
             log.error("【限流拦截器】解析限流键失败, expression={}", keyExpression, e);
@@ -2,26 +2,37 @@ package org.example.infrastructure.ratelimit;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.common.ratelimit.RateLimitAlgorithm;
 import org.example.common.ratelimit.RateLimiter;
 import org.example.infrastructure.cache.IRedisService;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Redis限流器实现
  *
  * <p>
- * 使用Redis计数器实现固定窗口限流
- *
- * <p>
- * 原理：
+ * 支持三种算法，每种算法都是单个Lua脚本（一次往返、原子执行）：
  * <ul>
- * <li>每个请求对Redis key执行INCR操作</li>
- * <li>如果是第一次请求，设置过期时间</li>
- * <li>如果计数超过阈值，拒绝请求</li>
+ * <li>固定窗口：INCRBY + 首次设置过期时间，同一脚本内完成，不会留下永不过期的计数key</li>
+ * <li>滑动日志：ZSET 记录请求时间戳，先清理窗口外记录再判断数量</li>
+ * <li>令牌桶：HASH 保存剩余令牌和上次补充时间，按速率补充后扣减</li>
  * </ul>
  *
+ * <p>
+ * 时间统一取 Redis 服务端时间（TIME），避免多节点时钟不一致
+ *
+ * <p>
+ * 本地预取：prefetch &gt; 1 时一次租用多个令牌，租约内本地扣减，租约最长持续
+ * min(窗口, {@value #MAX_LEASE_MILLIS}ms)，过期未用完的令牌作废；过期租约每
+ * {@value #LEASE_SWEEP_INTERVAL_MILLIS}ms 清理一次，本地只保留近期活跃的 key
+ *
  */
 @Slf4j
 @Component
@@ -34,6 +45,84 @@ public class RedisRateLimiter implements RateLimiter {
     private static final int DEFAULT_MAX_REQUESTS = 3;
     private static final long DEFAULT_WINDOW_SECONDS = 60;
 
+    /** 本地租约最长有效期（毫秒） */
+    private static final long MAX_LEASE_MILLIS = 1000;
+
+    /** 过期租约清理间隔（毫秒） */
+    private static final long LEASE_SWEEP_INTERVAL_MILLIS = 5000;
+
+    private static final String FIXED_WINDOW_PREFIX = "rate_limit:";
+    private static final String SLIDING_LOG_PREFIX = "rate_limit:sliding:";
+    private static final String TOKEN_BUCKET_PREFIX = "rate_limit:bucket:";
+
+    /**
+     * 固定窗口
+     * KEYS[1]=计数key, ARGV[1]=申请数量, ARGV[2]=窗口秒数, ARGV[3]=阈值
+     * 返回实际授予的数量
+     */
+    private static final String FIXED_WINDOW_SCRIPT = """
+            local requested = tonumber(ARGV[1])
+            local limit = tonumber(ARGV[3])
+            local count = redis.call('incrby', KEYS[1], requested)
+            if count == requested or redis.call('ttl', KEYS[1]) == -1 then
+                redis.call('expire', KEYS[1], ARGV[2])
+            end
+            local granted = limit - (count - requested)
+            if granted > requested then granted = requested end
+            if granted < 0 then granted = 0 end
+            return granted
+            """;
+
+    /**
+     * 滑动日志
+     * KEYS[1]=ZSET key, ARGV[1]=窗口毫秒数, ARGV[2]=阈值, ARGV[3]=唯一成员
+     * 返回 1=通过, 0=限流
+     */
+    private static final String SLIDING_LOG_SCRIPT = """
+            local t = redis.call('time')
+            local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)
+            local window = tonumber(ARGV[1])
+            redis.call('zremrangebyscore', KEYS[1], 0, now - window)
+            if redis.call('zcard', KEYS[1]) < tonumber(ARGV[2]) then
+                redis.call('zadd', KEYS[1], now, ARGV[3])
+                redis.call('pexpire', KEYS[1], window)
+                return 1
+            end
+            return 0
+            """;
+
+    /**
+     * 令牌桶
+     * KEYS[1]=HASH key, ARGV[1]=桶容量, ARGV[2]=窗口毫秒数（容量/窗口=补充速率）, ARGV[3]=申请数量
+     * 返回实际授予的数量
+     */
+    private static final String TOKEN_BUCKET_SCRIPT = """
+            local capacity = tonumber(ARGV[1])
+            local window = tonumber(ARGV[2])
+            local requested = tonumber(ARGV[3])
+            local t = redis.call('time')
+            local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)
+            local data = redis.call('hmget', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(data[1])
+            local ts = tonumber(data[2])
+            if tokens == nil or ts == nil then
+                tokens = capacity
+                ts = now
+            end
+            tokens = math.min(capacity, tokens + (now - ts) * capacity / window)
+            local granted = math.min(requested, math.floor(tokens))
+            tokens = tokens - granted
+            redis.call('hset', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+            redis.call('pexpire', KEYS[1], window * 2)
+            return granted
+            """;
+
+    /** 本地令牌租约（按算法+key） */
+    private final ConcurrentMap<String, PermitLease> leases = new ConcurrentHashMap<>();
+
+    /** 上次清理过期租约的时间（System.nanoTime） */
+    private final AtomicLong lastSweepNanos = new AtomicLong(System.nanoTime());
+
     @Override
     public boolean tryAcquire(String key) {
         return tryAcquire(key, DEFAULT_MAX_REQUESTS, DEFAULT_WINDOW_SECONDS);
@@ -41,29 +130,30 @@ public class RedisRateLimiter implements RateLimiter {
 
     @Override
     public boolean tryAcquire(String key, int maxRequests, long windowSeconds) {
-        String rateLimitKey = "rate_limit:" + key;
+        return tryAcquire(key, RateLimitAlgorithm.FIXED_WINDOW, maxRequests, windowSeconds, 0);
+    }
 
+    @Override
+    public boolean tryAcquire(String key, RateLimitAlgorithm algorithm, int maxRequests, long windowSeconds,
+            int prefetch) {
+        // 配置错误不走异常放行分支（令牌桶按 容量/窗口 计算补充速率，窗口为0会除零）
+        if (maxRequests <= 0 || windowSeconds <= 0) {
+            throw new IllegalArgumentException(
+                    "限流配置非法: maxRequests=" + maxRequests + ", windowSeconds=" + windowSeconds);
+        }
         try {
-            // 1. 原子递增
-            Long count = redisService.incr(rateLimitKey);
-
-            if (count == null) {
-                log.warn("【限流器】INCR操作返回null, key={}", key);
-                return true; // 限流器异常时，默认放行
+            boolean acquired;
+            if (prefetch > 1 && algorithm != RateLimitAlgorithm.SLIDING_LOG) {
+                acquired = acquireFromLease(key, algorithm, maxRequests, windowSeconds, prefetch);
+            } else {
+                acquired = acquireFromRedis(key, algorithm, maxRequests, windowSeconds, 1) > 0;
             }
 
-            // 2. 如果是第一次请求，设置过期时间
-            if (count == 1) {
-                redisService.expire(rateLimitKey, windowSeconds, TimeUnit.SECONDS);
+            if (!acquired) {
+                log.warn("【限流器】触发限流, key={}, algorithm={}, max={}, window={}s",
+                        key, algorithm, maxRequests, windowSeconds);
             }
-
-            // 3. 检查是否超过限制
-            if (count > maxRequests) {
-                log.warn("【限流器】触发限流, key={}, count={}, max={}", key, count, maxRequests);
-                return false;
-            }
-
-            return true;
+            return acquired;
 
         } catch (Exception e) {
             log.error("【限流器】执行失败, key={}", key, e);
@@ -74,7 +164,101 @@ public class RedisRateLimiter implements RateLimiter {
 
     @Override
     public void reset(String key) {
-        String rateLimitKey = "rate_limit:" + key;
-        redisService.delete(rateLimitKey);
+        redisService.delete(FIXED_WINDOW_PREFIX + key);
+        redisService.delete(SLIDING_LOG_PREFIX + key);
+        redisService.delete(TOKEN_BUCKET_PREFIX + key);
+        for (RateLimitAlgorithm algorithm : RateLimitAlgorithm.values()) {
+            leases.remove(leaseKey(algorithm, key));
+        }
+    }
+
+    private static String leaseKey(RateLimitAlgorithm algorithm, String key) {
+        return algorithm + ":" + key;
+    }
+
+    /**
+     * 从本地租约扣减，租约耗尽或过期时向Redis批量租用
+     *
+     * <p>
+     * 同一key的补充在租约对象上串行，热点key的并发补充会合并为一次Redis调用
+     */
+    private boolean acquireFromLease(String key, RateLimitAlgorithm algorithm, int maxRequests,
+            long windowSeconds, int prefetch) {
+        long now = System.nanoTime();
+        sweepExpiredLeases(now);
+        PermitLease lease = leases.computeIfAbsent(leaseKey(algorithm, key), k -> new PermitLease());
+        synchronized (lease) {
+            if (lease.remaining > 0 && now < lease.expireAtNanos) {
+                lease.remaining--;
+                return true;
+            }
+
+            long granted = acquireFromRedis(key, algorithm, maxRequests, windowSeconds,
+                    Math.min(prefetch, maxRequests));
+            if (granted <= 0) {
+                lease.remaining = 0;
+                return false;
+            }
+            long leaseMillis = Math.min(TimeUnit.SECONDS.toMillis(windowSeconds), MAX_LEASE_MILLIS);
+            lease.remaining = (int) granted - 1;
+            lease.expireAtNanos = now + TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+            return true;
+        }
+    }
+
+    /**
+     * 清理过期租约，避免每个出现过的 key（用户/IP）都常驻内存
+     *
+     * <p>
+     * 间隔内只有一个线程执行清理；被清理的租约若正被并发使用，其剩余令牌作废，只会更严格而不会超发
+     */
+    private void sweepExpiredLeases(long now) {
+        long last = lastSweepNanos.get();
+        if (now - last < TimeUnit.MILLISECONDS.toNanos(LEASE_SWEEP_INTERVAL_MILLIS)
+                || !lastSweepNanos.compareAndSet(last, now)) {
+            return;
+        }
+        leases.values().removeIf(lease -> lease.isExpired(now));
+    }
+
+    /**
+     * 执行对应算法的Lua脚本
+     *
+     * @return 实际授予的令牌数
+     */
+    private long acquireFromRedis(String key, RateLimitAlgorithm algorithm, int maxRequests,
+            long windowSeconds, int permits) {
+        long windowMillis = TimeUnit.SECONDS.toMillis(windowSeconds);
+        Long result = switch (algorithm) {
+            case SLIDING_LOG -> redisService.executeScript(
+                    SLIDING_LOG_SCRIPT,
+                    Collections.singletonList(SLIDING_LOG_PREFIX + key),
+                    windowMillis, maxRequests, UUID.randomUUID().toString());
+            case TOKEN_BUCKET -> redisService.executeScript(
+                    TOKEN_BUCKET_SCRIPT,
+                    Collections.singletonList(TOKEN_BUCKET_PREFIX + key),
+                    maxRequests, windowMillis, permits);
+            case FIXED_WINDOW -> redisService.executeScript(
+                    FIXED_WINDOW_SCRIPT,
+                    Collections.singletonList(FIXED_WINDOW_PREFIX + key),
+                    permits, windowSeconds, maxRequests);
+        };
+        if (result == null) {
+            log.warn("【限流器】脚本返回null, key={}, algorithm={}", key, algorithm);
+            return permits; // 限流器异常时，默认放行
+        }
+        return result;
+    }
+
+    /**
+     * 本地令牌租约
+     */
+    private static final class PermitLease {
+        private int remaining;
+        private volatile long expireAtNanos;
+
+        boolean isExpired(long now) {
+            return now - expireAtNanos >= 0;
+        }
     }
 }
@@ -0,0 +1,137 @@
+package org.example.infrastructure.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.infrastructure.persistence.mapper.CrowdTagDetailMapper;
+import org.example.infrastructure.persistence.po.CrowdTagDetailPO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 人群标签明细写缓冲
+ *
+ * <p>
+ * 职责：
+ * <ul>
+ * <li>合并增量维护产生的明细变更：同一 (tagId, userId) 只保留最后一次加入/移除</li>
+ * <li>按固定间隔或缓冲达到批次大小时批量落库（加入走批量 upsert，移除按标签批量删除）</li>
+ * </ul>
+ *
+ * <p>
+ * 明细表只是 BitMap 失效时的兜底数据源，允许秒级延迟；进程异常退出丢失的变更由定期全量对账修正
+ *
+ */
+@Slf4j
+@Component
+public class CrowdTagDetailWriteBuffer {
+
+    private final CrowdTagDetailMapper crowdTagDetailMapper;
+    private final ScheduledExecutorService flusher;
+    private final int batchSize;
+
+    /** 待落库变更：key=(tagId, userId)，value=true加入/false移除 */
+    private Map<TagUser, Boolean> pending = new LinkedHashMap<>();
+
+    public CrowdTagDetailWriteBuffer(CrowdTagDetailMapper crowdTagDetailMapper,
+            @Value("${crowd-tag.calculate.batch-size:1000}") int batchSize,
+            @Value("${crowd-tag.incremental.flush-interval-ms:1000}") long flushIntervalMs) {
+        this.crowdTagDetailMapper = crowdTagDetailMapper;
+        this.batchSize = batchSize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "crowd-tag-detail-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 记录用户加入标签
+     */
+    public void add(String tagId, String userId) {
+        put(new TagUser(tagId, userId), true);
+    }
+
+    /**
+     * 记录用户移出标签
+     */
+    public void remove(String tagId, String userId) {
+        put(new TagUser(tagId, userId), false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        flushQuietly();
+    }
+
+    private void put(TagUser key, boolean member) {
+        boolean full;
+        synchronized (this) {
+            pending.put(key, member);
+            full = pending.size() >= batchSize;
+        }
+        if (full) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("【标签明细缓冲】批量落库失败", e);
+        }
+    }
+
+    private void flush() {
+        Map<TagUser, Boolean> drained;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            drained = pending;
+            pending = new LinkedHashMap<>();
+        }
+
+        List<CrowdTagDetailPO> upserts = new ArrayList<>();
+        Map<String, List<String>> removals = new HashMap<>();
+        for (Map.Entry<TagUser, Boolean> entry : drained.entrySet()) {
+            TagUser key = entry.getKey();
+            if (entry.getValue()) {
+                upserts.add(CrowdTagDetailPO.builder().tagId(key.tagId()).userId(key.userId()).build());
+            } else {
+                removals.computeIfAbsent(key.tagId(), tagId -> new ArrayList<>()).add(key.userId());
+            }
+        }
+
+        LocalDateTime version = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < upserts.size(); i += batchSize) {
+            crowdTagDetailMapper.batchUpsert(upserts.subList(i, Math.min(i + batchSize, upserts.size())), version);
+        }
+        for (Map.Entry<String, List<String>> entry : removals.entrySet()) {
+            List<String> userIds = entry.getValue();
+            for (int i = 0; i < userIds.size(); i += batchSize) {
+                crowdTagDetailMapper.deleteByTagIdAndUserIds(entry.getKey(),
+                        userIds.subList(i, Math.min(i + batchSize, userIds.size())));
+            }
+        }
+
+        log.debug("【标签明细缓冲】批量落库完成, upserts: {}, removals: {}", upserts.size(), drained.size() - upserts.size());
+    }
+
+    private record TagUser(String tagId, String userId) {
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.infrastructure.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.common.exception.BizException;
+import org.example.domain.service.lock.IOrderMailbox;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 拼团订单邮箱（进程内）实现
+ *
+ * <p>
+ * 职责：
+ * <ul>
+ * <li>每个 orderId 一个公平锁，等待者按到达顺序依次执行，邮箱在无人使用时移除</li>
+ * <li>存在活动事务时在事务完成（提交/回滚）后才交出串行权，否则任务结束即交出</li>
+ * <li>排队超过 order-mailbox.wait-timeout-ms 抛出异常，由调用方（回调队列）按退避策略重试</li>
+ * </ul>
+ *
+ * <p>
+ * 只做进程内串行，不产生任何 Redis 往返
+ *
+ */
+@Slf4j
+@Service
+public class LocalOrderMailbox implements IOrderMailbox {
+
+    private final ConcurrentMap<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    @Value("${order-mailbox.wait-timeout-ms:30000}")
+    private long waitTimeoutMs;
+
+    @Override
+    public <T> T call(String orderId, Supplier<T> task) {
+        Mailbox mailbox = enter(orderId);
+        boolean acquired = false;
+        try {
+            acquired = mailbox.lock.tryLock(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (!acquired) {
+                leave(orderId, mailbox);
+            }
+        }
+        if (!acquired) {
+            log.warn("【订单邮箱】排队超时, orderId: {}, waiting: {}", orderId, mailbox.lock.getQueueLength());
+            throw new BizException("拼团订单处理排队超时");
+        }
+
+        boolean deferred = false;
+        try {
+            T result = task.get();
+            deferred = releaseAfterCompletion(orderId, mailbox);
+            return result;
+        } finally {
+            if (!deferred) {
+                release(orderId, mailbox);
+            }
+        }
+    }
+
+    /**
+     * 有活动事务时注册事务完成回调交出串行权（同一线程执行，满足 ReentrantLock 归属要求）
+     */
+    private boolean releaseAfterCompletion(String orderId, Mailbox mailbox) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                release(orderId, mailbox);
+            }
+        });
+        return true;
+    }
+
+    private Mailbox enter(String orderId) {
+        return mailboxes.compute(orderId, (key, existing) -> {
+            Mailbox mailbox = existing != null ? existing : new Mailbox();
+            mailbox.users++;
+            return mailbox;
+        });
+    }
+
+    private void release(String orderId, Mailbox mailbox) {
+        mailbox.lock.unlock();
+        leave(orderId, mailbox);
+    }
+
+    private void leave(String orderId, Mailbox mailbox) {
+        mailboxes.computeIfPresent(orderId, (key, existing) -> {
+            if (existing != mailbox) {
+                return existing;
+            }
+            return --existing.users == 0 ? null : existing;
+        });
+    }
+
+    /**
+     * 单个 orderId 的邮箱：users 为持有或等待中的调用数，只在 compute 中读写
+     */
+    private static final class Mailbox {
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private int users;
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.infrastructure.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.common.cache.RedisKeyManager;
+import org.example.domain.service.idempotency.IIdempotencyLedger;
+import org.example.domain.service.idempotency.IdempotencyRecord;
+import org.example.infrastructure.cache.IRedisService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis幂等台账实现
+ *
+ * <p>
+ * Key：idem:{bizKey}；Value：
+ * <ul>
+ * <li>P:{token} - 处理中（短TTL，进程崩溃后自动过期）</li>
+ * <li>D:{resultId} - 已完成（长TTL，重复请求直接返回结果）</li>
+ * </ul>
+ *
+ * <p>
+ * Redis异常时返回 UNAVAILABLE，由调用方降级到数据库校验（与限流器一致，故障时放行）
+ *
+ */
+@Slf4j
+@Service
+public class RedisIdempotencyLedger implements IIdempotencyLedger {
+
+    private static final String PROCESSING_PREFIX = "P:";
+    private static final String COMPLETED_PREFIX = "D:";
+
+    /** 轮询等待的初始/最大间隔（毫秒） */
+    private static final long MIN_POLL_INTERVAL_MS = 10;
+    private static final long MAX_POLL_INTERVAL_MS = 200;
+
+    /**
+     * 比较并删除：只释放属于自己的占位，避免误删其他请求的台账
+     */
+    private static final String RELEASE_SCRIPT = """
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('del', KEYS[1])
+            end
+            return 0
+            """;
+
+    private final IRedisService redisService;
+
+    @Value("${idempotency.processing-ttl-seconds:30}")
+    private long processingTtlSeconds;
+
+    @Value("${idempotency.completed-ttl-hours:24}")
+    private long completedTtlHours;
+
+    public RedisIdempotencyLedger(IRedisService redisService) {
+        this.redisService = redisService;
+    }
+
+    @Override
+    public IdempotencyRecord begin(String bizKey) {
+        String key = RedisKeyManager.idempotencyKey(bizKey);
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = redisService.setNx(key, PROCESSING_PREFIX + token,
+                    processingTtlSeconds, TimeUnit.SECONDS);
+            if (Boolean.TRUE.equals(acquired)) {
+                return IdempotencyRecord.acquired(token);
+            }
+            IdempotencyRecord existing = parse(redisService.getString(key));
+            // 占位与读取之间原记录被释放，视为处理中，交给调用方等待/重试
+            return existing.state() == IdempotencyRecord.State.ABSENT ? IdempotencyRecord.processing() : existing;
+        } catch (Exception e) {
+            log.error("【幂等台账】占位失败，降级到数据库校验, key={}", key, e);
+            return IdempotencyRecord.unavailable();
+        }
+    }
+
+    @Override
+    public IdempotencyRecord await(String bizKey, long timeoutMillis) {
+        String key = RedisKeyManager.idempotencyKey(bizKey);
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long interval = MIN_POLL_INTERVAL_MS;
+        try {
+            while (true) {
+                IdempotencyRecord record = parse(redisService.getString(key));
+                if (record.state() != IdempotencyRecord.State.PROCESSING) {
+                    return record;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return record;
+                }
+                Thread.sleep(Math.min(interval, remaining));
+                interval = Math.min(interval * 2, MAX_POLL_INTERVAL_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return IdempotencyRecord.processing();
+        } catch (Exception e) {
+            log.error("【幂等台账】等待失败, key={}", key, e);
+            return IdempotencyRecord.unavailable();
+        }
+    }
+
+    @Override
+    public void complete(String bizKey, String resultId) {
+        String key = RedisKeyManager.idempotencyKey(bizKey);
+        try {
+            redisService.setString(key, COMPLETED_PREFIX + resultId, completedTtlHours, TimeUnit.HOURS);
+        } catch (Exception e) {
+            // 写入失败不影响业务结果：后续重复请求会降级到数据库唯一键兜底
+            log.error("【幂等台账】记录结果失败, key={}, resultId={}", key, resultId, e);
+        }
+    }
+
+    @Override
+    public void release(String bizKey, String token) {
+        String key = RedisKeyManager.idempotencyKey(bizKey);
+        try {
+            redisService.executeScript(RELEASE_SCRIPT, Collections.singletonList(key), PROCESSING_PREFIX + token);
+        } catch (Exception e) {
+            // 释放失败时占位会在短TTL后自动过期
+            log.error("【幂等台账】释放占位失败, key={}", key, e);
+        }
+    }
+
+    @Override
+    public void invalidate(String bizKey) {
+        String key = RedisKeyManager.idempotencyKey(bizKey);
+        try {
+            redisService.delete(key);
+        } catch (Exception e) {
+            log.error("【幂等台账】作废记录失败, key={}", key, e);
+        }
+    }
+
+    private IdempotencyRecord parse(String value) {
+        if (value == null) {
+            return IdempotencyRecord.absent();
+        }
+        if (value.startsWith(COMPLETED_PREFIX)) {
+            return IdempotencyRecord.completed(value.substring(COMPLETED_PREFIX.length()));
+        }
+        return IdempotencyRecord.processing();
+    }
+}
@@ -0,0 +1,330 @@
+package org.example.infrastructure.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.common.cache.RedisKeyManager;
+import org.example.domain.model.order.Order;
+import org.example.domain.model.order.valueobject.OrderStatus;
+import org.example.domain.service.team.IOpenTeamIndex;
+import org.example.domain.service.team.OpenTeamPage;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBucket;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.client.protocol.ScoredEntry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 可加入拼团索引（Redis ZSET）实现
+ *
+ * <p>
+ * 数据结构：
+ * <ul>
+ * <li>open_team:{activityId} - ZSET，member=orderId，score=锁单千分比 × 10^10 + (10^10 - 截止时间秒)，降序即推荐顺序</li>
+ * <li>open_team_meta:{orderId} - String，activityId|targetCount|deadlineEpochSecond，锁单量变化时据此重算score，截止后自动过期</li>
+ * <li>open_team:{activityId}:built - 已建立标记，过期后查询登记后台重建，修正漏更新造成的偏差</li>
+ * <li>open_team:{activityId}:rebuilding - 重建锁（单飞），存在期间增量更新同时记入 :touched 集合</li>
+ * </ul>
+ *
+ * <p>
+ * 重建结果先写临时Key，发布脚本把 :touched 中的拼团以正式索引的最新值覆盖到临时Key后再 RENAME，
+ * 重建期间的增量 ZADD/ZREM 不会被数据库快照覆盖
+ *
+ * <p>
+ * 索引只用于推荐排序，是否真的能加入仍以数据库条件更新为准；Redis 异常时只记录日志，不影响交易
+ *
+ */
+@Slf4j
+@Service
+public class RedisOpenTeamIndex implements IOpenTeamIndex {
+
+    /** score 中截止时间所占的位数 */
+    private static final long DEADLINE_RADIX = 10_000_000_000L;
+
+    private static final String META_SEPARATOR = "|";
+    private static final String META_SEPARATOR_REGEX = "\\|";
+
+    /** 元数据在截止时间之后的保留时长，供超时任务移除拼团时定位活动 */
+    private static final long META_GRACE_SECONDS = 3600;
+
+    /** 重建锁时长：覆盖一次从数据库加载并发布的耗时，持有者崩溃后自动释放 */
+    private static final Duration REBUILD_LOCK_TTL = Duration.ofSeconds(60);
+
+    /**
+     * 增量更新：score 为空时移除；重建进行中时记入 touched 集合
+     * KEYS[1]=索引, KEYS[2]=重建锁, KEYS[3]=touched；ARGV[1]=orderId, ARGV[2]=score
+     */
+    private static final String UPDATE_SCRIPT = """
+            if ARGV[2] == '' then
+                redis.call('zrem', KEYS[1], ARGV[1])
+            else
+                redis.call('zadd', KEYS[1], ARGV[2], ARGV[1])
+            end
+            local ttl = redis.call('pttl', KEYS[2])
+            if ttl > 0 then
+                redis.call('sadd', KEYS[3], ARGV[1])
+                redis.call('pexpire', KEYS[3], ttl)
+            end
+            return 1
+            """;
+
+    /**
+     * 发布重建结果：touched 中的拼团以正式索引为准，然后 RENAME 覆盖并释放重建锁
+     * KEYS[1]=索引, KEYS[2]=临时Key, KEYS[3]=touched, KEYS[4]=重建锁；返回覆盖的拼团数
+     */
+    private static final String PUBLISH_SCRIPT = """
+            local touched = redis.call('smembers', KEYS[3])
+            for _, orderId in ipairs(touched) do
+                local score = redis.call('zscore', KEYS[1], orderId)
+                if score then
+                    redis.call('zadd', KEYS[2], score, orderId)
+                else
+                    redis.call('zrem', KEYS[2], orderId)
+                end
+            end
+            if redis.call('exists', KEYS[2]) == 1 then
+                redis.call('rename', KEYS[2], KEYS[1])
+            else
+                redis.call('del', KEYS[1])
+            end
+            redis.call('del', KEYS[3], KEYS[4])
+            return #touched
+            """;
+
+    private final RedissonClient redissonClient;
+
+    @Value("${open-team-index.rebuild-interval-minutes:30}")
+    private long rebuildIntervalMinutes;
+
+    public RedisOpenTeamIndex(RedissonClient redissonClient) {
+        this.redissonClient = redissonClient;
+    }
+
+    @Override
+    public void upsert(String activityId, String orderId, int lockCount, int targetCount,
+            LocalDateTime deadlineTime) {
+        afterCommit(() -> {
+            if (lockCount >= targetCount) {
+                removeNow(orderId);
+                return;
+            }
+            long deadline = deadlineTime.atZone(ZoneId.systemDefault()).toEpochSecond();
+            meta(orderId).set(activityId + META_SEPARATOR + targetCount + META_SEPARATOR + deadline,
+                    metaTtl(deadline));
+            update(activityId, orderId, score(lockCount, targetCount, deadline));
+        });
+    }
+
+    @Override
+    public void onLockCountChanged(String orderId, int lockCount) {
+        afterCommit(() -> {
+            String value = meta(orderId).get();
+            if (value == null) {
+                return;
+            }
+            String[] parts = value.split(META_SEPARATOR_REGEX);
+            String activityId = parts[0];
+            int targetCount = Integer.parseInt(parts[1]);
+            long deadline = Long.parseLong(parts[2]);
+            // 满员时只移出有序集合，保留元数据：释放名额后可重新收录
+            if (lockCount >= targetCount) {
+                update(activityId, orderId, null);
+            } else {
+                update(activityId, orderId, score(lockCount, targetCount, deadline));
+            }
+        });
+    }
+
+    @Override
+    public void onCompleteCountChanged(String orderId, int completeCount) {
+        afterCommit(() -> {
+            String value = meta(orderId).get();
+            if (value != null && completeCount >= Integer.parseInt(value.split(META_SEPARATOR_REGEX)[1])) {
+                removeNow(orderId);
+            }
+        });
+    }
+
+    @Override
+    public void remove(String orderId) {
+        afterCommit(() -> removeNow(orderId));
+    }
+
+    @Override
+    public boolean isBuilt(String activityId) {
+        try {
+            return redissonClient.getBucket(RedisKeyManager.openTeamBuiltKey(activityId)).isExists();
+        } catch (Exception e) {
+            log.error("【拼团索引】检查索引失败, activityId: {}", activityId, e);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean exists(String activityId) {
+        return teams(activityId).isExists();
+    }
+
+    @Override
+    public boolean tryLockRebuild(String activityId) {
+        try {
+            return redissonClient.getBucket(RedisKeyManager.openTeamRebuildLockKey(activityId), StringCodec.INSTANCE)
+                    .setIfAbsent("1", REBUILD_LOCK_TTL);
+        } catch (Exception e) {
+            log.error("【拼团索引】抢占重建锁失败, activityId: {}", activityId, e);
+            return false;
+        }
+    }
+
+    @Override
+    public void rebuild(String activityId, List<Order> pendingOrders) {
+        long now = System.currentTimeMillis() / 1000;
+        Map<Object, Double> members = new HashMap<>();
+        RBatch metas = redissonClient.createBatch();
+        for (Order order : pendingOrders) {
+            if (order.getStatus() != OrderStatus.PENDING || order.getDeadlineTime() == null
+                    || order.getLockCount() >= order.getTargetCount()) {
+                continue;
+            }
+            long deadline = order.getDeadlineTime().atZone(ZoneId.systemDefault()).toEpochSecond();
+            if (deadline <= now) {
+                continue;
+            }
+            members.put(order.getOrderId(), score(order.getLockCount(), order.getTargetCount(), deadline));
+            metas.getBucket(RedisKeyManager.openTeamMetaKey(order.getOrderId()), StringCodec.INSTANCE)
+                    .setAsync(activityId + META_SEPARATOR + order.getTargetCount() + META_SEPARATOR + deadline,
+                            metaTtl(deadline));
+        }
+
+        String lockKey = RedisKeyManager.openTeamRebuildLockKey(activityId);
+        String buildingKey = RedisKeyManager.openTeamKey(activityId) + ":building:" + UUID.randomUUID();
+        try {
+            // 先写临时Key，发布脚本合并重建期间的增量更新后 RENAME 覆盖，查询不会看到半成品
+            if (!members.isEmpty()) {
+                metas.execute();
+                redissonClient.getScoredSortedSet(buildingKey, StringCodec.INSTANCE).addAll(members);
+            }
+            Long merged = redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE,
+                    PUBLISH_SCRIPT, RScript.ReturnType.LONG,
+                    List.of(RedisKeyManager.openTeamKey(activityId), buildingKey,
+                            RedisKeyManager.openTeamTouchedKey(activityId), lockKey));
+            redissonClient.getBucket(RedisKeyManager.openTeamBuiltKey(activityId), StringCodec.INSTANCE)
+                    .set("1", Duration.ofMinutes(rebuildIntervalMinutes));
+            log.info("【拼团索引】重建完成, activityId: {}, pending: {}, indexed: {}, merged: {}",
+                    activityId, pendingOrders.size(), members.size(), merged);
+        } catch (Exception e) {
+            log.error("【拼团索引】重建失败, activityId: {}", activityId, e);
+            try {
+                redissonClient.getKeys().delete(buildingKey, lockKey);
+            } catch (Exception ex) {
+                log.warn("【拼团索引】释放重建锁失败，等待过期, activityId: {}", activityId, ex);
+            }
+        }
+    }
+
+    @Override
+    public OpenTeamPage page(String activityId, int offset, int limit) {
+        RScoredSortedSet<String> teams = teams(activityId);
+        Collection<ScoredEntry<String>> entries = teams.entryRangeReversed(offset, offset + limit - 1);
+
+        long now = System.currentTimeMillis() / 1000;
+        List<String> orderIds = new ArrayList<>(entries.size());
+        List<String> expired = new ArrayList<>();
+        for (ScoredEntry<String> entry : entries) {
+            if (deadlineOf(entry.getScore()) <= now) {
+                expired.add(entry.getValue());
+            } else {
+                orderIds.add(entry.getValue());
+            }
+        }
+
+        // 惰性剔除已过期的拼团（超时任务会将其标记为失败，这里提前移出推荐列表）
+        if (!expired.isEmpty()) {
+            teams.removeAll(expired);
+            redissonClient.getKeys().delete(expired.stream()
+                    .map(RedisKeyManager::openTeamMetaKey)
+                    .toArray(String[]::new));
+        }
+        return new OpenTeamPage(orderIds, teams.size());
+    }
+
+    /**
+     * 锁单千分比为主序、截止时间早者为次序
+     */
+    private static double score(int lockCount, int targetCount, long deadlineEpochSecond) {
+        long permille = targetCount <= 0 ? 0 : lockCount * 1000L / targetCount;
+        return permille * DEADLINE_RADIX + (DEADLINE_RADIX - deadlineEpochSecond);
+    }
+
+    private static long deadlineOf(double score) {
+        return DEADLINE_RADIX - ((long) score % DEADLINE_RADIX);
+    }
+
+    private static Duration metaTtl(long deadlineEpochSecond) {
+        long remaining = deadlineEpochSecond - System.currentTimeMillis() / 1000;
+        return Duration.ofSeconds(Math.max(1, remaining) + META_GRACE_SECONDS);
+    }
+
+    private void removeNow(String orderId) {
+        String value = meta(orderId).getAndDelete();
+        if (value != null) {
+            update(value.substring(0, value.indexOf(META_SEPARATOR)), orderId, null);
+        }
+    }
+
+    /**
+     * 修改正式索引（score 为 null 时移除），重建进行中时同时登记到 touched 集合
+     */
+    private void update(String activityId, String orderId, Double score) {
+        redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE, UPDATE_SCRIPT,
+                RScript.ReturnType.LONG,
+                List.of(RedisKeyManager.openTeamKey(activityId), RedisKeyManager.openTeamRebuildLockKey(activityId),
+                        RedisKeyManager.openTeamTouchedKey(activityId)),
+                orderId, score == null ? "" : Long.toString(score.longValue()));
+    }
+
+    private RScoredSortedSet<String> teams(String activityId) {
+        return redissonClient.getScoredSortedSet(RedisKeyManager.openTeamKey(activityId), StringCodec.INSTANCE);
+    }
+
+    private RBucket<String> meta(String orderId) {
+        return redissonClient.getBucket(RedisKeyManager.openTeamMetaKey(orderId), StringCodec.INSTANCE);
+    }
+
+    /**
+     * 事务提交后执行（无事务时立即执行），回滚的变更不会进入索引
+     */
+    private void afterCommit(Runnable action) {
+        Runnable guarded = () -> {
+            try {
+                action.run();
+            } catch (Exception e) {
+                log.error("【拼团索引】更新失败", e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guarded.run();
+                }
+            });
+        } else {
+            guarded.run();
+        }
+    }
+}
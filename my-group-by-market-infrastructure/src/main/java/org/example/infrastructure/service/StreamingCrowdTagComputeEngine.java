@@ -0,0 +1,151 @@
+package org.example.infrastructure.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.example.domain.model.tag.valueobject.TagRule;
+import org.example.domain.service.tag.ICrowdTagComputeEngine;
+import org.example.infrastructure.cache.CrowdTagCacheService;
+import org.example.infrastructure.persistence.mapper.CrowdTagDetailMapper;
+import org.example.infrastructure.persistence.po.CrowdTagCandidatePO;
+import org.example.infrastructure.persistence.po.CrowdTagDetailPO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 流式人群标签计算引擎
+ *
+ * <p>
+ * 计算流程：
+ * <ol>
+ * <li>独立会话打开候选用户游标（用户 LEFT JOIN 窗口内交易汇总），逐行按规则求值</li>
+ * <li>命中用户直接置位到本地 BitSet，同时攒批写入明细表（带本轮版本时间）</li>
+ * <li>扫描结束后删除版本早于本轮的明细（本轮未命中的用户）</li>
+ * <li>本地 BitSet 整体发布到 Redis（临时 Key + 重放扫描期间的增量翻转 + RENAME）</li>
+ * </ol>
+ *
+ * <p>
+ * 内存占用：BitSet 上限约 1.2MB（索引空间 1000 万）+ 一个明细批次，与用户总量无关
+ *
+ * <p>
+ * 增量刷新：按统计窗口分组，每个窗口只查询一次该用户的交易汇总，再逐个标签求值并翻转位图
+ *
+ */
+@Slf4j
+@Service
+public class StreamingCrowdTagComputeEngine implements ICrowdTagComputeEngine {
+
+    private final SqlSessionFactory sqlSessionFactory;
+    private final CrowdTagDetailMapper crowdTagDetailMapper;
+    private final CrowdTagCacheService cacheService;
+    private final CrowdTagDetailWriteBuffer detailWriteBuffer;
+
+    @Value("${crowd-tag.calculate.batch-size:1000}")
+    private int batchSize;
+
+    public StreamingCrowdTagComputeEngine(SqlSessionFactory sqlSessionFactory,
+            CrowdTagDetailMapper crowdTagDetailMapper,
+            CrowdTagCacheService cacheService,
+            CrowdTagDetailWriteBuffer detailWriteBuffer) {
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.crowdTagDetailMapper = crowdTagDetailMapper;
+        this.cacheService = cacheService;
+        this.detailWriteBuffer = detailWriteBuffer;
+    }
+
+    @Override
+    public long compute(String tagId, TagRule rule) {
+        // 明细表 update_time 精度为秒，版本时间截断到秒
+        LocalDateTime version = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime since = rule.tradeWindowStart(version);
+        long startNanos = System.nanoTime();
+
+        BitSet bitmap = new BitSet();
+        List<CrowdTagDetailPO> batch = new ArrayList<>(batchSize);
+        long scanned = 0;
+        long matched = 0;
+
+        // 重建期间的增量翻转记入日志，发布时重放，不会被 RENAME 覆盖
+        cacheService.beginTagRebuild(tagId);
+        int removed;
+        try {
+            // 游标独占连接：扫描在独立会话中进行，明细写入走另一个连接
+            try (SqlSession session = sqlSessionFactory.openSession();
+                    Cursor<CrowdTagCandidatePO> candidates = session.getMapper(CrowdTagDetailMapper.class)
+                            .streamTagCandidates(rule.requiresTradeStats(), since)) {
+                for (CrowdTagCandidatePO candidate : candidates) {
+                    scanned++;
+                    long orderCount = candidate.getOrderCount() != null ? candidate.getOrderCount() : 0L;
+                    if (!rule.matches(candidate.getRole(), candidate.getCreateTime(), orderCount, candidate.getGmv())) {
+                        continue;
+                    }
+
+                    matched++;
+                    bitmap.set(cacheService.bitIndexOf(candidate.getUserId()));
+                    batch.add(CrowdTagDetailPO.builder().tagId(tagId).userId(candidate.getUserId()).build());
+                    if (batch.size() >= batchSize) {
+                        crowdTagDetailMapper.batchUpsert(batch, version);
+                        batch.clear();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("关闭标签候选游标失败", e);
+            }
+
+            if (!batch.isEmpty()) {
+                crowdTagDetailMapper.batchUpsert(batch, version);
+            }
+            removed = crowdTagDetailMapper.deleteStaleByTagId(tagId, version);
+
+            cacheService.publishTagBitmap(tagId, bitmap);
+        } catch (RuntimeException e) {
+            cacheService.abortTagRebuild(tagId);
+            throw e;
+        }
+
+        log.info("【人群标签引擎】计算完成, tagId: {}, scanned: {}, matched: {}, removed: {}, cost: {}ms",
+                tagId, scanned, matched, removed, (System.nanoTime() - startNanos) / 1_000_000);
+        return matched;
+    }
+
+    @Override
+    public void refreshUser(String userId, Map<String, TagRule> rules) {
+        LocalDateTime now = LocalDateTime.now();
+        // 同一窗口的标签共享一次查询（key=窗口起点，全部历史用 Optional.empty()）
+        Map<Optional<LocalDateTime>, CrowdTagCandidatePO> candidates = new HashMap<>();
+
+        for (Map.Entry<String, TagRule> entry : rules.entrySet()) {
+            String tagId = entry.getKey();
+            TagRule rule = entry.getValue();
+            Optional<LocalDateTime> since = Optional.ofNullable(rule.tradeWindowStart(now));
+            CrowdTagCandidatePO candidate = candidates.computeIfAbsent(since,
+                    key -> crowdTagDetailMapper.selectTagCandidate(userId, true, key.orElse(null)));
+            if (candidate == null) {
+                log.warn("【人群标签引擎】用户不存在，跳过增量刷新, userId: {}", userId);
+                return;
+            }
+
+            long orderCount = candidate.getOrderCount() != null ? candidate.getOrderCount() : 0L;
+            if (rule.matches(candidate.getRole(), candidate.getCreateTime(), orderCount, candidate.getGmv())) {
+                if (cacheService.addUserToTag(tagId, userId)) {
+                    detailWriteBuffer.add(tagId, userId);
+                }
+            } else if (cacheService.removeUserFromTag(tagId, userId)) {
+                detailWriteBuffer.remove(tagId, userId);
+            }
+        }
+        log.debug("【人群标签引擎】增量刷新完成, userId: {}, tags: {}", userId, rules.size());
+    }
+}
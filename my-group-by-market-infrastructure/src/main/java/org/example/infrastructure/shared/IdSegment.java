@@ -0,0 +1,10 @@
+package org.example.infrastructure.shared;
+
+/**
+ * ID 号段：[start, start + size) 内的 ID 归当前节点独占
+ *
+ * @param start 号段内第一个 ID
+ * @param size  号段大小
+ */
+public record IdSegment(long start, long size) {
+}
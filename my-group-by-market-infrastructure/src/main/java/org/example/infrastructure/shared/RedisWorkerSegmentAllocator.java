@@ -0,0 +1,191 @@
+package org.example.infrastructure.shared;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.common.cache.RedisKeyManager;
+import org.example.infrastructure.cache.IRedisService;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 Redis worker 租约的号段分配器
+ *
+ * <p>
+ * ID 布局（63 位，恒为正数）：
+ *
+ * <pre>
+ * | 号段序号 32 位（起点为自 2024-01-01 起的秒数）| worker ID 10 位 | 号段内序号 21 位 |
+ * </pre>
+ * <p>
+ * 职责：
+ * <ul>
+ * <li>启动时从 Redis 租用一个空闲 worker ID（SET NX + 过期时间），后台定期续约，关闭时释放</li>
+ * <li>每次分配取 max(当前秒数, 该 worker 已分配的最大号段 + 1) 作为新号段序号，并写回高水位（不过期）</li>
+ * <li>不同 worker 的号段天然不相交；同一 worker 换主或重启后从高水位之后继续，不会重复</li>
+ * <li>租约丢失（如 Redis 故障切换）时重新租用 worker ID 后再分配</li>
+ * </ul>
+ * <p>
+ * 每个号段含 2^21 个 ID，正常流量下一个号段可用很久，Redis 只在号段切换时访问一次
+ *
+ */
+@Slf4j
+public class RedisWorkerSegmentAllocator implements SegmentAllocator, AutoCloseable {
+
+    /** 号段序号起点：2024-01-01T00:00:00Z */
+    static final long EPOCH_SECONDS = 1704067200L;
+
+    static final int WORKER_BITS = 10;
+    static final int SEQUENCE_BITS = 21;
+    static final int MAX_WORKERS = 1 << WORKER_BITS;
+    static final long SEGMENT_SIZE = 1L << SEQUENCE_BITS;
+    static final long MAX_SEGMENT = (1L << (63 - WORKER_BITS - SEQUENCE_BITS)) - 1;
+
+    /**
+     * 租用 worker：KEYS[1]=租约Key；ARGV[1]=实例ID, ARGV[2]=租期毫秒
+     */
+    private static final String ACQUIRE_SCRIPT = """
+            if redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+                return 1
+            end
+            return 0
+            """;
+
+    /**
+     * 续约：仅当租约仍属于本实例
+     */
+    private static final String RENEW_SCRIPT = """
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('pexpire', KEYS[1], ARGV[2])
+            end
+            return 0
+            """;
+
+    /**
+     * 释放：仅当租约仍属于本实例
+     */
+    private static final String RELEASE_SCRIPT = """
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('del', KEYS[1])
+            end
+            return 0
+            """;
+
+    /**
+     * 分配号段：KEYS[1]=租约Key, KEYS[2]=高水位Key；ARGV[1]=实例ID, ARGV[2]=当前秒数序号
+     * 返回新号段序号，租约不属于本实例时返回 -1
+     */
+    private static final String ALLOCATE_SCRIPT = """
+            if redis.call('get', KEYS[1]) ~= ARGV[1] then
+                return -1
+            end
+            local segment = tonumber(ARGV[2])
+            local max = tonumber(redis.call('get', KEYS[2]) or '-1')
+            if max >= segment then
+                segment = max + 1
+            end
+            redis.call('set', KEYS[2], segment)
+            return segment
+            """;
+
+    private final IRedisService redisService;
+    private final long leaseMillis;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ScheduledExecutorService renewScheduler;
+
+    /** 当前租用的 worker ID，-1 表示未持有 */
+    private volatile int workerId = -1;
+
+    public RedisWorkerSegmentAllocator(IRedisService redisService, long leaseMillis) {
+        this.redisService = redisService;
+        this.leaseMillis = leaseMillis;
+        this.renewScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "id-worker-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long renewInterval = Math.max(leaseMillis / 3, 1);
+        renewScheduler.scheduleWithFixedDelay(this::renew, renewInterval, renewInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized IdSegment allocate() {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            int worker = workerId >= 0 ? workerId : acquireWorker();
+            Long segment = redisService.executeScript(ALLOCATE_SCRIPT,
+                    List.of(RedisKeyManager.idWorkerLeaseKey(worker), RedisKeyManager.idWorkerMaxSegmentKey(worker)),
+                    instanceId, nowSegment());
+            if (segment != null && segment >= 0) {
+                if (segment > MAX_SEGMENT) {
+                    throw new IllegalStateException("ID 号段序号溢出: " + segment);
+                }
+                return new IdSegment((segment << (WORKER_BITS + SEQUENCE_BITS))
+                        | ((long) worker << SEQUENCE_BITS), SEGMENT_SIZE);
+            }
+            log.warn("【ID生成器】worker 租约已丢失，重新租用, workerId: {}", worker);
+            workerId = -1;
+        }
+        throw new IllegalStateException("无法分配 ID 号段：worker 租约反复丢失");
+    }
+
+    /**
+     * 从随机位置开始依次尝试租用空闲 worker ID
+     */
+    private int acquireWorker() {
+        int offset = ThreadLocalRandom.current().nextInt(MAX_WORKERS);
+        for (int i = 0; i < MAX_WORKERS; i++) {
+            int candidate = (offset + i) % MAX_WORKERS;
+            Long acquired = redisService.executeScript(ACQUIRE_SCRIPT,
+                    List.of(RedisKeyManager.idWorkerLeaseKey(candidate)), instanceId, leaseMillis);
+            if (acquired != null && acquired == 1L) {
+                workerId = candidate;
+                log.info("【ID生成器】租用 worker 成功, workerId: {}, instanceId: {}", candidate, instanceId);
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("无法分配 ID 号段：" + MAX_WORKERS + " 个 worker ID 均被占用");
+    }
+
+    private void renew() {
+        int worker = workerId;
+        if (worker < 0) {
+            return;
+        }
+        try {
+            Long renewed = redisService.executeScript(RENEW_SCRIPT,
+                    List.of(RedisKeyManager.idWorkerLeaseKey(worker)), instanceId, leaseMillis);
+            if (renewed == null || renewed == 0L) {
+                // 已分配的号段仍然有效（高水位保证不重复），下次分配时重新租用
+                log.warn("【ID生成器】worker 续约失败，租约已丢失, workerId: {}", worker);
+                workerId = -1;
+            }
+        } catch (Exception e) {
+            log.warn("【ID生成器】worker 续约异常, workerId: {}, error: {}", worker, e.getMessage());
+        }
+    }
+
+    private static long nowSegment() {
+        return System.currentTimeMillis() / 1000 - EPOCH_SECONDS;
+    }
+
+    public int getWorkerId() {
+        return workerId;
+    }
+
+    @Override
+    public void close() {
+        renewScheduler.shutdownNow();
+        int worker = workerId;
+        if (worker >= 0) {
+            try {
+                redisService.executeScript(RELEASE_SCRIPT,
+                        List.of(RedisKeyManager.idWorkerLeaseKey(worker)), instanceId);
+            } catch (Exception e) {
+                log.warn("【ID生成器】释放 worker 失败，等待租约过期, workerId: {}, error: {}", worker, e.getMessage());
+            }
+        }
+    }
+}
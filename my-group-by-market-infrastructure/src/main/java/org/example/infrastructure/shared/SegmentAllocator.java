@@ -0,0 +1,19 @@
+package org.example.infrastructure.shared;
+
+/**
+ * ID 号段分配器
+ *
+ * <p>
+ * 每次调用返回一个与所有节点历史上分配过的号段都不重叠的新号段；可能访问远程存储，调用方应异步预取
+ */
+@FunctionalInterface
+public interface SegmentAllocator {
+
+    /**
+     * 分配下一个号段
+     *
+     * @return 新号段
+     * @throws IllegalStateException 无法分配时
+     */
+    IdSegment allocate();
+}
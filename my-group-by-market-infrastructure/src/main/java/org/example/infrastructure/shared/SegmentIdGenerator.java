@@ -0,0 +1,127 @@
+package org.example.infrastructure.shared;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.domain.shared.IdGenerator;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 号段模式 ID 生成器（双缓冲）
+ *
+ * <p>
+ * 职责：
+ * <ul>
+ * <li>从 {@link SegmentAllocator} 预分配号段，号段内的 ID 由本节点独占</li>
+ * <li>nextId 无锁：对当前号段的 AtomicLong 游标自增，不访问远程存储</li>
+ * <li>当前号段消耗到预取阈值时，后台线程异步分配下一个号段；耗尽时直接切换，分配延迟不落在请求线程上</li>
+ * <li>预取失败或尚未完成时，切换号段的线程同步等待/重试分配，仍失败则抛出 IllegalStateException</li>
+ * </ul>
+ *
+ */
+@Slf4j
+public class SegmentIdGenerator implements IdGenerator, AutoCloseable {
+
+    private final SegmentAllocator allocator;
+    private final double prefetchThreshold;
+    private final ExecutorService prefetchExecutor;
+
+    /** 当前号段 */
+    private volatile ActiveSegment current;
+
+    /** 预取中的下一个号段（双缓冲的第二块），只在持有本对象锁时读写 */
+    private CompletableFuture<IdSegment> next;
+
+    /**
+     * @param allocator         号段分配器
+     * @param prefetchThreshold 当前号段消耗到该比例时预取下一个号段（0~1）
+     */
+    public SegmentIdGenerator(SegmentAllocator allocator, double prefetchThreshold) {
+        if (prefetchThreshold <= 0 || prefetchThreshold >= 1) {
+            throw new IllegalArgumentException("prefetchThreshold 必须在 (0, 1) 之间: " + prefetchThreshold);
+        }
+        this.allocator = allocator;
+        this.prefetchThreshold = prefetchThreshold;
+        this.prefetchExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "id-segment-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.current = activate(allocator.allocate());
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            ActiveSegment segment = current;
+            long offset = segment.cursor.getAndIncrement();
+            if (offset < segment.size) {
+                if (offset == segment.prefetchAt) {
+                    // 恰好一个线程拿到阈值位置，由它触发预取
+                    prefetch(segment);
+                }
+                return segment.start + offset;
+            }
+            switchFrom(segment);
+        }
+    }
+
+    private synchronized void prefetch(ActiveSegment owner) {
+        if (current == owner && next == null) {
+            next = CompletableFuture.supplyAsync(allocator::allocate, prefetchExecutor);
+        }
+    }
+
+    /**
+     * 当前号段耗尽：切换到预取的号段（其它线程已切换时直接返回）
+     */
+    private synchronized void switchFrom(ActiveSegment exhausted) {
+        if (current != exhausted) {
+            return;
+        }
+        IdSegment segment = null;
+        if (next != null) {
+            try {
+                segment = next.join();
+            } catch (CompletionException e) {
+                log.warn("【ID生成器】号段预取失败，同步重新分配, error: {}", e.getCause().getMessage());
+            }
+            next = null;
+        } else {
+            log.warn("【ID生成器】号段耗尽时预取尚未开始，同步分配（号段过小或消耗过快）");
+        }
+        if (segment == null) {
+            segment = allocator.allocate();
+        }
+        current = activate(segment);
+    }
+
+    private ActiveSegment activate(IdSegment segment) {
+        log.info("【ID生成器】启用号段, start: {}, size: {}", segment.start(), segment.size());
+        return new ActiveSegment(segment.start(), segment.size(), (long) (segment.size() * prefetchThreshold));
+    }
+
+    @Override
+    public void close() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    /**
+     * 使用中的号段：游标超过 size 即视为耗尽（并发自增可能越过 size，越界值直接丢弃）
+     */
+    private static final class ActiveSegment {
+        private final long start;
+        private final long size;
+        private final long prefetchAt;
+        private final AtomicLong cursor = new AtomicLong();
+
+        private ActiveSegment(long start, long size, long prefetchAt) {
+            this.start = start;
+            this.size = size;
+            this.prefetchAt = prefetchAt;
+        }
+    }
+}
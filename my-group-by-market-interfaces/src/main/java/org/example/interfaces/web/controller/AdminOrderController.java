@@ -1,13 +1,16 @@
 package org.example.interfaces.web.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.application.service.admin.AdminOrderService;
 import org.example.application.service.admin.result.OrderResult;
 import org.example.application.service.admin.result.TradeOrderResult;
 import org.example.common.api.Result;
+import org.example.common.exception.BizException;
 import org.example.interfaces.web.assembler.AdminOrderAssembler;
 import org.example.interfaces.web.dto.admin.AdminTradeOrderResponse;
 import org.example.interfaces.web.dto.admin.OrderResponse;
@@ -16,9 +19,17 @@ import org.example.common.model.PageResult;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 /**
@@ -35,6 +46,14 @@ public class AdminOrderController {
 
     private final AdminOrderService adminOrderService;
     private final AdminOrderAssembler adminOrderAssembler;
+    private final ObjectMapper objectMapper;
+
+    private static final DateTimeFormatter EXPORT_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter EXPORT_FILE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final String CSV_HEADER = "交易订单ID,拼团订单ID,队伍ID,活动ID,用户ID,SKU,商品名称,原价,减免,实付,"
+            + "状态,外部交易单号,支付时间,结算时间,来源,渠道,创建时间,退款原因,退款时间";
+    /** 表格软件视为公式起始的字符 */
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
 
     // ============== 交易订单 ==============
 
@@ -61,6 +80,85 @@ public class AdminOrderController {
         return Result.success(pageResponse);
     }
 
+    @GetMapping("/export")
+    @Operation(summary = "导出交易订单", description = "按筛选条件流式导出交易订单（format=csv|ndjson）")
+    public void exportOrders(
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "keyword", required = false) String keyword,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "startDate", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate startDate,
+            @RequestParam(value = "endDate", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate endDate,
+            HttpServletResponse response) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            throw new BizException("不支持的导出格式: " + format);
+        }
+        log.info("【AdminOrder】导出交易订单, format: {}, keyword: {}, status: {}, startDate: {}, endDate: {}",
+                format, keyword, status, startDate, endDate);
+        LocalDateTime start = startDate != null ? startDate.atStartOfDay() : null;
+        LocalDateTime end = endDate != null ? endDate.atTime(LocalTime.MAX) : null;
+
+        String fileName = "trade-orders-" + LocalDateTime.now().format(EXPORT_FILE_FORMAT) + (csv ? ".csv" : ".ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setHeader("Content-Disposition", "attachment; filename=" + fileName);
+
+        // 逐行写入响应流，不在内存中累积；缓冲区满时自动刷出
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        if (csv) {
+            // UTF-8 BOM，Excel 打开中文不乱码
+            writer.write('\uFEFF');
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        long rows = adminOrderService.exportTradeOrders(keyword, status, start, end, result -> {
+            AdminTradeOrderResponse row = adminOrderAssembler.toTradeOrderResponse(result);
+            try {
+                writer.write(csv ? toCsvLine(row) : objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            } catch (IOException e) {
+                // 客户端断开等写入失败：中止导出，释放游标
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+        log.info("【AdminOrder】导出交易订单完成, rows: {}", rows);
+    }
+
+    private static String toCsvLine(AdminTradeOrderResponse row) {
+        return String.join(",",
+                csvField(row.getTradeOrderId()), csvField(row.getOrderId()), csvField(row.getTeamId()),
+                csvField(row.getActivityId()), csvField(row.getUserId()), csvField(row.getSkuId()),
+                csvField(row.getGoodsName()), csvField(row.getOriginalPrice()), csvField(row.getDeductionPrice()),
+                csvField(row.getPayPrice()), csvField(row.getStatus()), csvField(row.getOutTradeNo()),
+                csvField(row.getPayTime()), csvField(row.getSettlementTime()), csvField(row.getSource()),
+                csvField(row.getChannel()), csvField(row.getCreateTime()), csvField(row.getRefundReason()),
+                csvField(row.getRefundTime()));
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text;
+        if (value instanceof LocalDateTime time) {
+            text = time.format(EXPORT_TIME_FORMAT);
+        } else if (value instanceof BigDecimal amount) {
+            text = amount.toPlainString();
+        } else {
+            text = value.toString();
+            // CSV 公式注入：以 = + - @ 制表符或回车开头的文本会被 Excel 当作公式执行，加单引号按纯文本显示
+            if (!text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+                text = "'" + text;
+            }
+        }
+        // RFC 4180：含逗号、引号、换行的字段用双引号包裹，内部引号转义
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
     // ============== 拼团订单 ==============
 
     @GetMapping("/{orderId}")
@@ -9,6 +9,7 @@ import org.example.application.service.customer.CustomerGoodsService;
 import org.example.application.service.customer.query.PriceTrialQuery;
 import org.example.application.service.customer.result.*;
 import org.example.common.api.Result;
+import org.example.common.model.PageResult;
 import org.example.domain.shared.AuthContextService;
 import org.example.interfaces.web.assembler.CustomerGoodsAssembler;
 import org.example.interfaces.web.dto.customer.*;
@@ -62,7 +63,7 @@ public class CustomerGoodsController {
      * 拼团队伍列表（SPU维度）
      */
     @GetMapping("/{spuId}/teams")
-    @Operation(summary = "拼团队伍列表", description = "查询SPU的进行中拼团队伍。不同规格（SKU）的用户可以在同一队伍中一起拼团。例如：256GB和512GB的用户可以在同一队伍中成团。")
+    @Operation(summary = "拼团队伍列表", description = "查询SPU最适合加入的前20个拼团队伍。不同规格（SKU）的用户可以在同一队伍中一起拼团。例如：256GB和512GB的用户可以在同一队伍中成团。")
     public Result<List<TeamListResponse>> listTeams(
             @Parameter(description = "SPU ID", required = true) @PathVariable String spuId) {
         log.info("【CustomerGoodsController】查询拼团队伍, spuId: {}", spuId);
@@ -73,6 +74,23 @@ public class CustomerGoodsController {
         return Result.success(responses);
     }
 
+    /**
+     * 最适合加入的拼团队伍（分页）
+     */
+    @GetMapping("/{spuId}/teams/best")
+    @Operation(summary = "推荐拼团队伍", description = "按锁单比例降序、截止时间升序分页返回可加入的拼团队伍")
+    public Result<PageResult<TeamListResponse>> pageBestTeams(
+            @Parameter(description = "SPU ID", required = true) @PathVariable String spuId,
+            @Parameter(description = "页码") @RequestParam(defaultValue = "1") int page,
+            @Parameter(description = "每页数量") @RequestParam(defaultValue = "20") int size) {
+        log.info("【CustomerGoodsController】查询推荐拼团队伍, spuId: {}, page: {}, size: {}", spuId, page, size);
+
+        PageResult<TeamListResult> result = customerGoodsService.pageBestTeams(spuId, page, size);
+        List<TeamListResponse> responses = customerGoodsAssembler.toTeamListResponse(result.getList());
+
+        return Result.success(PageResult.of(responses, result.getTotal(), result.getPage(), result.getSize()));
+    }
+
     /**
      * SPU 列表（新版首页）
      */
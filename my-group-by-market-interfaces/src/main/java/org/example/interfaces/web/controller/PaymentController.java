@@ -9,21 +9,28 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.application.service.payment.AlipayPaymentService;
-import org.example.application.service.payment.PaymentCallbackApplicationService;
-import org.example.application.service.payment.result.PaymentQueryResultObj;
+import org.example.application.service.payment.PaymentStatusQueryService;
 import org.example.common.api.Result;
 import org.example.common.exception.BizException;
 import org.example.domain.model.trade.TradeOrder;
 import org.example.domain.model.trade.repository.TradeOrderRepository;
+import org.example.domain.model.trade.valueobject.TradeOrderStatusView;
+import org.example.domain.service.payment.IPaymentCallbackQueue;
+import org.example.domain.service.payment.IPaymentStatusProjection;
+import org.example.domain.service.payment.PaymentCallbackMessage;
+import org.example.domain.service.payment.PaymentStatusSnapshot;
 import org.example.domain.shared.AuthContextService;
 import org.example.interfaces.web.assembler.PaymentAssembler;
 import org.example.interfaces.web.dto.payment.PaymentQueryResponse;
 import org.example.interfaces.web.request.CreatePaymentRequest;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
 
 /**
  * 支付控制器
@@ -35,9 +42,14 @@ import java.util.Map;
 @Tag(name = "支付", description = "支付相关接口")
 public class PaymentController {
 
+    /** 长轮询最长等待时间 */
+    private static final long MAX_QUERY_WAIT_MS = 30_000;
+
     private final AlipayPaymentService alipayPaymentService;
     private final PaymentAssembler paymentAssembler;
-    private final PaymentCallbackApplicationService paymentCallbackApplicationService;
+    private final IPaymentCallbackQueue paymentCallbackQueue;
+    private final IPaymentStatusProjection paymentStatusProjection;
+    private final PaymentStatusQueryService paymentStatusQueryService;
     private final TradeOrderRepository tradeOrderRepository;
     private final AuthContextService authContextService;
 
@@ -92,15 +104,29 @@ public class PaymentController {
      * <li>前端支付完成后，从支付宝跳转回商户页面，需要立即查询当前订单状态</li>
      * <li>前端页面轮询，确保支付状态同步</li>
      * </ul>
+     *
+     * <p>
+     * 状态来自本地支付状态投影（回调和对账任务写入），不调用支付宝；
+     * 传入 waitMs 时为长轮询：未到终态则挂起，状态变更或超时后返回
      */
     @GetMapping("/query")
-    @Operation(summary = "查询支付", description = "查询支付状态")
-    public Result<PaymentQueryResponse> queryPayment(
-            @Parameter(description = "商户订单号", required = true) @RequestParam String outTradeNo) {
-        log.info("【PaymentController】查询支付, outTradeNo: {}", outTradeNo);
+    @Operation(summary = "查询支付", description = "查询支付状态（支持长轮询）")
+    public DeferredResult<Result<PaymentQueryResponse>> queryPayment(
+            @Parameter(description = "商户订单号", required = true) @RequestParam String outTradeNo,
+            @Parameter(description = "长轮询最长等待毫秒数，0表示立即返回") @RequestParam(defaultValue = "0") long waitMs) {
+        log.debug("【PaymentController】查询支付, outTradeNo: {}, waitMs: {}", outTradeNo, waitMs);
 
-        PaymentQueryResultObj result = alipayPaymentService.queryPayment(outTradeNo);
-        return Result.success(paymentAssembler.toResponse(result));
+        long wait = Math.min(Math.max(waitMs, 0), MAX_QUERY_WAIT_MS);
+        DeferredResult<Result<PaymentQueryResponse>> deferred = new DeferredResult<>(wait + 5000);
+        paymentStatusQueryService.awaitFinal(outTradeNo, wait).whenComplete((result, ex) -> {
+            if (ex == null) {
+                deferred.setResult(Result.success(paymentAssembler.toResponse(result)));
+            } else {
+                deferred.setErrorResult(ex instanceof CompletionException && ex.getCause() != null
+                        ? ex.getCause() : ex);
+            }
+        });
+        return deferred;
     }
 
     /**
@@ -113,8 +139,12 @@ public class PaymentController {
      * <li>验证签名（SDK验签）</li>
      * <li>校验 app_id 是否为本商户</li>
      * <li>校验 seller_id 是否匹配</li>
-     * <li>根据 trade_status 处理业务逻辑</li>
+     * <li>按 out_trade_no + trade_status 去重后写入支付回调队列，立即返回 success</li>
      * </ol>
+     *
+     * <p>
+     * 结算在回调队列消费者中异步完成（同一拼团按到达顺序串行），
+     * 回调请求内只有验签、一次轻量查询和一次 Redis 写入，大促尾部集中回调时不会因处理超时触发支付宝重试
      * 
      * <p>
      * 支付宝文档要求：
@@ -178,23 +208,35 @@ public class PaymentController {
             log.info("【PaymentController】回调详情: outTradeNo={}, tradeStatus={}, totalAmount={}",
                     outTradeNo, tradeStatus, totalAmount);
 
-            // 6. 根据交易状态处理业务
-            if ("TRADE_SUCCESS".equals(tradeStatus) || "TRADE_FINISHED".equals(tradeStatus)) {
-                // 支付成功：调用应用服务（内置事务管理、幂等性检查和金额校验）
-                BigDecimal callbackAmount = totalAmount != null ? new BigDecimal(totalAmount) : null;
-                paymentCallbackApplicationService.handlePaymentSuccess(outTradeNo, callbackAmount);
-
-            } else if ("TRADE_CLOSED".equals(tradeStatus)) {
-                // 交易关闭：释放锁定的名额和库存
-                log.info("【PaymentController】交易关闭，触发退单流程, outTradeNo={}", outTradeNo);
-                try {
-                    paymentCallbackApplicationService.handlePaymentFailure(outTradeNo);
-                } catch (Exception ex) {
-                    // 退单失败只记录日志，不影响返回 success（避免重复通知）
-                    log.error("【PaymentController】交易关闭处理失败, outTradeNo={}", outTradeNo, ex);
-                }
+            // 6. 只受理支付成功/交易关闭（WAIT_BUYER_PAY 状态无需处理）
+            if (!PaymentCallbackMessage.TRADE_SUCCESS.equals(tradeStatus)
+                    && !PaymentCallbackMessage.TRADE_FINISHED.equals(tradeStatus)
+                    && !PaymentCallbackMessage.TRADE_CLOSED.equals(tradeStatus)) {
+                return "success";
+            }
+
+            // 7. 查询所属拼团（队列分区键），订单不存在返回 fail 让支付宝重试
+            List<TradeOrderStatusView> views = tradeOrderRepository.findByOutTradeNos(List.of(outTradeNo));
+            if (views.isEmpty()) {
+                throw new BizException("交易订单不存在, outTradeNo: " + outTradeNo);
+            }
+
+            // 8. 持久化入队后立即应答，结算由分区消费者按拼团顺序异步处理（幂等、金额校验在消费侧）
+            BigDecimal callbackAmount = totalAmount != null ? new BigDecimal(totalAmount) : null;
+            boolean accepted = paymentCallbackQueue.enqueue(new PaymentCallbackMessage(
+                    outTradeNo, tradeStatus, callbackAmount, views.get(0).orderId(), System.currentTimeMillis()));
+            if (!accepted) {
+                log.info("【PaymentController】重复回调已受理过, outTradeNo={}, tradeStatus={}", outTradeNo, tradeStatus);
+            }
+
+            // 9. 更新支付状态投影（查询接口/长轮询立即可见，投影写入失败不影响应答）
+            try {
+                paymentStatusProjection.update(new PaymentStatusSnapshot(outTradeNo, tradeStatus,
+                        params.get("trade_no"), callbackAmount, PaymentStatusSnapshot.SOURCE_CALLBACK,
+                        System.currentTimeMillis()));
+            } catch (Exception e) {
+                log.warn("【PaymentController】支付状态投影更新失败, outTradeNo={}", outTradeNo, e);
             }
-            // WAIT_BUYER_PAY 状态无需处理
 
             return "success";
 
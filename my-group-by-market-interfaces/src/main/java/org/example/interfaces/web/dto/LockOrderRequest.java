@@ -36,6 +36,9 @@ public class LockOrderRequest {
     @Schema(description = "订单ID（加入已有拼团时传入，创建新拼团时为空）")
     private String orderId;
 
+    @Schema(description = "自动撮合：不传orderId时由服务端挑选可加入的拼团，没有则开新团")
+    private boolean autoMatch;
+
     @NotBlank(message = "活动ID不能为空")
     @Schema(description = "活动ID", requiredMode = Schema.RequiredMode.REQUIRED)
     private String activityId;
@@ -0,0 +1,9 @@
+-- ============================================
+-- 通知任务重试调度
+-- 1. 新增 next_retry_time：失败后按指数退避写入下一次允许执行的时间
+-- 2. 调度器只拉取 status = 'PENDING' 且已到重试时间的任务
+-- ============================================
+
+ALTER TABLE notification_task
+    ADD COLUMN next_retry_time DATETIME NULL COMMENT '下一次允许重试的时间（为空表示立即可执行）' AFTER last_execute_time,
+    ADD INDEX idx_status_next_retry_time (status, next_retry_time);
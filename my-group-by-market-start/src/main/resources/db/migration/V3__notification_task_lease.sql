@@ -0,0 +1,10 @@
+-- ============================================
+-- 通知任务租约认领（多节点并行消费）
+-- 1. 调度节点通过 SELECT ... FOR UPDATE SKIP LOCKED 认领任务，写入 lease_owner / lease_expire_time
+-- 2. 租约过期仍处于 PROCESSING 的任务（节点宕机）可被其他节点重新认领
+-- ============================================
+
+ALTER TABLE notification_task
+    ADD COLUMN lease_owner VARCHAR(100) NULL COMMENT '当前持有租约的调度节点' AFTER next_retry_time,
+    ADD COLUMN lease_expire_time DATETIME NULL COMMENT '租约过期时间' AFTER lease_owner,
+    ADD INDEX idx_status_lease_expire_time (status, lease_expire_time);
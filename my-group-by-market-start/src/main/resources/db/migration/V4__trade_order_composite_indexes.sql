@@ -0,0 +1,21 @@
+-- ============================================
+-- 交易订单热点查询的组合/覆盖索引
+-- 1. 单列索引替换为以其为前缀的组合索引（排序列紧随等值列，避免 filesort），原单列索引删除以控制写放大
+-- 2. (status, pay_time, pay_price) 覆盖 GMV 统计，SUM 只读索引不回表
+-- 3. (status, create_time) 服务支付对账扫描及管理后台按状态 + 时间筛选/导出
+-- 4. (create_time) 服务看板计数、最新订单及按 (create_time, trade_order_id) 键集导出（二级索引隐含主键）
+-- 5. out_trade_no 唯一索引 uk_out_trade_no 已在 V1 建立，幂等/支付查询直接命中，无需变更
+-- ============================================
+
+ALTER TABLE trade_order
+    DROP INDEX idx_user_id,
+    DROP INDEX idx_team_id,
+    DROP INDEX idx_order_id,
+    DROP INDEX idx_status,
+    ADD INDEX idx_user_create_time (user_id, create_time) COMMENT '用户订单列表（ORDER BY create_time DESC LIMIT）',
+    ADD INDEX idx_user_activity_create_time (user_id, activity_id, create_time) COMMENT '用户在活动下的参与记录/次数',
+    ADD INDEX idx_team_create_time (team_id, create_time) COMMENT '队伍成员订单（按创建时间）',
+    ADD INDEX idx_order_create_time (order_id, create_time) COMMENT '拼团订单下的交易订单（按创建时间）',
+    ADD INDEX idx_status_create_time (status, create_time) COMMENT '按状态 + 创建时间扫描（对账/后台筛选导出）',
+    ADD INDEX idx_status_pay_time_price (status, pay_time, pay_price) COMMENT 'GMV 统计覆盖索引',
+    ADD INDEX idx_create_time (create_time) COMMENT '按创建时间统计/排序/键集导出';
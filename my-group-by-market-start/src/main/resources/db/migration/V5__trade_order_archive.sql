@@ -0,0 +1,15 @@
+-- ============================================
+-- 交易订单冷数据归档表
+-- 1. 结构与 trade_order 完全一致（LIKE 复制列定义与索引），归档以 INSERT ... SELECT * 搬迁，
+--    用户/管理后台查询以 UNION ALL 合并冷热数据；此后修改 trade_order 的迁移必须同步修改本表
+-- 2. 不采用按 create_time 的 RANGE 分区：MySQL 要求分区列出现在每个唯一键中，
+--    需要把主键改为 (trade_order_id, create_time) 并放弃 out_trade_no 全局唯一，代价高于独立归档表
+-- 3. 归档表只接收已是终态的历史数据，out_trade_no 唯一约束改为普通索引（幂等校验只在热表进行）
+-- ============================================
+
+CREATE TABLE trade_order_archive LIKE trade_order;
+
+ALTER TABLE trade_order_archive
+    DROP INDEX uk_out_trade_no,
+    ADD INDEX idx_out_trade_no (out_trade_no) COMMENT '外部交易单号（历史查询）',
+    COMMENT = '交易订单归档表（终态且超过保留天数的历史交易订单）';
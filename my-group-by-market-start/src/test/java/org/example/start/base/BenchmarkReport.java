@@ -0,0 +1,159 @@
+package org.example.start.base;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONWriter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 基准测试报告
+ *
+ * <p>
+ * 职责：
+ * <ul>
+ * <li>汇总各阶段的吞吐和延迟分位数，输出机器可读的 JSON 报告</li>
+ * <li>与已提交的基线比较：P99 上升或 TPS 下降超过容忍度即视为回归</li>
+ * <li>按需把本次结果写回基线（在参考机器上执行，结果随代码提交）</li>
+ * </ul>
+ *
+ */
+@Slf4j
+@Data
+@NoArgsConstructor
+public class BenchmarkReport {
+
+    private String name;
+    private long timestamp;
+    /** 基线自带的容忍度（仅基线使用，未指定 -Dbenchmark.tolerance 时生效） */
+    private Double tolerance;
+    private Map<String, Object> parameters = new LinkedHashMap<>();
+    private Map<String, StageResult> stages = new LinkedHashMap<>();
+
+    public BenchmarkReport(String name) {
+        this.name = name;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    /**
+     * 记录一个阶段的结果
+     *
+     * @param recorder      成功操作的延迟记录器（TPS 按成功样本数计算）
+     * @param elapsedMillis 阶段时长（毫秒）
+     * @param errors        失败/被拒绝的次数（不计入延迟和 TPS）
+     */
+    public BenchmarkReport stage(String stage, LatencyRecorder recorder, long elapsedMillis, int errors) {
+        int count = recorder.count();
+        stages.put(stage, new StageResult(count, errors,
+                elapsedMillis > 0 ? count * 1000.0 / elapsedMillis : 0,
+                recorder.percentileMillis(50), recorder.percentileMillis(95),
+                recorder.percentileMillis(99), recorder.percentileMillis(100)));
+        log.info("【基准】{} - {}, errors={}", name, recorder.summary(elapsedMillis), errors);
+        return this;
+    }
+
+    public BenchmarkReport parameter(String key, Object value) {
+        parameters.put(key, value);
+        return this;
+    }
+
+    public void writeTo(Path path) {
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.writeString(path, JSON.toJSONString(this, JSONWriter.Feature.PrettyFormat), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入基准报告失败: " + path, e);
+        }
+    }
+
+    /**
+     * 读取基线，文件不存在时返回 null
+     */
+    public static BenchmarkReport readBaseline(Path path) {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            return JSON.parseObject(Files.readString(path, StandardCharsets.UTF_8), BenchmarkReport.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取基准基线失败: " + path, e);
+        }
+    }
+
+    /**
+     * 判断本次结果能否与基线比较
+     *
+     * @param baseline 基线（可为 null）
+     * @return 不可比较的原因，可比较时返回 null
+     */
+    public String incomparableReason(BenchmarkReport baseline) {
+        if (baseline == null || baseline.getStages().isEmpty()) {
+            return name + " 没有基线，请在参考机器上以 -Dbenchmark.update-baseline=true 记录后提交";
+        }
+        // 按键排序后的 JSON 文本比较：反序列化后的数值类型（BigDecimal）与写入时（Double）不同，键顺序也不保留
+        if (!JSON.toJSONString(new TreeMap<>(parameters))
+                .equals(JSON.toJSONString(new TreeMap<>(baseline.getParameters())))) {
+            return String.format("%s 参数与基线不同, current: %s, baseline: %s",
+                    name, parameters, baseline.getParameters());
+        }
+        return null;
+    }
+
+    /**
+     * 与基线比较
+     *
+     * <p>
+     * 调用前需先用 {@link #incomparableReason} 确认可比较；基线缺失的阶段记录日志后跳过
+     *
+     * @param baseline  基线
+     * @param tolerance 容忍度，如 0.2 表示 P99 允许上升 20%、TPS 允许下降 20%
+     * @return 回归描述，为空表示未回归
+     */
+    public List<String> regressionsAgainst(BenchmarkReport baseline, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        stages.forEach((stage, current) -> {
+            StageResult expected = baseline.getStages().get(stage);
+            if (expected == null) {
+                log.warn("【基准】{} 阶段 {} 没有基线，跳过", name, stage);
+                return;
+            }
+            if (current.getP99Millis() > expected.getP99Millis() * (1 + tolerance)) {
+                regressions.add(String.format("%s p99 %.1fms > 基线 %.1fms (+%.0f%%)", stage,
+                        current.getP99Millis(), expected.getP99Millis(), tolerance * 100));
+            }
+            if (current.getTps() < expected.getTps() * (1 - tolerance)) {
+                regressions.add(String.format("%s tps %.1f < 基线 %.1f (-%.0f%%)", stage,
+                        current.getTps(), expected.getTps(), tolerance * 100));
+            }
+        });
+        return regressions;
+    }
+
+    /**
+     * 单个阶段的结果
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StageResult {
+        private int count;
+        private int errors;
+        private double tps;
+        private double p50Millis;
+        private double p95Millis;
+        private double p99Millis;
+        private double maxMillis;
+    }
+}
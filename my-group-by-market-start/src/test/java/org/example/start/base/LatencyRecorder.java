@@ -0,0 +1,74 @@
+package org.example.start.base;
+
+import java.util.Arrays;
+
+/**
+ * 延迟记录器
+ *
+ * <p>
+ * 压测/基准测试用：线程安全地记录每次操作的耗时（纳秒），按需计算分位数和吞吐。
+ * 样本全部保留在内存中，适用于十万级以内的样本量。
+ *
+ */
+public class LatencyRecorder {
+
+    private final String name;
+    private long[] samples = new long[1024];
+    private int size;
+
+    public LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public synchronized void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    /**
+     * 记录从 startNanos（System.nanoTime）到现在的耗时
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public synchronized int count() {
+        return size;
+    }
+
+    /**
+     * 计算分位数（最近秩法）
+     *
+     * @param percentile 分位（0-100）
+     * @return 耗时（毫秒），无样本时返回 0
+     */
+    public synchronized double percentileMillis(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * size);
+        return sorted[Math.max(0, Math.min(size, rank) - 1)] / 1_000_000.0;
+    }
+
+    /**
+     * 生成一行摘要：次数、吞吐、P50/P95/P99/最大值
+     *
+     * @param elapsedMillis 压测时长（毫秒），用于计算吞吐
+     */
+    public String summary(long elapsedMillis) {
+        int count = count();
+        double throughput = elapsedMillis > 0 ? count * 1000.0 / elapsedMillis : 0;
+        return String.format("%s: count=%d, throughput=%.1f ops/s, p50=%.1fms, p95=%.1fms, p99=%.1fms, max=%.1fms",
+                name, count, throughput, percentileMillis(50), percentileMillis(95), percentileMillis(99),
+                percentileMillis(100));
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.start.base;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 交易链路测试数据
+ *
+ * <p>
+ * 职责：
+ * <ul>
+ * <li>为秒杀、压测、基准测试插入 折扣 → 活动 → 商品 → 拼团 → 账户 数据</li>
+ * <li>按活动清理上述数据（含交易订单）</li>
+ * </ul>
+ *
+ */
+public class TradeScenarioFixture {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TradeScenarioFixture(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 直减折扣
+     */
+    public void insertDiscount(String discountId, BigDecimal amount) {
+        jdbcTemplate.update(
+                "INSERT INTO discount (discount_id, discount_name, discount_desc, discount_amount, discount_type, " +
+                        "market_plan, market_expr, tag_id, create_time, update_time) " +
+                        "VALUES (?, '测试折扣', '直减', ?, 'DIRECT', 'ZJ', ?, NULL, NOW(), NOW())",
+                discountId, amount, amount.toPlainString());
+    }
+
+    /**
+     * 已生效的公开活动（每人限参与 1 次，拼团有效期 30 分钟）
+     *
+     * @param target 成团人数
+     */
+    public void insertActivity(String activityId, String discountId, int target) {
+        jdbcTemplate.update(
+                "INSERT INTO activity (activity_id, activity_name, activity_desc, discount_id, tag_id, tag_scope, " +
+                        "group_type, target, valid_time, participation_limit, start_time, end_time, status) " +
+                        "VALUES (?, '测试活动', '交易链路测试', ?, NULL, 'OPEN', 0, ?, 1800, 1, " +
+                        "'2026-01-01 00:00:00', '2026-12-31 23:59:59', 'ACTIVE')",
+                activityId, discountId, target);
+    }
+
+    /**
+     * 在售 SPU + SKU，并关联到活动（source=s01, channel=c01）
+     */
+    public void insertGoods(String activityId, String spuId, String skuId, int stock, BigDecimal originalPrice) {
+        jdbcTemplate.update(
+                "INSERT INTO spu (spu_id, spu_name, category_id, brand, description, status) " +
+                        "VALUES (?, '测试商品', 'CAT001', 'TestBrand', '交易链路测试', 'ON_SALE')",
+                spuId);
+        jdbcTemplate.update(
+                "INSERT INTO sku (sku_id, spu_id, goods_name, stock, frozen_stock, original_price, status) " +
+                        "VALUES (?, ?, '测试商品SKU', ?, 0, ?, 'ON_SALE')",
+                skuId, spuId, stock, originalPrice);
+        jdbcTemplate.update(
+                "INSERT INTO activity_goods (activity_id, spu_id, source, channel) VALUES (?, ?, 's01', 'c01')",
+                activityId, spuId);
+    }
+
+    /**
+     * 进行中的拼团（lockCount = 0，30 分钟后截止），Redis 名额由锁单时的 Lua 脚本初始化
+     */
+    public void insertTeam(String orderId, String teamId, String activityId, String spuId, int targetCount,
+            BigDecimal originalPrice, BigDecimal deductionPrice) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(
+                "INSERT INTO `order` (order_id, activity_id, spu_id, leader_user_id, status, target_count, " +
+                        "lock_count, complete_count, original_price, deduction_price, pay_amount, " +
+                        "start_time, deadline_time, create_time, update_time, team_id) " +
+                        "VALUES (?, ?, ?, 'LEADER_USER', 'PENDING', ?, 0, 0, ?, ?, 0.00, ?, ?, ?, ?, ?)",
+                orderId, activityId, spuId, targetCount, originalPrice, deductionPrice,
+                now, now.plusMinutes(30), now, now, teamId);
+    }
+
+    /**
+     * 参与次数为 0 的账户，accountId 为 "ACC_" + userId
+     */
+    public void insertAccounts(String activityId, List<String> userIds) {
+        List<Object[]> accounts = new ArrayList<>(userIds.size());
+        for (String userId : userIds) {
+            accounts.add(new Object[]{"ACC_" + userId, userId, activityId});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO account (account_id, user_id, activity_id, participation_count, version) " +
+                        "VALUES (?, ?, ?, 0, 1)",
+                accounts);
+    }
+
+    /**
+     * 按依赖反向清理活动下的数据；折扣按 discountId 清理，为 null 时保留
+     */
+    public void cleanup(String activityId, String spuId, String discountId) {
+        jdbcTemplate.update("DELETE FROM trade_order WHERE activity_id = ?", activityId);
+        jdbcTemplate.update("DELETE FROM account WHERE activity_id = ?", activityId);
+        jdbcTemplate.update("DELETE FROM `order` WHERE activity_id = ?", activityId);
+        jdbcTemplate.update("DELETE FROM activity_goods WHERE activity_id = ?", activityId);
+        jdbcTemplate.update("DELETE FROM sku WHERE spu_id = ?", spuId);
+        jdbcTemplate.update("DELETE FROM spu WHERE spu_id = ?", spuId);
+        jdbcTemplate.update("DELETE FROM activity WHERE activity_id = ?", activityId);
+        if (discountId != null) {
+            jdbcTemplate.update("DELETE FROM discount WHERE discount_id = ?", discountId);
+        }
+    }
+}
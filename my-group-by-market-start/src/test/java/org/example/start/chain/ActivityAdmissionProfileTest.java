@@ -0,0 +1,90 @@
+package org.example.start.chain;
+
+import org.example.domain.model.activity.Activity;
+import org.example.domain.model.activity.valueobject.ActivityAdmissionProfile;
+import org.example.domain.model.activity.valueobject.GroupType;
+import org.example.domain.model.activity.valueobject.TagScope;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 活动准入画像测试
+ *
+ * <p>
+ * 测试目的：
+ * <ul>
+ * <li>画像按标签/作用域/次数限制正确编译</li>
+ * <li>同一聚合实例只编译一次</li>
+ * <li>update 及标签、作用域、次数限制的 setter 使缓存的画像失效</li>
+ * </ul>
+ *
+ */
+@DisplayName("活动准入画像测试")
+public class ActivityAdmissionProfileTest {
+
+    @Test
+    @DisplayName("按活动配置编译画像")
+    public void compile_shouldReflectConfig() {
+        assertThat(activity("TAG001", TagScope.STRICT, 1).admissionProfile())
+                .isEqualTo(new ActivityAdmissionProfile(true, true));
+        assertThat(activity("TAG001", TagScope.VISIBLE_ONLY, 0).admissionProfile())
+                .isEqualTo(new ActivityAdmissionProfile(true, false));
+        assertThat(activity("TAG001", TagScope.OPEN, null).admissionProfile())
+                .isEqualTo(new ActivityAdmissionProfile(false, false));
+        assertThat(activity(" ", TagScope.STRICT, 3).admissionProfile())
+                .isEqualTo(new ActivityAdmissionProfile(false, true));
+        assertThat(activity(null, TagScope.STRICT, -1).admissionProfile())
+                .isEqualTo(new ActivityAdmissionProfile(false, false));
+    }
+
+    @Test
+    @DisplayName("同一实例复用已编译的画像")
+    public void profile_shouldBeCachedPerInstance() {
+        Activity activity = activity("TAG001", TagScope.STRICT, 1);
+
+        assertThat(activity.admissionProfile()).isSameAs(activity.admissionProfile());
+    }
+
+    @Test
+    @DisplayName("update 使画像失效")
+    public void update_shouldInvalidateProfile() {
+        Activity activity = activity("TAG001", TagScope.STRICT, 1);
+        assertThat(activity.admissionProfile().crowdTagRequired()).isTrue();
+
+        activity.update("活动", "描述", "DISCOUNT001", null, TagScope.STRICT, GroupType.REAL, 3, 3600, 0,
+                activity.getStartTime(), activity.getEndTime());
+
+        assertThat(activity.admissionProfile()).isEqualTo(new ActivityAdmissionProfile(false, false));
+    }
+
+    @Test
+    @DisplayName("setter 修改准入相关字段后画像失效")
+    public void setters_shouldInvalidateProfile() {
+        Activity activity = activity("TAG001", TagScope.STRICT, 1);
+        assertThat(activity.admissionProfile()).isEqualTo(new ActivityAdmissionProfile(true, true));
+
+        activity.setTagScope(TagScope.OPEN);
+        assertThat(activity.admissionProfile().crowdTagRequired()).isFalse();
+
+        activity.setTagScope(TagScope.STRICT);
+        activity.setTagId(null);
+        assertThat(activity.admissionProfile().crowdTagRequired()).isFalse();
+
+        activity.setParticipationLimit(0);
+        assertThat(activity.admissionProfile().participationLimited()).isFalse();
+
+        activity.setTagId("TAG002");
+        activity.setParticipationLimit(2);
+        assertThat(activity.admissionProfile()).isEqualTo(new ActivityAdmissionProfile(true, true));
+    }
+
+    private static Activity activity(String tagId, TagScope tagScope, Integer participationLimit) {
+        LocalDateTime now = LocalDateTime.now();
+        return Activity.create("ACT001", "活动", "DISCOUNT001", tagId, tagScope, GroupType.REAL, 3, 3600,
+                participationLimit, now.minusDays(1), now.plusDays(1));
+    }
+}
@@ -0,0 +1,229 @@
+package org.example.start.chain;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.common.pattern.chain.model2.ChainExecutor;
+import org.example.common.pattern.chain.model2.IChainHandler;
+import org.example.domain.model.trade.filter.TradeFilterContext;
+import org.example.domain.model.trade.filter.TradeFilterFactory;
+import org.example.domain.model.trade.filter.TradeFilterRequest;
+import org.example.domain.model.trade.filter.TradeFilterResponse;
+import org.example.domain.repository.IConfigRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 冻结责任链分配测试
+ *
+ * <p>
+ * 测试目的：验证冻结后的责任链执行路径不产生堆分配
+ * <p>
+ * 场景：
+ * - 全部放行：每个 handler 返回共享的 allow 响应
+ * - 中途拒绝：返回预先创建的拒绝响应（拒绝日志只在 DEBUG 输出）
+ * <p>
+ * 预期：预热后执行十万次，线程分配字节数远小于每次一个对象（16 字节）
+ *
+ */
+@Slf4j
+@DisplayName("冻结责任链执行路径零分配测试")
+public class ChainExecutorAllocationTest {
+
+    private static final int WARMUP_ITERATIONS = 50_000;
+    private static final int MEASURE_ITERATIONS = 100_000;
+
+    /** 允许的总分配量：远小于每次执行分配一个对象（16B * 100000） */
+    private static final long MAX_ALLOCATED_BYTES = 64 * 1024;
+
+    private final TradeFilterRequest request = TradeFilterRequest.builder()
+            .userId("U001").activityId("ACT001").skuId("SKU001").build();
+    private final TradeFilterContext context = TradeFilterContext.builder().build();
+
+    @Test
+    @DisplayName("全部放行路径不分配对象")
+    public void allowPath_shouldNotAllocate() throws Exception {
+        ChainExecutor<TradeFilterRequest, TradeFilterContext, TradeFilterResponse> chain = new ChainExecutor<>(
+                "分配测试链", allowHandler(), allowHandler(), allowHandler(), allowHandler(), allowHandler(),
+                allowHandler()).freeze();
+
+        long allocated = measure(chain);
+
+        log.info("放行路径分配字节数: {} ({} 次执行)", allocated, MEASURE_ITERATIONS);
+        assertThat(allocated).isLessThan(MAX_ALLOCATED_BYTES);
+    }
+
+    @Test
+    @DisplayName("拒绝路径不分配对象")
+    public void rejectPath_shouldNotAllocate() throws Exception {
+        TradeFilterResponse rejected = TradeFilterResponse.reject("不在目标人群");
+        IChainHandler<TradeFilterRequest, TradeFilterContext, TradeFilterResponse> rejectHandler = (req,
+                ctx) -> rejected;
+        ChainExecutor<TradeFilterRequest, TradeFilterContext, TradeFilterResponse> chain = new ChainExecutor<>(
+                "分配测试链", allowHandler(), allowHandler(), rejectHandler, allowHandler()).freeze();
+
+        assertThat(chain.execute(request, context)).isSameAs(rejected);
+
+        long allocated = measure(chain);
+
+        log.info("拒绝路径分配字节数: {} ({} 次执行)", allocated, MEASURE_ITERATIONS);
+        assertThat(allocated).isLessThan(MAX_ALLOCATED_BYTES);
+    }
+
+    @Test
+    @DisplayName("冻结后不可修改")
+    public void frozenChain_shouldRejectModification() {
+        ChainExecutor<TradeFilterRequest, TradeFilterContext, TradeFilterResponse> source = new ChainExecutor<>(
+                "分配测试链", allowHandler());
+        ChainExecutor<TradeFilterRequest, TradeFilterContext, TradeFilterResponse> frozen = source.freeze();
+
+        source.addHandler(allowHandler());
+
+        assertThat(frozen.isFrozen()).isTrue();
+        assertThat(frozen.size()).isEqualTo(1);
+        assertThat(source.size()).isEqualTo(2);
+        assertThatThrownBy(() -> frozen.addHandler(allowHandler())).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("动态配置关闭人群标签校验后重建过滤链")
+    public void factory_shouldApplyDynamicConfig() {
+        StubConfigRepository config = new StubConfigRepository();
+        TradeFilterFactory factory = new TradeFilterFactory(null, null, null, null, null, null, config);
+        ChainExecutor<TradeFilterRequest, TradeFilterContext, TradeFilterResponse> initial = factory.getFilterChain();
+        assertThat(initial.size()).isEqualTo(6);
+        assertThat(initial.isFrozen()).isTrue();
+
+        config.save("trade.filter.crowd-tag.enabled", "false");
+        // 活动可用性校验为必需环节，关闭配置被忽略
+        config.save("trade.filter.activity-availability.enabled", "false");
+        factory.rebuild();
+
+        assertThat(factory.getFilterChain().size()).isEqualTo(5);
+        assertThat(factory.getFilterChain()).isNotSameAs(initial);
+    }
+
+    @Test
+    @DisplayName("名额与库存占用为必需环节，建议性校验不能排到占用之后")
+    public void factory_shouldKeepCorrectnessStages() {
+        StubConfigRepository config = new StubConfigRepository();
+        TradeFilterFactory factory = new TradeFilterFactory(null, null, null, null, null, null, config);
+
+        config.save("trade.filter.team-slot.enabled", "false");
+        config.save("trade.filter.inventory.enabled", "false");
+        config.save("trade.filter.inventory.order", "1");
+        config.save("trade.filter.participation-limit.order", "70");
+        config.save("trade.filter.flow-control.order", "35");
+        factory.rebuild();
+
+        assertThat(factory.getActiveStages()).containsExactly("activity-availability", "crowd-tag",
+                "flow-control", "participation-limit", "team-slot", "inventory");
+        assertThat(factory.getFilterChain().size()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("依赖活动信息的校验不能排到活动可用性校验之前")
+    public void factory_shouldKeepActivityDependentStagesAfterActivityLoaded() {
+        StubConfigRepository config = new StubConfigRepository();
+        TradeFilterFactory factory = new TradeFilterFactory(null, null, null, null, null, null, config);
+
+        config.save("trade.filter.crowd-tag.order", "5");
+        config.save("trade.filter.participation-limit.order", "20");
+        config.save("trade.filter.flow-control.order", "1");
+        factory.rebuild();
+
+        assertThat(factory.getActiveStages()).containsExactly("flow-control", "activity-availability",
+                "crowd-tag", "participation-limit", "team-slot", "inventory");
+
+        config.save("trade.filter.participation-limit.order", "21");
+        config.save("trade.filter.crowd-tag.order", "45");
+        factory.rebuild();
+
+        assertThat(factory.getActiveStages()).containsExactly("flow-control", "activity-availability",
+                "participation-limit", "crowd-tag", "team-slot", "inventory");
+    }
+
+    private long measure(ChainExecutor<TradeFilterRequest, TradeFilterContext, TradeFilterResponse> chain)
+            throws Exception {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "当前 JVM 不支持线程分配统计");
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported(), "当前 JVM 不支持线程分配统计");
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        long threadId = Thread.currentThread().threadId();
+        int sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += chain.execute(request, context).isAllowed() ? 1 : 0;
+        }
+
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            sink += chain.execute(request, context).isAllowed() ? 1 : 0;
+        }
+        long after = threadMXBean.getThreadAllocatedBytes(threadId);
+
+        assertThat(sink).isGreaterThanOrEqualTo(0);
+        return after - before;
+    }
+
+    private static IChainHandler<TradeFilterRequest, TradeFilterContext, TradeFilterResponse> allowHandler() {
+        return (request, context) -> TradeFilterResponse.allow();
+    }
+
+    /**
+     * 内存配置仓储
+     */
+    private static class StubConfigRepository implements IConfigRepository {
+
+        private final Map<String, String> configs = new HashMap<>();
+
+        @Override
+        public Optional<String> findByKey(String key) {
+            return Optional.ofNullable(configs.get(key));
+        }
+
+        @Override
+        public <T> T findByKey(String key, Class<T> targetType, T defaultValue) {
+            String value = configs.get(key);
+            if (value == null) {
+                return defaultValue;
+            }
+            if (targetType == Boolean.class) {
+                return targetType.cast(Boolean.valueOf(value));
+            }
+            if (targetType == Integer.class) {
+                return targetType.cast(Integer.valueOf(value));
+            }
+            return targetType.cast(value);
+        }
+
+        @Override
+        public void save(String key, String value) {
+            configs.put(key, value);
+        }
+
+        @Override
+        public void batchSave(Map<String, String> configs) {
+            this.configs.putAll(configs);
+        }
+
+        @Override
+        public void remove(String key) {
+            configs.remove(key);
+        }
+
+        @Override
+        public Map<String, String> findAll() {
+            return Map.copyOf(configs);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package org.example.start.event;
+
+import org.example.domain.service.event.IDomainEventHandler;
+import org.example.domain.shared.DomainEvent;
+import org.example.infrastructure.event.DomainEventRingBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 领域事件环形缓冲区测试
+ *
+ * <p>
+ * 测试目的：
+ * <ul>
+ * <li>序号多次绕回后，事件按发布顺序完整交付</li>
+ * <li>多生产者并发发布时每个处理器收到全部事件，同一生产者的事件保持顺序</li>
+ * <li>最慢消费者落后一整圈时生产者等待超时丢弃，丢弃计数准确，已写入的事件不丢失</li>
+ * <li>处理器抛出异常不影响后续批次；stop 前已发布的事件消费完毕</li>
+ * </ul>
+ *
+ */
+@DisplayName("领域事件环形缓冲区测试")
+public class DomainEventRingBufferTest {
+
+    private DomainEventRingBuffer ringBuffer;
+
+    @AfterEach
+    void tearDown() {
+        if (ringBuffer != null) {
+            ringBuffer.stop(5000);
+        }
+    }
+
+    @Test
+    @DisplayName("序号多次绕回后按顺序完整交付")
+    void wraparound_shouldDeliverAllInOrder() {
+        RecordingHandler handler = new RecordingHandler("wrap");
+        ringBuffer = new DomainEventRingBuffer(8, List.of(handler), 3, 1000);
+        ringBuffer.start();
+
+        int total = 1000;
+        for (int i = 0; i < total; i++) {
+            assertThat(ringBuffer.publish(new TestEvent("P", i))).isTrue();
+        }
+        ringBuffer.stop(5000);
+
+        assertThat(ringBuffer.capacity()).isEqualTo(8);
+        assertThat(ringBuffer.droppedCount()).isZero();
+        assertThat(handler.received()).extracting(TestEvent::seq)
+                .containsExactlyElementsOf(range(total));
+        assertThat(handler.maxBatch).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("多生产者并发发布，每个处理器收到全部事件且生产者内有序")
+    void multipleProducers_shouldDeliverAllToEveryHandler() throws Exception {
+        RecordingHandler first = new RecordingHandler("first");
+        RecordingHandler second = new RecordingHandler("second");
+        ringBuffer = new DomainEventRingBuffer(64, List.of(first, second), 16, 5000);
+        ringBuffer.start();
+
+        int producers = 4;
+        int perProducer = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String producer = "P" + p;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    assertThat(ringBuffer.publish(new TestEvent(producer, i))).isTrue();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        ringBuffer.stop(5000);
+
+        assertThat(ringBuffer.droppedCount()).isZero();
+        for (RecordingHandler handler : List.of(first, second)) {
+            Map<String, List<Integer>> byProducer = new HashMap<>();
+            for (TestEvent event : handler.received()) {
+                byProducer.computeIfAbsent(event.producer(), k -> new ArrayList<>()).add(event.seq());
+            }
+            assertThat(byProducer).hasSize(producers);
+            byProducer.values().forEach(seqs -> assertThat(seqs).containsExactlyElementsOf(range(perProducer)));
+        }
+    }
+
+    @Test
+    @DisplayName("慢消费者落后一整圈时超时丢弃，已写入的事件不丢失")
+    void slowConsumer_shouldDropAfterTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingHandler slow = new RecordingHandler("slow") {
+            @Override
+            public void onEvents(List<DomainEvent> events) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.onEvents(events);
+            }
+        };
+        RecordingHandler fast = new RecordingHandler("fast");
+        ringBuffer = new DomainEventRingBuffer(4, List.of(slow, fast), 1, 10);
+        ringBuffer.start();
+
+        // 慢消费者卡在第一条上（消费序号未推进）：写满一整圈（4条）后，后续事件无处可写
+        int accepted = 0;
+        for (int i = 0; i < 6; i++) {
+            if (ringBuffer.publish(new TestEvent("P", i))) {
+                accepted++;
+            }
+        }
+        assertThat(accepted).isEqualTo(4);
+        assertThat(ringBuffer.droppedCount()).isEqualTo(2);
+        assertThat(ringBuffer.backlog()).isEqualTo(4);
+
+        release.countDown();
+        ringBuffer.stop(5000);
+
+        assertThat(slow.received()).extracting(TestEvent::seq).containsExactly(0, 1, 2, 3);
+        assertThat(fast.received()).extracting(TestEvent::seq).containsExactly(0, 1, 2, 3);
+        assertThat(ringBuffer.backlog()).isZero();
+    }
+
+    @Test
+    @DisplayName("处理器异常不影响后续批次")
+    void failingHandler_shouldKeepConsuming() {
+        RecordingHandler flaky = new RecordingHandler("flaky") {
+            @Override
+            public void onEvents(List<DomainEvent> events) {
+                super.onEvents(events);
+                throw new IllegalStateException("处理失败");
+            }
+        };
+        ringBuffer = new DomainEventRingBuffer(8, List.of(flaky), 1, 1000);
+        ringBuffer.start();
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(ringBuffer.publish(new TestEvent("P", i))).isTrue();
+        }
+        ringBuffer.stop(5000);
+
+        assertThat(flaky.received()).extracting(TestEvent::seq).containsExactlyElementsOf(range(20));
+    }
+
+    private static List<Integer> range(int size) {
+        List<Integer> seqs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            seqs.add(i);
+        }
+        return seqs;
+    }
+
+    private record TestEvent(String producer, int seq) implements DomainEvent {
+
+        @Override
+        public LocalDateTime occurredOn() {
+            return null;
+        }
+
+        @Override
+        public String eventType() {
+            return "Test";
+        }
+    }
+
+    /**
+     * 记录收到的事件（批次列表由缓冲区复用，逐条复制）
+     */
+    private static class RecordingHandler implements IDomainEventHandler {
+
+        private final String name;
+        private final List<TestEvent> events = Collections.synchronizedList(new ArrayList<>());
+        private volatile int maxBatch;
+
+        RecordingHandler(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public boolean supports(DomainEvent event) {
+            return true;
+        }
+
+        @Override
+        public void onEvents(List<DomainEvent> batch) {
+            maxBatch = Math.max(maxBatch, batch.size());
+            for (DomainEvent event : batch) {
+                events.add((TestEvent) event);
+            }
+        }
+
+        List<TestEvent> received() {
+            synchronized (events) {
+                return new ArrayList<>(events);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.start.id;
+
+import org.example.common.cache.RedisKeyManager;
+import org.example.infrastructure.cache.IRedisService;
+import org.example.infrastructure.shared.IdSegment;
+import org.example.infrastructure.shared.RedisWorkerSegmentAllocator;
+import org.example.start.base.IntegrationTestBase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Redis worker 租约号段分配测试
+ *
+ * <p>
+ * 测试目的：
+ * <ul>
+ * <li>两个实例租用到不同的 worker ID，各自分配的号段不相交</li>
+ * <li>同一 worker 连续分配的号段严格递增</li>
+ * <li>租约丢失（被其它实例占用）后重新租用其它 worker，继续分配</li>
+ * <li>关闭时释放租约，高水位保留供下一个租用者续接</li>
+ * </ul>
+ *
+ */
+@DisplayName("Redis worker 号段分配测试")
+public class RedisWorkerSegmentAllocatorTest extends IntegrationTestBase {
+
+    /** 号段序号在 ID 中的位移：worker 10 位 + 序号 21 位 */
+    private static final int SEGMENT_SHIFT = 31;
+
+    @Autowired
+    private IRedisService redisService;
+
+    @Test
+    @DisplayName("不同实例的 worker 与号段互不重叠")
+    void allocators_shouldLeaseDistinctWorkers() {
+        try (RedisWorkerSegmentAllocator first = new RedisWorkerSegmentAllocator(redisService, 30_000);
+                RedisWorkerSegmentAllocator second = new RedisWorkerSegmentAllocator(redisService, 30_000)) {
+            IdSegment a1 = first.allocate();
+            IdSegment a2 = first.allocate();
+            IdSegment b1 = second.allocate();
+
+            assertThat(first.getWorkerId()).isNotEqualTo(second.getWorkerId());
+            assertThat(a2.start()).isGreaterThanOrEqualTo(a1.start() + a1.size());
+            assertThat(a1.start()).isPositive();
+            assertThat(b1.start()).isNotIn(a1.start(), a2.start());
+            assertThat(a1.size()).isEqualTo(b1.size()).isEqualTo(1L << 21);
+        }
+    }
+
+    @Test
+    @DisplayName("租约丢失后重新租用其它 worker")
+    void lostLease_shouldReacquireWorker() {
+        try (RedisWorkerSegmentAllocator allocator = new RedisWorkerSegmentAllocator(redisService, 30_000)) {
+            IdSegment before = allocator.allocate();
+            int worker = allocator.getWorkerId();
+
+            // 模拟 Redis 故障切换导致租约丢失，同时占住原 worker，迫使重新租用其它 worker
+            redisService.delete(RedisKeyManager.idWorkerLeaseKey(worker));
+            redisService.setString(RedisKeyManager.idWorkerLeaseKey(worker), "other-instance", 30, TimeUnit.SECONDS);
+            IdSegment after = allocator.allocate();
+
+            assertThat(allocator.getWorkerId()).isNotEqualTo(worker);
+            assertThat(after.start() >>> SEGMENT_SHIFT).isGreaterThanOrEqualTo(before.start() >>> SEGMENT_SHIFT);
+            redisService.delete(RedisKeyManager.idWorkerLeaseKey(worker));
+        }
+    }
+
+    @Test
+    @DisplayName("关闭时释放租约，高水位保留")
+    void close_shouldReleaseLeaseButKeepHighWaterMark() {
+        int worker;
+        long segment;
+        try (RedisWorkerSegmentAllocator allocator = new RedisWorkerSegmentAllocator(redisService, 30_000)) {
+            segment = allocator.allocate().start() >>> SEGMENT_SHIFT;
+            worker = allocator.getWorkerId();
+            assertThat(redisService.exists(RedisKeyManager.idWorkerLeaseKey(worker))).isTrue();
+        }
+
+        assertThat(redisService.exists(RedisKeyManager.idWorkerLeaseKey(worker))).isFalse();
+        assertThat(redisService.getString(RedisKeyManager.idWorkerMaxSegmentKey(worker)))
+                .isEqualTo(String.valueOf(segment));
+    }
+}
@@ -0,0 +1,220 @@
+package org.example.start.id;
+
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import lombok.extern.slf4j.Slf4j;
+import org.example.infrastructure.shared.IdSegment;
+import org.example.infrastructure.shared.SegmentAllocator;
+import org.example.infrastructure.shared.SegmentIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 号段 ID 生成器正确性与性能对比测试
+ *
+ * <p>
+ * 测试目的：
+ * <ul>
+ * <li>多线程并发发号不重复，号段按预取阈值切换</li>
+ * <li>与 MyBatis-Plus 雪花算法（IdWorker.getId）对比单机多线程吞吐</li>
+ * <li>带前缀 ID 的拼接不经过 Long 装箱和中间字符串</li>
+ * </ul>
+ * <p>
+ * 号段分配器为内存实现，不访问 Redis；吞吐和分配量数据只输出日志作为对比参考，不作为断言
+ *
+ */
+@Slf4j
+@DisplayName("号段 ID 生成器测试")
+public class SegmentIdGeneratorBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 200_000;
+    private static final long SEGMENT_SIZE = 10_000;
+
+    @Test
+    @DisplayName("多线程并发发号不重复")
+    public void concurrentIds_shouldBeUnique() throws Exception {
+        try (SegmentIdGenerator generator = new SegmentIdGenerator(new InMemoryAllocator(SEGMENT_SIZE), 0.8)) {
+            long[][] perThread = new long[THREADS][];
+            ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+            try {
+                CountDownLatch start = new CountDownLatch(1);
+                Future<?>[] futures = new Future<?>[THREADS];
+                for (int t = 0; t < THREADS; t++) {
+                    int index = t;
+                    futures[t] = pool.submit(() -> {
+                        long[] ids = new long[IDS_PER_THREAD];
+                        start.await();
+                        for (int i = 0; i < IDS_PER_THREAD; i++) {
+                            ids[i] = generator.nextId();
+                        }
+                        perThread[index] = ids;
+                        return null;
+                    });
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get(60, TimeUnit.SECONDS);
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+
+            long[] all = new long[THREADS * IDS_PER_THREAD];
+            for (int t = 0; t < THREADS; t++) {
+                System.arraycopy(perThread[t], 0, all, t * IDS_PER_THREAD, IDS_PER_THREAD);
+            }
+            Arrays.sort(all);
+            for (int i = 1; i < all.length; i++) {
+                assertThat(all[i]).as("ID 重复: %d", all[i]).isNotEqualTo(all[i - 1]);
+            }
+            assertThat(all[0]).isPositive();
+        }
+    }
+
+    @Test
+    @DisplayName("号段耗尽时切换到预取的号段")
+    public void exhaustedSegments_shouldSwitchToPrefetched() {
+        InMemoryAllocator allocator = new InMemoryAllocator(SEGMENT_SIZE);
+        try (SegmentIdGenerator generator = new SegmentIdGenerator(allocator, 0.5)) {
+            long previous = -1;
+            for (long i = 0; i < SEGMENT_SIZE * 3; i++) {
+                long id = generator.nextId();
+                assertThat(id).isGreaterThan(previous);
+                previous = id;
+            }
+            // 第三个号段耗尽后切换到其过半时预取的第四个号段（号段首尾相接）
+            assertThat(generator.nextId("TRD")).isEqualTo("TRD" + (previous + 1));
+            assertThat(allocator.allocations.get()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    @DisplayName("吞吐对比：号段模式 vs 雪花算法")
+    public void throughput_comparedWithSnowflake() throws Exception {
+        try (SegmentIdGenerator generator = new SegmentIdGenerator(new InMemoryAllocator(1L << 21), 0.8)) {
+            // 预热
+            measureOpsPerSecond(generator::nextId);
+            measureOpsPerSecond(IdWorker::getId);
+
+            double segmentOps = measureOpsPerSecond(generator::nextId);
+            double snowflakeOps = measureOpsPerSecond(IdWorker::getId);
+            log.info("【ID生成器对比】{} 线程 x {} 次: 号段模式 {} ops/s, 雪花算法 {} ops/s, 倍数 {}",
+                    THREADS, IDS_PER_THREAD, String.format("%.0f", segmentOps), String.format("%.0f", snowflakeOps),
+                    String.format("%.2f", segmentOps / snowflakeOps));
+            assertThat(segmentOps).isPositive();
+        }
+    }
+
+    @Test
+    @DisplayName("带前缀 ID 与装箱拼接的分配量对比")
+    public void prefixedId_allocationComparedWithBoxedConcat() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "当前 JVM 不支持线程分配统计");
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported(), "当前 JVM 不支持线程分配统计");
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        try (SegmentIdGenerator generator = new SegmentIdGenerator(new InMemoryAllocator(1L << 21), 0.8)) {
+            int iterations = 100_000;
+            long threadId = Thread.currentThread().threadId();
+            int sink = 0;
+
+            for (int round = 0; round < 2; round++) {
+                for (int i = 0; i < iterations; i++) {
+                    sink += generator.nextId("TRD").length();
+                    sink += boxedConcat("TRD", generator.nextId()).length();
+                }
+            }
+
+            long before = threadMXBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < iterations; i++) {
+                sink += generator.nextId("TRD").length();
+            }
+            long prefixed = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+            before = threadMXBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < iterations; i++) {
+                sink += boxedConcat("TRD", generator.nextId()).length();
+            }
+            long boxed = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+            // 分配量受 JIT 逃逸分析和号段切换时机影响，只记录对比数据
+            log.info("【ID生成器对比】带前缀 ID 每次分配: 直接拼接 {} B, 装箱拼接 {} B",
+                    prefixed / iterations, boxed / iterations);
+            assertThat(sink).isPositive();
+        }
+    }
+
+    /**
+     * 旧调用方式：IdGenerator.nextId() 返回 Long，再与前缀拼接
+     */
+    private static String boxedConcat(String prefix, long id) {
+        Long boxed = id;
+        return prefix + boxed.toString();
+    }
+
+    private static double measureOpsPerSecond(LongSupplier supplier) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            Future<?>[] futures = new Future<?>[THREADS];
+            long[] sinks = new long[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                int index = t;
+                futures[t] = pool.submit(() -> {
+                    start.await();
+                    long sink = 0;
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        sink ^= supplier.getAsLong();
+                    }
+                    sinks[index] = sink;
+                    return null;
+                });
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            long elapsed = System.nanoTime() - begin;
+            return (double) THREADS * IDS_PER_THREAD * TimeUnit.SECONDS.toNanos(1) / elapsed;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 内存号段分配器：号段首尾相接，记录分配次数
+     */
+    private static class InMemoryAllocator implements SegmentAllocator {
+
+        private final long segmentSize;
+        private final AtomicLong nextStart = new AtomicLong(1);
+        private final AtomicInteger allocations = new AtomicInteger();
+
+        private InMemoryAllocator(long segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        @Override
+        public IdSegment allocate() {
+            allocations.incrementAndGet();
+            return new IdSegment(nextStart.getAndAdd(segmentSize), segmentSize);
+        }
+    }
+}
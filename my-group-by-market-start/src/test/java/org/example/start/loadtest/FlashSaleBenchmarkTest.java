@@ -0,0 +1,259 @@
+package org.example.start.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.application.service.payment.PaymentCallbackApplicationService;
+import org.example.application.service.trade.TradeOrderService;
+import org.example.application.service.trade.cmd.LockOrderCmd;
+import org.example.application.service.trade.result.TradeOrderResult;
+import org.example.common.exception.BizException;
+import org.example.start.base.BenchmarkReport;
+import org.example.start.base.ConcurrentTestSupport;
+import org.example.start.base.IntegrationTestBase;
+import org.example.start.base.LatencyRecorder;
+import org.example.start.base.TradeScenarioFixture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 秒杀链路基准测试
+ *
+ * <p>
+ * 测试目的：度量交易主链路（锁单 → 结算 / 超时退单）的吞吐和延迟分位数，并与已提交的基线比较，
+ * 让交易链路上的性能改动可度量、可回归
+ * <p>
+ * 场景（均可通过 -D 参数调整）：
+ * <ul>
+ * <li>benchmark.users 个用户、benchmark.threads 个并发线程抢 benchmark.teams 个 benchmark.team-size 人团</li>
+ * <li>锁单成功的交易订单中 benchmark.pay-ratio 比例直接走支付成功结算，其余走超时退单</li>
+ * <li>正式测量前先用 1/5 规模的独立数据预热一轮，结果丢弃</li>
+ * </ul>
+ * <p>
+ * 输出与门禁：
+ * <ul>
+ * <li>报告写入 target/benchmark/flash-sale.json（阶段：lock / lock-rejected / settle / timeout），
+ * 成功与被拒绝的操作分开记录，拒绝不计入成功阶段的延迟和 TPS</li>
+ * <li>基线为 src/test/resources/benchmark/flash-sale-baseline.json，任一阶段 P99 上升或 TPS 下降超过
+ * 容忍度即失败；容忍度取 -Dbenchmark.tolerance，未指定时取基线中的 tolerance（缺省 0.3）</li>
+ * <li>基线不存在或 -D 参数与基线不同时直接失败，回归门禁不会被静默跳过</li>
+ * <li>已提交的基线是按默认参数设定的保守下限（P99 偏高、TPS 偏低），只拦截数量级的退化；
+ * -Dbenchmark.update-baseline=true 时把本次结果连同容忍度写回基线（请在参考机器上执行后提交）</li>
+ * </ul>
+ *
+ */
+@Slf4j
+@DisplayName("秒杀链路基准测试")
+public class FlashSaleBenchmarkTest extends IntegrationTestBase {
+
+    private static final int USERS = Integer.getInteger("benchmark.users", 1000);
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 64);
+    private static final int TEAMS = Integer.getInteger("benchmark.teams", 20);
+    private static final int TEAM_SIZE = Integer.getInteger("benchmark.team-size", 10);
+    private static final double PAY_RATIO = Double.parseDouble(System.getProperty("benchmark.pay-ratio", "0.8"));
+    private static final double DEFAULT_TOLERANCE = 0.3;
+    private static final boolean UPDATE_BASELINE = Boolean.getBoolean("benchmark.update-baseline");
+
+    private static final Path REPORT_PATH = Path.of("target", "benchmark", "flash-sale.json");
+    private static final Path BASELINE_PATH = Path.of("src", "test", "resources", "benchmark", "flash-sale-baseline.json");
+    private static final BigDecimal ORIGINAL_PRICE = new BigDecimal("100.00");
+    private static final BigDecimal PAY_AMOUNT = new BigDecimal("80.00");
+
+    @Autowired
+    private TradeOrderService tradeOrderService;
+
+    @Autowired
+    private PaymentCallbackApplicationService paymentCallbackApplicationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TradeScenarioFixture fixture;
+    private final List<Dataset> datasets = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        fixture = new TradeScenarioFixture(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("锁单 / 结算 / 超时退单 吞吐与延迟基线")
+    void benchmarkTradePath() throws InterruptedException {
+        // 预热：JIT、连接池、Lua 脚本缓存
+        runScenario(seed("WARM", Math.max(USERS / 5, THREADS)), null);
+
+        Dataset dataset = seed("BENCH", USERS);
+        BenchmarkReport report = new BenchmarkReport("flash-sale")
+                .parameter("users", USERS)
+                .parameter("threads", THREADS)
+                .parameter("teams", TEAMS)
+                .parameter("teamSize", TEAM_SIZE)
+                .parameter("payRatio", PAY_RATIO);
+        runScenario(dataset, report);
+        report.writeTo(REPORT_PATH);
+        log.info("【基准】报告已写入 {}", REPORT_PATH.toAbsolutePath());
+
+        // 正确性：不超卖，没有交易订单停留在 CREATE
+        Integer locked = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM trade_order WHERE activity_id = ?", Integer.class, dataset.activityId());
+        assertThat(locked).as("锁单数不应超过总名额").isLessThanOrEqualTo(TEAMS * TEAM_SIZE);
+        Integer stuck = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM trade_order WHERE activity_id = ? AND status = 'CREATE'",
+                Integer.class, dataset.activityId());
+        assertThat(stuck).as("不应有交易订单停留在 CREATE").isZero();
+
+        BenchmarkReport baseline = BenchmarkReport.readBaseline(BASELINE_PATH);
+        double tolerance = tolerance(baseline);
+        if (UPDATE_BASELINE) {
+            report.setTolerance(tolerance);
+            report.writeTo(BASELINE_PATH);
+            log.info("【基准】基线已更新 {}", BASELINE_PATH.toAbsolutePath());
+            return;
+        }
+        assertThat(report.incomparableReason(baseline)).as("基准基线不可比较").isNull();
+        List<String> regressions = report.regressionsAgainst(baseline, tolerance);
+        assertThat(regressions).as("性能回归（容忍度 %.0f%%）", tolerance * 100).isEmpty();
+    }
+
+    /**
+     * 容忍度：-Dbenchmark.tolerance 优先，其次基线自带的值
+     */
+    private static double tolerance(BenchmarkReport baseline) {
+        String property = System.getProperty("benchmark.tolerance");
+        if (property != null) {
+            return Double.parseDouble(property);
+        }
+        return baseline != null && baseline.getTolerance() != null ? baseline.getTolerance() : DEFAULT_TOLERANCE;
+    }
+
+    /**
+     * 执行一轮 锁单 → 结算 / 超时退单
+     *
+     * @param report 为 null 时只执行不记录（预热）
+     */
+    private void runScenario(Dataset dataset, BenchmarkReport report) throws InterruptedException {
+        // 1. 锁单：随机落在各团上，满团拒绝单独记录
+        List<Integer> users = new ArrayList<>();
+        for (int i = 0; i < dataset.users(); i++) {
+            users.add(i);
+        }
+        List<TradeOrderResult> lockedOrders = new CopyOnWriteArrayList<>();
+        LatencyRecorder lockLatency = new LatencyRecorder("lock");
+        LatencyRecorder lockRejected = new LatencyRecorder("lock-rejected");
+        long lockMillis = drive(users, lockLatency, lockRejected, index -> lockedOrders.add(
+                tradeOrderService.lockOrder(LockOrderCmd.builder()
+                        .userId(dataset.prefix() + "_USER_" + index)
+                        .activityId(dataset.activityId())
+                        .skuId(dataset.skuId())
+                        .outTradeNo(dataset.prefix() + "_OUT_" + index)
+                        .orderId(dataset.orderIds().get(ThreadLocalRandom.current().nextInt(TEAMS)))
+                        .source("s01")
+                        .channel("c01")
+                        .originalPrice(new BigDecimal("100.00"))
+                        .deductionPrice(new BigDecimal("20.00"))
+                        .payPrice(PAY_AMOUNT)
+                        .build())));
+
+        // 2. 按比例拆分为支付结算和超时退单
+        List<TradeOrderResult> shuffled = new ArrayList<>(lockedOrders);
+        Collections.shuffle(shuffled);
+        int paidCount = (int) Math.round(shuffled.size() * PAY_RATIO);
+        List<TradeOrderResult> toPay = shuffled.subList(0, paidCount);
+        List<TradeOrderResult> toTimeout = shuffled.subList(paidCount, shuffled.size());
+
+        LatencyRecorder settleLatency = new LatencyRecorder("settle");
+        LatencyRecorder settleFailed = new LatencyRecorder("settle-failed");
+        long settleMillis = drive(toPay, settleLatency, settleFailed, order -> paymentCallbackApplicationService
+                .handlePaymentSuccess(order.getOutTradeNo(), PAY_AMOUNT));
+
+        LatencyRecorder timeoutLatency = new LatencyRecorder("timeout");
+        LatencyRecorder timeoutFailed = new LatencyRecorder("timeout-failed");
+        long timeoutMillis = drive(toTimeout, timeoutLatency, timeoutFailed, order -> tradeOrderService
+                .refundTradeOrder(order.getTradeOrderId(), "支付超时"));
+
+        if (report != null) {
+            report.stage("lock", lockLatency, lockMillis, lockRejected.count())
+                    .stage("lock-rejected", lockRejected, lockMillis, 0)
+                    .stage("settle", settleLatency, settleMillis, settleFailed.count())
+                    .stage("timeout", timeoutLatency, timeoutMillis, timeoutFailed.count());
+        }
+    }
+
+    /**
+     * 以 THREADS 个线程并发消费 items，成功和失败（含业务拒绝）的延迟分别记录
+     *
+     * @return 阶段耗时（毫秒）
+     */
+    private <T> long drive(List<T> items, LatencyRecorder succeeded, LatencyRecorder failed, Consumer<T> operation)
+            throws InterruptedException {
+        if (items.isEmpty()) {
+            return 0;
+        }
+        AtomicInteger cursor = new AtomicInteger();
+        long start = System.currentTimeMillis();
+        ConcurrentTestSupport.executeConcurrently(Math.min(THREADS, items.size()), () -> {
+            int index;
+            while ((index = cursor.getAndIncrement()) < items.size()) {
+                long begin = System.nanoTime();
+                try {
+                    operation.accept(items.get(index));
+                    succeeded.recordSince(begin);
+                } catch (BizException e) {
+                    failed.recordSince(begin);
+                } catch (RuntimeException e) {
+                    failed.recordSince(begin);
+                    log.error("【基准】操作异常", e);
+                }
+            }
+        }, 600);
+        return System.currentTimeMillis() - start;
+    }
+
+    private Dataset seed(String tag, int users) {
+        String prefix = tag + "_" + System.currentTimeMillis();
+        Dataset dataset = new Dataset(prefix, "ACT_" + prefix, "SPU_" + prefix, "SKU_" + prefix, "DIS_" + prefix,
+                new ArrayList<>(), users);
+        fixture.insertDiscount(dataset.discountId(), new BigDecimal("20.00"));
+        fixture.insertActivity(dataset.activityId(), dataset.discountId(), TEAM_SIZE);
+        fixture.insertGoods(dataset.activityId(), dataset.spuId(), dataset.skuId(), users, ORIGINAL_PRICE);
+        for (int i = 0; i < TEAMS; i++) {
+            String orderId = "ORD_" + prefix + "_" + i;
+            fixture.insertTeam(orderId, "TEAM_" + prefix + "_" + i, dataset.activityId(), dataset.spuId(),
+                    TEAM_SIZE, ORIGINAL_PRICE, new BigDecimal("20.00"));
+            dataset.orderIds().add(orderId);
+        }
+        List<String> userIds = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            userIds.add(prefix + "_USER_" + i);
+        }
+        fixture.insertAccounts(dataset.activityId(), userIds);
+        datasets.add(dataset);
+        return dataset;
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Dataset dataset : datasets) {
+            fixture.cleanup(dataset.activityId(), dataset.spuId(), dataset.discountId());
+        }
+        datasets.clear();
+    }
+
+    private record Dataset(String prefix, String activityId, String spuId, String skuId, String discountId,
+            List<String> orderIds, int users) {
+    }
+}
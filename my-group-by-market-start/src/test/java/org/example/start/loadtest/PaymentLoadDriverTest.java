@@ -0,0 +1,237 @@
+package org.example.start.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.application.service.payment.AlipayPaymentService;
+import org.example.application.service.trade.TradeOrderService;
+import org.example.application.service.trade.cmd.LockOrderCmd;
+import org.example.application.service.trade.result.TradeOrderResult;
+import org.example.common.exception.BizException;
+import org.example.domain.model.trade.repository.TradeOrderRepository;
+import org.example.domain.model.trade.valueobject.TradeOrderStatusView;
+import org.example.domain.model.trade.valueobject.TradeStatus;
+import org.example.infrastructure.payment.SimulatedPaymentGateway;
+import org.example.start.base.ConcurrentTestSupport;
+import org.example.start.base.IntegrationTestBase;
+import org.example.start.base.LatencyRecorder;
+import org.example.start.base.TradeScenarioFixture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 支付链路压测驱动
+ *
+ * <p>
+ * 测试目的：在 Testcontainers MySQL/Redis/RabbitMQ 上回放接近真实的 锁单 → 支付 → 结算/超时 混合流量，
+ * 输出各阶段吞吐和延迟分位数
+ * <p>
+ * 场景：
+ * <ul>
+ * <li>300 个用户、32 个并发线程抢 40 个 5 人团（名额 200，部分用户因满团被拒）</li>
+ * <li>锁单成功后打开收银台（payment-sim 模拟器，注入网关延迟和失败）</li>
+ * <li>模拟器按支付率在思考时间后异步回调，经支付回调队列进入结算；重复回调验证去重</li>
+ * <li>排空窗口结束仍未支付的交易订单按超时退单处理</li>
+ * </ul>
+ * <p>
+ * 验证：
+ * <ul>
+ * <li>没有交易订单停留在 CREATE，每个团的已支付人数不超过目标人数</li>
+ * <li>吞吐/分位数只输出到日志，不做硬性断言，避免 CI 环境抖动误报</li>
+ * </ul>
+ *
+ */
+@Slf4j
+@ActiveProfiles("payment-sim")
+@TestPropertySource(properties = {
+        "payment.simulator.latency.median-ms=20",
+        "payment.simulator.latency.p99-ms=200",
+        "payment.simulator.think-time.median-ms=200",
+        "payment.simulator.think-time.p99-ms=1500",
+        "payment.simulator.callback-drop-rate=0"
+})
+@DisplayName("支付链路压测驱动")
+public class PaymentLoadDriverTest extends IntegrationTestBase {
+
+    private static final int USERS = 300;
+    private static final int TEAMS = 40;
+    private static final int TEAM_SIZE = 5;
+    private static final int THREADS = 32;
+    private static final long DRAIN_MILLIS = 10_000;
+    private static final long POLL_MILLIS = 50;
+    private static final BigDecimal PAY_AMOUNT = new BigDecimal("80.00");
+
+    @Autowired
+    private TradeOrderService tradeOrderService;
+
+    @Autowired
+    private AlipayPaymentService alipayPaymentService;
+
+    @Autowired
+    private TradeOrderRepository tradeOrderRepository;
+
+    @Autowired
+    private SimulatedPaymentGateway simulatedPaymentGateway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String runId;
+    private String activityId;
+    private String spuId;
+    private String skuId;
+    private String discountId;
+    private TradeScenarioFixture fixture;
+    private final List<String> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUpTestData() {
+        fixture = new TradeScenarioFixture(jdbcTemplate);
+        runId = String.valueOf(System.currentTimeMillis());
+        activityId = "ACT_LOAD_" + runId;
+        spuId = "SPU_LOAD_" + runId;
+        skuId = "SKU_LOAD_" + runId;
+        discountId = "DIS_LOAD_" + runId;
+
+        fixture.insertDiscount(discountId, new BigDecimal("20.00"));
+        fixture.insertActivity(activityId, discountId, TEAM_SIZE);
+        fixture.insertGoods(activityId, spuId, skuId, USERS, new BigDecimal("100.00"));
+        for (int i = 0; i < TEAMS; i++) {
+            String orderId = "ORD_LOAD_" + runId + "_" + i;
+            fixture.insertTeam(orderId, "TEAM_LOAD_" + runId + "_" + i, activityId, spuId, TEAM_SIZE,
+                    new BigDecimal("100.00"), new BigDecimal("20.00"));
+            orderIds.add(orderId);
+        }
+        List<String> userIds = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            userIds.add("USER_LOAD_" + runId + "_" + i);
+        }
+        fixture.insertAccounts(activityId, userIds);
+        log.info("【压测准备】users: {}, teams: {} x {}", USERS, TEAMS, TEAM_SIZE);
+    }
+
+    @Test
+    @DisplayName("锁单 → 支付 → 结算/超时 混合流量")
+    void replayLockPaySettleMix() throws InterruptedException {
+        LatencyRecorder lockLatency = new LatencyRecorder("锁单");
+        LatencyRecorder payPageLatency = new LatencyRecorder("打开收银台");
+        LatencyRecorder settleLatency = new LatencyRecorder("收银台→支付落库（含用户思考时间，轮询精度50ms）");
+        LatencyRecorder timeoutLatency = new LatencyRecorder("超时退单");
+
+        AtomicInteger userCursor = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger payPageFailed = new AtomicInteger();
+        // tradeOrderId → 收银台打开时间（System.nanoTime），支付落库或超时后移除
+        Map<String, Long> pending = new ConcurrentHashMap<>();
+
+        // 1. 并发回放锁单 + 打开收银台
+        long start = System.currentTimeMillis();
+        ConcurrentTestSupport.executeConcurrently(THREADS, () -> {
+            int index;
+            while ((index = userCursor.getAndIncrement()) < USERS) {
+                String outTradeNo = "OUT_LOAD_" + runId + "_" + index;
+                String orderId = orderIds.get(ThreadLocalRandom.current().nextInt(TEAMS));
+                long lockStart = System.nanoTime();
+                TradeOrderResult result;
+                try {
+                    result = tradeOrderService.lockOrder(LockOrderCmd.builder()
+                            .userId("USER_LOAD_" + runId + "_" + index)
+                            .activityId(activityId)
+                            .skuId(skuId)
+                            .outTradeNo(outTradeNo)
+                            .orderId(orderId)
+                            .source("s01")
+                            .channel("c01")
+                            .originalPrice(new BigDecimal("100.00"))
+                            .deductionPrice(new BigDecimal("20.00"))
+                            .payPrice(PAY_AMOUNT)
+                            .build());
+                } catch (BizException e) {
+                    rejected.incrementAndGet();
+                    continue;
+                }
+                lockLatency.recordSince(lockStart);
+
+                long payStart = System.nanoTime();
+                try {
+                    alipayPaymentService.createPaymentPage(outTradeNo, PAY_AMOUNT, "压测商品");
+                    payPageLatency.recordSince(payStart);
+                } catch (RuntimeException e) {
+                    // 模拟网关系统错误：用户放弃支付，交给超时退单
+                    payPageFailed.incrementAndGet();
+                }
+                pending.put(result.getTradeOrderId(), System.nanoTime());
+            }
+        }, 300);
+        long driveMillis = System.currentTimeMillis() - start;
+
+        // 2. 排空：轮询支付落库，直到全部支付或排空窗口结束
+        long drainDeadline = System.currentTimeMillis() + DRAIN_MILLIS;
+        while (!pending.isEmpty() && System.currentTimeMillis() < drainDeadline) {
+            for (TradeOrderStatusView view : tradeOrderRepository.findStatusByIds(List.copyOf(pending.keySet()))) {
+                if (view.status() != TradeStatus.CREATE) {
+                    Long opened = pending.remove(view.tradeOrderId());
+                    if (opened != null) {
+                        settleLatency.recordSince(opened);
+                    }
+                }
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+
+        // 3. 超时：仍未支付的交易订单退单（与支付回调竞争时由状态 CAS 保证只有一方生效）
+        for (String tradeOrderId : List.copyOf(pending.keySet())) {
+            long timeoutStart = System.nanoTime();
+            try {
+                tradeOrderService.refundTradeOrder(tradeOrderId, "支付超时");
+                timeoutLatency.recordSince(timeoutStart);
+            } catch (BizException e) {
+                log.info("【压测】超时退单被拦截（已支付）, tradeOrderId: {}, 原因: {}", tradeOrderId, e.getMessage());
+            }
+        }
+        long totalMillis = System.currentTimeMillis() - start;
+
+        log.info("========== 支付链路压测结果 ==========");
+        log.info("驱动时长: {}ms, 总时长: {}ms, 满团拒绝: {}, 收银台失败: {}",
+                driveMillis, totalMillis, rejected.get(), payPageFailed.get());
+        log.info(lockLatency.summary(driveMillis));
+        log.info(payPageLatency.summary(driveMillis));
+        log.info(settleLatency.summary(totalMillis));
+        log.info(timeoutLatency.summary(totalMillis));
+        log.info("模拟器: {}", simulatedPaymentGateway.stats());
+
+        // 一致性：没有交易订单停留在 CREATE，每个团的已支付人数不超过目标人数
+        Integer stuck = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM trade_order WHERE activity_id = ? AND status = 'CREATE'",
+                Integer.class, activityId);
+        assertThat(stuck).as("不应有交易订单停留在 CREATE").isZero();
+
+        for (String orderId : orderIds) {
+            Integer paid = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM trade_order WHERE order_id = ? AND status IN ('PAID', 'SETTLED')",
+                    Integer.class, orderId);
+            assertThat(paid).as("团 %s 已支付人数不应超过目标人数", orderId).isLessThanOrEqualTo(TEAM_SIZE);
+        }
+        assertThat(lockLatency.count() + rejected.get()).isEqualTo(USERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.cleanup(activityId, spuId, discountId);
+        orderIds.clear();
+    }
+}
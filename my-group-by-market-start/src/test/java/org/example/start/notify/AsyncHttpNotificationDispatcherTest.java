@@ -0,0 +1,227 @@
+package org.example.start.notify;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.infrastructure.notify.AsyncHttpNotificationDispatcher;
+import org.example.infrastructure.notify.HostUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 非阻塞HTTP回调分发器测试
+ *
+ * <p>
+ * 测试目的：
+ * <ul>
+ * <li>按主机限制并发：超出并发的请求排队，排队满时以 {@link HostUnavailableException} 拒绝，其他主机不受影响</li>
+ * <li>熔断：连续失败达到阈值后打开（请求不发出），冷却期后只放行一个探测请求，探测失败重新打开，探测成功关闭</li>
+ * <li>请求合并：相同去重键的并发分发只发出一次请求</li>
+ * <li>非法请求在占用主机名额之前失败，不影响半开探测</li>
+ * </ul>
+ *
+ * <p>
+ * 配置：每主机并发 2、排队 2、连续 2 次失败熔断、冷却 1 秒；/slow 路径阻塞到测试放行
+ *
+ */
+@DisplayName("非阻塞HTTP回调分发器测试")
+public class AsyncHttpNotificationDispatcherTest {
+
+    private static final int MAX_CONCURRENCY = 2;
+    private static final int MAX_QUEUE = 2;
+    private static final long COOL_DOWN_MILLIS = 1100;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private AsyncHttpNotificationDispatcher dispatcher;
+
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicInteger requests = new AtomicInteger();
+    /** /slow 路径的并发数与峰值 */
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/", this::handle);
+        server.start();
+        dispatcher = new AsyncHttpNotificationDispatcher(MAX_CONCURRENCY, MAX_QUEUE, 2, 1, 5, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        dispatcher.shutdown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("超出主机并发的请求排队，排队满时拒绝")
+    void perHostLimit_shouldQueueThenReject() {
+        gate = new CountDownLatch(1);
+        List<CompletableFuture<String>> accepted = new ArrayList<>();
+        for (int i = 0; i < MAX_CONCURRENCY + MAX_QUEUE; i++) {
+            accepted.add(dispatcher.dispatch("LIMIT_" + i, uri("127.0.0.1", "/slow"), "{}"));
+        }
+        CompletableFuture<String> rejected = dispatcher.dispatch("LIMIT_REJECTED", uri("127.0.0.1", "/slow"), "{}");
+
+        assertThatThrownBy(rejected::join).hasCauseInstanceOf(HostUnavailableException.class);
+        awaitTrue(() -> requests.get() == MAX_CONCURRENCY, 3000);
+        sleep(200);
+        assertThat(requests.get()).as("其余请求在主机队列中等待").isEqualTo(MAX_CONCURRENCY);
+
+        // 同一服务端换一个主机名即为另一主机，不受慢主机影响
+        assertThat(dispatcher.dispatch("OTHER_HOST", uri("localhost", "/fast"), "{}").join()).isEqualTo("ok");
+
+        gate.countDown();
+        accepted.forEach(future -> assertThat(future.join()).isEqualTo("ok"));
+        assertThat(maxConcurrent.get()).isEqualTo(MAX_CONCURRENCY);
+    }
+
+    @Test
+    @DisplayName("连续失败打开熔断，半开只放行一个探测，探测失败重开、成功关闭")
+    void circuitBreaker_shouldOpenHalfOpenAndClose() {
+        URI fast = uri("127.0.0.1", "/fast");
+        status.set(500);
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(dispatcher.dispatch("FAIL_" + i, fast, "{}")::join)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+        assertThat(dispatcher.isCircuitOpen(fast)).isTrue();
+
+        // 打开：请求不发出
+        int sent = requests.get();
+        assertThatThrownBy(dispatcher.dispatch("OPEN", fast, "{}")::join)
+                .hasCauseInstanceOf(HostUnavailableException.class);
+        assertThat(requests.get()).isEqualTo(sent);
+
+        // 半开探测失败：重新打开
+        sleep(COOL_DOWN_MILLIS);
+        assertThat(dispatcher.isCircuitOpen(fast)).isFalse();
+        assertThatThrownBy(dispatcher.dispatch("PROBE_FAIL", fast, "{}")::join)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(dispatcher.isCircuitOpen(fast)).isTrue();
+
+        // 半开探测进行中：其他请求被拒绝；探测成功后关闭
+        sleep(COOL_DOWN_MILLIS);
+        status.set(200);
+        gate = new CountDownLatch(1);
+        CompletableFuture<String> probe = dispatcher.dispatch("PROBE_OK", uri("127.0.0.1", "/slow"), "{}");
+        awaitTrue(() -> concurrent.get() == 1, 3000);
+        assertThatThrownBy(dispatcher.dispatch("DURING_PROBE", fast, "{}")::join)
+                .hasCauseInstanceOf(HostUnavailableException.class);
+
+        gate.countDown();
+        assertThat(probe.join()).isEqualTo("ok");
+        assertThat(dispatcher.isCircuitOpen(fast)).isFalse();
+        assertThat(dispatcher.dispatch("CLOSED", fast, "{}").join()).isEqualTo("ok");
+    }
+
+    @Test
+    @DisplayName("非法请求不占用半开探测资格")
+    void invalidRequest_shouldNotBlockHalfOpenProbe() {
+        URI fast = uri("127.0.0.1", "/fast");
+        status.set(500);
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(dispatcher.dispatch("FAIL_" + i, fast, "{}")::join)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+        sleep(COOL_DOWN_MILLIS);
+        status.set(200);
+
+        // 非法回调地址在构建请求时失败，不进入主机通道
+        assertThatThrownBy(dispatcher.dispatch("INVALID_URI", URI.create("ftp://127.0.0.1/notify"), "{}")::join)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(requests.get()).isEqualTo(2);
+
+        assertThat(dispatcher.dispatch("PROBE", fast, "{}").join()).isEqualTo("ok");
+        assertThat(dispatcher.isCircuitOpen(fast)).isFalse();
+    }
+
+    @Test
+    @DisplayName("相同去重键的并发分发只发出一次请求")
+    void duplicateDispatch_shouldBeCoalesced() {
+        gate = new CountDownLatch(1);
+        CompletableFuture<String> first = dispatcher.dispatch("TASK_1", uri("127.0.0.1", "/slow"), "{}");
+        CompletableFuture<String> second = dispatcher.dispatch("TASK_1", uri("127.0.0.1", "/slow"), "{}");
+
+        assertThat(second).isSameAs(first);
+        gate.countDown();
+        assertThat(first.join()).isEqualTo("ok");
+        assertThat(requests.get()).isEqualTo(1);
+
+        // 完成后不再合并
+        assertThat(dispatcher.dispatch("TASK_1", uri("127.0.0.1", "/fast"), "{}").join()).isEqualTo("ok");
+        assertThat(requests.get()).isEqualTo(2);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        boolean slow = exchange.getRequestURI().getPath().startsWith("/slow");
+        if (slow) {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+        }
+        try {
+            exchange.getRequestBody().readAllBytes();
+            if (slow) {
+                gate.await(10, TimeUnit.SECONDS);
+            }
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status.get(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (slow) {
+                concurrent.decrementAndGet();
+            }
+            exchange.close();
+        }
+    }
+
+    private URI uri(String host, String path) {
+        return URI.create("http://" + host + ":" + server.getAddress().getPort() + path);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("等待条件超时").isLessThan(deadline);
+            sleep(20);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.start.order;
+
+import org.example.application.job.OpenTeamIndexRebuildJob;
+import org.example.common.cache.RedisKeyManager;
+import org.example.domain.model.order.Order;
+import org.example.domain.model.order.valueobject.OrderStatus;
+import org.example.domain.service.team.IOpenTeamIndex;
+import org.example.infrastructure.cache.IRedisService;
+import org.example.start.base.IntegrationTestBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 可加入拼团索引重建测试
+ *
+ * <p>
+ * 测试目的：
+ * <ul>
+ * <li>重建锁单飞：同一时刻只有一个请求能重建，发布后释放</li>
+ * <li>重建期间的增量加入/移除在发布时保留，不被数据库快照覆盖</li>
+ * <li>拼团元数据按截止时间设置过期，不会无限增长</li>
+ * <li>后台重建：登记后立即返回，旧索引在重建完成前照常可读，完成后以数据库为准</li>
+ * </ul>
+ *
+ */
+@DisplayName("可加入拼团索引重建测试")
+public class OpenTeamIndexRebuildTest extends IntegrationTestBase {
+
+    private static final String ACTIVITY_ID = "ACT_OPEN_TEAM_REBUILD";
+
+    @Autowired
+    private IOpenTeamIndex openTeamIndex;
+
+    @Autowired
+    private IRedisService redisService;
+
+    @Autowired
+    private OpenTeamIndexRebuildJob openTeamIndexRebuildJob;
+
+    @AfterEach
+    void tearDown() {
+        for (String orderId : List.of("TEAM_A", "TEAM_B", "TEAM_C")) {
+            redisService.delete(RedisKeyManager.openTeamMetaKey(orderId));
+        }
+        redisService.delete(RedisKeyManager.openTeamKey(ACTIVITY_ID));
+        redisService.delete(RedisKeyManager.openTeamBuiltKey(ACTIVITY_ID));
+        redisService.delete(RedisKeyManager.openTeamRebuildLockKey(ACTIVITY_ID));
+        redisService.delete(RedisKeyManager.openTeamTouchedKey(ACTIVITY_ID));
+    }
+
+    @Test
+    @DisplayName("同一时刻只有一个请求抢到重建锁，发布后释放")
+    void rebuildLock_shouldBeSingleFlight() {
+        assertThat(openTeamIndex.tryLockRebuild(ACTIVITY_ID)).isTrue();
+        assertThat(openTeamIndex.tryLockRebuild(ACTIVITY_ID)).isFalse();
+
+        openTeamIndex.rebuild(ACTIVITY_ID, List.of(pending("TEAM_A", 1)));
+
+        assertThat(openTeamIndex.isBuilt(ACTIVITY_ID)).isTrue();
+        assertThat(openTeamIndex.exists(ACTIVITY_ID)).isTrue();
+        assertThat(openTeamIndex.tryLockRebuild(ACTIVITY_ID)).isTrue();
+    }
+
+    @Test
+    @DisplayName("重建期间的增量更新在发布后保留")
+    void updatesDuringRebuild_shouldSurvivePublish() {
+        openTeamIndex.upsert(ACTIVITY_ID, "TEAM_A", 1, 3, LocalDateTime.now().plusHours(1));
+
+        assertThat(openTeamIndex.tryLockRebuild(ACTIVITY_ID)).isTrue();
+        // 重建已从数据库读到 TEAM_A / TEAM_B 之后：TEAM_C 新开团，TEAM_A 超时移除，TEAM_B 锁单量增加
+        List<Order> snapshot = List.of(pending("TEAM_A", 1), pending("TEAM_B", 0));
+        openTeamIndex.upsert(ACTIVITY_ID, "TEAM_C", 0, 3, LocalDateTime.now().plusHours(1));
+        openTeamIndex.upsert(ACTIVITY_ID, "TEAM_B", 0, 3, LocalDateTime.now().plusHours(1));
+        openTeamIndex.onLockCountChanged("TEAM_B", 2);
+        openTeamIndex.remove("TEAM_A");
+        openTeamIndex.rebuild(ACTIVITY_ID, snapshot);
+
+        assertThat(openTeamIndex.page(ACTIVITY_ID, 0, 10).orderIds()).containsExactly("TEAM_B", "TEAM_C");
+        assertThat(redisService.exists(RedisKeyManager.openTeamTouchedKey(ACTIVITY_ID))).isFalse();
+    }
+
+    @Test
+    @DisplayName("拼团元数据按截止时间过期")
+    void meta_shouldExpireAfterDeadline() {
+        openTeamIndex.upsert(ACTIVITY_ID, "TEAM_A", 1, 3, LocalDateTime.now().plusMinutes(10));
+
+        Long ttl = redisService.executeScript("return redis.call('ttl', KEYS[1])",
+                List.of(RedisKeyManager.openTeamMetaKey("TEAM_A")));
+        assertThat(ttl).isPositive().isLessThanOrEqualTo(600 + 3600);
+
+        openTeamIndex.remove("TEAM_A");
+        assertThat(redisService.exists(RedisKeyManager.openTeamMetaKey("TEAM_A"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("后台重建期间旧索引可读，完成后以数据库为准")
+    void requestRebuild_shouldServeOldIndexUntilPublished() throws InterruptedException {
+        // 旧索引存在但已建立标记已过期；数据库中该活动没有进行中的拼团
+        openTeamIndex.upsert(ACTIVITY_ID, "TEAM_A", 1, 3, LocalDateTime.now().plusHours(1));
+        assertThat(openTeamIndex.isBuilt(ACTIVITY_ID)).isFalse();
+
+        // 持有重建锁，模拟其他节点正在重建：后台任务抢不到锁，旧索引保持可读
+        assertThat(openTeamIndex.tryLockRebuild(ACTIVITY_ID)).isTrue();
+        openTeamIndexRebuildJob.requestRebuild(ACTIVITY_ID);
+        Thread.sleep(200);
+        assertThat(openTeamIndex.page(ACTIVITY_ID, 0, 10).orderIds()).containsExactly("TEAM_A");
+        assertThat(openTeamIndex.isBuilt(ACTIVITY_ID)).isFalse();
+
+        redisService.delete(RedisKeyManager.openTeamRebuildLockKey(ACTIVITY_ID));
+        openTeamIndexRebuildJob.requestRebuild(ACTIVITY_ID);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!openTeamIndex.isBuilt(ACTIVITY_ID) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertThat(openTeamIndex.isBuilt(ACTIVITY_ID)).isTrue();
+        assertThat(openTeamIndex.page(ACTIVITY_ID, 0, 10).orderIds()).isEmpty();
+    }
+
+    private Order pending(String orderId, int lockCount) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setActivityId(ACTIVITY_ID);
+        order.setStatus(OrderStatus.PENDING);
+        order.setLockCount(lockCount);
+        order.setTargetCount(3);
+        order.setDeadlineTime(LocalDateTime.now().plusHours(1));
+        return order;
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.start.order;
+
+import org.example.common.cache.RedisKeyManager;
+import org.example.domain.model.order.Order;
+import org.example.domain.model.order.repository.OrderRepository;
+import org.example.infrastructure.cache.IRedisService;
+import org.example.infrastructure.datasource.DataSourceRouteContext;
+import org.example.start.base.IntegrationTestBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 拼团订单缓存在途写计数测试
+ *
+ * <p>
+ * 测试目的：
+ * <ul>
+ * <li>SQL 抛异常回滚后在途计数被撤销，不会阻塞回填直到计数过期</li>
+ * <li>正常的计数器更新结束后在途计数归零，下一次读取可以回填缓存</li>
+ * <li>只读查询（优先读从库）未命中时不回填缓存</li>
+ * <li>事务内未命中时不回填：快照在事务首次读取时固定，之后其他事务提交的计数不可见</li>
+ * </ul>
+ *
+ */
+@DisplayName("拼团订单缓存在途写计数测试")
+public class OrderCacheInflightTest extends IntegrationTestBase {
+
+    private static final String ORDER_ID = "ORDER_CACHE_INFLIGHT";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private IRedisService redisService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM `order` WHERE order_id = ?", ORDER_ID);
+        redisService.delete(RedisKeyManager.orderCacheKey(ORDER_ID));
+        redisService.delete(RedisKeyManager.orderCacheInflightKey(ORDER_ID));
+        redisService.delete(RedisKeyManager.orderCacheLeaseKey(ORDER_ID));
+    }
+
+    @Test
+    @DisplayName("保存失败回滚后撤销在途计数")
+    void failedSave_shouldReleaseInflight() {
+        Order order = new Order();
+        order.setOrderId(ORDER_ID);
+        // activity_id 为 VARCHAR(50)，超长触发 SQL 异常
+        order.setActivityId("A".repeat(100));
+
+        assertThatThrownBy(() -> orderRepository.save(order)).isInstanceOf(RuntimeException.class);
+
+        assertThat(inflight()).isZero();
+    }
+
+    @Test
+    @DisplayName("计数器更新结束后在途计数归零并可回填")
+    void counterWrite_shouldReleaseInflight() {
+        insertOrder();
+
+        assertThat(orderRepository.incrementLockCount(ORDER_ID)).isEqualTo(1);
+        assertThat(inflight()).isZero();
+
+        assertThat(orderRepository.findById(ORDER_ID)).isPresent();
+        assertThat(redisService.exists(RedisKeyManager.orderCacheKey(ORDER_ID))).isTrue();
+    }
+
+    @Test
+    @DisplayName("只读查询未命中时不回填缓存")
+    void replicaPreferredRead_shouldNotFill() {
+        insertOrder();
+
+        DataSourceRouteContext.preferReplica();
+        try {
+            assertThat(orderRepository.findById(ORDER_ID)).isPresent();
+        } finally {
+            DataSourceRouteContext.clear();
+        }
+        assertThat(redisService.exists(RedisKeyManager.orderCacheKey(ORDER_ID))).isFalse();
+
+        assertThat(orderRepository.findById(ORDER_ID)).isPresent();
+        assertThat(redisService.exists(RedisKeyManager.orderCacheKey(ORDER_ID))).isTrue();
+    }
+
+    @Test
+    @DisplayName("事务内读到旧快照时不回填缓存")
+    void readInsideTransaction_shouldNotFillOldSnapshot() {
+        insertOrder();
+
+        Integer lockCountInTransaction = transactionTemplate.execute(status -> {
+            // 事务第一次读取固定快照（如 applyPayment 先读交易订单）
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM trade_order", Integer.class);
+            // 快照之后另一个事务提交了计数更新
+            assertThat(CompletableFuture.supplyAsync(() -> orderRepository.incrementLockCount(ORDER_ID)).join())
+                    .isEqualTo(1);
+            return orderRepository.findById(ORDER_ID).orElseThrow().getLockCount();
+        });
+
+        assertThat(lockCountInTransaction).isZero();
+        assertThat(redisService.exists(RedisKeyManager.orderCacheKey(ORDER_ID))).isFalse();
+
+        assertThat(orderRepository.findById(ORDER_ID).orElseThrow().getLockCount()).isEqualTo(1);
+        assertThat(redisService.exists(RedisKeyManager.orderCacheKey(ORDER_ID))).isTrue();
+    }
+
+    private void insertOrder() {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(
+                "INSERT INTO `order` (order_id, activity_id, spu_id, leader_user_id, status, target_count, "
+                        + "lock_count, complete_count, original_price, deduction_price, pay_amount, "
+                        + "start_time, deadline_time, create_time, update_time) "
+                        + "VALUES (?, 'ACT_INFLIGHT', 'SPU_INFLIGHT', 'LEADER_INFLIGHT', 'PENDING', 3, 0, 0, "
+                        + "100.00, 20.00, 0.00, ?, ?, ?, ?)",
+                ORDER_ID, now, now.plusHours(1), now, now);
+    }
+
+    private long inflight() {
+        String value = redisService.getString(RedisKeyManager.orderCacheInflightKey(ORDER_ID));
+        return value == null ? 0 : Long.parseLong(value);
+    }
+}
@@ -0,0 +1,147 @@
+package org.example.start.order;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.domain.model.order.repository.OrderRepository;
+import org.example.infrastructure.persistence.mapper.OrderMapper;
+import org.example.infrastructure.persistence.po.OrderPO;
+import org.example.start.base.ConcurrentTestSupport;
+import org.example.start.base.IntegrationTestBase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 热点拼团计数器单次往返基准测试
+ *
+ * <p>
+ * 测试目的：对比同一热点 order 行上两种计数方式的吞吐
+ * <ul>
+ * <li>基线：UPDATE 条件更新 + selectOne 读回新值（两次往返，SELECT 期间仍持有行锁）</li>
+ * <li>优化：UPDATE ... SET lock_count = LAST_INSERT_ID(lock_count + 1)，新值随 OK 包返回（一次往返）</li>
+ * </ul>
+ * <p>
+ * 场景：32 个线程在各自的事务中持续对同一 order 行加锁单量，固定时长内统计完成次数
+ * <p>
+ * 验证：
+ * <ul>
+ * <li>两种方式返回的新值互不重复，最终 lock_count 等于成功次数（正确性）</li>
+ * <li>输出两种方式的吞吐（ops/s）和提升比例（性能结论以日志为准，不做硬性断言，避免 CI 环境抖动误报）</li>
+ * </ul>
+ *
+ */
+@Slf4j
+@DisplayName("热点拼团计数器单次往返基准测试")
+public class OrderCounterRoundTripBenchmarkTest extends IntegrationTestBase {
+
+    private static final int THREADS = 32;
+    private static final long WARMUP_MILLIS = 2_000;
+    private static final long MEASURE_MILLIS = 5_000;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("LAST_INSERT_ID 单次往返 vs UPDATE + SELECT")
+    void benchmarkHotTeamLockCount() throws InterruptedException {
+        String baselineOrderId = createHotOrder("BENCH_BASE_");
+        String returningOrderId = createHotOrder("BENCH_RET_");
+
+        // 基线：UPDATE 后再 SELECT 读回新值
+        IntSupplier baseline = () -> transactionTemplate.execute(status -> {
+            if (orderMapper.incrementLockCount(baselineOrderId) == 0) {
+                return -1;
+            }
+            LambdaQueryWrapper<OrderPO> wrapper = new LambdaQueryWrapper<>();
+            wrapper.eq(OrderPO::getOrderId, baselineOrderId);
+            return orderMapper.selectOne(wrapper).getLockCount();
+        });
+
+        // 优化：仓储实现（LAST_INSERT_ID 单次往返）
+        IntSupplier returning = () -> transactionTemplate
+                .execute(status -> orderRepository.incrementLockCount(returningOrderId));
+
+        run(baseline, WARMUP_MILLIS);
+        run(returning, WARMUP_MILLIS);
+        resetLockCount(baselineOrderId);
+        resetLockCount(returningOrderId);
+
+        Result baselineResult = run(baseline, MEASURE_MILLIS);
+        Result returningResult = run(returning, MEASURE_MILLIS);
+
+        double baselineOps = baselineResult.ops() * 1000.0 / MEASURE_MILLIS;
+        double returningOps = returningResult.ops() * 1000.0 / MEASURE_MILLIS;
+        log.info("【基准结果】threads: {}, UPDATE+SELECT: {} ops/s, LAST_INSERT_ID: {} ops/s, 提升: {}%",
+                THREADS, String.format("%.0f", baselineOps), String.format("%.0f", returningOps),
+                String.format("%.1f", (returningOps / baselineOps - 1) * 100));
+
+        // 正确性：每次返回的新值唯一，且与数据库最终值一致
+        assertThat(baselineResult.distinctValues()).isEqualTo(baselineResult.ops());
+        assertThat(returningResult.distinctValues()).isEqualTo(returningResult.ops());
+        assertThat(lockCountOf(baselineOrderId)).isEqualTo(baselineResult.ops());
+        assertThat(lockCountOf(returningOrderId)).isEqualTo(returningResult.ops());
+    }
+
+    private Result run(IntSupplier increment, long durationMillis) throws InterruptedException {
+        AtomicInteger ops = new AtomicInteger();
+        Set<Integer> values = ConcurrentHashMap.newKeySet();
+        long deadline = System.currentTimeMillis() + durationMillis;
+
+        ConcurrentTestSupport.executeConcurrently(THREADS, () -> {
+            while (System.currentTimeMillis() < deadline) {
+                int value = increment.getAsInt();
+                if (value > 0) {
+                    ops.incrementAndGet();
+                    values.add(value);
+                }
+            }
+        }, (int) (durationMillis / 1000) + 30);
+
+        return new Result(ops.get(), values.size());
+    }
+
+    private String createHotOrder(String prefix) {
+        String orderId = prefix + System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(
+                "INSERT INTO `order` (order_id, activity_id, spu_id, leader_user_id, status, target_count, "
+                        + "lock_count, complete_count, original_price, deduction_price, pay_amount, "
+                        + "start_time, deadline_time, create_time, update_time) "
+                        + "VALUES (?, 'ACT_BENCH', 'SPU_BENCH', 'LEADER_BENCH', 'PENDING', 100000000, 0, 0, "
+                        + "100.00, 20.00, 0.00, ?, ?, ?, ?)",
+                orderId, now, now.plusHours(1), now, now);
+        return orderId;
+    }
+
+    private void resetLockCount(String orderId) {
+        jdbcTemplate.update("UPDATE `order` SET lock_count = 0 WHERE order_id = ?", orderId);
+    }
+
+    private int lockCountOf(String orderId) {
+        Integer lockCount = jdbcTemplate.queryForObject("SELECT lock_count FROM `order` WHERE order_id = ?",
+                Integer.class, orderId);
+        return lockCount == null ? 0 : lockCount;
+    }
+
+    private record Result(int ops, int distinctValues) {
+    }
+}
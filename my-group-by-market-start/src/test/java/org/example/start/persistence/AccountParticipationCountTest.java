@@ -0,0 +1,81 @@
+package org.example.start.persistence;
+
+import org.example.domain.model.account.Account;
+import org.example.domain.model.account.repository.AccountRepository;
+import org.example.start.base.ConcurrentTestSupport;
+import org.example.start.base.IntegrationTestBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 参团次数原子扣减测试
+ *
+ * <p>
+ * 测试目的：
+ * <ul>
+ * <li>首次参与并发请求（账户不存在）在 REPEATABLE READ 事务内不死锁，成功次数恰好等于上限</li>
+ * <li>已达上限后扣减失败，次数不再增长</li>
+ * <li>补偿后可以再次扣减</li>
+ * </ul>
+ *
+ */
+@DisplayName("参团次数原子扣减测试")
+public class AccountParticipationCountTest extends IntegrationTestBase {
+
+    private static final String USER_ID = "USER_ACCOUNT_DEDUCT";
+    private static final String ACTIVITY_ID = "ACT_ACCOUNT_DEDUCT";
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM account WHERE user_id = ?", USER_ID);
+    }
+
+    @Test
+    @DisplayName("首次参与并发扣减不死锁，成功次数等于上限")
+    void concurrentFirstDeduct_shouldRespectLimitWithoutDeadlock() throws Exception {
+        int limit = 3;
+        List<Boolean> results = ConcurrentTestSupport.executeConcurrentlyWithResults(50,
+                () -> transactionTemplate.execute(status -> accountRepository.tryDeductCount(USER_ID, ACTIVITY_ID,
+                        limit)));
+
+        assertThat(results).hasSize(50).doesNotContainNull();
+        assertThat(results).filteredOn(Boolean::booleanValue).hasSize(limit);
+        assertThat(participationCount()).isEqualTo(limit);
+    }
+
+    @Test
+    @DisplayName("达到上限后失败，补偿后可再次扣减")
+    void deductAfterLimit_shouldFailUntilCompensated() {
+        assertThat(accountRepository.tryDeductCount(USER_ID, ACTIVITY_ID, 2)).isTrue();
+        assertThat(accountRepository.tryDeductCount(USER_ID, ACTIVITY_ID, 2)).isTrue();
+        assertThat(accountRepository.tryDeductCount(USER_ID, ACTIVITY_ID, 2)).isFalse();
+        assertThat(participationCount()).isEqualTo(2);
+
+        assertThat(accountRepository.compensateCount(USER_ID, ACTIVITY_ID)).isTrue();
+        assertThat(accountRepository.tryDeductCount(USER_ID, ACTIVITY_ID, 2)).isTrue();
+        assertThat(participationCount()).isEqualTo(2);
+    }
+
+    private int participationCount() {
+        return accountRepository.findByUserAndActivity(USER_ID, ACTIVITY_ID)
+                .map(Account::getParticipationCount)
+                .orElse(0);
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.start.persistence;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.example.infrastructure.cache.CrowdTagCacheService;
+import org.example.infrastructure.persistence.mapper.CrowdTagDetailMapper;
+import org.example.infrastructure.persistence.po.CrowdTagCandidatePO;
+import org.example.start.base.IntegrationTestBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 人群标签候选查询测试
+ *
+ * <p>
+ * 测试目的：
+ * <ul>
+ * <li>流式候选查询按用户逐行汇总交易，只统计已支付/已结算，统计窗口生效</li>
+ * <li>已归档的结算订单同样计入订单数/GMV</li>
+ * <li>无交易的用户仍返回（笔数为0，金额为空）</li>
+ * <li>单用户查询与流式查询的汇总一致</li>
+ * <li>位索引落在 BitSet 可用范围内</li>
+ * </ul>
+ *
+ */
+@DisplayName("人群标签候选查询测试")
+public class CrowdTagCandidateQueryTest extends IntegrationTestBase {
+
+    private static final String PREFIX = "CANDIDATE_";
+    private static final String BUYER = PREFIX + "BUYER";
+    private static final String IDLE = PREFIX + "IDLE";
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private CrowdTagDetailMapper crowdTagDetailMapper;
+
+    @Autowired
+    private CrowdTagCacheService crowdTagCacheService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO `user` (user_id, username, role) VALUES (?, ?, 'USER'), (?, ?, 'USER')",
+                BUYER, BUYER, IDLE, IDLE);
+        LocalDateTime now = LocalDateTime.now();
+        insertOrder(PREFIX + "1", "PAID", now.minusDays(1));
+        insertOrder(PREFIX + "2", "SETTLED", now.minusDays(2));
+        insertOrder(PREFIX + "3", "SETTLED", now.minusDays(40));
+        insertOrder(PREFIX + "4", "REFUND", now.minusDays(1));
+        insertOrder(PREFIX + "5", "CREATE", null);
+        insertOrder("trade_order_archive", PREFIX + "6", "SETTLED", now.minusDays(200));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM trade_order WHERE trade_order_id LIKE ?", PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM trade_order_archive WHERE trade_order_id LIKE ?", PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM `user` WHERE user_id LIKE ?", PREFIX + "%");
+    }
+
+    @Test
+    @DisplayName("流式查询按用户汇总交易，统计窗口生效")
+    void streamTagCandidates_shouldAggregatePerUser() throws Exception {
+        Map<String, CrowdTagCandidatePO> all = stream(null);
+        assertThat(all.get(BUYER).getOrderCount()).as("含归档订单").isEqualTo(4L);
+        assertThat(all.get(BUYER).getGmv()).isEqualByComparingTo(new BigDecimal("320.00"));
+        assertThat(all.get(IDLE).getOrderCount()).isZero();
+        assertThat(all.get(IDLE).getGmv()).isNull();
+
+        Map<String, CrowdTagCandidatePO> recent = stream(LocalDateTime.now().minusDays(30));
+        assertThat(recent.get(BUYER).getOrderCount()).isEqualTo(2L);
+        assertThat(recent.get(BUYER).getGmv()).isEqualByComparingTo(new BigDecimal("160.00"));
+    }
+
+    @Test
+    @DisplayName("单用户查询与流式查询汇总一致")
+    void selectTagCandidate_shouldMatchStream() throws Exception {
+        LocalDateTime since = LocalDateTime.now().minusDays(30);
+        CrowdTagCandidatePO single = crowdTagDetailMapper.selectTagCandidate(BUYER, true, since);
+        CrowdTagCandidatePO streamed = stream(since).get(BUYER);
+
+        assertThat(single.getOrderCount()).isEqualTo(streamed.getOrderCount());
+        assertThat(single.getGmv()).isEqualByComparingTo(streamed.getGmv());
+        assertThat(crowdTagDetailMapper.selectTagCandidate(PREFIX + "MISSING", true, since)).isNull();
+    }
+
+    @Test
+    @DisplayName("位索引在 BitSet 可用范围内")
+    void bitIndexOf_shouldBeNonNegativeInt() {
+        assertThat(crowdTagCacheService.bitIndexOf(BUYER)).isNotNegative();
+        assertThat(crowdTagCacheService.bitIndexOf(BUYER)).isEqualTo(crowdTagCacheService.bitIndexOf(BUYER));
+    }
+
+    private Map<String, CrowdTagCandidatePO> stream(LocalDateTime since) throws Exception {
+        Map<String, CrowdTagCandidatePO> result = new HashMap<>();
+        try (SqlSession session = sqlSessionFactory.openSession();
+                Cursor<CrowdTagCandidatePO> cursor = session.getMapper(CrowdTagDetailMapper.class)
+                        .streamTagCandidates(true, since)) {
+            for (CrowdTagCandidatePO candidate : cursor) {
+                if (candidate.getUserId().startsWith(PREFIX)) {
+                    result.put(candidate.getUserId(), candidate);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void insertOrder(String tradeOrderId, String status, LocalDateTime payTime) {
+        insertOrder("trade_order", tradeOrderId, status, payTime);
+    }
+
+    private void insertOrder(String table, String tradeOrderId, String status, LocalDateTime payTime) {
+        jdbcTemplate.update("INSERT INTO " + table + " (trade_order_id, team_id, order_id, activity_id, user_id, sku_id, "
+                + "goods_name, original_price, deduction_price, pay_price, status, out_trade_no, pay_time, source, channel) "
+                + "VALUES (?, 'TEAM_CANDIDATE', 'ORDER_CANDIDATE', 'ACT_CANDIDATE', ?, 'SKU_CANDIDATE', '候选样本', "
+                + "100.00, 20.00, 80.00, ?, ?, ?, 's01', 'c01')",
+                tradeOrderId, BUYER, status, "OUT_" + tradeOrderId, payTime);
+    }
+}
@@ -0,0 +1,259 @@
+package org.example.start.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.example.start.base.IntegrationTestBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mapper 执行计划回归测试
+ *
+ * <p>
+ * 测试目的：对所有 XML Mapper 中的 SELECT 语句执行 EXPLAIN，防止新增/修改的 SQL 或索引调整引入全表扫描和 filesort
+ * <p>
+ * 做法：
+ * <ul>
+ * <li>从 MyBatis Configuration 枚举 XML 定义的 SELECT 语句（新增语句自动纳入）</li>
+ * <li>按 Mapper 方法的参数类型生成样例参数（可按语句覆盖为贴近线上的取值），经 MyBatis 渲染动态 SQL 后 EXPLAIN</li>
+ * <li>交易订单表预先写入数千行并 ANALYZE，使优化器按真实数据分布选择索引</li>
+ * </ul>
+ * <p>
+ * 判定：
+ * <ul>
+ * <li>交易订单表（已写入样本数据并更新统计信息）：type=ALL 或 Using filesort</li>
+ * <li>其它表（测试库中几乎为空，优化器可能放弃索引）：只判定与统计信息无关的结构性问题，
+ * 即 type=ALL 且没有任何可用索引（possible_keys 为空）</li>
+ * </ul>
+ * 已知且有意的例外登记在 {@link #ALLOWED}，每条必须写明原因。
+ *
+ */
+@Slf4j
+@DisplayName("Mapper 执行计划回归测试")
+public class MapperExplainPlanTest extends IntegrationTestBase {
+
+    private static final String SEED_PREFIX = "EXPLAIN_";
+    private static final int SEED_ROWS = 5000;
+    private static final String SEEDED_TABLE = "trade_order";
+
+    /**
+     * 已知例外：语句ID（不含命名空间）→ 原因
+     */
+    private static final Map<String, String> ALLOWED = Map.of(
+            "selectActivityIdBySourceChannelGoods", "未被调用，引用了 activity_goods 不存在的 goods_id 列，EXPLAIN 报错",
+            "streamTagCandidates", "人群标签全量计算，有意流式扫描全部用户");
+
+    /**
+     * 按语句覆盖的样例参数（未覆盖的参数按类型生成）
+     */
+    private static final Map<String, Map<String, Object>> OVERRIDES = Map.of(
+            // 管理后台典型用法：按状态 + 月份筛选/导出，不带关键词
+            "streamForExport", monthFilter(),
+            "countForAdmin", monthFilter(),
+            "selectForAdmin", monthFilter());
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seedTradeOrders() {
+        LocalDateTime now = LocalDateTime.now();
+        String[] statuses = {"CREATE", "PAID", "SETTLED", "TIMEOUT", "REFUND"};
+        List<Object[]> rows = new ArrayList<>(SEED_ROWS);
+        for (int i = 0; i < SEED_ROWS; i++) {
+            String status = statuses[i % statuses.length];
+            LocalDateTime createTime = now.minusMinutes(i * 10L);
+            rows.add(new Object[]{
+                    SEED_PREFIX + i, "TEAM_" + SEED_PREFIX + (i / 5), "ORD_" + SEED_PREFIX + (i / 5),
+                    "ACT_" + SEED_PREFIX + (i % 20), "USER_" + SEED_PREFIX + (i % 500), status,
+                    "OUT_" + SEED_PREFIX + i,
+                    "PAID".equals(status) || "SETTLED".equals(status) ? createTime.plusMinutes(1) : null,
+                    createTime});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO trade_order (trade_order_id, team_id, order_id, activity_id, user_id, sku_id, goods_name, " +
+                        "original_price, deduction_price, pay_price, status, out_trade_no, pay_time, source, channel, create_time) " +
+                        "VALUES (?, ?, ?, ?, ?, 'SKU_EXPLAIN', '执行计划样本', 100.00, 20.00, 80.00, ?, ?, ?, 's01', 'c01', ?)",
+                rows);
+        jdbcTemplate.execute("ANALYZE TABLE trade_order");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM trade_order WHERE trade_order_id LIKE ?", SEED_PREFIX + "%");
+    }
+
+    @Test
+    @DisplayName("XML Mapper 的 SELECT 语句不出现全表扫描和 filesort")
+    void explainAllMapperSelects() throws Exception {
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        Map<String, MappedStatement> statements = new TreeMap<>();
+        for (Object candidate : configuration.getMappedStatements()) {
+            // getMappedStatements 中同一语句会以全名和短名各出现一次，按全名去重
+            if (candidate instanceof MappedStatement ms
+                    && ms.getSqlCommandType() == SqlCommandType.SELECT
+                    && ms.getResource() != null && ms.getResource().contains(".xml")) {
+                statements.put(ms.getId(), ms);
+            }
+        }
+        assertThat(statements).as("应扫描到 XML Mapper 中的 SELECT 语句").isNotEmpty();
+
+        List<String> violations = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (MappedStatement ms : statements.values()) {
+                String shortId = ms.getId().substring(ms.getId().lastIndexOf('.') + 1);
+                String allowedReason = ALLOWED.get(shortId);
+                try {
+                    List<String> problems = explain(connection, configuration, ms, shortId);
+                    if (problems.isEmpty()) {
+                        continue;
+                    }
+                    if (allowedReason != null) {
+                        log.info("【执行计划】{} 已登记例外（{}）: {}", ms.getId(), allowedReason, problems);
+                    } else {
+                        violations.add(ms.getId() + " " + problems);
+                    }
+                } catch (Exception e) {
+                    if (allowedReason != null) {
+                        log.info("【执行计划】{} 已登记例外（{}）: {}", ms.getId(), allowedReason, e.getMessage());
+                    } else {
+                        violations.add(ms.getId() + " EXPLAIN 失败: " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        log.info("【执行计划】检查语句数: {}, 问题数: {}", statements.size(), violations.size());
+        assertThat(violations).as("执行计划出现全表扫描或 filesort").isEmpty();
+    }
+
+    /**
+     * 渲染语句并执行 EXPLAIN
+     *
+     * @return 结构性问题描述（空表示通过）
+     */
+    private List<String> explain(Connection connection, Configuration configuration, MappedStatement ms,
+            String shortId) throws Exception {
+        Object parameter = sampleParameter(configuration, ms, shortId);
+        BoundSql boundSql = ms.getBoundSql(parameter);
+        List<String> problems = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement("EXPLAIN " + boundSql.getSql())) {
+            ParameterHandler handler = new DefaultParameterHandler(ms, parameter, boundSql);
+            handler.setParameters(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String table = rs.getString("table");
+                    String type = rs.getString("type");
+                    String possibleKeys = rs.getString("possible_keys");
+                    String key = rs.getString("key");
+                    String extra = rs.getString("Extra");
+                    if (table == null || table.startsWith("<")) {
+                        // 派生表/物化子查询，由其内部查询行判定
+                        continue;
+                    }
+                    boolean seeded = SEEDED_TABLE.equals(table);
+                    boolean fullScan = "ALL".equals(type) && (seeded || possibleKeys == null);
+                    boolean filesort = seeded && extra != null && extra.contains("Using filesort");
+                    if (fullScan || filesort) {
+                        problems.add(String.format("table=%s, type=%s, key=%s, possible_keys=%s, extra=%s",
+                                table, type, key, possibleKeys, extra));
+                    }
+                }
+            }
+        }
+        return problems;
+    }
+
+    /**
+     * 按 Mapper 方法签名生成样例参数，再叠加语句级覆盖
+     */
+    private Object sampleParameter(Configuration configuration, MappedStatement ms, String shortId)
+            throws ClassNotFoundException {
+        String namespace = ms.getId().substring(0, ms.getId().lastIndexOf('.'));
+        Method method = Arrays.stream(Class.forName(namespace).getMethods())
+                .filter(m -> m.getName().equals(shortId))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Mapper 方法不存在: " + ms.getId()));
+
+        Map<String, Object> overrides = OVERRIDES.getOrDefault(shortId, Map.of());
+        Parameter[] parameters = method.getParameters();
+        Object[] args = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            org.apache.ibatis.annotations.Param param = parameters[i]
+                    .getAnnotation(org.apache.ibatis.annotations.Param.class);
+            String name = param != null ? param.value() : parameters[i].getName();
+            args[i] = overrides.containsKey(name) ? overrides.get(name) : sampleValue(parameters[i].getType());
+        }
+        return new ParamNameResolver(configuration, method).getNamedParams(args);
+    }
+
+    private static Object sampleValue(Class<?> type) {
+        if (type == String.class) {
+            return SEED_PREFIX + "1";
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now().minusDays(1);
+        }
+        if (type == int.class || type == Integer.class) {
+            return 10;
+        }
+        if (type == long.class || type == Long.class) {
+            return 10L;
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return true;
+        }
+        if (type == BigDecimal.class) {
+            return BigDecimal.TEN;
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return List.of(SEED_PREFIX + "1", SEED_PREFIX + "2");
+        }
+        return null;
+    }
+
+    private static Map<String, Object> monthFilter() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Object> filter = new HashMap<>();
+        filter.put("keyword", null);
+        filter.put("status", "PAID");
+        filter.put("startDate", now.minusDays(30));
+        filter.put("endDate", now);
+        return filter;
+    }
+}
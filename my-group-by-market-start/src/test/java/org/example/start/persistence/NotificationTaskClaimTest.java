@@ -0,0 +1,156 @@
+package org.example.start.persistence;
+
+import org.example.application.job.NotificationTaskScheduler;
+import org.example.domain.model.notification.NotificationTask;
+import org.example.domain.model.notification.repository.NotificationTaskRepository;
+import org.example.start.base.IntegrationTestBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 通知任务多节点认领测试
+ *
+ * <p>
+ * 测试目的：
+ * <ul>
+ * <li>两个节点同时认领：节点 A 的认领事务未提交时，节点 B 仍能拿到满批次且与 A 不重叠
+ * （认领查询按索引顺序读够即停，只锁定返回的行）</li>
+ * <li>待处理任务不足一批时补充认领租约已过期的任务，租约未过期的任务不被认领</li>
+ * </ul>
+ *
+ */
+@DisplayName("通知任务多节点认领测试")
+public class NotificationTaskClaimTest extends IntegrationTestBase {
+
+    private static final String PREFIX = "NTF_CLAIM_";
+    private static final int BATCH = 10;
+    private static final int LEASE_SECONDS = 60;
+
+    /** 关闭定时认领，避免与测试中的两个"节点"争抢 */
+    @MockBean
+    private NotificationTaskScheduler notificationTaskScheduler;
+
+    @Autowired
+    private NotificationTaskRepository notificationTaskRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM notification_task");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM notification_task WHERE task_id LIKE ?", PREFIX + "%");
+    }
+
+    @Test
+    @DisplayName("两节点并发认领各得满批次且互不重叠")
+    void twoNodes_shouldClaimDisjointFullBatches() throws Exception {
+        insertPending(3 * BATCH);
+
+        CountDownLatch aClaimed = new CountDownLatch(1);
+        CountDownLatch bDone = new CountDownLatch(1);
+        CompletableFuture<List<String>> nodeA = CompletableFuture.supplyAsync(() ->
+                transactionTemplate.execute(status -> {
+                    List<String> ids = taskIds(notificationTaskRepository.claimPendingTasks("NODE_A", BATCH,
+                            LEASE_SECONDS));
+                    aClaimed.countDown();
+                    try {
+                        // 持有行锁直到节点 B 认领完成
+                        bDone.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return ids;
+                }));
+
+        assertThat(aClaimed.await(10, TimeUnit.SECONDS)).isTrue();
+        List<String> nodeB = taskIds(notificationTaskRepository.claimPendingTasks("NODE_B", BATCH, LEASE_SECONDS));
+        bDone.countDown();
+        List<String> claimedByA = nodeA.get(10, TimeUnit.SECONDS);
+
+        assertThat(claimedByA).hasSize(BATCH);
+        assertThat(nodeB).as("A 未提交时 B 仍能拿到满批次").hasSize(BATCH).doesNotContainAnyElementsOf(claimedByA);
+        assertThat(leaseOwners()).containsOnly("NODE_A", "NODE_B", null);
+        assertThat(countByOwner("NODE_A")).isEqualTo(BATCH);
+        assertThat(countByOwner("NODE_B")).isEqualTo(BATCH);
+    }
+
+    @Test
+    @DisplayName("待处理任务不足时补充认领租约过期的任务")
+    void claim_shouldFillWithExpiredLeases() {
+        insertPending(3);
+        insertProcessing("EXPIRED_", 4, LocalDateTime.now().minusMinutes(5));
+        insertProcessing("LEASED_", 4, LocalDateTime.now().plusMinutes(5));
+
+        List<String> claimed = taskIds(notificationTaskRepository.claimPendingTasks("NODE_C", BATCH,
+                LEASE_SECONDS));
+
+        assertThat(claimed).hasSize(7)
+                .contains(PREFIX + "PENDING_0", PREFIX + "PENDING_1", PREFIX + "PENDING_2")
+                .noneMatch(id -> id.startsWith(PREFIX + "LEASED_"));
+        assertThat(countByOwner("NODE_C")).isEqualTo(7);
+    }
+
+    private void insertPending(int count) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{PREFIX + "PENDING_" + i, "TRD_" + PREFIX + i});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO notification_task (task_id, trade_order_id, notify_type, notify_url, status) " +
+                        "VALUES (?, ?, 'HTTP', 'http://127.0.0.1/notify', 'PENDING')",
+                rows);
+    }
+
+    private void insertProcessing(String key, int count, LocalDateTime leaseExpireTime) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{PREFIX + key + i, "TRD_" + PREFIX + key + i, leaseExpireTime});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO notification_task (task_id, trade_order_id, notify_type, notify_url, status, " +
+                        "lease_owner, lease_expire_time) " +
+                        "VALUES (?, ?, 'HTTP', 'http://127.0.0.1/notify', 'PROCESSING', 'DEAD_NODE', ?)",
+                rows);
+    }
+
+    private static List<String> taskIds(List<NotificationTask> tasks) {
+        return tasks.stream().map(NotificationTask::getTaskId).toList();
+    }
+
+    private Set<String> leaseOwners() {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT lease_owner FROM notification_task WHERE task_id LIKE ?", String.class, PREFIX + "%"));
+    }
+
+    private int countByOwner(String owner) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notification_task WHERE lease_owner = ? AND status = 'PROCESSING'",
+                Integer.class, owner);
+        return count == null ? 0 : count;
+    }
+}
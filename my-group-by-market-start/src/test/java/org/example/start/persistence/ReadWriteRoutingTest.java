@@ -0,0 +1,337 @@
+package org.example.start.persistence;
+
+import org.example.common.cache.RedisKeyManager;
+import org.example.common.datasource.ReadOnly;
+import org.example.infrastructure.cache.IRedisService;
+import org.example.infrastructure.datasource.ReadWriteRoutingDataSource;
+import org.example.infrastructure.datasource.RecentWriteTracker;
+import org.example.infrastructure.persistence.mapper.TradeOrderMapper;
+import org.example.infrastructure.security.JwtAuthenticationFilter;
+import org.example.start.base.IntegrationTestBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 读写分离集成测试
+ *
+ * <p>
+ * 测试环境：两个 MySQL 容器组成 GTID 主从复制（server_id 分别为 1 和 2），Flyway 在主库建表后复制到从库
+ *
+ * <p>
+ * 测试目的：
+ * <ul>
+ * <li>@ReadOnly 方法的查询路由到从库，其余查询走主库</li>
+ * <li>@ReadOnly 方法内调用的 @Transactional 写方法在主库执行</li>
+ * <li>事务内的写入在提交后才设置读己之写标记，回滚不设置</li>
+ * <li>用户写入后的读己之写窗口内，该用户的只读查询走主库</li>
+ * <li>从库复制中断时被健康检查摘除，读请求回退主库；恢复后重新加入</li>
+ * </ul>
+ *
+ */
+@DisplayName("读写分离测试")
+@Import(ReadWriteRoutingTest.ProbeConfig.class)
+public class ReadWriteRoutingTest extends IntegrationTestBase {
+
+    private static final int PRIMARY_SERVER_ID = 1;
+    private static final int REPLICA_SERVER_ID = 2;
+    private static final String USER_ID = "RW_ROUTING_USER";
+
+    private static final MySQLContainer<?> PRIMARY;
+    private static final MySQLContainer<?> REPLICA;
+
+    static {
+        Network network = Network.newNetwork();
+        PRIMARY = mysql(network, "mysql-primary", "--server-id=" + PRIMARY_SERVER_ID);
+        REPLICA = mysql(network, "mysql-replica", "--server-id=" + REPLICA_SERVER_ID);
+        PRIMARY.start();
+        REPLICA.start();
+        startReplication();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            REPLICA.stop();
+            PRIMARY.stop();
+            network.close();
+        }));
+    }
+
+    @DynamicPropertySource
+    static void configureReplication(DynamicPropertyRegistry registry) {
+        // 覆盖基类的单库配置：主库为复制源，从库用 root（需要 REPLICATION CLIENT 查询复制状态）
+        registry.add("spring.datasource.url", PRIMARY::getJdbcUrl);
+        registry.add("spring.datasource.username", PRIMARY::getUsername);
+        registry.add("spring.datasource.password", PRIMARY::getPassword);
+        registry.add("app.datasource.read-write.enabled", () -> "true");
+        registry.add("app.datasource.read-write.replicas[0].name", () -> "replica-1");
+        registry.add("app.datasource.read-write.replicas[0].url", REPLICA::getJdbcUrl);
+        registry.add("app.datasource.read-write.replicas[0].username", () -> "root");
+        registry.add("app.datasource.read-write.replicas[0].password", REPLICA::getPassword);
+        // 定时检查放慢，测试中手动触发
+        registry.add("app.datasource.read-write.health-check-interval-ms", () -> "600000");
+    }
+
+    @Autowired
+    private ServerIdProbe serverIdProbe;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Autowired
+    private RecentWriteTracker recentWriteTracker;
+
+    @Autowired
+    private IRedisService redisService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TradeOrderMapper tradeOrderMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        SecurityContextHolder.clearContext();
+        redisService.delete(RedisKeyManager.recentWriteKey(USER_ID));
+        executeOnReplica("START REPLICA");
+        routingDataSource.getHealthChecker().checkNow();
+    }
+
+    @Test
+    @DisplayName("@ReadOnly 查询走从库，普通查询走主库")
+    void readOnlyQueriesGoToReplica() {
+        assertThat(routingDataSource.getHealthChecker().healthyReplicas()).containsExactly("replica-1");
+        assertThat(serverIdProbe.readOnlyServerId()).isEqualTo(REPLICA_SERVER_ID);
+        assertThat(serverIdProbe.serverId()).isEqualTo(PRIMARY_SERVER_ID);
+        assertThat(jdbcTemplate.queryForObject("SELECT @@server_id", Integer.class)).isEqualTo(PRIMARY_SERVER_ID);
+    }
+
+    @Test
+    @DisplayName("读己之写窗口内，本人的只读查询走主库，其他用户不受影响")
+    void recentWriterReadsFromPrimary() {
+        authenticate(USER_ID);
+        recentWriteTracker.markWrite();
+        assertThat(serverIdProbe.readOnlyServerId()).isEqualTo(PRIMARY_SERVER_ID);
+
+        authenticate("RW_ROUTING_OTHER_USER");
+        assertThat(serverIdProbe.readOnlyServerId()).isEqualTo(REPLICA_SERVER_ID);
+    }
+
+    @Test
+    @DisplayName("从库复制中断时摘除并回退主库，恢复后重新加入")
+    void brokenReplicaIsRemovedAndRestored() throws SQLException {
+        executeOnReplica("STOP REPLICA SQL_THREAD");
+        routingDataSource.getHealthChecker().checkNow();
+        assertThat(routingDataSource.getHealthChecker().healthyReplicas()).isEmpty();
+        assertThat(serverIdProbe.readOnlyServerId()).isEqualTo(PRIMARY_SERVER_ID);
+
+        executeOnReplica("START REPLICA SQL_THREAD");
+        routingDataSource.getHealthChecker().checkNow();
+        assertThat(routingDataSource.getHealthChecker().healthyReplicas()).containsExactly("replica-1");
+        assertThat(serverIdProbe.readOnlyServerId()).isEqualTo(REPLICA_SERVER_ID);
+    }
+
+    @Test
+    @DisplayName("@ReadOnly 方法内开启的读写事务走主库")
+    void transactionalWriteInsideReadOnlyGoesToPrimary() {
+        String tradeOrderId = "RW_ROUTING_TX_" + System.nanoTime();
+        try {
+            assertThat(serverIdProbe.writeFromReadOnly(tradeOrderId)).isEqualTo(PRIMARY_SERVER_ID);
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM trade_order WHERE trade_order_id = ?",
+                    Integer.class, tradeOrderId)).isEqualTo(1);
+        } finally {
+            jdbcTemplate.update("DELETE FROM trade_order WHERE trade_order_id = ?", tradeOrderId);
+        }
+    }
+
+    @Test
+    @DisplayName("事务内写入提交后才设置读己之写标记，回滚不设置")
+    void recentWriteIsMarkedAfterCommit() {
+        authenticate(USER_ID);
+        String recentWriteKey = RedisKeyManager.recentWriteKey(USER_ID);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            tradeOrderMapper.deleteById("RW_ROUTING_MISSING");
+            status.setRollbackOnly();
+        });
+        assertThat(redisService.exists(recentWriteKey)).as("回滚不标记").isFalse();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            tradeOrderMapper.deleteById("RW_ROUTING_MISSING");
+            assertThat(redisService.exists(recentWriteKey)).as("提交前不标记").isFalse();
+        });
+        assertThat(redisService.exists(recentWriteKey)).as("提交后标记").isTrue();
+    }
+
+    @Test
+    @DisplayName("主库写入复制到从库")
+    void writesReplicateToReplica() throws Exception {
+        String tradeOrderId = "RW_ROUTING_" + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO trade_order (trade_order_id, team_id, order_id, activity_id, user_id, sku_id, "
+                + "goods_name, original_price, deduction_price, pay_price, status, out_trade_no, source, channel) "
+                + "VALUES (?, 'T', 'O', 'A', ?, 'S', '复制样本', 1.00, 0.00, 1.00, 'SETTLED', ?, 's01', 'c01')",
+                tradeOrderId, USER_ID, tradeOrderId);
+        try {
+            long deadline = System.currentTimeMillis() + 10_000;
+            boolean replicated = false;
+            while (!replicated && System.currentTimeMillis() < deadline) {
+                replicated = countOnReplica(tradeOrderId) == 1;
+                if (!replicated) {
+                    Thread.sleep(100);
+                }
+            }
+            assertThat(replicated).as("10 秒内复制到从库").isTrue();
+        } finally {
+            jdbcTemplate.update("DELETE FROM trade_order WHERE trade_order_id = ?", tradeOrderId);
+        }
+    }
+
+    private static int countOnReplica(String tradeOrderId) throws SQLException {
+        try (Connection connection = rootConnection(REPLICA);
+                PreparedStatement ps = connection.prepareStatement(
+                        "SELECT COUNT(*) FROM trade_order WHERE trade_order_id = ?")) {
+            ps.setString(1, tradeOrderId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static void authenticate(String userId) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new JwtAuthenticationFilter.JwtUserPrincipal(userId, userId, "USER"), null, List.of()));
+    }
+
+    private static MySQLContainer<?> mysql(Network network, String alias, String serverId) {
+        @SuppressWarnings("resource")
+        MySQLContainer<?> container = new MySQLContainer<>(DockerImageName.parse("mysql:8.2.0"))
+                .withDatabaseName("test_db")
+                .withUsername("test_user")
+                .withPassword("test_password")
+                .withNetwork(network)
+                .withNetworkAliases(alias)
+                .withCommand(serverId, "--log-bin=mysql-bin", "--gtid-mode=ON", "--enforce-gtid-consistency=ON");
+        return container;
+    }
+
+    /**
+     * 从库以主库当前 GTID 集合为起点开始复制（两边初始化内容相同，只复制之后的变更）
+     */
+    private static void startReplication() {
+        try (Connection primary = rootConnection(PRIMARY);
+                Statement statement = primary.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT @@GLOBAL.gtid_executed")) {
+            rs.next();
+            String gtidExecuted = rs.getString(1);
+            executeOnReplica("RESET MASTER");
+            executeOnReplica("SET GLOBAL gtid_purged = '" + gtidExecuted + "'");
+            executeOnReplica("CHANGE REPLICATION SOURCE TO SOURCE_HOST = 'mysql-primary', SOURCE_PORT = 3306, "
+                    + "SOURCE_USER = 'root', SOURCE_PASSWORD = '" + PRIMARY.getPassword() + "', "
+                    + "SOURCE_AUTO_POSITION = 1, GET_SOURCE_PUBLIC_KEY = 1");
+            executeOnReplica("START REPLICA");
+            executeOnReplica("SET GLOBAL super_read_only = ON");
+        } catch (SQLException e) {
+            throw new IllegalStateException("配置 MySQL 主从复制失败", e);
+        }
+    }
+
+    private static void executeOnReplica(String sql) throws SQLException {
+        try (Connection connection = rootConnection(REPLICA);
+                Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static Connection rootConnection(MySQLContainer<?> container) throws SQLException {
+        return DriverManager.getConnection(container.getJdbcUrl(), "root", container.getPassword());
+    }
+
+    @TestConfiguration
+    public static class ProbeConfig {
+
+        @Bean
+        public WriteProbe writeProbe(JdbcTemplate jdbcTemplate) {
+            return new WriteProbe(jdbcTemplate);
+        }
+
+        @Bean
+        public ServerIdProbe serverIdProbe(JdbcTemplate jdbcTemplate, WriteProbe writeProbe) {
+            return new ServerIdProbe(jdbcTemplate, writeProbe);
+        }
+    }
+
+    /**
+     * 在读写事务中写入，返回事务连接所在的 MySQL 实例
+     */
+    public static class WriteProbe {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        public WriteProbe(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @Transactional(rollbackFor = Exception.class)
+        public int insert(String tradeOrderId) {
+            jdbcTemplate.update("INSERT INTO trade_order (trade_order_id, team_id, order_id, activity_id, user_id, "
+                    + "sku_id, goods_name, original_price, deduction_price, pay_price, status, out_trade_no, source, "
+                    + "channel) VALUES (?, 'T', 'O', 'A', ?, 'S', '事务样本', 1.00, 0.00, 1.00, 'CREATE', ?, "
+                    + "'s01', 'c01')", tradeOrderId, USER_ID, tradeOrderId);
+            return jdbcTemplate.queryForObject("SELECT @@server_id", Integer.class);
+        }
+    }
+
+    /**
+     * 返回查询实际落到的 MySQL 实例
+     */
+    public static class ServerIdProbe {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final WriteProbe writeProbe;
+
+        public ServerIdProbe(JdbcTemplate jdbcTemplate, WriteProbe writeProbe) {
+            this.jdbcTemplate = jdbcTemplate;
+            this.writeProbe = writeProbe;
+        }
+
+        @ReadOnly
+        public int readOnlyServerId() {
+            return serverId();
+        }
+
+        @ReadOnly
+        public int writeFromReadOnly(String tradeOrderId) {
+            return writeProbe.insert(tradeOrderId);
+        }
+
+        public int serverId() {
+            return jdbcTemplate.queryForObject("SELECT @@server_id", Integer.class);
+        }
+    }
+}
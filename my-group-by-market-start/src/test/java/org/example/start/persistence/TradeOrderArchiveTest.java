@@ -0,0 +1,113 @@
+package org.example.start.persistence;
+
+import org.example.common.model.PageResult;
+import org.example.domain.model.trade.TradeOrder;
+import org.example.domain.model.trade.repository.TradeOrderRepository;
+import org.example.start.base.IntegrationTestBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 交易订单冷热分离测试
+ *
+ * <p>
+ * 测试目的：验证终态历史订单按批搬到归档表，且用户订单列表、管理后台查询透明合并冷热数据
+ *
+ */
+@DisplayName("交易订单归档测试")
+public class TradeOrderArchiveTest extends IntegrationTestBase {
+
+    private static final String PREFIX = "ARCHIVE_";
+    private static final String USER_ID = "USER_" + PREFIX + "1";
+
+    @Autowired
+    private TradeOrderRepository tradeOrderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>();
+        // 10 条 200 天前的终态订单 + 1 条 201 天前仍为 CREATE 的订单 + 2 条近期终态订单
+        for (int i = 0; i < 10; i++) {
+            rows.add(row(i, i % 2 == 0 ? "SETTLED" : "TIMEOUT", now.minusDays(200).plusMinutes(i)));
+        }
+        rows.add(row(10, "CREATE", now.minusDays(201)));
+        rows.add(row(11, "SETTLED", now.minusDays(1)));
+        rows.add(row(12, "REFUND", now.minusHours(1)));
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO trade_order (trade_order_id, team_id, order_id, activity_id, user_id, sku_id, goods_name, " +
+                        "original_price, deduction_price, pay_price, status, out_trade_no, source, channel, create_time) " +
+                        "VALUES (?, ?, ?, 'ACT_" + PREFIX + "', ?, 'SKU_ARCHIVE', '归档样本', 100.00, 20.00, 80.00, ?, ?, " +
+                        "'s01', 'c01', ?)",
+                rows);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM trade_order WHERE trade_order_id LIKE ?", PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM trade_order_archive WHERE trade_order_id LIKE ?", PREFIX + "%");
+    }
+
+    @Test
+    @DisplayName("只归档超过保留期的终态订单，分批直至耗尽")
+    void archivesOnlyOldFinalOrdersInBatches() {
+        LocalDateTime createdBefore = LocalDateTime.now().minusDays(90);
+
+        assertThat(tradeOrderRepository.archiveFinalOrders(createdBefore, 4)).isEqualTo(4);
+        assertThat(tradeOrderRepository.archiveFinalOrders(createdBefore, 4)).isEqualTo(4);
+        assertThat(tradeOrderRepository.archiveFinalOrders(createdBefore, 4)).isEqualTo(2);
+        assertThat(tradeOrderRepository.archiveFinalOrders(createdBefore, 4)).isZero();
+
+        assertThat(countIn("trade_order_archive")).isEqualTo(10);
+        assertThat(countIn("trade_order")).as("进行中和近期订单留在热表").isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("用户订单列表、订单详情和管理后台查询合并归档数据")
+    void readsUnionHotAndArchivedOrders() {
+        tradeOrderRepository.archiveFinalOrders(LocalDateTime.now().minusDays(90), 100);
+
+        assertThat(tradeOrderRepository.countByUserId(USER_ID)).isEqualTo(13);
+        List<TradeOrder> firstPage = tradeOrderRepository.findByUserId(USER_ID, 1, 5);
+        assertThat(firstPage).extracting(TradeOrder::getTradeOrderId)
+                .containsExactly(PREFIX + "12", PREFIX + "11", PREFIX + "9", PREFIX + "8", PREFIX + "7");
+        List<TradeOrder> lastPage = tradeOrderRepository.findByUserId(USER_ID, 3, 5);
+        assertThat(lastPage).extracting(TradeOrder::getTradeOrderId)
+                .containsExactly(PREFIX + "0", PREFIX + "10");
+
+        assertThat(tradeOrderRepository.findByTradeOrderIdIncludingArchive(PREFIX + "3")).as("归档订单详情").isPresent();
+        assertThat(tradeOrderRepository.findByTradeOrderId(PREFIX + "3")).as("写路径只查热表").isEmpty();
+        assertThat(tradeOrderRepository.findByOrderIdIncludingArchive("ORD_" + PREFIX)).hasSize(13);
+
+        PageResult<TradeOrder> adminPage = tradeOrderRepository.findByPage(1, 20, USER_ID, null, null, null);
+        assertThat(adminPage.getTotal()).isEqualTo(13);
+        assertThat(adminPage.getList()).hasSize(13);
+
+        List<String> exported = new ArrayList<>();
+        tradeOrderRepository.forEachForExport(USER_ID, null, null, null, o -> exported.add(o.getTradeOrderId()));
+        assertThat(exported).hasSize(13).doesNotHaveDuplicates();
+    }
+
+    private static Object[] row(int i, String status, LocalDateTime createTime) {
+        return new Object[]{PREFIX + i, "TEAM_" + PREFIX, "ORD_" + PREFIX, USER_ID, status,
+                "OUT_" + PREFIX + i, createTime};
+    }
+
+    private int countIn(String table) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + table + " WHERE trade_order_id LIKE ?", Integer.class, PREFIX + "%");
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.start.persistence;
+
+import org.example.domain.model.trade.repository.TradeOrderRepository;
+import org.example.start.base.IntegrationTestBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 交易订单导出键集续读测试
+ *
+ * <p>
+ * 测试目的：每段 3 行，多条订单 create_time 相同且分布在热表和归档表时，
+ * 段边界落在相同 create_time 的中间也能按 (create_time, trade_order_id) 续读，不漏行、不重复
+ *
+ */
+@DisplayName("交易订单导出键集续读测试")
+@TestPropertySource(properties = "trade.admin.export-chunk-size=3")
+public class TradeOrderExportKeysetTest extends IntegrationTestBase {
+
+    private static final String PREFIX = "EXPORT_TIE_";
+    private static final String USER_ID = "USER_" + PREFIX;
+    private static final LocalDateTime TIE = LocalDateTime.of(2025, 6, 1, 12, 0, 0);
+
+    @Autowired
+    private TradeOrderRepository tradeOrderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        // 热表 5 条、归档表 3 条 create_time 完全相同，ID 交错；另有 2 条晚 1 秒
+        insert("trade_order", List.of("A", "C", "E", "G", "H"), TIE);
+        insert("trade_order_archive", List.of("B", "D", "F"), TIE);
+        insert("trade_order", List.of("A"), TIE.plusSeconds(1));
+        insert("trade_order_archive", List.of("B"), TIE.plusSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM trade_order WHERE trade_order_id LIKE ?", PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM trade_order_archive WHERE trade_order_id LIKE ?", PREFIX + "%");
+    }
+
+    @Test
+    @DisplayName("段边界落在相同 create_time 中间时按主键续读")
+    void export_shouldResumeAcrossTiedCreateTime() {
+        List<String> exported = new ArrayList<>();
+
+        long rows = tradeOrderRepository.forEachForExport(USER_ID, null, null, null,
+                order -> exported.add(order.getTradeOrderId()));
+
+        assertThat(rows).isEqualTo(10);
+        assertThat(exported).containsExactly(
+                id("A", TIE), id("B", TIE), id("C", TIE), id("D", TIE), id("E", TIE),
+                id("F", TIE), id("G", TIE), id("H", TIE),
+                id("A", TIE.plusSeconds(1)), id("B", TIE.plusSeconds(1)));
+    }
+
+    private void insert(String table, List<String> keys, LocalDateTime createTime) {
+        List<Object[]> rows = new ArrayList<>();
+        for (String key : keys) {
+            String tradeOrderId = id(key, createTime);
+            rows.add(new Object[]{tradeOrderId, USER_ID, "OUT_" + tradeOrderId, createTime});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO " + table + " (trade_order_id, team_id, order_id, activity_id, user_id, sku_id, " +
+                        "goods_name, original_price, deduction_price, pay_price, status, out_trade_no, source, " +
+                        "channel, create_time) " +
+                        "VALUES (?, 'TEAM_" + PREFIX + "', 'ORD_" + PREFIX + "', 'ACT_" + PREFIX + "', ?, " +
+                        "'SKU_EXPORT', '导出样本', 100.00, 20.00, 80.00, 'SETTLED', ?, 's01', 'c01', ?)",
+                rows);
+    }
+
+    private static String id(String key, LocalDateTime createTime) {
+        return PREFIX + createTime.getSecond() + "_" + key;
+    }
+}
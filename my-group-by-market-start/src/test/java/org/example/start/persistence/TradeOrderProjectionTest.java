@@ -0,0 +1,99 @@
+package org.example.start.persistence;
+
+import org.example.domain.model.trade.repository.TradeOrderRepository;
+import org.example.domain.model.trade.valueobject.TradeOrderReleaseFlags;
+import org.example.domain.model.trade.valueobject.TradeOrderStatusView;
+import org.example.domain.model.trade.valueobject.TradeStatus;
+import org.example.start.base.IntegrationTestBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 交易订单轻量投影测试
+ *
+ * <p>
+ * 测试目的：验证状态投影与释放标记投影只读取投影列时，字段映射与完整聚合一致，不存在的ID不返回
+ *
+ */
+@DisplayName("交易订单投影测试")
+public class TradeOrderProjectionTest extends IntegrationTestBase {
+
+    private static final String PREFIX = "PROJECTION_";
+
+    @Autowired
+    private TradeOrderRepository tradeOrderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        insert(PREFIX + "1", "CREATE", false, false, false, false);
+        insert(PREFIX + "2", "REFUND", true, true, false, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM trade_order WHERE trade_order_id LIKE ?", PREFIX + "%");
+    }
+
+    @Test
+    @DisplayName("按ID批量查询状态，忽略不存在的ID")
+    void findStatusByIds() {
+        List<TradeOrderStatusView> views = tradeOrderRepository.findStatusByIds(
+                List.of(PREFIX + "1", PREFIX + "2", PREFIX + "MISSING"));
+
+        assertThat(views).hasSize(2);
+        assertThat(views).filteredOn(v -> v.tradeOrderId().equals(PREFIX + "1")).singleElement()
+                .satisfies(v -> {
+                    assertThat(v.status()).isEqualTo(TradeStatus.CREATE);
+                    assertThat(v.outTradeNo()).isEqualTo("OUT_" + PREFIX + "1");
+                    assertThat(v.orderId()).isEqualTo("ORDER_" + PREFIX + "1");
+                    assertThat(v.userId()).isEqualTo("USER_" + PREFIX + "1");
+                });
+        assertThat(views).filteredOn(v -> v.tradeOrderId().equals(PREFIX + "2")).singleElement()
+                .extracting(TradeOrderStatusView::status).isEqualTo(TradeStatus.REFUND);
+        assertThat(tradeOrderRepository.findStatusByIds(List.of())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("按外部单号批量查询状态")
+    void findByOutTradeNos() {
+        List<TradeOrderStatusView> views = tradeOrderRepository.findByOutTradeNos(
+                List.of("OUT_" + PREFIX + "2", "OUT_" + PREFIX + "MISSING"));
+
+        assertThat(views).singleElement().satisfies(v -> {
+            assertThat(v.tradeOrderId()).isEqualTo(PREFIX + "2");
+            assertThat(v.status()).isEqualTo(TradeStatus.REFUND);
+        });
+    }
+
+    @Test
+    @DisplayName("释放标记投影逐列映射")
+    void findReleaseFlags() {
+        assertThat(tradeOrderRepository.findReleaseFlags(PREFIX + "1")).contains(
+                new TradeOrderReleaseFlags(PREFIX + "1", false, false, false, false));
+        assertThat(tradeOrderRepository.findReleaseFlags(PREFIX + "2")).contains(
+                new TradeOrderReleaseFlags(PREFIX + "2", true, true, false, true));
+        assertThat(tradeOrderRepository.findReleaseFlags(PREFIX + "MISSING")).isEmpty();
+    }
+
+    private void insert(String tradeOrderId, String status, boolean participationReleased, boolean lockReleased,
+            boolean slotReleased, boolean inventoryReleased) {
+        jdbcTemplate.update("INSERT INTO trade_order (trade_order_id, team_id, order_id, activity_id, user_id, sku_id, "
+                + "goods_name, original_price, deduction_price, pay_price, status, out_trade_no, source, channel, "
+                + "participation_count_released, lock_count_released, slot_released, inventory_released) "
+                + "VALUES (?, 'TEAM_PROJECTION', ?, 'ACT_PROJECTION', ?, 'SKU_PROJECTION', '投影样本', 100.00, 20.00, "
+                + "80.00, ?, ?, 's01', 'c01', ?, ?, ?, ?)",
+                tradeOrderId, "ORDER_" + tradeOrderId, "USER_" + tradeOrderId, status, "OUT_" + tradeOrderId,
+                participationReleased, lockReleased, slotReleased, inventoryReleased);
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.start.ratelimit;
+
+import org.example.common.exception.BizException;
+import org.example.common.ratelimit.RateLimit;
+import org.example.common.ratelimit.RateLimitAlgorithm;
+import org.example.infrastructure.ratelimit.RedisRateLimiter;
+import org.example.start.base.ConcurrentTestSupport;
+import org.example.start.base.IntegrationTestBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 限流注解拦截测试
+ *
+ * <p>
+ * 测试目的：
+ * <ul>
+ * <li>按 SpEL 解析出的参数值分别限流：一个用户被限流不影响其他用户，超限时抛出注解配置的提示</li>
+ * <li>100 个线程并发调用带本地预取的全局限流方法，实际执行次数不超过配置上限</li>
+ * </ul>
+ *
+ */
+@DisplayName("限流注解拦截测试")
+@Import(RateLimitAspectTest.ProbeConfig.class)
+public class RateLimitAspectTest extends IntegrationTestBase {
+
+    private static final int GLOBAL_LIMIT = 30;
+
+    @Autowired
+    private RateLimitedProbe probe;
+
+    @Autowired
+    private RedisRateLimiter rateLimiter;
+
+    private String userA;
+    private String userB;
+
+    @BeforeEach
+    void setUp() {
+        userA = "RL_ASPECT_A_" + System.nanoTime();
+        userB = "RL_ASPECT_B_" + System.nanoTime();
+        probe.resetCalls();
+    }
+
+    @AfterEach
+    void tearDown() {
+        rateLimiter.reset(userA);
+        rateLimiter.reset(userB);
+        rateLimiter.reset(RateLimitedProbe.GLOBAL_KEY);
+    }
+
+    @Test
+    @DisplayName("按参数分别限流，超限时抛出注解配置的提示")
+    void perUserKey_shouldLimitIndependently() {
+        assertThat(probe.perUser(userA)).isEqualTo(userA);
+        assertThat(probe.perUser(userA)).isEqualTo(userA);
+        assertThatThrownBy(() -> probe.perUser(userA))
+                .isInstanceOf(BizException.class)
+                .hasMessageContaining("探针限流");
+
+        assertThat(probe.perUser(userB)).isEqualTo(userB);
+        assertThat(probe.calls()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("并发调用预取限流方法不超过上限")
+    void globalKey_shouldNotExceedLimitUnderConcurrency() throws InterruptedException {
+        AtomicInteger rejected = new AtomicInteger();
+        ConcurrentTestSupport.executeConcurrently(100, () -> {
+            try {
+                probe.global();
+            } catch (BizException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertThat(probe.calls()).isPositive().isLessThanOrEqualTo(GLOBAL_LIMIT);
+        assertThat(probe.calls() + rejected.get()).isEqualTo(100);
+    }
+
+    @TestConfiguration
+    public static class ProbeConfig {
+
+        @Bean
+        public RateLimitedProbe rateLimitedProbe() {
+            return new RateLimitedProbe();
+        }
+    }
+
+    /**
+     * 带限流注解的探针，记录实际执行次数
+     */
+    public static class RateLimitedProbe {
+
+        static final String GLOBAL_KEY = "rl-aspect-global";
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        /** 通过方法访问计数：注入的是AOP代理，直接读字段拿不到目标对象的值 */
+        public int calls() {
+            return calls.get();
+        }
+
+        public void resetCalls() {
+            calls.set(0);
+        }
+
+        @RateLimit(key = "#userId", maxRequests = 2, windowSeconds = 60, message = "探针限流")
+        public String perUser(String userId) {
+            calls.incrementAndGet();
+            return userId;
+        }
+
+        @RateLimit(key = "'" + GLOBAL_KEY + "'", algorithm = RateLimitAlgorithm.TOKEN_BUCKET,
+                maxRequests = GLOBAL_LIMIT, windowSeconds = 3600, prefetch = 5)
+        public void global() {
+            calls.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package org.example.start.ratelimit;
+
+import org.example.common.ratelimit.RateLimitAlgorithm;
+import org.example.infrastructure.cache.IRedisService;
+import org.example.infrastructure.ratelimit.RedisRateLimiter;
+import org.example.start.base.ConcurrentTestSupport;
+import org.example.start.base.IntegrationTestBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Redis限流器测试
+ *
+ * <p>
+ * 测试目的：
+ * <ul>
+ * <li>窗口边界：固定窗口在窗口过期后重新计数；滑动日志只放行窗口内已过期的名额；令牌桶按速率补充</li>
+ * <li>并发：三种算法（及本地预取）在 100 个线程同时请求时授予的令牌数不超过配置上限</li>
+ * <li>本地预取：一次从 Redis 租用 prefetch 个令牌，租约内不再访问 Redis</li>
+ * <li>过期租约清理：清理间隔后，空闲 key 的本地租约被移除</li>
+ * <li>重置：只删除完全匹配的 key（三种算法的计数和本地租约），不影响前缀相同的其他 key</li>
+ * </ul>
+ *
+ */
+@DisplayName("Redis限流器测试")
+public class RedisRateLimiterTest extends IntegrationTestBase {
+
+    private static final int LIMIT = 50;
+    private static final int THREADS = 100;
+
+    @Autowired
+    private RedisRateLimiter rateLimiter;
+
+    @Autowired
+    private IRedisService redisService;
+
+    private String key;
+    private final List<String> usedKeys = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        key = newKey("");
+    }
+
+    @AfterEach
+    void tearDown() {
+        usedKeys.forEach(rateLimiter::reset);
+        usedKeys.clear();
+    }
+
+    @Test
+    @DisplayName("固定窗口：达到上限后拒绝，窗口过期后重新计数")
+    void fixedWindow_shouldResetAfterWindow() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            assertThat(acquire(RateLimitAlgorithm.FIXED_WINDOW, 3, 1, 0)).isTrue();
+        }
+        assertThat(acquire(RateLimitAlgorithm.FIXED_WINDOW, 3, 1, 0)).isFalse();
+        assertThat(ttl("rate_limit:" + key)).as("计数key必须带过期时间").isPositive();
+
+        Thread.sleep(1100);
+
+        assertThat(acquire(RateLimitAlgorithm.FIXED_WINDOW, 3, 1, 0)).isTrue();
+    }
+
+    @Test
+    @DisplayName("滑动日志：只有滑出窗口的请求释放名额")
+    void slidingLog_shouldFreeOnlyExpiredEntries() throws InterruptedException {
+        assertThat(acquire(RateLimitAlgorithm.SLIDING_LOG, 2, 1, 0)).isTrue();
+        Thread.sleep(500);
+        assertThat(acquire(RateLimitAlgorithm.SLIDING_LOG, 2, 1, 0)).isTrue();
+        assertThat(acquire(RateLimitAlgorithm.SLIDING_LOG, 2, 1, 0)).isFalse();
+
+        // 第一个请求滑出窗口，第二个仍在窗口内：只释放一个名额
+        Thread.sleep(650);
+        assertThat(acquire(RateLimitAlgorithm.SLIDING_LOG, 2, 1, 0)).isTrue();
+        assertThat(acquire(RateLimitAlgorithm.SLIDING_LOG, 2, 1, 0)).isFalse();
+    }
+
+    @Test
+    @DisplayName("令牌桶：突发不超过容量，按速率补充")
+    void tokenBucket_shouldRefillAtRate() throws InterruptedException {
+        // 容量 2、窗口 1 秒：每 500ms 补充 1 个令牌
+        assertThat(acquire(RateLimitAlgorithm.TOKEN_BUCKET, 2, 1, 0)).isTrue();
+        assertThat(acquire(RateLimitAlgorithm.TOKEN_BUCKET, 2, 1, 0)).isTrue();
+        assertThat(acquire(RateLimitAlgorithm.TOKEN_BUCKET, 2, 1, 0)).isFalse();
+
+        Thread.sleep(600);
+
+        assertThat(acquire(RateLimitAlgorithm.TOKEN_BUCKET, 2, 1, 0)).isTrue();
+        assertThat(acquire(RateLimitAlgorithm.TOKEN_BUCKET, 2, 1, 0)).isFalse();
+    }
+
+    @Test
+    @DisplayName("固定窗口：并发请求不超过上限")
+    void fixedWindow_shouldNotExceedLimitUnderConcurrency() throws InterruptedException {
+        assertThat(concurrentGrants(RateLimitAlgorithm.FIXED_WINDOW, 0)).isEqualTo(LIMIT);
+    }
+
+    @Test
+    @DisplayName("滑动日志：并发请求不超过上限")
+    void slidingLog_shouldNotExceedLimitUnderConcurrency() throws InterruptedException {
+        assertThat(concurrentGrants(RateLimitAlgorithm.SLIDING_LOG, 0)).isEqualTo(LIMIT);
+    }
+
+    @Test
+    @DisplayName("令牌桶：并发请求不超过上限")
+    void tokenBucket_shouldNotExceedLimitUnderConcurrency() throws InterruptedException {
+        assertThat(concurrentGrants(RateLimitAlgorithm.TOKEN_BUCKET, 0)).isEqualTo(LIMIT);
+    }
+
+    @Test
+    @DisplayName("本地预取：并发请求不超过上限")
+    void prefetch_shouldNotExceedLimitUnderConcurrency() throws InterruptedException {
+        // 租约过期作废的令牌只会让授予数变少，不会超发
+        assertThat(concurrentGrants(RateLimitAlgorithm.FIXED_WINDOW, 10)).isPositive().isLessThanOrEqualTo(LIMIT);
+        assertThat(concurrentGrants(RateLimitAlgorithm.TOKEN_BUCKET, 10)).isPositive().isLessThanOrEqualTo(LIMIT);
+    }
+
+    @Test
+    @DisplayName("本地预取：一次租用多个令牌，租约内不访问Redis")
+    void prefetch_shouldLeaseFromRedisOnce() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(acquire(RateLimitAlgorithm.FIXED_WINDOW, 100, 60, 10)).isTrue();
+        }
+
+        assertThat(counter("rate_limit:" + key)).as("5次请求只租用一次").isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("空闲key的过期租约在清理间隔后被移除")
+    void idleLease_shouldBeSwept() throws InterruptedException {
+        String idleKey = key;
+        assertThat(acquire(RateLimitAlgorithm.FIXED_WINDOW, 100, 1, 10)).isTrue();
+        assertThat(leases()).containsKey(RateLimitAlgorithm.FIXED_WINDOW + ":" + idleKey);
+
+        // 租约 1 秒过期，清理间隔 5 秒
+        Thread.sleep(5200);
+        String activeKey = newKey("ACTIVE_");
+        assertThat(rateLimiter.tryAcquire(activeKey, RateLimitAlgorithm.FIXED_WINDOW, 100, 1, 10)).isTrue();
+
+        assertThat(leases())
+                .doesNotContainKey(RateLimitAlgorithm.FIXED_WINDOW + ":" + idleKey)
+                .containsKey(RateLimitAlgorithm.FIXED_WINDOW + ":" + activeKey);
+    }
+
+    @Test
+    @DisplayName("重置只影响完全匹配的key")
+    void reset_shouldMatchKeyExactly() {
+        String sibling = key + "1";
+        usedKeys.add(sibling);
+        assertThat(acquire(RateLimitAlgorithm.FIXED_WINDOW, 1, 60, 0)).isTrue();
+        assertThat(acquire(RateLimitAlgorithm.SLIDING_LOG, 1, 60, 0)).isTrue();
+        assertThat(acquire(RateLimitAlgorithm.TOKEN_BUCKET, 1, 3600, 0)).isTrue();
+        assertThat(rateLimiter.tryAcquire(sibling, RateLimitAlgorithm.FIXED_WINDOW, 1, 60, 0)).isTrue();
+        assertThat(acquire(RateLimitAlgorithm.FIXED_WINDOW, 1, 60, 0)).isFalse();
+        assertThat(acquire(RateLimitAlgorithm.SLIDING_LOG, 1, 60, 0)).isFalse();
+        assertThat(acquire(RateLimitAlgorithm.TOKEN_BUCKET, 1, 3600, 0)).isFalse();
+
+        rateLimiter.reset(key);
+
+        assertThat(acquire(RateLimitAlgorithm.FIXED_WINDOW, 1, 60, 0)).isTrue();
+        assertThat(acquire(RateLimitAlgorithm.SLIDING_LOG, 1, 60, 0)).isTrue();
+        assertThat(acquire(RateLimitAlgorithm.TOKEN_BUCKET, 1, 3600, 0)).isTrue();
+        assertThat(rateLimiter.tryAcquire(sibling, RateLimitAlgorithm.FIXED_WINDOW, 1, 60, 0))
+                .as("前缀相同的key不受影响").isFalse();
+    }
+
+    @Test
+    @DisplayName("重置同时清除本地租约")
+    void reset_shouldDropLocalLease() {
+        assertThat(acquire(RateLimitAlgorithm.FIXED_WINDOW, 100, 60, 10)).isTrue();
+
+        rateLimiter.reset(key);
+        assertThat(acquire(RateLimitAlgorithm.FIXED_WINDOW, 100, 60, 10)).isTrue();
+
+        // 本地租约若未清除，第二次请求不会访问Redis，计数key也就不会重新出现
+        assertThat(counter("rate_limit:" + key)).isEqualTo(10);
+    }
+
+    private boolean acquire(RateLimitAlgorithm algorithm, int maxRequests, long windowSeconds, int prefetch) {
+        return rateLimiter.tryAcquire(key, algorithm, maxRequests, windowSeconds, prefetch);
+    }
+
+    /**
+     * THREADS 个线程同时对新 key 各请求 2 次，返回授予的令牌数（令牌桶窗口 1 小时，测试期间补充可忽略）
+     */
+    private int concurrentGrants(RateLimitAlgorithm algorithm, int prefetch) throws InterruptedException {
+        String concurrentKey = newKey(algorithm + "_" + prefetch + "_");
+        long windowSeconds = algorithm == RateLimitAlgorithm.TOKEN_BUCKET ? 3600 : 60;
+        AtomicInteger granted = new AtomicInteger();
+        ConcurrentTestSupport.executeConcurrently(THREADS, () -> {
+            for (int i = 0; i < 2; i++) {
+                if (rateLimiter.tryAcquire(concurrentKey, algorithm, LIMIT, windowSeconds, prefetch)) {
+                    granted.incrementAndGet();
+                }
+            }
+        });
+        return granted.get();
+    }
+
+    private String newKey(String tag) {
+        String newKey = "RL_TEST_" + tag + System.nanoTime();
+        usedKeys.add(newKey);
+        return newKey;
+    }
+
+    private Long counter(String redisKey) {
+        return redisService.executeScript("return tonumber(redis.call('get', KEYS[1]))", List.of(redisKey));
+    }
+
+    private Long ttl(String redisKey) {
+        return redisService.executeScript("return redis.call('ttl', KEYS[1])", List.of(redisKey));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> leases() {
+        return (Map<String, ?>) ReflectionTestUtils.getField(rateLimiter, "leases");
+    }
+}
@@ -0,0 +1,208 @@
+package org.example.start.refund;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.application.service.payment.PaymentCallbackApplicationService;
+import org.example.application.service.trade.TradeOrderService;
+import org.example.domain.gateway.IPaymentRefundGateway;
+import org.example.domain.model.account.repository.AccountRepository;
+import org.example.domain.model.activity.Activity;
+import org.example.domain.model.activity.repository.ActivityRepository;
+import org.example.domain.model.activity.valueobject.GroupType;
+import org.example.domain.model.activity.valueobject.TagScope;
+import org.example.domain.model.goods.Sku;
+import org.example.domain.model.goods.repository.SkuRepository;
+import org.example.domain.model.order.Order;
+import org.example.domain.model.order.repository.OrderRepository;
+import org.example.domain.model.order.valueobject.Money;
+import org.example.domain.model.trade.TradeOrder;
+import org.example.domain.model.trade.repository.TradeOrderRepository;
+import org.example.domain.model.trade.valueobject.TradeStatus;
+import org.example.domain.service.lock.IOrderMailbox;
+import org.example.start.base.IntegrationTestBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * 跨节点退单与支付回调竞争测试
+ *
+ * <p>
+ * 测试目的：退单与支付回调落在不同节点（订单邮箱只在进程内串行，这里替换为直接执行来模拟）时，
+ * 只能有一方的状态条件更新命中：
+ * <ul>
+ * <li>支付先行：交易订单为 PAID，名额与锁单量未被退单释放</li>
+ * <li>退单先行：交易订单为 TIMEOUT，名额与锁单量各释放一次，支付整体回滚（完成人数不变）</li>
+ * <li>支付提交后退单才加载：按已支付退单处理为 REFUND，名额与锁单量只释放一次</li>
+ * </ul>
+ *
+ */
+@Slf4j
+@DisplayName("跨节点退单与支付回调竞争测试")
+public class RefundPaymentRaceTest extends IntegrationTestBase {
+
+    private static final int ROUNDS = 20;
+    private static final String ACTIVITY_ID = "ACT_REFUND_RACE";
+    private static final String SKU_ID = "SKU_REFUND_RACE";
+
+    /** 模拟多节点：每个任务直接在调用线程执行，不做进程内串行 */
+    @MockBean
+    private IOrderMailbox orderMailbox;
+
+    @MockBean
+    private IPaymentRefundGateway paymentRefundGateway;
+
+    @Autowired
+    private TradeOrderService tradeOrderService;
+
+    @Autowired
+    private PaymentCallbackApplicationService paymentCallbackApplicationService;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private SkuRepository skuRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TradeOrderRepository tradeOrderRepository;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get())
+                .when(orderMailbox).call(anyString(), any());
+        when(paymentRefundGateway.refund(anyString(), any(), anyString(), anyString()))
+                .thenReturn(IPaymentRefundGateway.RefundResult.success("REFUND_RACE"));
+
+        Activity activity = Activity.create(ACTIVITY_ID, "Refund Race Activity", "DISCOUNT-RACE", null,
+                TagScope.OPEN, GroupType.VIRTUAL, 5, 30, 100,
+                LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1));
+        activity.activate();
+        activityRepository.save(activity);
+
+        Sku sku = Sku.create(SKU_ID, "SPU_REFUND_RACE", "Refund Race SKU", new BigDecimal("100.00"), 1000);
+        sku.freezeStock(ROUNDS);
+        skuRepository.save(sku);
+    }
+
+    @Test
+    @DisplayName("退单与支付并发时只有一方生效，名额不被重复占用")
+    void refundRacingPayment_shouldNeverReleasePaidSlot() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        int paidWins = 0;
+        int refundWins = 0;
+        int sequential = 0;
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                String suffix = System.nanoTime() + "_" + round;
+                String orderId = "ORDER_RACE_" + suffix;
+                String userId = "USER_RACE_" + suffix;
+                String tradeOrderId = "TRD_RACE_" + suffix;
+                String outTradeNo = "OUT_RACE_" + suffix;
+                seed(orderId, userId, tradeOrderId, outTradeNo);
+
+                CountDownLatch start = new CountDownLatch(1);
+                Future<?> refund = executor.submit(() -> {
+                    start.await();
+                    tradeOrderService.refundTradeOrder(tradeOrderId, "超时未支付自动退单");
+                    return null;
+                });
+                Future<?> payment = executor.submit(() -> {
+                    start.await();
+                    paymentCallbackApplicationService.handlePaymentSuccess(outTradeNo, new BigDecimal("80.00"));
+                    return null;
+                });
+                start.countDown();
+                boolean refundOk = succeeded(refund);
+                boolean paymentOk = succeeded(payment);
+
+                TradeStatus status = tradeOrderRepository.findByTradeOrderId(tradeOrderId).orElseThrow().getStatus();
+                Order order = orderRepository.findById(orderId).orElseThrow();
+                String available = redisTemplate.opsForValue().get("team_slot:" + orderId + ":available");
+
+                if (status == TradeStatus.PAID) {
+                    paidWins++;
+                    assertThat(paymentOk).isTrue();
+                    assertThat(refundOk).isFalse();
+                    assertThat(available).isEqualTo("3");
+                    assertThat(order.getLockCount()).isEqualTo(2);
+                    assertThat(order.getCompleteCount()).isEqualTo(2);
+                } else if (status == TradeStatus.REFUND) {
+                    sequential++;
+                    assertThat(paymentOk).isTrue();
+                    assertThat(refundOk).isTrue();
+                    assertThat(available).isEqualTo("4");
+                    assertThat(order.getLockCount()).isEqualTo(1);
+                } else {
+                    refundWins++;
+                    assertThat(status).isEqualTo(TradeStatus.TIMEOUT);
+                    assertThat(paymentOk).isFalse();
+                    assertThat(available).isEqualTo("4");
+                    assertThat(order.getLockCount()).isEqualTo(1);
+                    assertThat(order.getCompleteCount()).isEqualTo(1);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("【退单支付竞争】支付先行: {}, 退单先行: {}, 先支付后退款: {}", paidWins, refundWins, sequential);
+    }
+
+    /**
+     * 团长已支付、第二位成员已锁单未支付：名额剩余 3，锁单量 2，完成人数 1
+     */
+    private void seed(String orderId, String userId, String tradeOrderId, String outTradeNo) {
+        String teamId = orderId.substring(orderId.length() - 8);
+        Order order = Order.create(orderId, teamId, ACTIVITY_ID, SKU_ID, "LEADER_" + userId, 5,
+                Money.of(new BigDecimal("100.00"), new BigDecimal("80.00")),
+                LocalDateTime.now().plusMinutes(30), "APP", "iOS");
+        orderRepository.save(order);
+        orderRepository.incrementLockCount(orderId);
+
+        accountRepository.tryDeductCount(userId, ACTIVITY_ID, 100);
+
+        redisTemplate.opsForValue().set("team_slot:" + orderId + ":available", "3", 1, TimeUnit.HOURS);
+
+        TradeOrder tradeOrder = TradeOrder.create(tradeOrderId, teamId, orderId, ACTIVITY_ID, userId, SKU_ID,
+                "Refund Race SKU", new BigDecimal("100.00"), new BigDecimal("20.00"), new BigDecimal("80.00"),
+                outTradeNo, "APP", "iOS", null);
+        tradeOrderRepository.save(tradeOrder);
+    }
+
+    private static boolean succeeded(Future<?> future) throws Exception {
+        try {
+            future.get(30, TimeUnit.SECONDS);
+            return true;
+        } catch (ExecutionException e) {
+            log.info("【退单支付竞争】一方未生效: {}", e.getCause().getMessage());
+            return false;
+        }
+    }
+}
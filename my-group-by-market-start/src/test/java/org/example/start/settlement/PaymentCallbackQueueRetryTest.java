@@ -0,0 +1,165 @@
+package org.example.start.settlement;
+
+import org.example.common.cache.RedisKeyManager;
+import org.example.domain.service.payment.IPaymentCallbackHandler;
+import org.example.domain.service.payment.IPaymentCallbackQueue;
+import org.example.domain.service.payment.PaymentCallbackMessage;
+import org.example.start.base.IntegrationTestBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.stream.StreamMessageId;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * 支付回调队列重试与截断测试
+ *
+ * <p>
+ * 测试目的：
+ * <ul>
+ * <li>处理失败的消息移入重试集合，同分区后续消息不被阻塞</li>
+ * <li>瞬时故障持续远超单次退避（远超原先按次数截止的重试时长）时持续重试，故障恢复后仍能结算，不进入死信</li>
+ * <li>超过重试窗口（自入队起计算）后转入死信，重试集合清空</li>
+ * <li>已确认的消息被 XTRIM MINID 截断，Stream 不随处理量增长</li>
+ * </ul>
+ *
+ */
+@DisplayName("支付回调队列重试与截断测试")
+@TestPropertySource(properties = {
+        "payment.callback-queue.partitions=1",
+        "payment.callback-queue.poll-timeout-ms=100",
+        "payment.callback-queue.retry-backoff-ms=100",
+        "payment.callback-queue.retry-max-backoff-ms=200",
+        "payment.callback-queue.retry-window-ms=10000",
+        "payment.callback-queue.trim-interval-ms=100"
+})
+public class PaymentCallbackQueueRetryTest extends IntegrationTestBase {
+
+    private static final String ORDER_ID = "ORDER_CALLBACK_RETRY";
+
+    @MockBean
+    private IPaymentCallbackHandler handler;
+
+    @Autowired
+    private IPaymentCallbackQueue callbackQueue;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    private final List<String> handled = new CopyOnWriteArrayList<>();
+    private final List<String> settled = new CopyOnWriteArrayList<>();
+
+    /** TRANSIENT 前缀的消息在该时间点之前处理失败（模拟数据库切换） */
+    private volatile long outageUntil;
+
+    @BeforeEach
+    void setUp() {
+        handled.clear();
+        settled.clear();
+        doAnswer(invocation -> {
+            PaymentCallbackMessage message = invocation.getArgument(0);
+            handled.add(message.outTradeNo());
+            if (message.outTradeNo().startsWith("FAIL")) {
+                throw new IllegalStateException("结算失败");
+            }
+            if (message.outTradeNo().startsWith("TRANSIENT") && System.currentTimeMillis() < outageUntil) {
+                throw new IllegalStateException("数据库不可用");
+            }
+            settled.add(message.outTradeNo());
+            return null;
+        }).when(handler).handle(any());
+    }
+
+    @Test
+    @DisplayName("失败消息移入重试集合，不阻塞后续消息，超过重试窗口后转入死信")
+    void failingMessage_shouldNotBlockPartition() {
+        String failing = "FAIL_" + System.nanoTime();
+        String ok = "OK_" + System.nanoTime();
+
+        // 入队时间设为 9.5 秒前：重试窗口（10 秒）约 0.5 秒后到期
+        assertThat(callbackQueue.enqueue(message(failing, System.currentTimeMillis() - 9_500))).isTrue();
+        assertThat(callbackQueue.enqueue(message(ok))).isTrue();
+
+        // 第一次失败后立即处理后续消息
+        awaitTrue(() -> handled.contains(ok), 1500);
+        assertThat(handled.indexOf(ok)).isEqualTo(handled.indexOf(failing) + 1);
+
+        awaitTrue(() -> deadLetters(failing) == 1, 5000);
+        assertThat(handled.stream().filter(failing::equals).count()).isGreaterThanOrEqualTo(2);
+        assertThat(redissonClient.getScoredSortedSet(RedisKeyManager.paymentCallbackRetryKey(0),
+                StringCodec.INSTANCE).size()).isZero();
+    }
+
+    @Test
+    @DisplayName("瞬时故障持续远超退避时间，恢复后仍能结算")
+    void transientOutage_shouldSettleAfterRecovery() {
+        String transientFailure = "TRANSIENT_" + System.nanoTime();
+        // 故障 3 秒：按次数截止（5 次、200ms 指数退避）时约 3 秒后即转入死信
+        outageUntil = System.currentTimeMillis() + 3_000;
+
+        assertThat(callbackQueue.enqueue(message(transientFailure))).isTrue();
+
+        awaitTrue(() -> settled.contains(transientFailure), 6000);
+        assertThat(handled.stream().filter(transientFailure::equals).count()).as("退避封顶后持续重试")
+                .isGreaterThan(5);
+        assertThat(deadLetters(transientFailure)).isZero();
+        awaitTrue(() -> redissonClient.getScoredSortedSet(RedisKeyManager.paymentCallbackRetryKey(0),
+                StringCodec.INSTANCE).isEmpty(), 1000);
+    }
+
+    @Test
+    @DisplayName("已确认的消息被截断")
+    void ackedMessages_shouldBeTrimmed() {
+        String prefix = "TRIM_" + System.nanoTime() + "_";
+        for (int i = 0; i < 50; i++) {
+            assertThat(callbackQueue.enqueue(message(prefix + i))).isTrue();
+        }
+
+        awaitTrue(() -> handled.contains(prefix + 49), 5000);
+        awaitTrue(() -> redissonClient.getStream(RedisKeyManager.paymentCallbackStreamKey(0),
+                StringCodec.INSTANCE).size() <= 1, 5000);
+    }
+
+    private PaymentCallbackMessage message(String outTradeNo) {
+        return message(outTradeNo, System.currentTimeMillis());
+    }
+
+    private PaymentCallbackMessage message(String outTradeNo, long receivedAt) {
+        return new PaymentCallbackMessage(outTradeNo, PaymentCallbackMessage.TRADE_SUCCESS,
+                new BigDecimal("10.00"), ORDER_ID, receivedAt);
+    }
+
+    private long deadLetters(String outTradeNo) {
+        Map<?, Map<String, String>> entries = redissonClient.<String, String>getStream(
+                RedisKeyManager.paymentCallbackDeadLetterKey(), StringCodec.INSTANCE)
+                .range(StreamMessageId.MIN, StreamMessageId.MAX);
+        return entries.values().stream().filter(fields -> outTradeNo.equals(fields.get("outTradeNo"))).count();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("等待条件超时").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
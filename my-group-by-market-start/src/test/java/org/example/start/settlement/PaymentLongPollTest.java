@@ -0,0 +1,99 @@
+package org.example.start.settlement;
+
+import org.example.application.service.payment.PaymentStatusQueryService;
+import org.example.application.service.payment.result.PaymentQueryResultObj;
+import org.example.domain.model.trade.repository.TradeOrderRepository;
+import org.example.domain.model.trade.valueobject.TradeOrderStatusView;
+import org.example.domain.model.trade.valueobject.TradeStatus;
+import org.example.domain.service.payment.IPaymentStatusProjection;
+import org.example.domain.service.payment.PaymentCallbackMessage;
+import org.example.domain.service.payment.PaymentStatusSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 支付状态长轮询测试
+ *
+ * <p>
+ * 测试目的：
+ * <ul>
+ * <li>投影变更唤醒后在长轮询专用线程上重新读取状态，不占用公共 ForkJoinPool</li>
+ * <li>等待超时后返回最新的非终态结果</li>
+ * </ul>
+ *
+ */
+@DisplayName("支付状态长轮询测试")
+public class PaymentLongPollTest {
+
+    private static final String OUT_TRADE_NO = "OUT_LONG_POLL";
+
+    private final IPaymentStatusProjection projection = mock(IPaymentStatusProjection.class);
+    private final TradeOrderRepository tradeOrderRepository = mock(TradeOrderRepository.class);
+    private final AtomicReference<String> readThread = new AtomicReference<>();
+
+    private PaymentStatusQueryService queryService;
+
+    @BeforeEach
+    void setUp() {
+        queryService = new PaymentStatusQueryService(projection, tradeOrderRepository, 2);
+        when(tradeOrderRepository.findByOutTradeNos(anyList())).thenAnswer(invocation -> {
+            readThread.set(Thread.currentThread().getName());
+            return List.of(new TradeOrderStatusView("TRD_LONG_POLL", OUT_TRADE_NO, "ORDER_LONG_POLL",
+                    "USER_LONG_POLL", TradeStatus.CREATE, LocalDateTime.now()));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        queryService.shutdown();
+    }
+
+    @Test
+    @DisplayName("唤醒后在专用线程重新读取")
+    void wakeUp_shouldRequeryOnDedicatedExecutor() throws Exception {
+        CompletableFuture<Void> change = new CompletableFuture<>();
+        when(projection.awaitChange(OUT_TRADE_NO)).thenReturn(change);
+        when(projection.find(OUT_TRADE_NO)).thenReturn(Optional.empty());
+
+        CompletableFuture<PaymentQueryResultObj> result = queryService.awaitFinal(OUT_TRADE_NO, 10_000);
+        assertThat(result).isNotDone();
+
+        when(projection.find(OUT_TRADE_NO)).thenAnswer(invocation -> {
+            readThread.set(Thread.currentThread().getName());
+            return Optional.of(new PaymentStatusSnapshot(OUT_TRADE_NO, PaymentCallbackMessage.TRADE_SUCCESS,
+                    "ALIPAY_NO", new BigDecimal("80.00"), PaymentStatusSnapshot.SOURCE_CALLBACK,
+                    System.currentTimeMillis()));
+        });
+        change.complete(null);
+
+        assertThat(result.get(5, TimeUnit.SECONDS).getTradeStatus()).isEqualTo(PaymentCallbackMessage.TRADE_SUCCESS);
+        assertThat(readThread.get()).startsWith("payment-long-poll-");
+    }
+
+    @Test
+    @DisplayName("等待超时后返回最新的非终态结果")
+    void timeout_shouldReturnPendingStatus() throws Exception {
+        when(projection.awaitChange(OUT_TRADE_NO)).thenReturn(new CompletableFuture<>());
+        when(projection.find(OUT_TRADE_NO)).thenReturn(Optional.empty());
+
+        PaymentQueryResultObj result = queryService.awaitFinal(OUT_TRADE_NO, 100).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.getTradeStatus()).isEqualTo(PaymentStatusSnapshot.WAIT_BUYER_PAY);
+        assertThat(readThread.get()).startsWith("payment-long-poll-");
+    }
+}
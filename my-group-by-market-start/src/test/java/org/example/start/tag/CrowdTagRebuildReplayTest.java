@@ -0,0 +1,97 @@
+package org.example.start.tag;
+
+import org.example.infrastructure.cache.CrowdTagCacheService;
+import org.example.start.base.IntegrationTestBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.BitSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 人群标签全量重建与增量翻转并发测试
+ *
+ * <p>
+ * 测试目的：
+ * <ul>
+ * <li>重建期间发生的增量加入/移除在发布新位图时被重放，不被 RENAME 覆盖</li>
+ * <li>首次计算（正式位图尚不存在）期间的翻转同样被重放</li>
+ * <li>计算失败放弃重建时正式位图保持不变，翻转日志被清除</li>
+ * </ul>
+ *
+ */
+@DisplayName("人群标签重建翻转重放测试")
+public class CrowdTagRebuildReplayTest extends IntegrationTestBase {
+
+    private static final String TAG_ID = "TAG_REBUILD_REPLAY";
+
+    @Autowired
+    private CrowdTagCacheService crowdTagCacheService;
+
+    @AfterEach
+    void tearDown() {
+        crowdTagCacheService.abortTagRebuild(TAG_ID);
+        crowdTagCacheService.deleteTagCache(TAG_ID);
+    }
+
+    @Test
+    @DisplayName("重建期间的加入与移除在发布时重放")
+    void flipsDuringRebuild_shouldSurvivePublish() {
+        crowdTagCacheService.publishTagBitmap(TAG_ID, bitmapOf("USER_A", "USER_B"));
+
+        crowdTagCacheService.beginTagRebuild(TAG_ID);
+        // 扫描已经读过 USER_C / USER_B 的旧数据之后，二者的交易状态发生变化
+        assertThat(crowdTagCacheService.addUserToTag(TAG_ID, "USER_C")).isTrue();
+        assertThat(crowdTagCacheService.removeUserFromTag(TAG_ID, "USER_B")).isTrue();
+        crowdTagCacheService.publishTagBitmap(TAG_ID, bitmapOf("USER_A", "USER_B"));
+
+        assertThat(crowdTagCacheService.checkUserInTag("USER_A", TAG_ID)).isTrue();
+        assertThat(crowdTagCacheService.checkUserInTag("USER_B", TAG_ID)).isFalse();
+        assertThat(crowdTagCacheService.checkUserInTag("USER_C", TAG_ID)).isTrue();
+
+        // 发布后重建结束，后续翻转只修改正式位图
+        assertThat(crowdTagCacheService.removeUserFromTag(TAG_ID, "USER_C")).isTrue();
+        crowdTagCacheService.beginTagRebuild(TAG_ID);
+        crowdTagCacheService.publishTagBitmap(TAG_ID, bitmapOf("USER_A"));
+        assertThat(crowdTagCacheService.checkUserInTag("USER_C", TAG_ID)).isFalse();
+    }
+
+    @Test
+    @DisplayName("首次计算期间的翻转在发布时重放")
+    void flipsDuringFirstBuild_shouldBeReplayed() {
+        crowdTagCacheService.beginTagRebuild(TAG_ID);
+        assertThat(crowdTagCacheService.addUserToTag(TAG_ID, "USER_A")).isTrue();
+        assertThat(crowdTagCacheService.existsTagCache(TAG_ID)).isFalse();
+
+        crowdTagCacheService.publishTagBitmap(TAG_ID, new BitSet());
+
+        assertThat(crowdTagCacheService.checkUserInTag("USER_A", TAG_ID)).isTrue();
+        assertThat(crowdTagCacheService.countUsersByTagId(TAG_ID)).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("放弃重建时正式位图不变")
+    void abort_shouldKeepPublishedBitmap() {
+        crowdTagCacheService.publishTagBitmap(TAG_ID, bitmapOf("USER_A"));
+
+        crowdTagCacheService.beginTagRebuild(TAG_ID);
+        crowdTagCacheService.addUserToTag(TAG_ID, "USER_B");
+        crowdTagCacheService.abortTagRebuild(TAG_ID);
+        crowdTagCacheService.beginTagRebuild(TAG_ID);
+        crowdTagCacheService.publishTagBitmap(TAG_ID, bitmapOf("USER_A"));
+
+        assertThat(crowdTagCacheService.checkUserInTag("USER_A", TAG_ID)).isTrue();
+        assertThat(crowdTagCacheService.checkUserInTag("USER_B", TAG_ID)).isFalse();
+    }
+
+    private BitSet bitmapOf(String... userIds) {
+        BitSet bitmap = new BitSet();
+        for (String userId : userIds) {
+            bitmap.set(crowdTagCacheService.bitIndexOf(userId));
+        }
+        return bitmap;
+    }
+}
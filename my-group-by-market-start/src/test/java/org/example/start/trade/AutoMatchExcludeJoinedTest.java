@@ -0,0 +1,84 @@
+package org.example.start.trade;
+
+import org.example.common.cache.RedisKeyManager;
+import org.example.domain.model.trade.repository.TradeOrderRepository;
+import org.example.domain.service.team.IOpenTeamIndex;
+import org.example.infrastructure.cache.IRedisService;
+import org.example.start.base.IntegrationTestBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 自动撮合跳过已参与拼团测试
+ *
+ * <p>
+ * 测试目的：
+ * <ul>
+ * <li>用户已开或已参与的拼团即使排在索引最前面也不会被撮合</li>
+ * <li>候选全部被排除时返回 null（按首次开团处理），不占用任何名额</li>
+ * </ul>
+ *
+ */
+@DisplayName("自动撮合跳过已参与拼团测试")
+public class AutoMatchExcludeJoinedTest extends IntegrationTestBase {
+
+    private static final String ACTIVITY_ID = "ACT_AUTO_MATCH_EXCLUDE";
+    private static final List<String> ORDER_IDS = List.of("TEAM_JOINED", "TEAM_OTHER");
+
+    @Autowired
+    private TradeOrderRepository tradeOrderRepository;
+
+    @Autowired
+    private IOpenTeamIndex openTeamIndex;
+
+    @Autowired
+    private IRedisService redisService;
+
+    @BeforeEach
+    void setUp() {
+        // TEAM_JOINED 锁单比例更高，排在推荐首位
+        openTeamIndex.upsert(ACTIVITY_ID, "TEAM_JOINED", 2, 3, LocalDateTime.now().plusHours(1));
+        openTeamIndex.upsert(ACTIVITY_ID, "TEAM_OTHER", 1, 3, LocalDateTime.now().plusHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (String orderId : ORDER_IDS) {
+            openTeamIndex.remove(orderId);
+            redisService.delete(RedisKeyManager.teamSlotAvailableKey(orderId));
+            redisService.delete(RedisKeyManager.teamSlotKey(orderId) + ":locked");
+        }
+        redisService.delete(RedisKeyManager.openTeamKey(ACTIVITY_ID));
+    }
+
+    @Test
+    @DisplayName("跳过用户已参与的拼团")
+    void occupy_shouldSkipJoinedTeam() {
+        for (int i = 0; i < 10; i++) {
+            String matched = tradeOrderRepository.occupyBestTeamSlot(ACTIVITY_ID, 3, 30, Set.of("TEAM_JOINED"));
+            assertThat(matched).isEqualTo("TEAM_OTHER");
+            tradeOrderRepository.recoveryTeamSlot(RedisKeyManager.teamSlotKey(matched), 30);
+        }
+        assertThat(redisService.exists(RedisKeyManager.teamSlotAvailableKey("TEAM_JOINED"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("候选全部被排除时不撮合")
+    void occupy_shouldReturnNullWhenAllExcluded() {
+        String matched = tradeOrderRepository.occupyBestTeamSlot(ACTIVITY_ID, 3, 30, Set.copyOf(ORDER_IDS));
+
+        assertThat(matched).isNull();
+        for (String orderId : ORDER_IDS) {
+            assertThat(redisService.exists(RedisKeyManager.teamSlotAvailableKey(orderId))).isFalse();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.start.trade;
+
+import org.example.common.cache.RedisKeyManager;
+import org.example.domain.service.idempotency.IIdempotencyLedger;
+import org.example.domain.service.idempotency.IdempotencyRecord;
+import org.example.infrastructure.cache.IRedisService;
+import org.example.start.base.IntegrationTestBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 幂等台账测试
+ *
+ * <p>
+ * 测试目的：
+ * <ul>
+ * <li>占位：首个请求 ACQUIRED，相同业务键的后续请求 PROCESSING</li>
+ * <li>等待：处理中的请求完成后返回 COMPLETED 与结果ID；释放后返回 ABSENT；超时返回 PROCESSING</li>
+ * <li>释放：只有占位令牌匹配时才删除，释放后可重新占位；已完成的记录不会被释放</li>
+ * <li>过期：处理中占位（测试配置 1 秒）过期后可重新占位</li>
+ * </ul>
+ *
+ */
+@DisplayName("幂等台账测试")
+@TestPropertySource(properties = "idempotency.processing-ttl-seconds=1")
+public class IdempotencyLedgerTest extends IntegrationTestBase {
+
+    @Autowired
+    private IIdempotencyLedger idempotencyLedger;
+
+    @Autowired
+    private IRedisService redisService;
+
+    private String bizKey;
+
+    @BeforeEach
+    void setUp() {
+        bizKey = "OUT_LEDGER_" + System.nanoTime();
+    }
+
+    @AfterEach
+    void tearDown() {
+        redisService.delete(RedisKeyManager.idempotencyKey(bizKey));
+    }
+
+    @Test
+    @DisplayName("首个请求占位成功，后续请求处理中")
+    void begin_shouldAcquireOnce() {
+        IdempotencyRecord first = idempotencyLedger.begin(bizKey);
+        IdempotencyRecord second = idempotencyLedger.begin(bizKey);
+
+        assertThat(first.state()).isEqualTo(IdempotencyRecord.State.ACQUIRED);
+        assertThat(first.token()).isNotBlank();
+        assertThat(second.state()).isEqualTo(IdempotencyRecord.State.PROCESSING);
+    }
+
+    @Test
+    @DisplayName("等待处理中的请求完成后返回结果")
+    void await_shouldReturnCompletedResult() {
+        assertThat(idempotencyLedger.begin(bizKey).state()).isEqualTo(IdempotencyRecord.State.ACQUIRED);
+
+        CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS)
+                .execute(() -> idempotencyLedger.complete(bizKey, "TRD_LEDGER"));
+        IdempotencyRecord record = idempotencyLedger.await(bizKey, 800);
+
+        assertThat(record.state()).isEqualTo(IdempotencyRecord.State.COMPLETED);
+        assertThat(record.resultId()).isEqualTo("TRD_LEDGER");
+        assertThat(idempotencyLedger.begin(bizKey)).isEqualTo(IdempotencyRecord.completed("TRD_LEDGER"));
+    }
+
+    @Test
+    @DisplayName("等待超时返回处理中，原请求释放后返回不存在")
+    void await_shouldTimeOutThenSeeRelease() {
+        IdempotencyRecord acquired = idempotencyLedger.begin(bizKey);
+
+        assertThat(idempotencyLedger.await(bizKey, 100).state()).isEqualTo(IdempotencyRecord.State.PROCESSING);
+
+        CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS)
+                .execute(() -> idempotencyLedger.release(bizKey, acquired.token()));
+        assertThat(idempotencyLedger.await(bizKey, 800).state()).isEqualTo(IdempotencyRecord.State.ABSENT);
+    }
+
+    @Test
+    @DisplayName("只释放属于自己的占位，已完成的记录不被释放")
+    void release_shouldMatchToken() {
+        IdempotencyRecord acquired = idempotencyLedger.begin(bizKey);
+
+        idempotencyLedger.release(bizKey, "OTHER_TOKEN");
+        assertThat(idempotencyLedger.begin(bizKey).state()).isEqualTo(IdempotencyRecord.State.PROCESSING);
+
+        idempotencyLedger.release(bizKey, acquired.token());
+        IdempotencyRecord reacquired = idempotencyLedger.begin(bizKey);
+        assertThat(reacquired.state()).isEqualTo(IdempotencyRecord.State.ACQUIRED);
+
+        idempotencyLedger.complete(bizKey, "TRD_LEDGER");
+        idempotencyLedger.release(bizKey, reacquired.token());
+        assertThat(idempotencyLedger.begin(bizKey)).isEqualTo(IdempotencyRecord.completed("TRD_LEDGER"));
+    }
+
+    @Test
+    @DisplayName("处理中占位过期后可重新占位")
+    void processing_shouldExpire() throws InterruptedException {
+        assertThat(idempotencyLedger.begin(bizKey).state()).isEqualTo(IdempotencyRecord.State.ACQUIRED);
+
+        Thread.sleep(1200);
+
+        assertThat(idempotencyLedger.begin(bizKey).state()).isEqualTo(IdempotencyRecord.State.ACQUIRED);
+    }
+
+    @Test
+    @DisplayName("作废已完成的记录后可重新占位")
+    void invalidate_shouldAllowReacquire() {
+        idempotencyLedger.complete(bizKey, "TRD_LEDGER");
+
+        idempotencyLedger.invalidate(bizKey);
+
+        assertThat(idempotencyLedger.begin(bizKey).state()).isEqualTo(IdempotencyRecord.State.ACQUIRED);
+    }
+}
@@ -6,7 +6,9 @@ import org.example.start.base.IntegrationTestBase;
 import org.example.application.service.trade.TradeOrderService;
 import org.example.application.service.trade.cmd.LockOrderCmd;
 import org.example.application.service.trade.result.TradeOrderResult;
+import org.example.common.cache.RedisKeyManager;
 import org.example.domain.model.trade.repository.TradeOrderRepository;
+import org.example.infrastructure.cache.IRedisService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,6 +36,7 @@ import static org.assertj.core.api.Assertions.assertThat;
  * 可能发现的 Bug：
  * - 数据库缺少 out_trade_no UNIQUE 约束 → 创建多条重复记录
  * - 幂等性检查有竞态 → 部分请求失败而非返回已有订单
+ * - 幂等台账记录过期/丢失后重复请求报唯一键冲突 → 应返回已有订单且不留下参团次数等副作用
  *
  */
 @Slf4j
@@ -49,6 +52,9 @@ public class TradeOrderServiceIdempotencyTest extends IntegrationTestBase {
         @Autowired
         private JdbcTemplate jdbcTemplate;
 
+        @Autowired
+        private IRedisService redisService;
+
         @Test
         @DisplayName("并发相同 outTradeNo 锁单 - 应只创建一条记录")
         void testConcurrentLockOrderWithSameOutTradeNo() throws InterruptedException {
@@ -170,4 +176,53 @@ public class TradeOrderServiceIdempotencyTest extends IntegrationTestBase {
 
                 log.info("【幂等性测试】顺序重复锁单验证通过：两次请求返回相同 tradeOrderId={}", firstTradeOrderId);
         }
+
+        @Test
+        @DisplayName("幂等台账记录丢失后重复锁单 - 由唯一键兜底返回已有订单")
+        void testDuplicateLockOrderAfterLedgerLost() {
+                String outTradeNo = "OUT_LEDGER_LOST_" + System.currentTimeMillis();
+                String userId = "USER_LEDGER_LOST_" + System.currentTimeMillis();
+
+                LockOrderCmd cmd = LockOrderCmd.builder()
+                                .userId(userId)
+                                .activityId("ACT001")
+                                .skuId("SKU001")
+                                .outTradeNo(outTradeNo)
+                                .orderId(null)
+                                .source("APP")
+                                .channel("iOS")
+                                .originalPrice(new BigDecimal("999.00"))
+                                .deductionPrice(new BigDecimal("200.00"))
+                                .payPrice(new BigDecimal("799.00"))
+                                .build();
+
+                TradeOrderResult firstResult = tradeOrderService.lockOrder(cmd);
+                Integer participationBefore = participationCount(userId);
+
+                // 模拟 24 小时后台账过期或 Redis 丢数据
+                String ledgerKey = RedisKeyManager.idempotencyKey(outTradeNo);
+                redisService.delete(ledgerKey);
+
+                TradeOrderResult secondResult = tradeOrderService.lockOrder(cmd);
+
+                assertThat(secondResult.getTradeOrderId()).isEqualTo(firstResult.getTradeOrderId());
+                Integer count = jdbcTemplate.queryForObject(
+                                "SELECT COUNT(*) FROM trade_order WHERE out_trade_no = ?",
+                                Integer.class,
+                                outTradeNo);
+                assertThat(count).isEqualTo(1);
+                assertThat(participationCount(userId))
+                                .as("重复请求的参团次数扣减随事务回滚")
+                                .isEqualTo(participationBefore);
+                assertThat(redisService.getString(ledgerKey))
+                                .as("台账补写为已完成")
+                                .isEqualTo("D:" + firstResult.getTradeOrderId());
+        }
+
+        private Integer participationCount(String userId) {
+                return jdbcTemplate.queryForObject(
+                                "SELECT participation_count FROM account WHERE user_id = ? AND activity_id = 'ACT001'",
+                                Integer.class,
+                                userId);
+        }
 }
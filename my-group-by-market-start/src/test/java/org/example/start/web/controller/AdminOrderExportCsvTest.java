@@ -0,0 +1,73 @@
+package org.example.start.web.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.application.service.admin.AdminOrderService;
+import org.example.application.service.admin.result.TradeOrderResult;
+import org.example.interfaces.web.assembler.AdminOrderAssembler;
+import org.example.interfaces.web.controller.AdminOrderController;
+import org.example.interfaces.web.dto.admin.AdminTradeOrderResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 交易订单 CSV 导出测试
+ *
+ * <p>
+ * 测试目的：
+ * <ul>
+ * <li>以 = + - @ 开头的文本字段加单引号前缀，Excel 打开时不会当作公式执行</li>
+ * <li>金额等数值字段（含负数）原样输出</li>
+ * </ul>
+ *
+ */
+@DisplayName("交易订单 CSV 导出测试")
+public class AdminOrderExportCsvTest {
+
+    private final AdminOrderService adminOrderService = mock(AdminOrderService.class);
+    private final AdminOrderAssembler adminOrderAssembler = mock(AdminOrderAssembler.class);
+    private final AdminOrderController controller = new AdminOrderController(adminOrderService,
+            adminOrderAssembler, new ObjectMapper());
+
+    @Test
+    @DisplayName("公式起始字符的文本字段加单引号前缀")
+    void export_shouldEscapeFormulaFields() throws Exception {
+        TradeOrderResult result = new TradeOrderResult();
+        when(adminOrderService.exportTradeOrders(isNull(), isNull(), isNull(), isNull(), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<TradeOrderResult> consumer = invocation.getArgument(4);
+                    consumer.accept(result);
+                    return 1L;
+                });
+        when(adminOrderAssembler.toTradeOrderResponse(result)).thenReturn(AdminTradeOrderResponse.builder()
+                .tradeOrderId("TRD_CSV")
+                .userId("@SUM(A1:A9)")
+                .goodsName("=HYPERLINK(\"http://evil\",\"x\")")
+                .source("+cmd")
+                .channel("-1+1")
+                .deductionPrice(new BigDecimal("-20.00"))
+                .build());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.exportOrders("csv", null, null, null, null, response);
+
+        String[] lines = response.getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[1])
+                .startsWith("TRD_CSV,")
+                .contains(",'@SUM(A1:A9),")
+                .contains(",\"'=HYPERLINK(\"\"http://evil\"\",\"\"x\"\")\",")
+                .contains(",'+cmd,'-1+1,")
+                .contains(",-20.00,");
+    }
+}